@@ -0,0 +1,290 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.metrics.Counter;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.elasticsearch.script.Script;
+
+import javax.annotation.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Buffers the actions of the {@link ElasticsearchWriter} by document and keeps only the last index
+ * or delete of every document until the buffer is drained.
+ *
+ * <p>If documents are coalesced, index and delete requests replace the buffered action of their
+ * document, since they determine the complete state of the document. Update requests which upsert a
+ * partial document without a script are merged into the buffered action of their document instead:
+ * into the source of a buffered index request, or into the partial document and the upsert document
+ * of a buffered partial update, so the result is the same as applying both actions. A partial
+ * update following a buffered delete is buffered after passing on the delete, since the update then
+ * creates the document. If a {@link ScriptParamsCombiner} is given, scripted updates of a document
+ * which use the same script are merged into one update by combining their parameters. Scripted
+ * updates with an upsert document are only merged if the upsert document is passed to the script as
+ * well, since the upsert document of the first update would otherwise ignore the later ones.
+ *
+ * <p>All other actions, e.g. create requests or actions with a version, are passed on immediately
+ * after the buffered action of their document, so the order of the actions of a document is
+ * preserved. Actions are passed on in the order in which their documents were first buffered.
+ *
+ * <p>The buffer is not thread-safe and must only be used from the mailbox thread.
+ */
+class ActionCoalescingBuffer {
+
+    private final int capacity;
+    private final boolean coalesceDocuments;
+    @Nullable private final ScriptParamsCombiner scriptParamsCombiner;
+    private final Consumer<DocWriteRequest<?>> downstream;
+    private final Counter numActionsCoalesced;
+    private final Map<DocumentKey, DocWriteRequest<?>> buffer = new LinkedHashMap<>();
+    private long sizeInBytes = 0;
+
+    /**
+     * Creates a new buffer.
+     *
+     * @param capacity number of documents after which the buffer is drained
+     * @param coalesceDocuments whether actions replacing the complete document are coalesced
+     * @param scriptParamsCombiner merging scripted updates of the same document, scripted updates
+     *     are not merged if null
+     * @param downstream receiving the actions which are passed on
+     * @param numActionsCoalesced counting the actions which were replaced by or merged into a later
+     *     action
+     */
+    ActionCoalescingBuffer(
+            int capacity,
+            boolean coalesceDocuments,
+            @Nullable ScriptParamsCombiner scriptParamsCombiner,
+            Consumer<DocWriteRequest<?>> downstream,
+            Counter numActionsCoalesced) {
+        checkArgument(capacity > 0, "Capacity must be larger than 0.");
+        this.capacity = capacity;
+        this.coalesceDocuments = coalesceDocuments;
+        this.scriptParamsCombiner = scriptParamsCombiner;
+        this.downstream = checkNotNull(downstream);
+        this.numActionsCoalesced = checkNotNull(numActionsCoalesced);
+    }
+
+    /** Buffers the action or passes it on if it can not be coalesced. */
+    void add(DocWriteRequest<?> action) {
+        if (action.id() == null) {
+            downstream.accept(action);
+            return;
+        }
+        final DocumentKey key = new DocumentKey(action);
+        final DocWriteRequest<?> buffered = buffer.get(key);
+        if (coalesceDocuments && isReplacing(action)) {
+            if (buffered != null && isCombinable(buffered)) {
+                // the replaced document may not contain the result of the script
+                passOn(key);
+            } else if (buffered != null) {
+                sizeInBytes -= sizeOf(buffered);
+                numActionsCoalesced.inc();
+            }
+            put(key, action);
+        } else if (coalesceDocuments && isPartialUpsert(action)) {
+            final long bufferedSize = sizeOf(buffered);
+            if (buffered != null && merge(buffered, (UpdateRequest) action)) {
+                sizeInBytes += sizeOf(buffered) - bufferedSize;
+                numActionsCoalesced.inc();
+                return;
+            } else if (buffered != null) {
+                passOn(key);
+            }
+            put(key, action);
+        } else if (scriptParamsCombiner != null && isCombinable(action)) {
+            if (buffered != null && hasSameScript(buffered, action)) {
+                final long bufferedSize = sizeOf(buffered);
+                combine((UpdateRequest) buffered, (UpdateRequest) action);
+                sizeInBytes += sizeOf(buffered) - bufferedSize;
+                numActionsCoalesced.inc();
+                return;
+            } else if (buffered != null) {
+                passOn(key);
+            }
+            put(key, action);
+        } else {
+            if (buffered != null) {
+                passOn(key);
+            }
+            downstream.accept(action);
+            return;
+        }
+        if (buffer.size() >= capacity) {
+            drain();
+        }
+    }
+
+    /** Passes on all buffered actions. */
+    void drain() {
+        for (DocWriteRequest<?> action : buffer.values()) {
+            downstream.accept(action);
+        }
+        buffer.clear();
+        sizeInBytes = 0;
+    }
+
+    boolean isEmpty() {
+        return buffer.isEmpty();
+    }
+
+    int size() {
+        return buffer.size();
+    }
+
+    /** Returns the estimated size of the buffered actions in bytes. */
+    long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    private void put(DocumentKey key, DocWriteRequest<?> action) {
+        buffer.put(key, action);
+        sizeInBytes += sizeOf(action);
+    }
+
+    private void passOn(DocumentKey key) {
+        final DocWriteRequest<?> action = buffer.remove(key);
+        sizeInBytes -= sizeOf(action);
+        downstream.accept(action);
+    }
+
+    private static long sizeOf(@Nullable DocWriteRequest<?> action) {
+        return action == null ? 0 : ElasticsearchRequestEntry.estimateSizeInBytes(action);
+    }
+
+    private void combine(UpdateRequest buffered, UpdateRequest action) {
+        final Script script = buffered.script();
+        buffered.script(
+                new Script(
+                        script.getType(),
+                        script.getLang(),
+                        script.getIdOrCode(),
+                        script.getOptions(),
+                        scriptParamsCombiner.combine(
+                                script.getParams(), action.script().getParams())));
+    }
+
+    /**
+     * Merges the partial document of the update into the buffered action of the same document.
+     *
+     * @return whether the buffered action could be merged with the update
+     */
+    private static boolean merge(DocWriteRequest<?> buffered, UpdateRequest update) {
+        if (isReplacing(buffered) && buffered instanceof IndexRequest) {
+            final IndexRequest document = (IndexRequest) buffered;
+            if (document.getPipeline() != null) {
+                // the pipeline may change the fields of the update
+                return false;
+            }
+            document.source(mergeSource(document, update.doc()), XContentType.JSON);
+            return true;
+        }
+        if (isPartialUpsert(buffered)) {
+            final UpdateRequest first = (UpdateRequest) buffered;
+            if (first.retryOnConflict() != update.retryOnConflict()
+                    || first.detectNoop() != update.detectNoop()) {
+                return false;
+            }
+            // the upsert document of the first update is updated by the second one
+            if (first.upsertRequest() != null) {
+                first.upsert(mergeSource(first.upsertRequest(), update.doc()), XContentType.JSON);
+            }
+            first.doc(mergeSource(first.doc(), update.doc()), XContentType.JSON);
+            return true;
+        }
+        return false;
+    }
+
+    /** Applies the partial document to the source like Elasticsearch applies an update. */
+    private static Map<String, Object> mergeSource(IndexRequest document, IndexRequest partial) {
+        final Map<String, Object> source =
+                XContentHelper.convertToMap(document.source(), true, document.getContentType())
+                        .v2();
+        XContentHelper.update(
+                source,
+                XContentHelper.convertToMap(partial.source(), false, partial.getContentType()).v2(),
+                false);
+        return source;
+    }
+
+    private static boolean isReplacing(DocWriteRequest<?> action) {
+        if (!isUnversioned(action)) {
+            return false;
+        }
+        return action instanceof DeleteRequest
+                || (action instanceof IndexRequest
+                        && action.opType() == DocWriteRequest.OpType.INDEX);
+    }
+
+    private static boolean isPartialUpsert(DocWriteRequest<?> action) {
+        if (!isUnversioned(action) || !(action instanceof UpdateRequest)) {
+            return false;
+        }
+        final UpdateRequest update = (UpdateRequest) action;
+        return update.script() == null
+                && update.doc() != null
+                && (update.upsertRequest() != null || update.docAsUpsert());
+    }
+
+    private static boolean isCombinable(DocWriteRequest<?> action) {
+        if (!isUnversioned(action) || !(action instanceof UpdateRequest)) {
+            return false;
+        }
+        final UpdateRequest update = (UpdateRequest) action;
+        return update.script() != null
+                && update.doc() == null
+                && (update.upsertRequest() == null || update.scriptedUpsert());
+    }
+
+    private static boolean hasSameScript(DocWriteRequest<?> buffered, DocWriteRequest<?> action) {
+        if (!isCombinable(buffered)) {
+            return false;
+        }
+        final UpdateRequest first = (UpdateRequest) buffered;
+        final UpdateRequest second = (UpdateRequest) action;
+        final Script firstScript = first.script();
+        final Script secondScript = second.script();
+        return firstScript.getType() == secondScript.getType()
+                && Objects.equals(firstScript.getLang(), secondScript.getLang())
+                && firstScript.getIdOrCode().equals(secondScript.getIdOrCode())
+                && Objects.equals(firstScript.getOptions(), secondScript.getOptions())
+                && first.scriptedUpsert() == second.scriptedUpsert()
+                && first.retryOnConflict() == second.retryOnConflict();
+    }
+
+    private static boolean isUnversioned(DocWriteRequest<?> action) {
+        return action.version() == Versions.MATCH_ANY
+                && action.ifSeqNo() == SequenceNumbers.UNASSIGNED_SEQ_NO;
+    }
+}
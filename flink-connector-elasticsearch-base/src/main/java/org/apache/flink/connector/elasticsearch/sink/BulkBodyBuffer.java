@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.Internal;
+
+import org.apache.http.entity.ContentType;
+import org.apache.http.nio.entity.NByteArrayEntity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable buffer holding the body of a bulk request. The buffer is reused for subsequent bulk
+ * requests, so its backing array is only allocated once it has grown to the size of the largest
+ * bulk request.
+ */
+@Internal
+class BulkBodyBuffer extends OutputStream {
+
+    private static final ContentType NDJSON = ContentType.create("application/x-ndjson");
+
+    private byte[] buffer;
+    private int count;
+
+    BulkBodyBuffer(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    @Override
+    public void write(int b) {
+        ensureCapacity(count + 1);
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensureCapacity(count + len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    /** Writes the string, which must only contain ASCII characters. */
+    void writeAscii(String s) {
+        final int length = s.length();
+        ensureCapacity(count + length);
+        for (int i = 0; i < length; i++) {
+            buffer[count++] = (byte) s.charAt(i);
+        }
+    }
+
+    int size() {
+        return count;
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    void reset() {
+        count = 0;
+    }
+
+    /** Writes the written bytes to the given stream. */
+    void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, count);
+    }
+
+    /** Returns an entity backed by the buffer, which must not be modified until it is sent. */
+    NByteArrayEntity toEntity() {
+        return new NByteArrayEntity(buffer, 0, count, NDJSON);
+    }
+
+    /** Returns a copy of the written bytes. */
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, count);
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(minCapacity, buffer.length * 2));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.PublicEvolving;
+
+import org.elasticsearch.action.DocWriteRequest;
+
+import java.io.Serializable;
+
+/**
+ * An implementation of {@link BulkItemFailureHandler} is provided by the user to decide how failed
+ * actions of a bulk request are handled by the {@link ElasticsearchSink}, e.g. retrying them if the
+ * failure is only temporary, dropping malformed documents or routing them to a {@link
+ * DeadLetterQueue}.
+ *
+ * <p>The handler is only invoked for failures which are not retried by the item retry strategy of
+ * the sink, see {@link ElasticsearchSinkBuilderBase#setItemRetryStrategy}.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * private static class ExampleFailureHandler implements BulkItemFailureHandler {
+ *
+ *     @Override
+ *     public Decision onFailure(DocWriteRequest<?> action, Throwable failure, int restStatusCode) {
+ *         if (restStatusCode == 429) {
+ *             // full queue; re-add document for indexing
+ *             return Decision.RETRY;
+ *         } else if (restStatusCode == 400) {
+ *             // malformed document; keep it for later inspection without failing the sink
+ *             return Decision.DEAD_LETTER;
+ *         }
+ *         return Decision.FAIL;
+ *     }
+ * }
+ * }</pre>
+ */
+@PublicEvolving
+@FunctionalInterface
+public interface BulkItemFailureHandler extends Serializable {
+
+    /**
+     * Decides how a failed action is handled.
+     *
+     * @param action the action that failed
+     * @param failure the cause of the failure
+     * @param restStatusCode the REST status code of the failure (-1 if none can be retrieved)
+     * @return the decision how to handle the failed action
+     */
+    Decision onFailure(DocWriteRequest<?> action, Throwable failure, int restStatusCode);
+
+    /** Describes how a failed action is handled. */
+    @PublicEvolving
+    enum Decision {
+        /** The action is added again to the next bulk request after the configured backoff. */
+        RETRY,
+        /** The action is dropped. */
+        DROP,
+        /** The action is handed to the configured {@link DeadLetterQueue}. */
+        DEAD_LETTER,
+        /** The sink fails. */
+        FAIL,
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import java.io.Serializable;
+import java.util.Set;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Describes which failed actions of a bulk request are retried by the {@link ElasticsearchWriter}.
+ */
+class BulkItemRetryConfig implements Serializable {
+
+    private final FlushBackoffType backoffType;
+    private final int maxRetries;
+    private final long delayMillis;
+    private final Set<Integer> retryableStatuses;
+
+    BulkItemRetryConfig(
+            FlushBackoffType backoffType,
+            int maxRetries,
+            long delayMillis,
+            Set<Integer> retryableStatuses) {
+        this.backoffType = checkNotNull(backoffType);
+        this.maxRetries = maxRetries;
+        this.delayMillis = delayMillis;
+        this.retryableStatuses = checkNotNull(retryableStatuses);
+    }
+
+    public FlushBackoffType getBackoffType() {
+        return backoffType;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getDelayMillis() {
+        return delayMillis;
+    }
+
+    public Set<Integer> getRetryableStatuses() {
+        return retryableStatuses;
+    }
+
+    /** Returns whether any failed action may be retried. */
+    public boolean canRetry() {
+        return backoffType != FlushBackoffType.NONE
+                && maxRetries > 0
+                && !retryableStatuses.isEmpty();
+    }
+
+    /** Returns whether a failed action with the given status is retried. */
+    public boolean isRetryable(int status, int attempt) {
+        return backoffType != FlushBackoffType.NONE
+                && attempt <= maxRetries
+                && retryableStatuses.contains(status);
+    }
+
+    /**
+     * Returns the delay before the given retry attempt, starting with 1. The exponential delays
+     * follow Elasticsearch's {@code BackoffPolicy#exponentialBackoff}.
+     */
+    public long getRetryDelay(int attempt) {
+        switch (backoffType) {
+            case CONSTANT:
+                return delayMillis;
+            case EXPONENTIAL:
+                return delayMillis + 10L * ((int) Math.exp(0.8d * (attempt - 1)) - 1);
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Swaps an alias from the indices it points to over to a newly loaded index.
+ *
+ * <p>Readers search the alias while a new generation of its data is loaded into a separate index.
+ * Once the load is complete, the alias is moved to the new index with a single request to the
+ * aliases API, so readers either see the previous or the new generation, but never a partial one.
+ * The records are written to the new index through a write alias, so the name of the new index only
+ * has to be known when the load starts.
+ */
+class BulkLoadAlias {
+
+    private final RestClient restClient;
+
+    BulkLoadAlias(RestClient restClient) {
+        this.restClient = checkNotNull(restClient);
+    }
+
+    /** Returns whether an index or an alias with the given name exists. */
+    boolean exists(String name) throws IOException {
+        // the client does not fail on a 404 response to a HEAD request
+        return restClient
+                        .performRequest(new Request("HEAD", "/" + name))
+                        .getStatusLine()
+                        .getStatusCode()
+                == 200;
+    }
+
+    /** Returns the indices the alias points to, which are none if the alias does not exist. */
+    List<String> getIndices(String alias) throws IOException {
+        final Request request = new Request("GET", "/_alias/" + alias);
+        request.addParameter("ignore", "404");
+        final Response response = restClient.performRequest(request);
+        if (response.getStatusLine().getStatusCode() == 404) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(BulkLoadIndexSettings.parse(response).keySet());
+    }
+
+    /** Creates an index with the settings of the index templates which match its name. */
+    void createIndex(String index) throws IOException {
+        restClient.performRequest(new Request("PUT", "/" + index));
+    }
+
+    /**
+     * Returns the indices whose names match the given wildcard pattern, which are none if no index
+     * matches.
+     */
+    List<String> getMatchingIndices(String pattern) throws IOException {
+        final Request request = new Request("GET", "/" + pattern + "/_settings");
+        request.addParameter("allow_no_indices", "true");
+        return new ArrayList<>(
+                BulkLoadIndexSettings.parse(restClient.performRequest(request)).keySet());
+    }
+
+    /**
+     * Atomically removes the alias from the given previous indices and adds it to the new index.
+     */
+    void swap(String alias, Collection<String> previousIndices, String index) throws IOException {
+        update(alias, previousIndices, index, null);
+    }
+
+    /**
+     * Atomically removes the alias from the given previous indices and adds it to the new index,
+     * and removes the write alias from the new index.
+     */
+    void swap(String alias, Collection<String> previousIndices, String index, String writeAlias)
+            throws IOException {
+        update(alias, previousIndices, index, checkNotNull(writeAlias));
+    }
+
+    private void update(
+            String alias,
+            Collection<String> previousIndices,
+            String index,
+            @Nullable String removedAlias)
+            throws IOException {
+        final XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+        builder.startArray("actions");
+        for (String previousIndex : previousIndices) {
+            addAction(builder, "remove", previousIndex, alias);
+        }
+        addAction(builder, "add", index, alias);
+        if (removedAlias != null) {
+            addAction(builder, "remove", index, removedAlias);
+        }
+        builder.endArray().endObject();
+
+        final Request request = new Request("POST", "/_aliases");
+        request.setJsonEntity(Strings.toString(builder));
+        restClient.performRequest(request);
+    }
+
+    private static void addAction(XContentBuilder builder, String type, String index, String alias)
+            throws IOException {
+        builder.startObject()
+                .startObject(type)
+                .field("index", index)
+                .field("alias", alias)
+                .endObject()
+                .endObject();
+    }
+
+    /** Deletes the given indices. */
+    void delete(Collection<String> indices) throws IOException {
+        restClient.performRequest(new Request("DELETE", "/" + String.join(",", indices)));
+    }
+}
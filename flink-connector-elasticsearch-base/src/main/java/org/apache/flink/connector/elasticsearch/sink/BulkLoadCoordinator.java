@@ -0,0 +1,540 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.runtime.jobgraph.OperatorID;
+import org.apache.flink.runtime.operators.coordination.CoordinatorStore;
+import org.apache.flink.runtime.operators.coordination.OperatorCoordinator;
+import org.apache.flink.runtime.operators.coordination.OperatorEvent;
+import org.apache.flink.runtime.operators.coordination.RecreateOnResetOperatorCoordinator;
+import org.apache.flink.util.ExecutorUtils;
+import org.apache.flink.util.FlinkRuntimeException;
+import org.apache.flink.util.InstantiationUtil;
+import org.apache.flink.util.SerializedThrowable;
+import org.apache.flink.util.concurrent.ExecutorThreadFactory;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Coordinates a bulk load of an {@link ElasticsearchBulkLoadSink} on the JobManager.
+ *
+ * <p>Once started, the coordinator reads the settings of the loaded indices and suspends their
+ * refreshes and replicas, see {@link BulkLoadIndexSettings}. The {@link BulkLoadGateOperator} in
+ * front of every writer holds back the records until then: the coordinator completes a future in
+ * the {@link CoordinatorStore} of the job, which the {@link BulkLoadGateCoordinator} waits for. If
+ * the settings can not be suspended, the job fails. The original settings are part of the
+ * checkpoints of the coordinator, so they are not lost if the JobManager fails over while the
+ * indices are suspended. Without a checkpoint, e.g. in batch jobs, the original settings are read
+ * from the record which was written to the index before it was suspended, so suspended settings are
+ * never taken for the original ones. An index which is found without refreshes and replicas but
+ * without such a record runs like this on purpose and keeps its settings. Once the {@link
+ * BulkLoadFinishOperator} has seen the end of the input of all writers, it sends a {@link
+ * BulkLoadFinishedEvent} and the coordinator restores the original settings. It answers with a
+ * {@link BulkLoadCompletedEvent}, so the job only finishes successfully once the settings are
+ * restored. If the job fails or is cancelled instead, the settings are restored when the
+ * coordinator is closed.
+ *
+ * <p>If an alias is given, the records are loaded into a new generation of the data behind the
+ * alias, see {@link BulkLoadAlias}. The single given index is then a write alias, which the writers
+ * write to. When the coordinator starts for the first time, it creates a new index named after the
+ * alias and the current time, and points the write alias to it before the writers are released. The
+ * name of the index is part of the checkpoints of the coordinator, so a restored coordinator
+ * continues to load the same index. After the settings are restored, the alias is swapped over to
+ * the new index and the write alias is removed in a single request. The previous indices of the
+ * alias and the generations left behind by loads which did not finish are deleted afterwards if
+ * configured, and are kept otherwise. The alias is not touched if the load does not finish, and the
+ * partially loaded index is kept.
+ *
+ * <p>All requests to Elasticsearch are sent from a single thread of the coordinator, so they are
+ * executed in order and never block the JobManager.
+ */
+class BulkLoadCoordinator implements OperatorCoordinator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkLoadCoordinator.class);
+
+    /** Time to wait on close for the requests of the coordinator, e.g. to restore the settings. */
+    private static final long CLOSE_TIMEOUT_SECONDS = 60;
+
+    /** Suffix of the index names of the generations of an alias, which sort by their time. */
+    private static final DateTimeFormatter GENERATION_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS").withZone(ZoneOffset.UTC);
+
+    private final String operatorName;
+    private final String preparedKey;
+    private final Context context;
+    private final List<HttpHost> hosts;
+    private final NetworkClientConfig networkClientConfig;
+    private final List<String> indices;
+    @Nullable private final String alias;
+    private final boolean deletePreviousIndices;
+    private final ExecutorService executor;
+
+    // the fields below are only accessed by the executor after the coordinator is started
+
+    @Nullable private RestHighLevelClient client;
+    @Nullable private String generation;
+    @Nullable private HashMap<String, HashMap<String, String>> originalSettings;
+    private boolean suspended;
+    private boolean finished;
+    @Nullable private SubtaskGateway finisherGateway;
+
+    BulkLoadCoordinator(
+            String operatorName,
+            String preparedKey,
+            Context context,
+            List<HttpHost> hosts,
+            NetworkClientConfig networkClientConfig,
+            List<String> indices,
+            @Nullable String alias,
+            boolean deletePreviousIndices) {
+        this.operatorName = checkNotNull(operatorName);
+        this.preparedKey = checkNotNull(preparedKey);
+        this.context = checkNotNull(context);
+        this.hosts = checkNotNull(hosts);
+        this.networkClientConfig = checkNotNull(networkClientConfig);
+        this.indices = checkNotNull(indices);
+        checkArgument(
+                alias == null || indices.size() == 1,
+                "An alias can only be swapped through a single write alias.");
+        this.alias = alias;
+        this.deletePreviousIndices = deletePreviousIndices;
+        this.executor =
+                Executors.newSingleThreadExecutor(
+                        new ExecutorThreadFactory("bulk-load-coordinator-" + operatorName));
+    }
+
+    @Override
+    public void start() {
+        // a future completed by a previous attempt of the coordinator is replaced, so the gates of
+        // the writers wait until this attempt has prepared the indices
+        final CompletableFuture<Void> prepared =
+                getPreparedFuture(
+                        context.getCoordinatorStore(),
+                        preparedKey,
+                        future -> future == null || future.isDone());
+        executor.execute(
+                () -> {
+                    try {
+                        if (alias != null) {
+                            createGeneration();
+                        }
+                        suspend();
+                        prepared.complete(null);
+                    } catch (Throwable t) {
+                        // the writers stay held back by their gates until the job is restarted
+                        context.failJob(
+                                new FlinkRuntimeException(
+                                        "Failed to prepare the indices "
+                                                + indices
+                                                + " for the bulk load.",
+                                        t));
+                    }
+                });
+    }
+
+    /**
+     * Returns the future in the store which is completed once the indices of the bulk load with the
+     * given key are prepared, and creates it if the given condition holds for the current one.
+     */
+    @SuppressWarnings("unchecked")
+    static CompletableFuture<Void> getPreparedFuture(
+            CoordinatorStore store,
+            String preparedKey,
+            Predicate<CompletableFuture<Void>> replaceCondition) {
+        return (CompletableFuture<Void>)
+                store.compute(
+                        preparedKey,
+                        (key, value) ->
+                                replaceCondition.test((CompletableFuture<Void>) value)
+                                        ? new CompletableFuture<Void>()
+                                        : value);
+    }
+
+    @Override
+    public void close() throws Exception {
+        executor.execute(
+                () -> {
+                    try {
+                        restore();
+                    } catch (Exception e) {
+                        LOG.error(
+                                "Failed to restore the settings {} of the bulk loaded indices.",
+                                originalSettings,
+                                e);
+                    }
+                    if (alias != null && !finished) {
+                        LOG.warn(
+                                "The bulk load into index {} did not finish, alias {} still "
+                                        + "points to its previous indices.",
+                                generation,
+                                alias);
+                    }
+                });
+        ExecutorUtils.gracefulShutdown(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS, executor);
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Override
+    public void handleEventFromOperator(int subtask, int attemptNumber, OperatorEvent event) {
+        if (!(event instanceof BulkLoadFinishedEvent)) {
+            throw new FlinkRuntimeException("Unexpected operator event " + event);
+        }
+        executor.execute(
+                () -> {
+                    BulkLoadCompletedEvent completedEvent;
+                    try {
+                        finish();
+                        completedEvent = new BulkLoadCompletedEvent(null);
+                    } catch (Exception e) {
+                        completedEvent =
+                                new BulkLoadCompletedEvent(
+                                        new SerializedThrowable(
+                                                new FlinkRuntimeException(
+                                                        "Failed to finish the bulk load of indices "
+                                                                + indices
+                                                                + ".",
+                                                        e)));
+                    }
+                    if (finisherGateway != null) {
+                        finisherGateway.sendEvent(completedEvent);
+                    } else if (completedEvent.getFailure() != null) {
+                        context.failJob(completedEvent.getFailure());
+                    }
+                });
+    }
+
+    @Override
+    public void checkpointCoordinator(long checkpointId, CompletableFuture<byte[]> resultFuture) {
+        executor.execute(
+                () -> {
+                    try {
+                        resultFuture.complete(
+                                InstantiationUtil.serializeObject(
+                                        new CoordinatorState(generation, originalSettings)));
+                    } catch (Exception e) {
+                        resultFuture.completeExceptionally(e);
+                    }
+                });
+    }
+
+    @Override
+    public void resetToCheckpoint(long checkpointId, @Nullable byte[] checkpointData)
+            throws Exception {
+        // the coordinator is recreated on a reset, so this is called before it is started
+        if (checkpointData != null) {
+            final CoordinatorState state =
+                    InstantiationUtil.deserializeObject(
+                            checkpointData, context.getUserCodeClassloader());
+            generation = state.generation;
+            originalSettings = state.originalSettings;
+        }
+    }
+
+    @Override
+    public void notifyCheckpointComplete(long checkpointId) {}
+
+    @Override
+    public void subtaskReset(int subtask, long checkpointId) {}
+
+    @Override
+    public void executionAttemptFailed(
+            int subtask, int attemptNumber, @Nullable Throwable reason) {}
+
+    @Override
+    public void executionAttemptReady(int subtask, int attemptNumber, SubtaskGateway gateway) {
+        // the finisher has a parallelism of 1, a new attempt replaces a failed one
+        executor.execute(() -> finisherGateway = gateway);
+    }
+
+    private void createGeneration() throws IOException {
+        final BulkLoadAlias aliases = getAlias();
+        final String writeAlias = indices.get(0);
+        for (String name : Arrays.asList(alias, writeAlias)) {
+            if (aliases.getIndices(name).isEmpty() && aliases.exists(name)) {
+                throw new IllegalStateException(
+                        "Cannot swap "
+                                + name
+                                + " to a new index, because an index with this name exists.");
+            }
+        }
+        // a coordinator restored from a checkpoint continues to load the index of its generation
+        if (generation == null) {
+            generation = alias + "-" + GENERATION_FORMATTER.format(Instant.now());
+        }
+        if (!aliases.exists(generation)) {
+            LOG.info("Creating index {} as new generation of alias {}.", generation, alias);
+            aliases.createIndex(generation);
+        }
+        // the write alias may still point to the generation of a load which did not finish
+        final List<String> previousIndices = aliases.getIndices(writeAlias);
+        previousIndices.remove(generation);
+        LOG.info("Pointing write alias {} to index {}.", writeAlias, generation);
+        aliases.swap(writeAlias, previousIndices, generation);
+    }
+
+    private void suspend() throws IOException {
+        final BulkLoadIndexSettings settings = getSettings();
+        // settings restored from a checkpoint are kept, the indices may still be suspended
+        if (originalSettings == null) {
+            originalSettings = settings.get(getLoadedIndices());
+            final Map<String, HashMap<String, String>> recordedSettings =
+                    settings.getRecorded(originalSettings.keySet());
+            for (Map.Entry<String, HashMap<String, String>> index : originalSettings.entrySet()) {
+                final HashMap<String, String> recorded = recordedSettings.get(index.getKey());
+                if (recorded != null) {
+                    LOG.info(
+                            "Index {} was suspended by a previous attempt of the bulk load, its "
+                                    + "recorded original settings {} are restored after the load.",
+                            index.getKey(),
+                            recorded);
+                    index.setValue(recorded);
+                } else if (BulkLoadIndexSettings.isSuspended(index.getValue())) {
+                    LOG.warn(
+                            "Index {} has neither refreshes nor replicas, but no original "
+                                    + "settings were recorded by a bulk load. Its settings are "
+                                    + "left as they are after the load.",
+                            index.getKey());
+                }
+            }
+        }
+        if (originalSettings.isEmpty()) {
+            LOG.warn(
+                    "None of the indices {} exists, the settings of indices which are created "
+                            + "during the bulk load are not suspended.",
+                    getLoadedIndices());
+            return;
+        }
+        LOG.info(
+                "Suspending the refreshes and replicas of indices {} for the bulk load of {}.",
+                originalSettings.keySet(),
+                operatorName);
+        suspended = true;
+        settings.suspend(originalSettings);
+    }
+
+    private void finish() throws IOException {
+        restore();
+        if (alias != null) {
+            swapAlias();
+        }
+        finished = true;
+    }
+
+    private void swapAlias() throws IOException {
+        final BulkLoadAlias aliases = getAlias();
+        final List<String> previousIndices = aliases.getIndices(alias);
+        previousIndices.remove(generation);
+        LOG.info(
+                "Swapping alias {} from indices {} to index {}.",
+                alias,
+                previousIndices,
+                generation);
+        aliases.swap(alias, previousIndices, generation, indices.get(0));
+
+        // generations of loads which did not finish were never pointed to by the alias
+        final List<String> leftoverGenerations = new ArrayList<>();
+        for (String index : aliases.getMatchingIndices(alias + "-*")) {
+            if (isGeneration(index) && !index.equals(generation)) {
+                leftoverGenerations.add(index);
+            }
+        }
+        leftoverGenerations.removeAll(previousIndices);
+        if (deletePreviousIndices) {
+            final List<String> deletedIndices = new ArrayList<>(previousIndices);
+            deletedIndices.addAll(leftoverGenerations);
+            if (!deletedIndices.isEmpty()) {
+                LOG.info(
+                        "Deleting the previous indices {} and the leftover generations {} of "
+                                + "alias {}.",
+                        previousIndices,
+                        leftoverGenerations,
+                        alias);
+                aliases.delete(deletedIndices);
+            }
+        } else if (!leftoverGenerations.isEmpty()) {
+            LOG.warn(
+                    "Keeping the generations {} of alias {}, which were left behind by loads "
+                            + "which did not finish.",
+                    leftoverGenerations,
+                    alias);
+        }
+    }
+
+    private boolean isGeneration(String index) {
+        final String suffix = index.substring(alias.length() + 1);
+        if (suffix.length() != GENERATION_FORMATTER.format(Instant.EPOCH).length()) {
+            return false;
+        }
+        for (int i = 0; i < suffix.length(); i++) {
+            if (!Character.isDigit(suffix.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private List<String> getLoadedIndices() {
+        return alias != null ? Collections.singletonList(generation) : indices;
+    }
+
+    private void restore() throws IOException {
+        if (!suspended) {
+            return;
+        }
+        LOG.info("Restoring the settings {} of the bulk loaded indices.", originalSettings);
+        getSettings().restore(originalSettings);
+        suspended = false;
+    }
+
+    private BulkLoadIndexSettings getSettings() {
+        return new BulkLoadIndexSettings(getClient().getLowLevelClient());
+    }
+
+    private BulkLoadAlias getAlias() {
+        return new BulkLoadAlias(getClient().getLowLevelClient());
+    }
+
+    private RestHighLevelClient getClient() {
+        if (client == null) {
+            client = ElasticsearchWriter.createClient(hosts, networkClientConfig, false);
+        }
+        return client;
+    }
+
+    /** State of the coordinator in its checkpoints. */
+    private static class CoordinatorState implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        @Nullable private final String generation;
+        @Nullable private final HashMap<String, HashMap<String, String>> originalSettings;
+
+        private CoordinatorState(
+                @Nullable String generation,
+                @Nullable HashMap<String, HashMap<String, String>> originalSettings) {
+            this.generation = generation;
+            this.originalSettings = originalSettings;
+        }
+    }
+
+    /** Sent by the {@link BulkLoadFinishOperator} when the input of all writers has ended. */
+    static class BulkLoadFinishedEvent implements OperatorEvent {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String toString() {
+            return "BulkLoadFinishedEvent";
+        }
+    }
+
+    /**
+     * Sent to the {@link BulkLoadFinishOperator} once a bulk load is finished, with the failure if
+     * it could not be finished.
+     */
+    static class BulkLoadCompletedEvent implements OperatorEvent {
+        private static final long serialVersionUID = 1L;
+
+        @Nullable private final SerializedThrowable failure;
+
+        BulkLoadCompletedEvent(@Nullable SerializedThrowable failure) {
+            this.failure = failure;
+        }
+
+        @Nullable
+        SerializedThrowable getFailure() {
+            return failure;
+        }
+
+        @Override
+        public String toString() {
+            return "BulkLoadCompletedEvent{failure=" + failure + '}';
+        }
+    }
+
+    /** Provider of the {@link BulkLoadCoordinator}. */
+    static class Provider extends RecreateOnResetOperatorCoordinator.Provider {
+        private static final long serialVersionUID = 1L;
+
+        private final String operatorName;
+        private final String preparedKey;
+        private final List<HttpHost> hosts;
+        private final NetworkClientConfig networkClientConfig;
+        private final List<String> indices;
+        @Nullable private final String alias;
+        private final boolean deletePreviousIndices;
+
+        Provider(
+                OperatorID operatorId,
+                String operatorName,
+                String preparedKey,
+                List<HttpHost> hosts,
+                NetworkClientConfig networkClientConfig,
+                List<String> indices,
+                @Nullable String alias,
+                boolean deletePreviousIndices) {
+            super(operatorId);
+            this.operatorName = checkNotNull(operatorName);
+            this.preparedKey = checkNotNull(preparedKey);
+            this.hosts = new ArrayList<>(hosts);
+            this.networkClientConfig = checkNotNull(networkClientConfig);
+            this.indices = new ArrayList<>(indices);
+            this.alias = alias;
+            this.deletePreviousIndices = deletePreviousIndices;
+        }
+
+        @Override
+        protected OperatorCoordinator getCoordinator(Context context) {
+            return new BulkLoadCoordinator(
+                    operatorName,
+                    preparedKey,
+                    context,
+                    hosts,
+                    networkClientConfig,
+                    indices,
+                    alias,
+                    deletePreviousIndices);
+        }
+    }
+}
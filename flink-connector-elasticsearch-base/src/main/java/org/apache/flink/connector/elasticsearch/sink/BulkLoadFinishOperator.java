@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.api.common.operators.MailboxExecutor;
+import org.apache.flink.runtime.operators.coordination.OperatorEvent;
+import org.apache.flink.runtime.operators.coordination.OperatorEventGateway;
+import org.apache.flink.runtime.operators.coordination.OperatorEventHandler;
+import org.apache.flink.streaming.api.connector.sink2.CommittableMessage;
+import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
+import org.apache.flink.streaming.api.operators.BoundedOneInput;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.util.FlinkRuntimeException;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Finishes a bulk load of an {@link ElasticsearchBulkLoadSink}. The operator runs with a
+ * parallelism of 1 after the committers of the sink, so its input ends once all writers have
+ * flushed their actions at the end of their input. It then refreshes the loaded indices, merges
+ * their segments if configured and notifies the {@link BulkLoadCoordinator}, which restores the
+ * original settings of the indices and swaps their alias if configured. The input only ends once
+ * the coordinator has answered, so the job fails if the load can not be finished.
+ */
+class BulkLoadFinishOperator extends AbstractStreamOperator<Void>
+        implements OneInputStreamOperator<CommittableMessage<Void>, Void>,
+                BoundedOneInput,
+                OperatorEventHandler {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkLoadFinishOperator.class);
+
+    private final List<HttpHost> hosts;
+    private final NetworkClientConfig networkClientConfig;
+    private final List<String> indices;
+    private final int forceMergeMaxNumSegments;
+    private final OperatorEventGateway operatorEventGateway;
+    private final MailboxExecutor mailboxExecutor;
+
+    private transient RestHighLevelClient client;
+    @Nullable private transient BulkLoadCoordinator.BulkLoadCompletedEvent completedEvent;
+
+    BulkLoadFinishOperator(
+            List<HttpHost> hosts,
+            NetworkClientConfig networkClientConfig,
+            List<String> indices,
+            int forceMergeMaxNumSegments,
+            OperatorEventGateway operatorEventGateway,
+            MailboxExecutor mailboxExecutor) {
+        this.hosts = checkNotNull(hosts);
+        this.networkClientConfig = checkNotNull(networkClientConfig);
+        this.indices = checkNotNull(indices);
+        this.forceMergeMaxNumSegments = forceMergeMaxNumSegments;
+        this.operatorEventGateway = checkNotNull(operatorEventGateway);
+        this.mailboxExecutor = checkNotNull(mailboxExecutor);
+    }
+
+    @Override
+    public void open() throws Exception {
+        super.open();
+        client = ElasticsearchWriter.createClient(hosts, networkClientConfig, false);
+    }
+
+    @Override
+    public void processElement(StreamRecord<CommittableMessage<Void>> element) {
+        // the sink has no committables, only the end of the input matters
+    }
+
+    @Override
+    public void endInput() throws Exception {
+        final BulkLoadIndexSettings settings =
+                new BulkLoadIndexSettings(client.getLowLevelClient());
+        LOG.info("Refreshing the bulk loaded indices {}.", indices);
+        settings.refresh(indices);
+        if (forceMergeMaxNumSegments > 0) {
+            // merged before the replicas are restored, so they copy the merged segments
+            LOG.info(
+                    "Merging the bulk loaded indices {} to {} segments.",
+                    indices,
+                    forceMergeMaxNumSegments);
+            settings.forceMerge(indices, forceMergeMaxNumSegments);
+        }
+        operatorEventGateway.sendEventToCoordinator(
+                new BulkLoadCoordinator.BulkLoadFinishedEvent());
+        // the answer of the coordinator is delivered through the mailbox
+        while (completedEvent == null) {
+            mailboxExecutor.yield();
+        }
+        if (completedEvent.getFailure() != null) {
+            throw new FlinkRuntimeException(
+                    "The bulk load of indices " + indices + " could not be finished.",
+                    completedEvent.getFailure());
+        }
+    }
+
+    @Override
+    public void handleOperatorEvent(OperatorEvent event) {
+        if (!(event instanceof BulkLoadCoordinator.BulkLoadCompletedEvent)) {
+            throw new FlinkRuntimeException("Unexpected operator event " + event);
+        }
+        completedEvent = (BulkLoadCoordinator.BulkLoadCompletedEvent) event;
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            super.close();
+        } finally {
+            if (client != null) {
+                client.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.runtime.jobgraph.OperatorID;
+import org.apache.flink.runtime.operators.coordination.OperatorCoordinator;
+import org.apache.flink.streaming.api.connector.sink2.CommittableMessage;
+import org.apache.flink.streaming.api.operators.AbstractStreamOperatorFactory;
+import org.apache.flink.streaming.api.operators.CoordinatedOperatorFactory;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperatorFactory;
+import org.apache.flink.streaming.api.operators.StreamOperator;
+import org.apache.flink.streaming.api.operators.StreamOperatorParameters;
+import org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox;
+
+import org.apache.http.HttpHost;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Factory of the {@link BulkLoadFinishOperator}, which attaches the {@link BulkLoadCoordinator} to
+ * the operator.
+ */
+class BulkLoadFinishOperatorFactory extends AbstractStreamOperatorFactory<Void>
+        implements CoordinatedOperatorFactory<Void>,
+                OneInputStreamOperatorFactory<CommittableMessage<Void>, Void> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String preparedKey;
+    private final List<HttpHost> hosts;
+    private final NetworkClientConfig networkClientConfig;
+    private final List<String> indices;
+    private final int forceMergeMaxNumSegments;
+    @Nullable private final String alias;
+    private final boolean deletePreviousIndices;
+
+    BulkLoadFinishOperatorFactory(
+            String preparedKey,
+            List<HttpHost> hosts,
+            NetworkClientConfig networkClientConfig,
+            List<String> indices,
+            int forceMergeMaxNumSegments,
+            @Nullable String alias,
+            boolean deletePreviousIndices) {
+        this.preparedKey = checkNotNull(preparedKey);
+        this.hosts = new ArrayList<>(hosts);
+        this.networkClientConfig = checkNotNull(networkClientConfig);
+        this.indices = new ArrayList<>(indices);
+        this.forceMergeMaxNumSegments = forceMergeMaxNumSegments;
+        this.alias = alias;
+        this.deletePreviousIndices = deletePreviousIndices;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends StreamOperator<Void>> T createStreamOperator(
+            StreamOperatorParameters<Void> parameters) {
+        final OperatorID operatorId = parameters.getStreamConfig().getOperatorID();
+        final BulkLoadFinishOperator operator =
+                new BulkLoadFinishOperator(
+                        hosts,
+                        networkClientConfig,
+                        indices,
+                        forceMergeMaxNumSegments,
+                        parameters.getOperatorEventDispatcher().getOperatorEventGateway(operatorId),
+                        // the events of the coordinator are sent with the lowest priority
+                        parameters
+                                .getContainingTask()
+                                .getMailboxExecutorFactory()
+                                .createExecutor(TaskMailbox.MIN_PRIORITY));
+        parameters.getOperatorEventDispatcher().registerEventHandler(operatorId, operator);
+        operator.setup(
+                parameters.getContainingTask(),
+                parameters.getStreamConfig(),
+                parameters.getOutput());
+        return (T) operator;
+    }
+
+    @Override
+    public OperatorCoordinator.Provider getCoordinatorProvider(
+            String operatorName, OperatorID operatorID) {
+        return new BulkLoadCoordinator.Provider(
+                operatorID,
+                operatorName,
+                preparedKey,
+                hosts,
+                networkClientConfig,
+                indices,
+                alias,
+                deletePreviousIndices);
+    }
+
+    @Override
+    public Class<? extends StreamOperator> getStreamOperatorClass(ClassLoader classLoader) {
+        return BulkLoadFinishOperator.class;
+    }
+}
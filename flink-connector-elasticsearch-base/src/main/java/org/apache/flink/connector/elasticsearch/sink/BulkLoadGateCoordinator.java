@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.runtime.jobgraph.OperatorID;
+import org.apache.flink.runtime.operators.coordination.OperatorCoordinator;
+import org.apache.flink.runtime.operators.coordination.OperatorEvent;
+import org.apache.flink.runtime.operators.coordination.RecreateOnResetOperatorCoordinator;
+import org.apache.flink.util.FlinkRuntimeException;
+
+import javax.annotation.Nullable;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Coordinator of the {@link BulkLoadGateOperator}s of a bulk load. It sends a {@link
+ * BulkLoadPreparedEvent} to every attempt of a gate once the {@link BulkLoadCoordinator} has
+ * prepared the loaded indices. Both coordinators share the future of the preparation through the
+ * {@link org.apache.flink.runtime.operators.coordination.CoordinatorStore} of the job, since they
+ * may be started in any order.
+ */
+class BulkLoadGateCoordinator implements OperatorCoordinator {
+
+    private final String preparedKey;
+    private final Context context;
+
+    BulkLoadGateCoordinator(String preparedKey, Context context) {
+        this.preparedKey = checkNotNull(preparedKey);
+        this.context = checkNotNull(context);
+    }
+
+    @Override
+    public void start() {}
+
+    @Override
+    public void close() {}
+
+    @Override
+    public void handleEventFromOperator(int subtask, int attemptNumber, OperatorEvent event) {
+        throw new FlinkRuntimeException("Unexpected operator event " + event);
+    }
+
+    @Override
+    public void checkpointCoordinator(long checkpointId, CompletableFuture<byte[]> resultFuture) {
+        resultFuture.complete(new byte[0]);
+    }
+
+    @Override
+    public void resetToCheckpoint(long checkpointId, @Nullable byte[] checkpointData) {}
+
+    @Override
+    public void notifyCheckpointComplete(long checkpointId) {}
+
+    @Override
+    public void subtaskReset(int subtask, long checkpointId) {}
+
+    @Override
+    public void executionAttemptFailed(
+            int subtask, int attemptNumber, @Nullable Throwable reason) {}
+
+    @Override
+    public void executionAttemptReady(int subtask, int attemptNumber, SubtaskGateway gateway) {
+        // an attempt which is deployed after the preparation is released right away
+        BulkLoadCoordinator.getPreparedFuture(
+                        context.getCoordinatorStore(), preparedKey, future -> future == null)
+                .thenRun(() -> gateway.sendEvent(new BulkLoadPreparedEvent()));
+    }
+
+    /** Sent to the {@link BulkLoadGateOperator} once the loaded indices are prepared. */
+    static class BulkLoadPreparedEvent implements OperatorEvent {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public String toString() {
+            return "BulkLoadPreparedEvent";
+        }
+    }
+
+    /** Provider of the {@link BulkLoadGateCoordinator}. */
+    static class Provider extends RecreateOnResetOperatorCoordinator.Provider {
+        private static final long serialVersionUID = 1L;
+
+        private final String preparedKey;
+
+        Provider(OperatorID operatorId, String preparedKey) {
+            super(operatorId);
+            this.preparedKey = checkNotNull(preparedKey);
+        }
+
+        @Override
+        protected OperatorCoordinator getCoordinator(Context context) {
+            return new BulkLoadGateCoordinator(preparedKey, context);
+        }
+    }
+}
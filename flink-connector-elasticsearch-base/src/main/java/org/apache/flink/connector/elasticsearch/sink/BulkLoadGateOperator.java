@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.api.common.operators.MailboxExecutor;
+import org.apache.flink.runtime.operators.coordination.OperatorEvent;
+import org.apache.flink.runtime.operators.coordination.OperatorEventHandler;
+import org.apache.flink.streaming.api.operators.AbstractStreamOperator;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperator;
+import org.apache.flink.streaming.runtime.streamrecord.StreamRecord;
+import org.apache.flink.util.FlinkRuntimeException;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Holds back the records of a writer of an {@link ElasticsearchBulkLoadSink} until the {@link
+ * BulkLoadCoordinator} has prepared the loaded indices. The operator is chained in front of every
+ * writer and receives a {@link BulkLoadGateCoordinator.BulkLoadPreparedEvent} once the settings of
+ * the indices are suspended, so the coordinator does not block the JobManager while it prepares
+ * them.
+ */
+class BulkLoadGateOperator<IN> extends AbstractStreamOperator<IN>
+        implements OneInputStreamOperator<IN, IN>, OperatorEventHandler {
+
+    private static final long serialVersionUID = 1L;
+
+    private final MailboxExecutor mailboxExecutor;
+
+    private transient boolean prepared;
+
+    BulkLoadGateOperator(MailboxExecutor mailboxExecutor) {
+        this.mailboxExecutor = checkNotNull(mailboxExecutor);
+    }
+
+    @Override
+    public void processElement(StreamRecord<IN> element) throws Exception {
+        // the event of the coordinator is delivered through the mailbox
+        while (!prepared) {
+            mailboxExecutor.yield();
+        }
+        output.collect(element);
+    }
+
+    @Override
+    public void handleOperatorEvent(OperatorEvent event) {
+        if (!(event instanceof BulkLoadGateCoordinator.BulkLoadPreparedEvent)) {
+            throw new FlinkRuntimeException("Unexpected operator event " + event);
+        }
+        prepared = true;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.runtime.jobgraph.OperatorID;
+import org.apache.flink.runtime.operators.coordination.OperatorCoordinator;
+import org.apache.flink.streaming.api.operators.AbstractStreamOperatorFactory;
+import org.apache.flink.streaming.api.operators.CoordinatedOperatorFactory;
+import org.apache.flink.streaming.api.operators.OneInputStreamOperatorFactory;
+import org.apache.flink.streaming.api.operators.StreamOperator;
+import org.apache.flink.streaming.api.operators.StreamOperatorParameters;
+import org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailbox;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Factory of the {@link BulkLoadGateOperator}, which attaches the {@link BulkLoadGateCoordinator}
+ * to the operator.
+ */
+class BulkLoadGateOperatorFactory<IN> extends AbstractStreamOperatorFactory<IN>
+        implements CoordinatedOperatorFactory<IN>, OneInputStreamOperatorFactory<IN, IN> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String preparedKey;
+
+    BulkLoadGateOperatorFactory(String preparedKey) {
+        this.preparedKey = checkNotNull(preparedKey);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends StreamOperator<IN>> T createStreamOperator(
+            StreamOperatorParameters<IN> parameters) {
+        final OperatorID operatorId = parameters.getStreamConfig().getOperatorID();
+        final BulkLoadGateOperator<IN> operator =
+                new BulkLoadGateOperator<>(
+                        // the events of the coordinator are sent with the lowest priority
+                        parameters
+                                .getContainingTask()
+                                .getMailboxExecutorFactory()
+                                .createExecutor(TaskMailbox.MIN_PRIORITY));
+        parameters.getOperatorEventDispatcher().registerEventHandler(operatorId, operator);
+        operator.setup(
+                parameters.getContainingTask(),
+                parameters.getStreamConfig(),
+                parameters.getOutput());
+        return (T) operator;
+    }
+
+    @Override
+    public OperatorCoordinator.Provider getCoordinatorProvider(
+            String operatorName, OperatorID operatorID) {
+        return new BulkLoadGateCoordinator.Provider(operatorID, preparedKey);
+    }
+
+    @Override
+    public Class<? extends StreamOperator> getStreamOperatorClass(ClassLoader classLoader) {
+        return BulkLoadGateOperator.class;
+    }
+}
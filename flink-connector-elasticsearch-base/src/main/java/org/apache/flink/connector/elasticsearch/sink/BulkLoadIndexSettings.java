@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Suspends the refreshes and replicas of the indices of a bulk load and restores them afterwards.
+ *
+ * <p>Every refresh writes a new segment which has to be merged again later, and every replica
+ * indexes each document once more. Neither is needed before a bulk load is complete, so the refresh
+ * interval is disabled and the replicas are removed during the load. The original settings of the
+ * indices are read with {@link #get(Collection)} before they are suspended and written back with
+ * {@link #restore(Map)} afterwards. A setting which was not set explicitly is read as {@code null}
+ * and reset to its default when it is restored.
+ *
+ * <p>Before an index is suspended, its original settings are recorded in the {@code _meta} field of
+ * its mapping, and the record is removed again once they are restored. A bulk load which finds an
+ * index suspended can therefore tell a suspension of a previous attempt, whose original settings it
+ * reads with {@link #getRecorded(Collection)}, from an index which runs without refreshes and
+ * replicas on purpose. Elasticsearch 6 only accepts the record for an index which already has a
+ * mapping type, since an index can not have more than one.
+ */
+class BulkLoadIndexSettings {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkLoadIndexSettings.class);
+
+    static final String REFRESH_INTERVAL = "index.refresh_interval";
+    static final String NUMBER_OF_REPLICAS = "index.number_of_replicas";
+
+    /** Key of the original settings in the {@code _meta} field of the mapping of an index. */
+    static final String RECORD_KEY = "flink_bulk_load_original_settings";
+
+    private static final Map<String, String> SUSPENDED_SETTINGS = new HashMap<>();
+
+    static {
+        SUSPENDED_SETTINGS.put(REFRESH_INTERVAL, "-1");
+        SUSPENDED_SETTINGS.put(NUMBER_OF_REPLICAS, "0");
+    }
+
+    private final RestClient restClient;
+    @Nullable private Boolean typedMappings;
+
+    BulkLoadIndexSettings(RestClient restClient) {
+        this.restClient = checkNotNull(restClient);
+    }
+
+    /**
+     * Returns the refresh interval and the number of replicas of the concrete indices behind the
+     * given names. Names which do not match any index are ignored.
+     */
+    HashMap<String, HashMap<String, String>> get(Collection<String> indices) throws IOException {
+        final Request request =
+                new Request(
+                        "GET",
+                        "/"
+                                + String.join(",", indices)
+                                + "/_settings/"
+                                + REFRESH_INTERVAL
+                                + ","
+                                + NUMBER_OF_REPLICAS);
+        request.addParameter("flat_settings", "true");
+        request.addParameter("ignore_unavailable", "true");
+        request.addParameter("allow_no_indices", "true");
+
+        final HashMap<String, HashMap<String, String>> settings = new HashMap<>();
+        for (Map.Entry<String, Object> index : perform(request).entrySet()) {
+            final Map<?, ?> indexSettings =
+                    (Map<?, ?>) ((Map<?, ?>) index.getValue()).get("settings");
+            final HashMap<String, String> values = new HashMap<>();
+            values.put(REFRESH_INTERVAL, getString(indexSettings, REFRESH_INTERVAL));
+            values.put(NUMBER_OF_REPLICAS, getString(indexSettings, NUMBER_OF_REPLICAS));
+            settings.put(index.getKey(), values);
+        }
+        return settings;
+    }
+
+    /**
+     * Returns the original settings which were recorded when the concrete indices behind the given
+     * names were suspended and which were not restored since. Indices without a record are left
+     * out.
+     */
+    HashMap<String, HashMap<String, String>> getRecorded(Collection<String> indices)
+            throws IOException {
+        final HashMap<String, HashMap<String, String>> recorded = new HashMap<>();
+        for (Map.Entry<String, Mapping> index : getMappings(indices).entrySet()) {
+            final Map<?, ?> record = (Map<?, ?>) index.getValue().meta.get(RECORD_KEY);
+            if (record != null) {
+                final HashMap<String, String> values = new HashMap<>();
+                values.put(REFRESH_INTERVAL, getString(record, REFRESH_INTERVAL));
+                values.put(NUMBER_OF_REPLICAS, getString(record, NUMBER_OF_REPLICAS));
+                recorded.put(index.getKey(), values);
+            }
+        }
+        return recorded;
+    }
+
+    /**
+     * Records the given original settings of the indices and then disables their refreshes and
+     * removes their replicas.
+     */
+    void suspend(Map<String, ? extends Map<String, String>> originalSettings) throws IOException {
+        final Map<String, Mapping> mappings = getMappings(originalSettings.keySet());
+        for (Map.Entry<String, ? extends Map<String, String>> index : originalSettings.entrySet()) {
+            final Mapping mapping = mappings.get(index.getKey());
+            if (mapping == null || (isTypedMappings() && mapping.type == null)) {
+                LOG.warn(
+                        "Can not record the original settings {} of index {}, which has no "
+                                + "mapping type yet. They can only be restored from the state of "
+                                + "this bulk load.",
+                        index.getValue(),
+                        index.getKey());
+            } else {
+                final Map<String, Object> record = new HashMap<>();
+                for (Map.Entry<String, String> value : index.getValue().entrySet()) {
+                    if (value.getValue() != null) {
+                        record.put(value.getKey(), value.getValue());
+                    }
+                }
+                mapping.meta.put(RECORD_KEY, record);
+                putMeta(index.getKey(), mapping);
+            }
+            put(index.getKey(), SUSPENDED_SETTINGS);
+        }
+    }
+
+    /**
+     * Returns whether the settings read by {@link #get(Collection)} are the ones of a suspended
+     * index, i.e. the index has neither refreshes nor replicas.
+     */
+    static boolean isSuspended(Map<String, String> settings) {
+        return SUSPENDED_SETTINGS.equals(settings);
+    }
+
+    /**
+     * Writes back the settings which were read before the indices were suspended and removes the
+     * records of them.
+     */
+    void restore(Map<String, ? extends Map<String, String>> settings) throws IOException {
+        for (Map.Entry<String, ? extends Map<String, String>> index : settings.entrySet()) {
+            put(index.getKey(), index.getValue());
+        }
+        for (Map.Entry<String, Mapping> index : getMappings(settings.keySet()).entrySet()) {
+            if (index.getValue().meta.remove(RECORD_KEY) != null) {
+                putMeta(index.getKey(), index.getValue());
+            }
+        }
+    }
+
+    /** Makes all documents written to the given indices searchable. */
+    void refresh(Collection<String> indices) throws IOException {
+        perform(new Request("POST", "/" + String.join(",", indices) + "/_refresh"));
+    }
+
+    /**
+     * Merges the segments of the given indices down to the given number. The request blocks until
+     * the merge is complete.
+     */
+    void forceMerge(Collection<String> indices, int maxNumSegments) throws IOException {
+        final Request request =
+                new Request("POST", "/" + String.join(",", indices) + "/_forcemerge");
+        request.addParameter("max_num_segments", String.valueOf(maxNumSegments));
+        perform(request);
+    }
+
+    private void put(String index, Map<String, String> values) throws IOException {
+        final XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            builder.field(value.getKey(), value.getValue());
+        }
+        builder.endObject();
+
+        final Request request = new Request("PUT", "/" + index + "/_settings");
+        request.setJsonEntity(Strings.toString(builder));
+        perform(request);
+    }
+
+    /** Returns the mappings of the concrete indices behind the given names. */
+    private Map<String, Mapping> getMappings(Collection<String> indices) throws IOException {
+        if (indices.isEmpty()) {
+            // an empty list of names would address all indices
+            return new HashMap<>();
+        }
+        final Request request = new Request("GET", "/" + String.join(",", indices) + "/_mapping");
+        request.addParameter("ignore_unavailable", "true");
+        request.addParameter("allow_no_indices", "true");
+
+        final Map<String, Mapping> mappings = new HashMap<>();
+        for (Map.Entry<String, Object> index : perform(request).entrySet()) {
+            Map<?, ?> mapping = (Map<?, ?>) ((Map<?, ?>) index.getValue()).get("mappings");
+            String type = null;
+            // the mappings of Elasticsearch 6 are nested in their single type
+            if (isTypedMappings() && mapping != null && !mapping.isEmpty()) {
+                type = (String) mapping.keySet().iterator().next();
+                mapping = (Map<?, ?>) mapping.get(type);
+            }
+            final Map<String, Object> meta = new HashMap<>();
+            if (mapping != null && mapping.get("_meta") != null) {
+                for (Map.Entry<?, ?> value : ((Map<?, ?>) mapping.get("_meta")).entrySet()) {
+                    meta.put(value.getKey().toString(), value.getValue());
+                }
+            }
+            mappings.put(index.getKey(), new Mapping(type, meta));
+        }
+        return mappings;
+    }
+
+    /** Replaces the {@code _meta} field of the mapping of an index. */
+    private void putMeta(String index, Mapping mapping) throws IOException {
+        final XContentBuilder builder = XContentFactory.jsonBuilder().startObject();
+        builder.field("_meta", mapping.meta);
+        builder.endObject();
+
+        final Request request =
+                new Request(
+                        "PUT",
+                        "/"
+                                + index
+                                + "/_mapping"
+                                + (mapping.type != null ? "/" + mapping.type : ""));
+        request.setJsonEntity(Strings.toString(builder));
+        perform(request);
+    }
+
+    /** Returns whether the cluster runs Elasticsearch 6, whose mappings have a type. */
+    private boolean isTypedMappings() throws IOException {
+        if (typedMappings == null) {
+            final Map<?, ?> version = (Map<?, ?>) perform(new Request("GET", "/")).get("version");
+            typedMappings = getString(version, "number").startsWith("6.");
+        }
+        return typedMappings;
+    }
+
+    private Map<String, Object> perform(Request request) throws IOException {
+        return parse(restClient.performRequest(request));
+    }
+
+    /** Parses the JSON object in the body of a response. */
+    static Map<String, Object> parse(Response response) throws IOException {
+        try (InputStream content = response.getEntity().getContent();
+                XContentParser parser =
+                        XContentType.JSON
+                                .xContent()
+                                .createParser(
+                                        NamedXContentRegistry.EMPTY,
+                                        DeprecationHandler.THROW_UNSUPPORTED_OPERATION,
+                                        content)) {
+            return parser.map();
+        }
+    }
+
+    @Nullable
+    private static String getString(@Nullable Map<?, ?> map, String key) {
+        final Object value = map == null ? null : map.get(key);
+        return value == null ? null : value.toString();
+    }
+
+    /** The type and the {@code _meta} field of the mapping of an index. */
+    private static class Mapping {
+
+        /** The type of the mapping in Elasticsearch 6, or null if it is typeless. */
+        @Nullable private final String type;
+
+        private final Map<String, Object> meta;
+
+        Mapping(@Nullable String type, Map<String, Object> meta) {
+            this.type = type;
+            this.meta = meta;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Histogram;
+import org.apache.flink.metrics.MetricGroup;
+import org.apache.flink.runtime.metrics.DescriptiveStatisticsHistogram;
+
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+
+/**
+ * Bulk level metrics of the {@link ElasticsearchWriter}.
+ *
+ * <p>The histograms describe the round trip latency, the number of actions and the estimated size
+ * of the completed bulk requests. The counters count the completed actions by the HTTP status of
+ * their bulk item response, so that rejections (429) and conflicts (409) can be told apart from
+ * successful writes.
+ */
+class BulkMetrics {
+
+    /** Number of recent bulk requests the histograms are computed over. */
+    private static final int HISTOGRAM_WINDOW_SIZE = 500;
+
+    private final Histogram bulkLatency;
+    private final Histogram bulkActions;
+    private final Histogram bulkSize;
+    private final Counter numActionsStatus200;
+    private final Counter numActionsStatus201;
+    private final Counter numActionsStatus400;
+    private final Counter numActionsStatus409;
+    private final Counter numActionsStatus429;
+    private final Counter numActionsStatus5xx;
+    private final Counter numActionsStatusOther;
+
+    private volatile long lastBulkLatencyMillis = 0;
+
+    BulkMetrics(MetricGroup metricGroup) {
+        this.bulkLatency =
+                metricGroup.histogram(
+                        "bulkLatencyMs", new DescriptiveStatisticsHistogram(HISTOGRAM_WINDOW_SIZE));
+        this.bulkActions =
+                metricGroup.histogram(
+                        "bulkActions", new DescriptiveStatisticsHistogram(HISTOGRAM_WINDOW_SIZE));
+        this.bulkSize =
+                metricGroup.histogram(
+                        "bulkSizeBytes", new DescriptiveStatisticsHistogram(HISTOGRAM_WINDOW_SIZE));
+        this.numActionsStatus200 = metricGroup.counter("numActionsStatus200");
+        this.numActionsStatus201 = metricGroup.counter("numActionsStatus201");
+        this.numActionsStatus400 = metricGroup.counter("numActionsStatus400");
+        this.numActionsStatus409 = metricGroup.counter("numActionsStatus409");
+        this.numActionsStatus429 = metricGroup.counter("numActionsStatus429");
+        this.numActionsStatus5xx = metricGroup.counter("numActionsStatus5xx");
+        this.numActionsStatusOther = metricGroup.counter("numActionsStatusOther");
+    }
+
+    /** Returns the round trip latency of the last completed bulk request. */
+    long getLastBulkLatencyMillis() {
+        return lastBulkLatencyMillis;
+    }
+
+    /**
+     * Records a completed bulk request. Must be called from the mailbox thread.
+     *
+     * @param request the bulk request which was sent
+     * @param response the response of Elasticsearch
+     * @param latencyMillis time between sending the bulk request and receiving its response
+     */
+    void onBulkCompleted(BulkRequest request, BulkResponse response, long latencyMillis) {
+        lastBulkLatencyMillis = latencyMillis;
+        bulkLatency.update(latencyMillis);
+        bulkActions.update(request.numberOfActions());
+        bulkSize.update(request.estimatedSizeInBytes());
+        for (BulkItemResponse itemResponse : response.getItems()) {
+            statusCounter(itemResponse.status().getStatus()).inc();
+        }
+    }
+
+    private Counter statusCounter(int status) {
+        switch (status) {
+            case 200:
+                return numActionsStatus200;
+            case 201:
+                return numActionsStatus201;
+            case 400:
+                return numActionsStatus400;
+            case 409:
+                return numActionsStatus409;
+            case 429:
+                return numActionsStatus429;
+            default:
+                return status >= 500 && status < 600 ? numActionsStatus5xx : numActionsStatusOther;
+        }
+    }
+}
@@ -30,20 +30,36 @@ class BulkProcessorConfig implements Serializable {
     private final FlushBackoffType flushBackoffType;
     private final int bulkFlushBackoffRetries;
     private final long bulkFlushBackOffDelay;
+    private final int bulkFlushMaxInFlightRequests;
+    private final boolean bulkFlushKeyOrdered;
+    private final int bulkFlushAdaptiveMinActions;
+    private final int bulkFlushAdaptiveMaxActions;
+    private final boolean directBulkEncoding;
+    private final CompressionType compressionType;
+    private final int compressionLevel;
+    private final boolean shardRouting;
+    private final boolean bulkFlushCoalescing;
 
-    BulkProcessorConfig(
-            int bulkFlushMaxActions,
-            int bulkFlushMaxMb,
-            long bulkFlushInterval,
-            FlushBackoffType flushBackoffType,
-            int bulkFlushBackoffRetries,
-            long bulkFlushBackOffDelay) {
-        this.bulkFlushMaxActions = bulkFlushMaxActions;
-        this.bulkFlushMaxMb = bulkFlushMaxMb;
-        this.bulkFlushInterval = bulkFlushInterval;
-        this.flushBackoffType = checkNotNull(flushBackoffType);
-        this.bulkFlushBackoffRetries = bulkFlushBackoffRetries;
-        this.bulkFlushBackOffDelay = bulkFlushBackOffDelay;
+    private BulkProcessorConfig(Builder builder) {
+        this.bulkFlushMaxActions = builder.bulkFlushMaxActions;
+        this.bulkFlushMaxMb = builder.bulkFlushMaxMb;
+        this.bulkFlushInterval = builder.bulkFlushInterval;
+        this.flushBackoffType = checkNotNull(builder.flushBackoffType);
+        this.bulkFlushBackoffRetries = builder.bulkFlushBackoffRetries;
+        this.bulkFlushBackOffDelay = builder.bulkFlushBackOffDelay;
+        this.bulkFlushMaxInFlightRequests = builder.bulkFlushMaxInFlightRequests;
+        this.bulkFlushKeyOrdered = builder.bulkFlushKeyOrdered;
+        this.bulkFlushAdaptiveMinActions = builder.bulkFlushAdaptiveMinActions;
+        this.bulkFlushAdaptiveMaxActions = builder.bulkFlushAdaptiveMaxActions;
+        this.directBulkEncoding = builder.directBulkEncoding;
+        this.compressionType = checkNotNull(builder.compressionType);
+        this.compressionLevel = builder.compressionLevel;
+        this.shardRouting = builder.shardRouting;
+        this.bulkFlushCoalescing = builder.bulkFlushCoalescing;
+    }
+
+    static Builder builder() {
+        return new Builder();
     }
 
     public int getBulkFlushMaxActions() {
@@ -69,4 +85,149 @@ class BulkProcessorConfig implements Serializable {
     public long getBulkFlushBackOffDelay() {
         return bulkFlushBackOffDelay;
     }
+
+    public int getBulkFlushMaxInFlightRequests() {
+        return bulkFlushMaxInFlightRequests;
+    }
+
+    public boolean isBulkFlushKeyOrdered() {
+        return bulkFlushKeyOrdered;
+    }
+
+    public int getBulkFlushAdaptiveMinActions() {
+        return bulkFlushAdaptiveMinActions;
+    }
+
+    public int getBulkFlushAdaptiveMaxActions() {
+        return bulkFlushAdaptiveMaxActions;
+    }
+
+    public boolean isBulkFlushAdaptiveSizing() {
+        return bulkFlushAdaptiveMaxActions != -1;
+    }
+
+    public boolean isDirectBulkEncoding() {
+        return directBulkEncoding;
+    }
+
+    public CompressionType getCompressionType() {
+        return compressionType;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionType != CompressionType.NONE;
+    }
+
+    public boolean isShardRouting() {
+        return shardRouting;
+    }
+
+    public boolean isBulkFlushCoalescing() {
+        return bulkFlushCoalescing;
+    }
+
+    /** Builder for {@link BulkProcessorConfig}. */
+    static class Builder {
+
+        private int bulkFlushMaxActions = 1000;
+        private int bulkFlushMaxMb = -1;
+        private long bulkFlushInterval = -1;
+        private FlushBackoffType flushBackoffType = FlushBackoffType.NONE;
+        private int bulkFlushBackoffRetries = -1;
+        private long bulkFlushBackOffDelay = -1;
+        private int bulkFlushMaxInFlightRequests = 1;
+        private boolean bulkFlushKeyOrdered = false;
+        private int bulkFlushAdaptiveMinActions = -1;
+        private int bulkFlushAdaptiveMaxActions = -1;
+        private boolean directBulkEncoding = false;
+        private CompressionType compressionType = CompressionType.NONE;
+        private int compressionLevel = 6;
+        private boolean shardRouting = false;
+        private boolean bulkFlushCoalescing = false;
+
+        private Builder() {}
+
+        Builder setBulkFlushMaxActions(int bulkFlushMaxActions) {
+            this.bulkFlushMaxActions = bulkFlushMaxActions;
+            return this;
+        }
+
+        Builder setBulkFlushMaxMb(int bulkFlushMaxMb) {
+            this.bulkFlushMaxMb = bulkFlushMaxMb;
+            return this;
+        }
+
+        Builder setBulkFlushInterval(long bulkFlushInterval) {
+            this.bulkFlushInterval = bulkFlushInterval;
+            return this;
+        }
+
+        Builder setFlushBackoffType(FlushBackoffType flushBackoffType) {
+            this.flushBackoffType = flushBackoffType;
+            return this;
+        }
+
+        Builder setBulkFlushBackoffRetries(int bulkFlushBackoffRetries) {
+            this.bulkFlushBackoffRetries = bulkFlushBackoffRetries;
+            return this;
+        }
+
+        Builder setBulkFlushBackOffDelay(long bulkFlushBackOffDelay) {
+            this.bulkFlushBackOffDelay = bulkFlushBackOffDelay;
+            return this;
+        }
+
+        Builder setBulkFlushMaxInFlightRequests(int bulkFlushMaxInFlightRequests) {
+            this.bulkFlushMaxInFlightRequests = bulkFlushMaxInFlightRequests;
+            return this;
+        }
+
+        Builder setBulkFlushKeyOrdered(boolean bulkFlushKeyOrdered) {
+            this.bulkFlushKeyOrdered = bulkFlushKeyOrdered;
+            return this;
+        }
+
+        Builder setBulkFlushAdaptiveMinActions(int bulkFlushAdaptiveMinActions) {
+            this.bulkFlushAdaptiveMinActions = bulkFlushAdaptiveMinActions;
+            return this;
+        }
+
+        Builder setBulkFlushAdaptiveMaxActions(int bulkFlushAdaptiveMaxActions) {
+            this.bulkFlushAdaptiveMaxActions = bulkFlushAdaptiveMaxActions;
+            return this;
+        }
+
+        Builder setDirectBulkEncoding(boolean directBulkEncoding) {
+            this.directBulkEncoding = directBulkEncoding;
+            return this;
+        }
+
+        Builder setCompressionType(CompressionType compressionType) {
+            this.compressionType = compressionType;
+            return this;
+        }
+
+        Builder setCompressionLevel(int compressionLevel) {
+            this.compressionLevel = compressionLevel;
+            return this;
+        }
+
+        Builder setShardRouting(boolean shardRouting) {
+            this.shardRouting = shardRouting;
+            return this;
+        }
+
+        Builder setBulkFlushCoalescing(boolean bulkFlushCoalescing) {
+            this.bulkFlushCoalescing = bulkFlushCoalescing;
+            return this;
+        }
+
+        BulkProcessorConfig build() {
+            return new BulkProcessorConfig(this);
+        }
+    }
 }
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.MetricGroup;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+
+/**
+ * Adapts the number of actions per bulk request of the {@link ElasticsearchWriter} to the observed
+ * throughput of the Elasticsearch cluster.
+ *
+ * <p>Starting with the minimum number of actions, the controller grows or shrinks the bulk size in
+ * steps of 10% and keeps the direction as long as the throughput (bytes per millisecond of bulk
+ * latency) does not get worse. Whenever Elasticsearch rejects actions because it is overloaded, the
+ * bulk size is halved. The bulk size in bytes follows the number of actions based on the average
+ * size of an action and is capped by the configured maximum size.
+ */
+class BulkSizeController {
+
+    private static final double ADJUSTMENT_FACTOR = 0.1;
+    private static final double THROUGHPUT_TOLERANCE = 0.05;
+    private static final double REJECTION_DECREASE_FACTOR = 0.5;
+    private static final double BYTES_PER_ACTION_SMOOTHING = 0.2;
+
+    private final int minActions;
+    private final int maxActions;
+    private final long maxSizeInBytes;
+    private final Counter increases;
+    private final Counter decreases;
+
+    private int currentMaxActions;
+    private int direction = 1;
+    private double lastThroughput = -1;
+    private double avgBytesPerAction = -1;
+
+    /**
+     * Creates a new controller.
+     *
+     * @param minActions lower bound of the number of actions per bulk request
+     * @param maxActions upper bound of the number of actions per bulk request
+     * @param maxSizeInBytes upper bound of the size of a bulk request or -1 if it is unbounded
+     * @param metricGroup to register the current bulk size and its changes
+     */
+    BulkSizeController(
+            int minActions, int maxActions, long maxSizeInBytes, MetricGroup metricGroup) {
+        checkArgument(minActions > 0, "Min number of actions must be larger than 0.");
+        checkArgument(
+                maxActions >= minActions,
+                "Max number of actions must be larger than or equal to the min number of actions.");
+        this.minActions = minActions;
+        this.maxActions = maxActions;
+        this.maxSizeInBytes = maxSizeInBytes;
+        this.currentMaxActions = minActions;
+        metricGroup.gauge("currentBulkFlushMaxActions", this::getMaxActions);
+        metricGroup.gauge("currentBulkFlushMaxSizeInBytes", this::getMaxSizeInBytes);
+        this.increases = metricGroup.counter("bulkFlushMaxActionsIncreases");
+        this.decreases = metricGroup.counter("bulkFlushMaxActionsDecreases");
+    }
+
+    /** Returns the number of actions after which the current bulk request should be sent. */
+    int getMaxActions() {
+        return currentMaxActions;
+    }
+
+    /**
+     * Returns the size in bytes after which the current bulk request should be sent or -1 if no
+     * limit applies yet.
+     */
+    long getMaxSizeInBytes() {
+        if (avgBytesPerAction < 0) {
+            return maxSizeInBytes;
+        }
+        final long sizeInBytes = (long) Math.ceil(currentMaxActions * avgBytesPerAction);
+        return maxSizeInBytes == -1 ? sizeInBytes : Math.min(sizeInBytes, maxSizeInBytes);
+    }
+
+    /**
+     * Updates the bulk size with the outcome of a completed bulk request.
+     *
+     * @param numActions number of actions in the bulk request
+     * @param sizeInBytes estimated size of the bulk request
+     * @param latencyMillis time between sending the bulk request and receiving its response
+     * @param numRejected number of actions rejected because Elasticsearch was overloaded
+     */
+    void onBulkCompleted(int numActions, long sizeInBytes, long latencyMillis, int numRejected) {
+        if (numActions == 0) {
+            return;
+        }
+        final double bytesPerAction = (double) sizeInBytes / numActions;
+        avgBytesPerAction =
+                avgBytesPerAction < 0
+                        ? bytesPerAction
+                        : BYTES_PER_ACTION_SMOOTHING * bytesPerAction
+                                + (1 - BYTES_PER_ACTION_SMOOTHING) * avgBytesPerAction;
+
+        if (numRejected > 0) {
+            setMaxActions((int) (currentMaxActions * REJECTION_DECREASE_FACTOR));
+            direction = 1;
+            lastThroughput = -1;
+            return;
+        }
+        if (numActions < currentMaxActions / 2) {
+            // The bulk request was sent before it was full, e.g., by the flush interval or a
+            // checkpoint, and does not tell anything about the current bulk size
+            return;
+        }
+
+        final double throughput = (double) sizeInBytes / Math.max(1, latencyMillis);
+        if (lastThroughput >= 0 && throughput < lastThroughput * (1 - THROUGHPUT_TOLERANCE)) {
+            direction = -direction;
+        }
+        lastThroughput = throughput;
+        final int step = Math.max(1, (int) (currentMaxActions * ADJUSTMENT_FACTOR));
+        setMaxActions(currentMaxActions + direction * step);
+    }
+
+    private void setMaxActions(int newMaxActions) {
+        final int boundedMaxActions = Math.max(minActions, Math.min(maxActions, newMaxActions));
+        if (boundedMaxActions > currentMaxActions) {
+            increases.inc();
+        } else if (boundedMaxActions < currentMaxActions) {
+            decreases.inc();
+        }
+        currentMaxActions = boundedMaxActions;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.Internal;
+
+import org.elasticsearch.common.bytes.BytesReference;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Accessors for {@link BytesReference} which work with all supported Elasticsearch versions. {@link
+ * BytesReference} is an abstract class in Elasticsearch 6 and an interface in Elasticsearch 7, so
+ * calls compiled against one version fail with an {@link IncompatibleClassChangeError} on the
+ * other. The methods are therefore resolved at runtime.
+ */
+@Internal
+final class BytesReferences {
+
+    private static final MethodHandle LENGTH;
+    private static final MethodHandle WRITE_TO;
+
+    static {
+        final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try {
+            LENGTH =
+                    lookup.findVirtual(
+                            BytesReference.class, "length", MethodType.methodType(int.class));
+            WRITE_TO =
+                    lookup.findVirtual(
+                            BytesReference.class,
+                            "writeTo",
+                            MethodType.methodType(void.class, OutputStream.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private BytesReferences() {}
+
+    /** Returns the number of bytes of the reference. */
+    static int length(BytesReference bytes) {
+        try {
+            return (int) LENGTH.invoke(bytes);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /** Writes the bytes of the reference to the given stream without copying them. */
+    static void writeTo(BytesReference bytes, OutputStream out) throws IOException {
+        try {
+            WRITE_TO.invoke(bytes, out);
+        } catch (IOException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.PublicEvolving;
+
+import org.elasticsearch.action.DocWriteRequest;
+
+import java.io.Serializable;
+
+/**
+ * Destination for actions which could not be written to Elasticsearch and were routed to it by the
+ * {@link BulkItemFailureHandler}, e.g. a file, a topic of a message queue or another index.
+ */
+@PublicEvolving
+public interface DeadLetterQueue extends Serializable {
+
+    /**
+     * Initialization method for the dead letter queue. It is called once when the sink writer is
+     * created.
+     */
+    default void open() throws Exception {}
+
+    /** Tear-down method for the dead letter queue. It is called when the sink closes. */
+    default void close() throws Exception {}
+
+    /**
+     * Adds a failed action to the dead letter queue.
+     *
+     * @param action the action that failed
+     * @param failure the cause of the failure
+     * @param restStatusCode the REST status code of the failure (-1 if none can be retrieved)
+     * @throws Exception if the action cannot be added, which fails the sink
+     */
+    void add(DocWriteRequest<?> action, Throwable failure, int restStatusCode) throws Exception;
+}
@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.elasticsearch.action.DocWriteRequest;
+
+import java.util.Objects;
+
+/** Identifies the document of an action by its index, id and routing. */
+final class DocumentKey {
+
+    private final String index;
+    private final String id;
+    private final String routing;
+
+    /** Creates the key of an action, which must have an id. */
+    DocumentKey(DocWriteRequest<?> action) {
+        this.index = action.index();
+        this.id = action.id();
+        this.routing = action.routing();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DocumentKey that = (DocumentKey) o;
+        return Objects.equals(index, that.index)
+                && id.equals(that.id)
+                && Objects.equals(routing, that.routing);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Objects.hashCode(index) + id.hashCode()) + Objects.hashCode(routing);
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.Internal;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.RestHighLevelClient;
+
+/**
+ * Bridge to the version specific Elasticsearch APIs used by the {@link ElasticsearchAsyncWriter}.
+ * Implementations must not be lambdas because then deserialization fails.
+ */
+@Internal
+public interface ElasticsearchAsyncApiCallBridge extends DocWriteRequestReader {
+
+    /** Sends the bulk request without blocking and notifies the listener about its outcome. */
+    void bulkAsync(
+            RestHighLevelClient client,
+            BulkRequest bulkRequest,
+            ActionListener<BulkResponse> listener);
+}
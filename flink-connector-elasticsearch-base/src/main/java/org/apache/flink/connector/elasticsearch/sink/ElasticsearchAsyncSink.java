@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.connector.base.sink.AsyncSinkBase;
+import org.apache.flink.connector.base.sink.writer.BufferedRequestState;
+import org.apache.flink.connector.base.sink.writer.config.AsyncSinkWriterConfiguration;
+import org.apache.flink.core.io.SimpleVersionedSerializer;
+
+import org.apache.http.HttpHost;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Flink Sink to insert or update data in an Elasticsearch index which is based on the {@link
+ * AsyncSinkBase}. In contrast to the {@link ElasticsearchSink}, the buffered actions are part of
+ * Flink's checkpoints, the number of concurrent bulk requests is limited by the configured maximum
+ * number of in-flight requests and the sending rate is adapted with an additive increase /
+ * multiplicative decrease (AIMD) strategy. Actions which are rejected by Elasticsearch with {@code
+ * 429 Too Many Requests} are retried and reduce the sending rate.
+ *
+ * <p>The sink provides {@link org.apache.flink.connector.base.DeliveryGuarantee#AT_LEAST_ONCE}
+ * guarantees.
+ *
+ * @param <IN> type of the records converted to Elasticsearch actions
+ * @see ElasticsearchAsyncSinkBuilderBase on how to construct a ElasticsearchAsyncSink
+ */
+@PublicEvolving
+public class ElasticsearchAsyncSink<IN> extends AsyncSinkBase<IN, ElasticsearchRequestEntry> {
+
+    private final List<HttpHost> hosts;
+    private final NetworkClientConfig networkClientConfig;
+    private final ElasticsearchAsyncApiCallBridge apiCallBridge;
+
+    ElasticsearchAsyncSink(
+            ElasticsearchEmitter<? super IN> emitter,
+            int maxBatchSize,
+            int maxInFlightRequests,
+            int maxBufferedRequests,
+            long maxBatchSizeInBytes,
+            long maxTimeInBufferMS,
+            long maxRecordSizeInBytes,
+            List<HttpHost> hosts,
+            NetworkClientConfig networkClientConfig,
+            ElasticsearchAsyncApiCallBridge apiCallBridge) {
+        super(
+                new ElasticsearchElementConverter<>(emitter),
+                maxBatchSize,
+                maxInFlightRequests,
+                maxBufferedRequests,
+                maxBatchSizeInBytes,
+                maxTimeInBufferMS,
+                maxRecordSizeInBytes);
+        this.hosts = checkNotNull(hosts);
+        checkArgument(!hosts.isEmpty(), "Hosts cannot be empty.");
+        this.networkClientConfig = checkNotNull(networkClientConfig);
+        this.apiCallBridge = checkNotNull(apiCallBridge);
+    }
+
+    @Override
+    public StatefulSinkWriter<IN, BufferedRequestState<ElasticsearchRequestEntry>> createWriter(
+            InitContext context) throws IOException {
+        return restoreWriter(context, Collections.emptyList());
+    }
+
+    @Override
+    public StatefulSinkWriter<IN, BufferedRequestState<ElasticsearchRequestEntry>> restoreWriter(
+            InitContext context,
+            Collection<BufferedRequestState<ElasticsearchRequestEntry>> recoveredState)
+            throws IOException {
+        return new ElasticsearchAsyncWriter<>(
+                (ElasticsearchElementConverter<IN>) getElementConverter(),
+                context,
+                AsyncSinkWriterConfiguration.builder()
+                        .setMaxBatchSize(getMaxBatchSize())
+                        .setMaxBatchSizeInBytes(getMaxBatchSizeInBytes())
+                        .setMaxInFlightRequests(getMaxInFlightRequests())
+                        .setMaxBufferedRequests(getMaxBufferedRequests())
+                        .setMaxTimeInBufferMS(getMaxTimeInBufferMS())
+                        .setMaxRecordSizeInBytes(getMaxRecordSizeInBytes())
+                        .build(),
+                recoveredState,
+                hosts,
+                networkClientConfig,
+                apiCallBridge);
+    }
+
+    @Override
+    public SimpleVersionedSerializer<BufferedRequestState<ElasticsearchRequestEntry>>
+            getWriterStateSerializer() {
+        return new ElasticsearchAsyncWriterStateSerializer(apiCallBridge);
+    }
+}
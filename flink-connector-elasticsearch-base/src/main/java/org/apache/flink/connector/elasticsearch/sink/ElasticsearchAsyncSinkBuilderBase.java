@@ -0,0 +1,366 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.api.common.ExecutionConfig;
+import org.apache.flink.api.java.ClosureCleaner;
+import org.apache.flink.connector.base.sink.AsyncSinkBaseBuilder;
+import org.apache.flink.util.InstantiationUtil;
+
+import org.apache.http.HttpHost;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * Base builder to construct a {@link ElasticsearchAsyncSink}. The emitter and the connection
+ * settings are configured in the same way as for the {@link ElasticsearchSinkBuilderBase}, the
+ * batching and the in-flight limits are configured with the setters of the {@link
+ * AsyncSinkBaseBuilder}.
+ *
+ * @param <IN> type of the records converted to Elasticsearch actions
+ */
+@PublicEvolving
+public abstract class ElasticsearchAsyncSinkBuilderBase<
+                IN, B extends ElasticsearchAsyncSinkBuilderBase<IN, B>>
+        extends AsyncSinkBaseBuilder<IN, ElasticsearchRequestEntry, B> {
+
+    private static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+    private static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 4;
+    private static final int DEFAULT_MAX_BUFFERED_REQUESTS = 10000;
+    private static final long DEFAULT_MAX_BATCH_SIZE_IN_B = 5 * 1024 * 1024;
+    private static final long DEFAULT_MAX_TIME_IN_BUFFER_MS = 1000;
+    private static final long DEFAULT_MAX_RECORD_SIZE_IN_B = 5 * 1024 * 1024;
+
+    private List<HttpHost> hosts;
+    protected ElasticsearchEmitter<? super IN> emitter;
+    private String username;
+    private String password;
+    private String connectionPathPrefix;
+    private Integer connectionTimeout;
+    private Integer connectionRequestTimeout;
+    private Integer socketTimeout;
+    private Integer maxConnectionsPerRoute;
+    private Integer maxConnectionsTotal;
+    private Integer ioThreadCount;
+    private Long keepAlive;
+    private Integer socketSendBufferSize;
+    private Integer socketReceiveBufferSize;
+    private boolean sharedClient = false;
+
+    protected ElasticsearchAsyncSinkBuilderBase() {}
+
+    @SuppressWarnings("unchecked")
+    protected <S extends ElasticsearchAsyncSinkBuilderBase<?, ?>> S self() {
+        return (S) this;
+    }
+
+    /**
+     * Sets the emitter which is invoked on every record to convert it to Elasticsearch actions.
+     *
+     * @param emitter to process records into Elasticsearch actions.
+     * @return this builder
+     */
+    public <T extends IN> ElasticsearchAsyncSinkBuilderBase<T, ?> setEmitter(
+            ElasticsearchEmitter<? super T> emitter) {
+        checkNotNull(emitter);
+        checkState(
+                InstantiationUtil.isSerializable(emitter),
+                "The elasticsearch emitter must be serializable.");
+
+        final ElasticsearchAsyncSinkBuilderBase<T, ?> self = self();
+        self.emitter = emitter;
+        return self;
+    }
+
+    /**
+     * Sets the hosts where the Elasticsearch cluster nodes are reachable.
+     *
+     * @param hosts http addresses describing the node locations
+     * @return this builder
+     */
+    public B setHosts(HttpHost... hosts) {
+        checkNotNull(hosts);
+        checkState(hosts.length > 0, "Hosts cannot be empty.");
+        this.hosts = Arrays.asList(hosts);
+        return self();
+    }
+
+    /**
+     * Sets the username used to authenticate the connection with the Elasticsearch cluster.
+     *
+     * @param username of the Elasticsearch cluster user
+     * @return this builder
+     */
+    public B setConnectionUsername(String username) {
+        checkNotNull(username);
+        this.username = username;
+        return self();
+    }
+
+    /**
+     * Sets the password used to authenticate the connection with the Elasticsearch cluster.
+     *
+     * @param password of the Elasticsearch cluster user
+     * @return this builder
+     */
+    public B setConnectionPassword(String password) {
+        checkNotNull(password);
+        this.password = password;
+        return self();
+    }
+
+    /**
+     * Sets a prefix which used for every REST communication to the Elasticsearch cluster.
+     *
+     * @param prefix for the communication
+     * @return this builder
+     */
+    public B setConnectionPathPrefix(String prefix) {
+        checkNotNull(prefix);
+        this.connectionPathPrefix = prefix;
+        return self();
+    }
+
+    /**
+     * Sets the timeout for requesting the connection of the Elasticsearch cluster from the
+     * connection manager.
+     *
+     * @param timeout for the connection request
+     * @return this builder
+     */
+    public B setConnectionRequestTimeout(int timeout) {
+        checkState(timeout >= 0, "Connection request timeout must be larger than or equal to 0.");
+        this.connectionRequestTimeout = timeout;
+        return self();
+    }
+
+    /**
+     * Sets the timeout for establishing a connection of the Elasticsearch cluster.
+     *
+     * @param timeout for the connection
+     * @return this builder
+     */
+    public B setConnectionTimeout(int timeout) {
+        checkState(timeout >= 0, "Connection timeout must be larger than or equal to 0.");
+        this.connectionTimeout = timeout;
+        return self();
+    }
+
+    /**
+     * Sets the timeout for waiting for data or, put differently, a maximum period inactivity
+     * between two consecutive data packets.
+     *
+     * @param timeout for the socket
+     * @return this builder
+     */
+    public B setSocketTimeout(int timeout) {
+        checkState(timeout >= 0, "Socket timeout must be larger than or equal to 0.");
+        this.socketTimeout = timeout;
+        return self();
+    }
+
+    /**
+     * Sets the maximum number of pooled connections to a single Elasticsearch node. The default of
+     * the Elasticsearch client is 10.
+     *
+     * @param maxConnections per node
+     * @return this builder
+     */
+    public B setConnectionMaxPerRoute(int maxConnections) {
+        checkState(maxConnections > 0, "Maximum connections per route must be larger than 0.");
+        this.maxConnectionsPerRoute = maxConnections;
+        return self();
+    }
+
+    /**
+     * Sets the maximum number of pooled connections to all Elasticsearch nodes. The default of the
+     * Elasticsearch client is 30.
+     *
+     * @param maxConnections in total
+     * @return this builder
+     */
+    public B setConnectionMaxTotal(int maxConnections) {
+        checkState(maxConnections > 0, "Maximum connections in total must be larger than 0.");
+        this.maxConnectionsTotal = maxConnections;
+        return self();
+    }
+
+    /**
+     * Sets the number of I/O dispatcher threads of the client. The default is the number of
+     * available processors, which is usually more than a single sink subtask needs.
+     *
+     * @param ioThreadCount number of I/O dispatcher threads
+     * @return this builder
+     */
+    public B setConnectionIoThreadCount(int ioThreadCount) {
+        checkState(ioThreadCount > 0, "I/O thread count must be larger than 0.");
+        this.ioThreadCount = ioThreadCount;
+        return self();
+    }
+
+    /**
+     * Sets the maximum time an idle pooled connection is kept alive. A shorter timeout announced by
+     * the server in its Keep-Alive header takes precedence. By default, idle connections are kept
+     * alive indefinitely if the server does not announce a timeout.
+     *
+     * @param keepAliveMillis maximum keep-alive time in milliseconds
+     * @return this builder
+     */
+    public B setConnectionKeepAlive(long keepAliveMillis) {
+        checkState(keepAliveMillis >= 0, "Keep-alive must be larger than or equal to 0.");
+        this.keepAlive = keepAliveMillis;
+        return self();
+    }
+
+    /**
+     * Sets the size of the socket send buffer (SO_SNDBUF). By default, the operating system default
+     * is used.
+     *
+     * @param bytes size of the send buffer
+     * @return this builder
+     */
+    public B setSocketSendBufferSize(int bytes) {
+        checkState(bytes > 0, "Socket send buffer size must be larger than 0.");
+        this.socketSendBufferSize = bytes;
+        return self();
+    }
+
+    /**
+     * Sets the size of the socket receive buffer (SO_RCVBUF). By default, the operating system
+     * default is used.
+     *
+     * @param bytes size of the receive buffer
+     * @return this builder
+     */
+    public B setSocketReceiveBufferSize(int bytes) {
+        checkState(bytes > 0, "Socket receive buffer size must be larger than 0.");
+        this.socketReceiveBufferSize = bytes;
+        return self();
+    }
+
+    /**
+     * Sets whether the writers share their client with all other writers in the same JVM which
+     * connect to the same hosts with the same configuration. Every client has its own connection
+     * pool and I/O threads, so sharing reduces the connections and threads of TaskManagers with
+     * many slots. The connection limits then apply to all writers sharing the client. The default
+     * is false.
+     *
+     * @param sharedClient whether the client is shared
+     * @return this builder
+     */
+    public B setSharedClient(boolean sharedClient) {
+        this.sharedClient = sharedClient;
+        return self();
+    }
+
+    protected abstract ElasticsearchAsyncApiCallBridge getApiCallBridge();
+
+    /**
+     * Constructs the {@link ElasticsearchAsyncSink} with the properties configured this builder.
+     *
+     * @return {@link ElasticsearchAsyncSink}
+     */
+    @Override
+    public ElasticsearchAsyncSink<IN> build() {
+        checkNotNull(emitter);
+        checkNotNull(hosts);
+        checkArgument(!hosts.isEmpty(), "Hosts cannot be empty.");
+
+        ElasticsearchAsyncApiCallBridge apiCallBridge = getApiCallBridge();
+        ClosureCleaner.clean(apiCallBridge, ExecutionConfig.ClosureCleanerLevel.RECURSIVE, true);
+
+        return new ElasticsearchAsyncSink<>(
+                emitter,
+                Optional.ofNullable(getMaxBatchSize()).orElse(DEFAULT_MAX_BATCH_SIZE),
+                Optional.ofNullable(getMaxInFlightRequests())
+                        .orElse(DEFAULT_MAX_IN_FLIGHT_REQUESTS),
+                Optional.ofNullable(getMaxBufferedRequests()).orElse(DEFAULT_MAX_BUFFERED_REQUESTS),
+                Optional.ofNullable(getMaxBatchSizeInBytes()).orElse(DEFAULT_MAX_BATCH_SIZE_IN_B),
+                Optional.ofNullable(getMaxTimeInBufferMS()).orElse(DEFAULT_MAX_TIME_IN_BUFFER_MS),
+                Optional.ofNullable(getMaxRecordSizeInBytes()).orElse(DEFAULT_MAX_RECORD_SIZE_IN_B),
+                hosts,
+                new NetworkClientConfig(
+                        username,
+                        password,
+                        connectionPathPrefix,
+                        connectionRequestTimeout,
+                        connectionTimeout,
+                        socketTimeout,
+                        maxConnectionsPerRoute,
+                        maxConnectionsTotal,
+                        ioThreadCount,
+                        keepAlive,
+                        socketSendBufferSize,
+                        socketReceiveBufferSize,
+                        sharedClient),
+                apiCallBridge);
+    }
+
+    @Override
+    public String toString() {
+        return "ElasticsearchAsyncSinkBuilder{"
+                + "maxBatchSize="
+                + getMaxBatchSize()
+                + ", maxInFlightRequests="
+                + getMaxInFlightRequests()
+                + ", maxBufferedRequests="
+                + getMaxBufferedRequests()
+                + ", maxBatchSizeInBytes="
+                + getMaxBatchSizeInBytes()
+                + ", maxTimeInBufferMS="
+                + getMaxTimeInBufferMS()
+                + ", maxRecordSizeInBytes="
+                + getMaxRecordSizeInBytes()
+                + ", hosts="
+                + hosts
+                + ", emitter="
+                + emitter
+                + ", username='"
+                + username
+                + '\''
+                + ", password='"
+                + password
+                + '\''
+                + ", connectionPathPrefix='"
+                + connectionPathPrefix
+                + '\''
+                + ", maxConnectionsPerRoute="
+                + maxConnectionsPerRoute
+                + ", maxConnectionsTotal="
+                + maxConnectionsTotal
+                + ", ioThreadCount="
+                + ioThreadCount
+                + ", keepAlive="
+                + keepAlive
+                + ", socketSendBufferSize="
+                + socketSendBufferSize
+                + ", socketReceiveBufferSize="
+                + socketReceiveBufferSize
+                + ", sharedClient="
+                + sharedClient
+                + '}';
+    }
+}
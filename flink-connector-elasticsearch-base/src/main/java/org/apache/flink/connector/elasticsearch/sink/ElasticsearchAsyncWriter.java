@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.api.connector.sink2.Sink;
+import org.apache.flink.connector.base.sink.writer.AsyncSinkWriter;
+import org.apache.flink.connector.base.sink.writer.BufferedRequestState;
+import org.apache.flink.connector.base.sink.writer.config.AsyncSinkWriterConfiguration;
+import org.apache.flink.util.FlinkRuntimeException;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.apache.flink.util.ExceptionUtils.firstOrSuppressed;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Sink writer of the {@link ElasticsearchAsyncSink}. The buffering, the number of in-flight bulk
+ * requests and the rate limiting are handled by the {@link AsyncSinkWriter}. Actions which are
+ * rejected by Elasticsearch because the cluster is overloaded ({@link
+ * RestStatus#TOO_MANY_REQUESTS}) are handed back to the {@link AsyncSinkWriter}, which retries them
+ * and reduces the sending rate. All other failures fail the writer.
+ */
+class ElasticsearchAsyncWriter<IN> extends AsyncSinkWriter<IN, ElasticsearchRequestEntry> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ElasticsearchAsyncWriter.class);
+
+    private final ElasticsearchElementConverter<IN> elementConverter;
+    private final ElasticsearchAsyncApiCallBridge apiCallBridge;
+    private final RestHighLevelClient client;
+    private final boolean sharedClient;
+
+    /**
+     * Constructor creating an asynchronous elasticsearch writer.
+     *
+     * @param elementConverter converting incoming records to elasticsearch actions
+     * @param context of the sink writer
+     * @param configuration describing the batching and the in-flight limits of the writer
+     * @param states buffered entries to restore
+     * @param hosts the reachable elasticsearch cluster nodes
+     * @param networkClientConfig describing properties of the network connection used to connect to
+     *     the elasticsearch cluster
+     * @param apiCallBridge bridging the version specific elasticsearch APIs
+     */
+    ElasticsearchAsyncWriter(
+            ElasticsearchElementConverter<IN> elementConverter,
+            Sink.InitContext context,
+            AsyncSinkWriterConfiguration configuration,
+            Collection<BufferedRequestState<ElasticsearchRequestEntry>> states,
+            List<HttpHost> hosts,
+            NetworkClientConfig networkClientConfig,
+            ElasticsearchAsyncApiCallBridge apiCallBridge) {
+        super(elementConverter, context, configuration, states);
+        this.elementConverter = elementConverter;
+        this.apiCallBridge = checkNotNull(apiCallBridge);
+        this.sharedClient = networkClientConfig.isSharedClient();
+        this.client =
+                sharedClient
+                        ? SharedRestClients.acquire(
+                                hosts,
+                                networkClientConfig,
+                                false,
+                                () ->
+                                        ElasticsearchWriter.createClient(
+                                                hosts, networkClientConfig, false))
+                        : ElasticsearchWriter.createClient(hosts, networkClientConfig, false);
+    }
+
+    @Override
+    protected void submitRequestEntries(
+            List<ElasticsearchRequestEntry> requestEntries,
+            Consumer<List<ElasticsearchRequestEntry>> requestResult) {
+        final BulkRequest bulkRequest = new BulkRequest();
+        for (ElasticsearchRequestEntry requestEntry : requestEntries) {
+            for (DocWriteRequest<?> request : requestEntry.getRequests()) {
+                bulkRequest.add(request);
+            }
+        }
+        if (bulkRequest.numberOfActions() == 0) {
+            // The emitter did not produce any action for the records
+            requestResult.accept(Collections.emptyList());
+            return;
+        }
+
+        LOG.debug("Sending bulk of {} actions to Elasticsearch.", bulkRequest.numberOfActions());
+        apiCallBridge.bulkAsync(
+                client,
+                bulkRequest,
+                new ActionListener<BulkResponse>() {
+                    @Override
+                    public void onResponse(BulkResponse response) {
+                        handleResponse(requestEntries, response, requestResult);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        handleFailure(requestEntries, e, requestResult);
+                    }
+                });
+    }
+
+    private void handleResponse(
+            List<ElasticsearchRequestEntry> requestEntries,
+            BulkResponse response,
+            Consumer<List<ElasticsearchRequestEntry>> requestResult) {
+        if (!response.hasFailures()) {
+            requestResult.accept(Collections.emptyList());
+            return;
+        }
+
+        final BulkItemResponse[] items = response.getItems();
+        final List<ElasticsearchRequestEntry> retryEntries = new ArrayList<>();
+        Throwable chainedFailures = null;
+        int itemIndex = 0;
+        for (ElasticsearchRequestEntry requestEntry : requestEntries) {
+            final List<DocWriteRequest<?>> retryRequests = new ArrayList<>();
+            for (DocWriteRequest<?> request : requestEntry.getRequests()) {
+                final BulkItemResponse itemResponse = items[itemIndex++];
+                if (!itemResponse.isFailed()) {
+                    continue;
+                }
+                final RestStatus restStatus = itemResponse.getFailure().getStatus();
+                if (restStatus == RestStatus.TOO_MANY_REQUESTS) {
+                    retryRequests.add(request);
+                } else {
+                    chainedFailures =
+                            firstOrSuppressed(
+                                    new FlinkRuntimeException(
+                                            String.format(
+                                                    "Single action %s of bulk request failed with status %s.",
+                                                    request, restStatus),
+                                            itemResponse.getFailure().getCause()),
+                                    chainedFailures);
+                }
+            }
+            if (!retryRequests.isEmpty()) {
+                retryEntries.add(new ElasticsearchRequestEntry(retryRequests));
+            }
+        }
+
+        if (chainedFailures != null) {
+            getFatalExceptionCons().accept(new FlinkRuntimeException(chainedFailures));
+            return;
+        }
+        LOG.debug("Retrying {} rejected entries.", retryEntries.size());
+        requestResult.accept(retryEntries);
+    }
+
+    private void handleFailure(
+            List<ElasticsearchRequestEntry> requestEntries,
+            Exception failure,
+            Consumer<List<ElasticsearchRequestEntry>> requestResult) {
+        if (ExceptionsHelper.status(failure) == RestStatus.TOO_MANY_REQUESTS) {
+            LOG.debug("Bulk request was rejected, retrying {} entries.", requestEntries.size());
+            requestResult.accept(requestEntries);
+            return;
+        }
+        getFatalExceptionCons()
+                .accept(new FlinkRuntimeException("Complete bulk has failed.", failure));
+    }
+
+    @Override
+    protected long getSizeInBytes(ElasticsearchRequestEntry requestEntry) {
+        return requestEntry.getSizeInBytes();
+    }
+
+    @Override
+    public void close() {
+        try {
+            elementConverter.close();
+            if (sharedClient) {
+                SharedRestClients.release(client);
+            } else {
+                client.close();
+            }
+        } catch (Exception e) {
+            throw new FlinkRuntimeException("Failed to close the Elasticsearch writer.", e);
+        }
+    }
+}
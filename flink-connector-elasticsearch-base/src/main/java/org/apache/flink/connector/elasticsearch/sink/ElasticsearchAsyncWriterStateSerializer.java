@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.connector.base.sink.writer.AsyncSinkWriterStateSerializer;
+
+import org.elasticsearch.action.DocWriteRequest;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Serializes the buffered {@link ElasticsearchRequestEntry entries} of the {@link
+ * ElasticsearchAsyncWriter} with Elasticsearch's transport wire format.
+ */
+@Internal
+class ElasticsearchAsyncWriterStateSerializer
+        extends AsyncSinkWriterStateSerializer<ElasticsearchRequestEntry> {
+
+    private final ElasticsearchAsyncApiCallBridge apiCallBridge;
+
+    ElasticsearchAsyncWriterStateSerializer(ElasticsearchAsyncApiCallBridge apiCallBridge) {
+        this.apiCallBridge = checkNotNull(apiCallBridge);
+    }
+
+    @Override
+    protected void serializeRequestToStream(ElasticsearchRequestEntry request, DataOutputStream out)
+            throws IOException {
+        out.writeInt(request.getRequests().size());
+        for (DocWriteRequest<?> docWriteRequest : request.getRequests()) {
+            ElasticsearchWriterStateSerializer.writeAction(docWriteRequest, out);
+        }
+    }
+
+    @Override
+    protected ElasticsearchRequestEntry deserializeRequestFromStream(
+            long requestSize, DataInputStream in) throws IOException {
+        final int numRequests = in.readInt();
+        final List<DocWriteRequest<?>> requests = new ArrayList<>(numRequests);
+        for (int i = 0; i < numRequests; i++) {
+            requests.add(ElasticsearchWriterStateSerializer.readAction(in, apiCallBridge));
+        }
+        return new ElasticsearchRequestEntry(requests);
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+}
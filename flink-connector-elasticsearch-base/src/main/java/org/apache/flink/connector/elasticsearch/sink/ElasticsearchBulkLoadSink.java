@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.api.common.eventtime.Watermark;
+import org.apache.flink.api.common.typeinfo.BasicTypeInfo;
+import org.apache.flink.api.connector.sink2.Committer;
+import org.apache.flink.api.connector.sink2.StatefulSink;
+import org.apache.flink.core.io.SimpleVersionedSerializer;
+import org.apache.flink.streaming.api.connector.sink2.CommittableMessage;
+import org.apache.flink.streaming.api.connector.sink2.WithPostCommitTopology;
+import org.apache.flink.streaming.api.connector.sink2.WithPreWriteTopology;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.functions.sink.DiscardingSink;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Flink Sink for bounded inputs which loads the data into Elasticsearch indices in bulk. It writes
+ * like the {@link ElasticsearchSink} it wraps, but suspends the refreshes and replicas of the
+ * loaded indices while the data is written. Once the input of all writers has ended and their
+ * actions are flushed, the indices are refreshed, optionally force merged, and their original
+ * settings are restored. If the job fails or is cancelled, the settings are restored as well.
+ *
+ * <p>The settings are suspended and restored by an operator coordinator on the JobManager. The
+ * records are held back in front of the writers until the settings are suspended. Only indices
+ * which exist when the job starts are suspended; indices which are created by the load keep the
+ * settings of their index templates. Without replicas, the documents which are loaded are lost if a
+ * node fails before the replicas are restored, so the load has to be repeated in this case.
+ *
+ * <p>If an alias is given, the sink reloads the data behind the alias: the records have to be
+ * written to a single write alias, which points to a new index created on start. The new index
+ * replaces the previous indices of the alias atomically once it is loaded. Readers of the alias
+ * never see a partially loaded index. If the load fails, the alias keeps pointing to its previous
+ * indices.
+ *
+ * <p>The sink has no committables of its own. It only implements {@link WithPostCommitTopology} to
+ * add the operator which finishes the load after all writers and committers, and {@link
+ * WithPreWriteTopology} to add the operator which holds back the records in front of the writers.
+ *
+ * @param <IN> type of the records converted to Elasticsearch actions
+ * @see ElasticsearchSinkBuilderBase#buildBulkLoad(List, int)
+ * @see ElasticsearchSinkBuilderBase#buildAliasSwap(String, String, int, boolean)
+ */
+@PublicEvolving
+public class ElasticsearchBulkLoadSink<IN>
+        implements StatefulSink<IN, ElasticsearchWriterState>,
+                WithPreWriteTopology<IN>,
+                WithPostCommitTopology<IN, Void> {
+
+    private final ElasticsearchSink<IN> sink;
+    private final List<String> indices;
+    private final int forceMergeMaxNumSegments;
+    @Nullable private final String alias;
+    private final boolean deletePreviousIndices;
+    /** Identifies the preparation of the indices which the coordinators of the load share. */
+    private final String preparedKey = "bulk-load-prepared-" + UUID.randomUUID();
+
+    ElasticsearchBulkLoadSink(
+            ElasticsearchSink<IN> sink,
+            List<String> indices,
+            int forceMergeMaxNumSegments,
+            @Nullable String alias,
+            boolean deletePreviousIndices) {
+        this.sink = checkNotNull(sink);
+        this.indices = new ArrayList<>(checkNotNull(indices));
+        checkArgument(!indices.isEmpty(), "Indices cannot be empty.");
+        checkArgument(
+                forceMergeMaxNumSegments == -1 || forceMergeMaxNumSegments > 0,
+                "Max number of segments must be larger than 0 or -1 to disable the force merge.");
+        this.forceMergeMaxNumSegments = forceMergeMaxNumSegments;
+        checkArgument(
+                alias == null || (indices.size() == 1 && !indices.contains(alias)),
+                "An alias can only be swapped through a single write alias with another name.");
+        checkArgument(
+                alias != null || !deletePreviousIndices,
+                "Previous indices can only be deleted if an alias is swapped.");
+        this.alias = alias;
+        this.deletePreviousIndices = deletePreviousIndices;
+    }
+
+    @Internal
+    @Override
+    public BulkLoadWriter<IN> createWriter(InitContext context) throws IOException {
+        return new BulkLoadWriter<>(sink.createWriter(context));
+    }
+
+    @Internal
+    @Override
+    public BulkLoadWriter<IN> restoreWriter(
+            InitContext context, Collection<ElasticsearchWriterState> recoveredState)
+            throws IOException {
+        return new BulkLoadWriter<>(sink.restoreWriter(context, recoveredState));
+    }
+
+    @Override
+    public SimpleVersionedSerializer<ElasticsearchWriterState> getWriterStateSerializer() {
+        return sink.getWriterStateSerializer();
+    }
+
+    @Override
+    public Committer<Void> createCommitter() {
+        return new NoOpCommitter();
+    }
+
+    @Override
+    public SimpleVersionedSerializer<Void> getCommittableSerializer() {
+        return new NoCommittableSerializer();
+    }
+
+    @Internal
+    @Override
+    public DataStream<IN> addPreWriteTopology(DataStream<IN> inputDataStream) {
+        return inputDataStream.transform(
+                "Bulk Load Gate",
+                inputDataStream.getType(),
+                new BulkLoadGateOperatorFactory<>(preparedKey));
+    }
+
+    @Internal
+    @Override
+    public void addPostCommitTopology(DataStream<CommittableMessage<Void>> committables) {
+        committables
+                .global()
+                .transform(
+                        "Bulk Load Finisher",
+                        BasicTypeInfo.VOID_TYPE_INFO,
+                        new BulkLoadFinishOperatorFactory(
+                                preparedKey,
+                                sink.getHosts(),
+                                sink.getNetworkClientConfig(),
+                                indices,
+                                forceMergeMaxNumSegments,
+                                alias,
+                                deletePreviousIndices))
+                .setParallelism(1)
+                .setMaxParallelism(1)
+                .addSink(new DiscardingSink<>())
+                .name("Bulk Load Finisher Sink")
+                .setParallelism(1);
+    }
+
+    /**
+     * Writer of the {@link ElasticsearchBulkLoadSink}, which delegates to the writer of the wrapped
+     * {@link ElasticsearchSink} and has no committables.
+     */
+    static class BulkLoadWriter<IN>
+            implements StatefulSinkWriter<IN, ElasticsearchWriterState>,
+                    PrecommittingSinkWriter<IN, Void> {
+
+        private final StatefulSinkWriter<IN, ElasticsearchWriterState> writer;
+
+        BulkLoadWriter(StatefulSinkWriter<IN, ElasticsearchWriterState> writer) {
+            this.writer = checkNotNull(writer);
+        }
+
+        @Override
+        public void write(IN element, Context context) throws IOException, InterruptedException {
+            writer.write(element, context);
+        }
+
+        @Override
+        public void writeWatermark(Watermark watermark) throws IOException, InterruptedException {
+            writer.writeWatermark(watermark);
+        }
+
+        @Override
+        public void flush(boolean endOfInput) throws IOException, InterruptedException {
+            writer.flush(endOfInput);
+        }
+
+        @Override
+        public Collection<Void> prepareCommit() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<ElasticsearchWriterState> snapshotState(long checkpointId) throws IOException {
+            return writer.snapshotState(checkpointId);
+        }
+
+        @Override
+        public void close() throws Exception {
+            writer.close();
+        }
+    }
+
+    private static class NoOpCommitter implements Committer<Void> {
+
+        @Override
+        public void commit(Collection<CommitRequest<Void>> committables) {}
+
+        @Override
+        public void close() {}
+    }
+
+    private static class NoCommittableSerializer implements SimpleVersionedSerializer<Void> {
+
+        @Override
+        public int getVersion() {
+            return 1;
+        }
+
+        @Override
+        public byte[] serialize(Void committable) {
+            return new byte[0];
+        }
+
+        @Override
+        public Void deserialize(int version, byte[] serialized) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.api.connector.sink2.Sink;
+import org.apache.flink.api.connector.sink2.SinkWriter;
+import org.apache.flink.connector.base.sink.writer.ElementConverter;
+import org.apache.flink.util.FlinkRuntimeException;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * {@link ElementConverter} which invokes the {@link ElasticsearchEmitter} on every record and
+ * collects all emitted actions into a single {@link ElasticsearchRequestEntry}.
+ */
+class ElasticsearchElementConverter<IN> implements ElementConverter<IN, ElasticsearchRequestEntry> {
+
+    private final ElasticsearchEmitter<? super IN> emitter;
+    private transient CollectingRequestIndexer requestIndexer;
+
+    ElasticsearchElementConverter(ElasticsearchEmitter<? super IN> emitter) {
+        this.emitter = checkNotNull(emitter);
+    }
+
+    @Override
+    public void open(Sink.InitContext context) {
+        requestIndexer = new CollectingRequestIndexer();
+        try {
+            emitter.open();
+        } catch (Exception e) {
+            throw new FlinkRuntimeException("Failed to open the ElasticsearchEmitter", e);
+        }
+    }
+
+    @Override
+    public ElasticsearchRequestEntry apply(IN element, SinkWriter.Context context) {
+        emitter.emit(element, context, requestIndexer);
+        return new ElasticsearchRequestEntry(requestIndexer.drain());
+    }
+
+    void close() throws Exception {
+        emitter.close();
+    }
+
+    private static class CollectingRequestIndexer implements RequestIndexer {
+
+        private List<DocWriteRequest<?>> requests = new ArrayList<>();
+
+        @Override
+        public void add(DeleteRequest... deleteRequests) {
+            Collections.addAll(requests, deleteRequests);
+        }
+
+        @Override
+        public void add(IndexRequest... indexRequests) {
+            Collections.addAll(requests, indexRequests);
+        }
+
+        @Override
+        public void add(UpdateRequest... updateRequests) {
+            Collections.addAll(requests, updateRequests);
+        }
+
+        List<DocWriteRequest<?>> drain() {
+            final List<DocWriteRequest<?>> drained = requests;
+            requests = new ArrayList<>();
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.PublicEvolving;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Request entry of the {@link ElasticsearchAsyncSink} holding all Elasticsearch actions which were
+ * emitted for a single record.
+ *
+ * <p>The entry is only written to Flink's state through the {@link
+ * ElasticsearchAsyncWriterStateSerializer} and never serialized with Java serialization.
+ */
+@PublicEvolving
+public class ElasticsearchRequestEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Estimated size of the action metadata, the same estimate the BulkRequest is using. */
+    private static final int REQUEST_OVERHEAD = 50;
+
+    private final List<DocWriteRequest<?>> requests;
+    private final long sizeInBytes;
+
+    ElasticsearchRequestEntry(List<DocWriteRequest<?>> requests) {
+        this.requests = Collections.unmodifiableList(checkNotNull(requests));
+        long size = 0;
+        for (DocWriteRequest<?> request : requests) {
+            size += estimateSizeInBytes(request);
+        }
+        this.sizeInBytes = size;
+    }
+
+    /** Returns the actions in the order they were emitted. */
+    public List<DocWriteRequest<?>> getRequests() {
+        return requests;
+    }
+
+    /** Returns the estimated size of all actions in bytes. */
+    public long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    /** Estimates the size of a single action in the same way as the BulkRequest. */
+    static long estimateSizeInBytes(DocWriteRequest<?> request) {
+        long size = REQUEST_OVERHEAD;
+        if (request instanceof IndexRequest) {
+            size += sourceLength((IndexRequest) request);
+        } else if (request instanceof UpdateRequest) {
+            final UpdateRequest updateRequest = (UpdateRequest) request;
+            size += sourceLength(updateRequest.doc());
+            size += sourceLength(updateRequest.upsertRequest());
+        }
+        return size;
+    }
+
+    private static long sourceLength(IndexRequest request) {
+        if (request == null || request.source() == null) {
+            return 0;
+        }
+        return BytesReferences.length(request.source());
+    }
+
+    @Override
+    public String toString() {
+        return "ElasticsearchRequestEntry{"
+                + "requests="
+                + requests
+                + ", sizeInBytes="
+                + sizeInBytes
+                + '}';
+    }
+}
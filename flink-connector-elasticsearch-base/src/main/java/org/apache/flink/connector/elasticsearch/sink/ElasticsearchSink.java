@@ -20,13 +20,17 @@ package org.apache.flink.connector.elasticsearch.sink;
 
 import org.apache.flink.annotation.PublicEvolving;
 import org.apache.flink.annotation.VisibleForTesting;
-import org.apache.flink.api.connector.sink2.Sink;
-import org.apache.flink.api.connector.sink2.SinkWriter;
+import org.apache.flink.api.connector.sink2.StatefulSink;
 import org.apache.flink.connector.base.DeliveryGuarantee;
+import org.apache.flink.core.io.SimpleVersionedSerializer;
 
 import org.apache.http.HttpHost;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import static org.apache.flink.util.Preconditions.checkArgument;
@@ -48,46 +52,101 @@ import static org.apache.flink.util.Preconditions.checkNotNull;
  *       but eventually everything will be consistent again.
  * </ul>
  *
+ * <p>If the sink is configured to checkpoint its pending actions, the sink does not wait on a
+ * checkpoint with {@link DeliveryGuarantee#AT_LEAST_ONCE}. Instead, all actions which are not yet
+ * acknowledged by Elasticsearch are stored in the checkpoint and sent again when Flink restarts.
+ *
  * @param <IN> type of the records converted to Elasticsearch actions
  * @see ElasticsearchSinkBuilderBase on how to construct a ElasticsearchSink
  */
 @PublicEvolving
-public class ElasticsearchSink<IN> implements Sink<IN> {
+public class ElasticsearchSink<IN> implements StatefulSink<IN, ElasticsearchWriterState> {
 
     private final List<HttpHost> hosts;
     private final ElasticsearchEmitter<? super IN> emitter;
     private final BulkProcessorConfig buildBulkProcessorConfig;
     private final BulkProcessorBuilderFactory bulkProcessorBuilderFactory;
+    private final BulkItemRetryConfig bulkItemRetryConfig;
+    @Nullable private final BulkItemFailureHandler failureHandler;
+    @Nullable private final DeadLetterQueue deadLetterQueue;
+    @Nullable private final ScriptParamsCombiner scriptParamsCombiner;
     private final NetworkClientConfig networkClientConfig;
     private final DeliveryGuarantee deliveryGuarantee;
+    private final boolean checkpointPendingActions;
+    private final long maxPendingSizeInBytes;
+    private final DocWriteRequestReader docWriteRequestReader;
 
     ElasticsearchSink(
             List<HttpHost> hosts,
             ElasticsearchEmitter<? super IN> emitter,
             DeliveryGuarantee deliveryGuarantee,
+            boolean checkpointPendingActions,
+            long maxPendingSizeInBytes,
             BulkProcessorBuilderFactory bulkProcessorBuilderFactory,
             BulkProcessorConfig buildBulkProcessorConfig,
-            NetworkClientConfig networkClientConfig) {
+            BulkItemRetryConfig bulkItemRetryConfig,
+            @Nullable BulkItemFailureHandler failureHandler,
+            @Nullable DeadLetterQueue deadLetterQueue,
+            @Nullable ScriptParamsCombiner scriptParamsCombiner,
+            NetworkClientConfig networkClientConfig,
+            DocWriteRequestReader docWriteRequestReader) {
         this.hosts = checkNotNull(hosts);
         this.bulkProcessorBuilderFactory = checkNotNull(bulkProcessorBuilderFactory);
         checkArgument(!hosts.isEmpty(), "Hosts cannot be empty.");
         this.emitter = checkNotNull(emitter);
         this.deliveryGuarantee = checkNotNull(deliveryGuarantee);
+        this.checkpointPendingActions = checkpointPendingActions;
+        this.maxPendingSizeInBytes = maxPendingSizeInBytes;
         this.buildBulkProcessorConfig = checkNotNull(buildBulkProcessorConfig);
+        this.bulkItemRetryConfig = checkNotNull(bulkItemRetryConfig);
+        this.failureHandler = failureHandler;
+        this.deadLetterQueue = deadLetterQueue;
+        this.scriptParamsCombiner = scriptParamsCombiner;
         this.networkClientConfig = checkNotNull(networkClientConfig);
+        this.docWriteRequestReader = checkNotNull(docWriteRequestReader);
+    }
+
+    @Override
+    public StatefulSinkWriter<IN, ElasticsearchWriterState> createWriter(InitContext context)
+            throws IOException {
+        return restoreWriter(context, Collections.emptyList());
     }
 
     @Override
-    public SinkWriter<IN> createWriter(InitContext context) throws IOException {
+    public StatefulSinkWriter<IN, ElasticsearchWriterState> restoreWriter(
+            InitContext context, Collection<ElasticsearchWriterState> recoveredState)
+            throws IOException {
+        final boolean atLeastOnce = deliveryGuarantee == DeliveryGuarantee.AT_LEAST_ONCE;
         return new ElasticsearchWriter<>(
                 hosts,
                 emitter,
-                deliveryGuarantee == DeliveryGuarantee.AT_LEAST_ONCE,
+                atLeastOnce && !checkpointPendingActions,
+                atLeastOnce && checkpointPendingActions,
+                maxPendingSizeInBytes,
                 buildBulkProcessorConfig,
                 bulkProcessorBuilderFactory,
+                bulkItemRetryConfig,
+                failureHandler,
+                deadLetterQueue,
+                scriptParamsCombiner,
                 networkClientConfig,
                 context.metricGroup(),
-                context.getMailboxExecutor());
+                context.getMailboxExecutor(),
+                context.getProcessingTimeService(),
+                recoveredState);
+    }
+
+    @Override
+    public SimpleVersionedSerializer<ElasticsearchWriterState> getWriterStateSerializer() {
+        return new ElasticsearchWriterStateSerializer(docWriteRequestReader);
+    }
+
+    List<HttpHost> getHosts() {
+        return hosts;
+    }
+
+    NetworkClientConfig getNetworkClientConfig() {
+        return networkClientConfig;
     }
 
     @VisibleForTesting
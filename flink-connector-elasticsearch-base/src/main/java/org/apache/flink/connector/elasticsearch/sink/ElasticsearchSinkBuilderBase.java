@@ -27,7 +27,10 @@ import org.apache.flink.util.InstantiationUtil;
 import org.apache.http.HttpHost;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.apache.flink.util.Preconditions.checkArgument;
 import static org.apache.flink.util.Preconditions.checkNotNull;
@@ -48,7 +51,25 @@ public abstract class ElasticsearchSinkBuilderBase<
     private FlushBackoffType bulkFlushBackoffType = FlushBackoffType.NONE;
     private int bulkFlushBackoffRetries = -1;
     private long bulkFlushBackOffDelay = -1;
+    private int bulkFlushMaxInFlightRequests = 1;
+    private boolean bulkFlushKeyOrdered = false;
+    private int bulkFlushAdaptiveMinActions = -1;
+    private int bulkFlushAdaptiveMaxActions = -1;
+    private boolean directBulkEncoding = false;
+    private CompressionType compressionType = CompressionType.NONE;
+    private int compressionLevel = 6;
+    private boolean shardRouting = false;
+    private boolean bulkFlushCoalescing = false;
+    private FlushBackoffType itemRetryBackoffType = FlushBackoffType.NONE;
+    private int itemRetryMaxRetries = -1;
+    private long itemRetryDelay = -1;
+    private Set<Integer> itemRetryableStatuses = new HashSet<>(Arrays.asList(429, 503));
+    private BulkItemFailureHandler failureHandler;
+    private DeadLetterQueue deadLetterQueue;
+    private ScriptParamsCombiner scriptParamsCombiner;
     private DeliveryGuarantee deliveryGuarantee = DeliveryGuarantee.AT_LEAST_ONCE;
+    private boolean checkpointPendingActions = false;
+    private long maxPendingSizeInBytes = -1;
     private List<HttpHost> hosts;
     protected ElasticsearchEmitter<? super IN> emitter;
     private String username;
@@ -57,6 +78,13 @@ public abstract class ElasticsearchSinkBuilderBase<
     private Integer connectionTimeout;
     private Integer connectionRequestTimeout;
     private Integer socketTimeout;
+    private Integer maxConnectionsPerRoute;
+    private Integer maxConnectionsTotal;
+    private Integer ioThreadCount;
+    private Long keepAlive;
+    private Integer socketSendBufferSize;
+    private Integer socketReceiveBufferSize;
+    private boolean sharedClient = false;
 
     protected ElasticsearchSinkBuilderBase() {}
 
@@ -111,6 +139,39 @@ public abstract class ElasticsearchSinkBuilderBase<
         return self();
     }
 
+    /**
+     * Sets whether the actions which are not yet acknowledged by Elasticsearch are stored in the
+     * checkpoint instead of waiting for their acknowledgement on a checkpoint. The stored actions
+     * are sent again when the sink is restored, so the duration of a checkpoint depends on the
+     * number of buffered actions instead of the latency of Elasticsearch. Only applies to {@link
+     * DeliveryGuarantee#AT_LEAST_ONCE}. The default is false.
+     *
+     * @param checkpointPendingActions whether to store the pending actions in the checkpoint
+     * @return this builder
+     */
+    public B setCheckpointPendingActions(boolean checkpointPendingActions) {
+        this.checkpointPendingActions = checkpointPendingActions;
+        return self();
+    }
+
+    /**
+     * Sets the memory budget of a sink subtask for the actions which are not yet acknowledged by
+     * Elasticsearch, i.e. buffered for the next bulk requests, in flight or waiting for a retry.
+     * Once the estimated size of these actions reaches the budget, the sink stops accepting records
+     * and backpressures until enough actions are acknowledged. You can pass -1 to disable it, which
+     * is the default.
+     *
+     * @param maxPendingSizeInBytes the maximum size of the pending actions, in bytes
+     * @return this builder
+     */
+    public B setMaxPendingSizeInBytes(long maxPendingSizeInBytes) {
+        checkState(
+                maxPendingSizeInBytes == -1 || maxPendingSizeInBytes > 0,
+                "Max size of pending actions must be larger than 0.");
+        this.maxPendingSizeInBytes = maxPendingSizeInBytes;
+        return self();
+    }
+
     /**
      * Sets the maximum number of actions to buffer for each bulk request. You can pass -1 to
      * disable it. The default flush size 1000.
@@ -165,6 +226,12 @@ public abstract class ElasticsearchSinkBuilderBase<
      *
      * <p>Sets the maximum number of retries for a backoff attempt when flushing bulk requests.
      *
+     * <p>The backoff retries bulk requests which are rejected as a whole and single actions which
+     * are rejected with status 429 (Too Many Requests) because the write queue of a node is full.
+     * The retries are scheduled with the writer's processing time timers instead of blocking the
+     * bulk processor, and the exponential delays follow Elasticsearch's {@code
+     * BackoffPolicy#exponentialBackoff}.
+     *
      * @param flushBackoffType the backoff type to use.
      * @return this builder
      */
@@ -184,6 +251,244 @@ public abstract class ElasticsearchSinkBuilderBase<
         return self();
     }
 
+    /**
+     * Sets the maximum number of bulk requests which may be in flight at the same time. While bulk
+     * requests are in flight, new actions are still buffered into the next bulk request. With the
+     * default of 1, every bulk request is executed synchronously.
+     *
+     * @param maxInFlightRequests the maximum number of concurrent bulk requests.
+     * @return this builder
+     */
+    public B setBulkFlushMaxInFlightRequests(int maxInFlightRequests) {
+        checkState(
+                maxInFlightRequests > 0,
+                "Max number of in-flight bulk requests must be larger than 0.");
+        this.bulkFlushMaxInFlightRequests = maxInFlightRequests;
+        return self();
+    }
+
+    /**
+     * Sets whether actions for the same document must be applied in the order they were emitted,
+     * even if multiple bulk requests are in flight. If enabled, the actions are distributed by
+     * their index and document id into as many lanes as bulk requests may be in flight, and every
+     * lane has at most one bulk request in flight. Disabled by default.
+     *
+     * @param keyOrdered whether to preserve the order of actions per document
+     * @return this builder
+     * @see #setBulkFlushMaxInFlightRequests(int)
+     */
+    public B setBulkFlushKeyOrdered(boolean keyOrdered) {
+        this.bulkFlushKeyOrdered = keyOrdered;
+        return self();
+    }
+
+    /**
+     * Enables the adaptive sizing of bulk requests. Starting with {@code minActions}, the number of
+     * actions per bulk request is continuously adjusted between {@code minActions} and {@code
+     * maxActions} towards the best observed throughput and reduced when Elasticsearch rejects
+     * actions. The size of a bulk request in bytes follows the number of actions and is capped by
+     * {@link #setBulkFlushMaxSizeMb(int)}. If enabled, {@link #setBulkFlushMaxActions(int)} is
+     * ignored.
+     *
+     * @param minActions the minimum number of actions per bulk request
+     * @param maxActions the maximum number of actions per bulk request
+     * @return this builder
+     */
+    public B setBulkFlushAdaptiveSizing(int minActions, int maxActions) {
+        checkState(minActions > 0, "Min number of actions must be larger than 0.");
+        checkState(
+                maxActions >= minActions,
+                "Max number of actions must be larger than or equal to the min number of actions.");
+        this.bulkFlushAdaptiveMinActions = minActions;
+        this.bulkFlushAdaptiveMaxActions = maxActions;
+        return self();
+    }
+
+    /**
+     * Sets whether repeated actions for the same document are coalesced before they are sent. If
+     * enabled, the writer buffers index requests, delete requests and update requests which upsert
+     * a partial document by index, id and routing. An index or delete request replaces the buffered
+     * action of its document, while the partial document of an upsert is merged into the buffered
+     * index request or upsert of its document. Other actions are sent in order after the buffered
+     * action of their document. The buffer is drained when it holds as many documents as {@link
+     * #setBulkFlushMaxActions(int)}, after the {@link #setBulkFlushInterval(long)}, when the {@link
+     * #setMaxPendingSizeInBytes(long)} is reached and on every checkpoint. Buffered actions count
+     * towards the pending size. Since frequently updated documents would otherwise stay buffered
+     * until the next checkpoint, a bulk flush interval must be set. The default is false.
+     *
+     * @param bulkFlushCoalescing whether to coalesce the actions of the same document
+     * @return this builder
+     */
+    public B setBulkFlushCoalescing(boolean bulkFlushCoalescing) {
+        this.bulkFlushCoalescing = bulkFlushCoalescing;
+        return self();
+    }
+
+    /**
+     * Sets the combiner which merges scripted updates of the same document before they are sent,
+     * e.g. adding up the increments of a counter. If set, the writer buffers scripted updates by
+     * index, id and routing and merges an update into the buffered update of its document if both
+     * use the same script. This reduces the number of times a document is read and reindexed by the
+     * cluster and avoids version conflicts between updates of the same document in one bulk
+     * request. Scripted updates with an upsert document are only merged if {@code scriptedUpsert}
+     * is set. The buffer is drained like the buffer of {@link #setBulkFlushCoalescing(boolean)},
+     * which requires a bulk flush interval as well.
+     *
+     * @param scriptParamsCombiner merging the parameters of scripted updates
+     * @return this builder
+     */
+    public B setScriptParamsCombiner(ScriptParamsCombiner scriptParamsCombiner) {
+        checkNotNull(scriptParamsCombiner);
+        checkState(
+                InstantiationUtil.isSerializable(scriptParamsCombiner),
+                "The script params combiner must be serializable.");
+        this.scriptParamsCombiner = scriptParamsCombiner;
+        return self();
+    }
+
+    /**
+     * Sets whether the actions of a bulk request are encoded directly into a reused request body
+     * which is sent with the low-level REST client. This avoids serializing every action again in
+     * the high-level client. Bulk requests containing index requests whose source is not JSON are
+     * still sent by the high-level client. The default is false.
+     *
+     * @param directBulkEncoding whether to encode bulk requests directly
+     * @return this builder
+     */
+    public B setDirectBulkEncoding(boolean directBulkEncoding) {
+        this.directBulkEncoding = directBulkEncoding;
+        return self();
+    }
+
+    /**
+     * Sets the compression of the bulk request bodies. Compressed bulk requests are encoded
+     * directly and sent with the low-level REST client, see {@link
+     * #setDirectBulkEncoding(boolean)}, and ask for a compressed response. Bulk requests which
+     * contain index requests with a source other than JSON can not be encoded directly and are sent
+     * uncompressed. The default is {@link CompressionType#NONE}.
+     *
+     * @param compressionType the compression to use for bulk requests
+     * @return this builder
+     */
+    public B setConnectionCompression(CompressionType compressionType) {
+        this.compressionType = checkNotNull(compressionType);
+        return self();
+    }
+
+    /**
+     * Sets the level of the compression from 1 (fastest) to 9 (best compression). The default is 6.
+     *
+     * @param compressionLevel the compression level
+     * @return this builder
+     */
+    public B setConnectionCompressionLevel(int compressionLevel) {
+        checkState(
+                compressionLevel >= 1 && compressionLevel <= 9,
+                "Compression level must be between 1 and 9.");
+        this.compressionLevel = compressionLevel;
+        return self();
+    }
+
+    /**
+     * Sets whether bulk requests are split by the node holding the primary shard of each action and
+     * sent directly to these nodes, instead of letting the coordinating node forward the actions.
+     * The routing of the indices is loaded from the cluster state, which requires the {@code
+     * monitor} cluster privilege. Only the configured hosts are used as target nodes, so all data
+     * nodes should be configured. A part which can not be sent to its node is sent to any
+     * configured host instead. The default is false.
+     *
+     * @param shardRouting whether to send actions to the nodes of their primary shards
+     * @return this builder
+     */
+    public B setShardRouting(boolean shardRouting) {
+        this.shardRouting = shardRouting;
+        return self();
+    }
+
+    /**
+     * Sets the type of back off to use when retrying single failed actions of a bulk request. Only
+     * the failed actions are added again to the next bulk requests if their status is retryable,
+     * see {@link #setItemRetryableStatuses(int...)}. Until the retries are exhausted a checkpoint
+     * waits for the retried actions. By default, failed actions are not retried and fail the sink.
+     *
+     * <p>If the order of the actions of a document is preserved, i.e. at most one bulk request is
+     * in flight or {@link #setBulkFlushKeyOrdered(boolean)} is enabled, later actions of a document
+     * are held back until its sent actions are acknowledged, so a retry does not overwrite them.
+     *
+     * @param itemRetryBackoffType the backoff type to use.
+     * @param maxRetries the maximum number of retries of a single action.
+     * @param delayMillis the delay between retries, the initial delay for exponential backoff.
+     * @return this builder
+     */
+    public B setItemRetryStrategy(
+            FlushBackoffType itemRetryBackoffType, int maxRetries, long delayMillis) {
+        this.itemRetryBackoffType = checkNotNull(itemRetryBackoffType);
+        checkState(
+                itemRetryBackoffType != FlushBackoffType.NONE,
+                "FlushBackoffType#NONE does not require a configuration it is the default, retries and delay are ignored.");
+        checkState(maxRetries > 0, "Max number of retries must be larger than 0.");
+        this.itemRetryMaxRetries = maxRetries;
+        checkState(
+                delayMillis >= 0,
+                "Delay (in milliseconds) between each retry must be larger than or equal to 0.");
+        this.itemRetryDelay = delayMillis;
+        return self();
+    }
+
+    /**
+     * Sets the HTTP status codes of failed actions which are retried. The default statuses are 429
+     * (Too Many Requests) and 503 (Service Unavailable).
+     *
+     * @param statuses the retryable HTTP status codes
+     * @return this builder
+     * @see #setItemRetryStrategy(FlushBackoffType, int, long)
+     */
+    public B setItemRetryableStatuses(int... statuses) {
+        checkNotNull(statuses);
+        checkState(statuses.length > 0, "Retryable statuses cannot be empty.");
+        final Set<Integer> retryableStatuses = new HashSet<>();
+        for (int status : statuses) {
+            retryableStatuses.add(status);
+        }
+        this.itemRetryableStatuses = retryableStatuses;
+        return self();
+    }
+
+    /**
+     * Sets the handler which decides whether a failed action is retried, dropped, routed to the
+     * {@link DeadLetterQueue} or fails the sink. The handler is invoked for all failed actions
+     * which are not retried by the item retry strategy. By default, every such failure fails the
+     * sink.
+     *
+     * @param failureHandler deciding how to handle failed actions
+     * @return this builder
+     * @see #setItemRetryStrategy(FlushBackoffType, int, long)
+     */
+    public B setBulkItemFailureHandler(BulkItemFailureHandler failureHandler) {
+        checkNotNull(failureHandler);
+        checkState(
+                InstantiationUtil.isSerializable(failureHandler),
+                "The failure handler must be serializable.");
+        this.failureHandler = failureHandler;
+        return self();
+    }
+
+    /**
+     * Sets the destination of failed actions which the {@link BulkItemFailureHandler} routes to the
+     * dead letter queue.
+     *
+     * @param deadLetterQueue receiving the failed actions
+     * @return this builder
+     */
+    public B setDeadLetterQueue(DeadLetterQueue deadLetterQueue) {
+        checkNotNull(deadLetterQueue);
+        checkState(
+                InstantiationUtil.isSerializable(deadLetterQueue),
+                "The dead letter queue must be serializable.");
+        this.deadLetterQueue = deadLetterQueue;
+        return self();
+    }
+
     /**
      * Sets the username used to authenticate the connection with the Elasticsearch cluster.
      *
@@ -258,8 +563,104 @@ public abstract class ElasticsearchSinkBuilderBase<
         return self();
     }
 
+    /**
+     * Sets the maximum number of pooled connections to a single Elasticsearch node. The default of
+     * the Elasticsearch client is 10.
+     *
+     * @param maxConnections per node
+     * @return this builder
+     */
+    public B setConnectionMaxPerRoute(int maxConnections) {
+        checkState(maxConnections > 0, "Maximum connections per route must be larger than 0.");
+        this.maxConnectionsPerRoute = maxConnections;
+        return self();
+    }
+
+    /**
+     * Sets the maximum number of pooled connections to all Elasticsearch nodes. The default of the
+     * Elasticsearch client is 30.
+     *
+     * @param maxConnections in total
+     * @return this builder
+     */
+    public B setConnectionMaxTotal(int maxConnections) {
+        checkState(maxConnections > 0, "Maximum connections in total must be larger than 0.");
+        this.maxConnectionsTotal = maxConnections;
+        return self();
+    }
+
+    /**
+     * Sets the number of I/O dispatcher threads of the client. The default is the number of
+     * available processors, which is usually more than a single sink subtask needs.
+     *
+     * @param ioThreadCount number of I/O dispatcher threads
+     * @return this builder
+     */
+    public B setConnectionIoThreadCount(int ioThreadCount) {
+        checkState(ioThreadCount > 0, "I/O thread count must be larger than 0.");
+        this.ioThreadCount = ioThreadCount;
+        return self();
+    }
+
+    /**
+     * Sets the maximum time an idle pooled connection is kept alive. A shorter timeout announced by
+     * the server in its Keep-Alive header takes precedence. By default, idle connections are kept
+     * alive indefinitely if the server does not announce a timeout.
+     *
+     * @param keepAliveMillis maximum keep-alive time in milliseconds
+     * @return this builder
+     */
+    public B setConnectionKeepAlive(long keepAliveMillis) {
+        checkState(keepAliveMillis >= 0, "Keep-alive must be larger than or equal to 0.");
+        this.keepAlive = keepAliveMillis;
+        return self();
+    }
+
+    /**
+     * Sets the size of the socket send buffer (SO_SNDBUF). By default, the operating system default
+     * is used.
+     *
+     * @param bytes size of the send buffer
+     * @return this builder
+     */
+    public B setSocketSendBufferSize(int bytes) {
+        checkState(bytes > 0, "Socket send buffer size must be larger than 0.");
+        this.socketSendBufferSize = bytes;
+        return self();
+    }
+
+    /**
+     * Sets the size of the socket receive buffer (SO_RCVBUF). By default, the operating system
+     * default is used.
+     *
+     * @param bytes size of the receive buffer
+     * @return this builder
+     */
+    public B setSocketReceiveBufferSize(int bytes) {
+        checkState(bytes > 0, "Socket receive buffer size must be larger than 0.");
+        this.socketReceiveBufferSize = bytes;
+        return self();
+    }
+
+    /**
+     * Sets whether the writers share their client with all other writers in the same JVM which
+     * connect to the same hosts with the same configuration. Every client has its own connection
+     * pool and I/O threads, so sharing reduces the connections and threads of TaskManagers with
+     * many slots. The connection limits then apply to all writers sharing the client. The default
+     * is false.
+     *
+     * @param sharedClient whether the client is shared
+     * @return this builder
+     */
+    public B setSharedClient(boolean sharedClient) {
+        this.sharedClient = sharedClient;
+        return self();
+    }
+
     protected abstract BulkProcessorBuilderFactory getBulkProcessorBuilderFactory();
 
+    protected abstract DocWriteRequestReader getDocWriteRequestReader();
+
     /**
      * Constructs the {@link ElasticsearchSink} with the properties configured this builder.
      *
@@ -268,6 +669,9 @@ public abstract class ElasticsearchSinkBuilderBase<
     public ElasticsearchSink<IN> build() {
         checkNotNull(emitter);
         checkNotNull(hosts);
+        checkState(
+                bulkFlushInterval != -1 || (!bulkFlushCoalescing && scriptParamsCombiner == null),
+                "Coalescing actions requires a bulk flush interval.");
 
         NetworkClientConfig networkClientConfig = buildNetworkClientConfig();
         BulkProcessorConfig bulkProcessorConfig = buildBulkProcessorConfig();
@@ -275,14 +679,74 @@ public abstract class ElasticsearchSinkBuilderBase<
         BulkProcessorBuilderFactory bulkProcessorBuilderFactory = getBulkProcessorBuilderFactory();
         ClosureCleaner.clean(
                 bulkProcessorBuilderFactory, ExecutionConfig.ClosureCleanerLevel.RECURSIVE, true);
+        DocWriteRequestReader docWriteRequestReader = getDocWriteRequestReader();
+        ClosureCleaner.clean(
+                docWriteRequestReader, ExecutionConfig.ClosureCleanerLevel.RECURSIVE, true);
 
         return new ElasticsearchSink<>(
                 hosts,
                 emitter,
                 deliveryGuarantee,
+                checkpointPendingActions,
+                maxPendingSizeInBytes,
                 bulkProcessorBuilderFactory,
                 bulkProcessorConfig,
-                networkClientConfig);
+                new BulkItemRetryConfig(
+                        itemRetryBackoffType,
+                        itemRetryMaxRetries,
+                        itemRetryDelay,
+                        itemRetryableStatuses),
+                failureHandler,
+                deadLetterQueue,
+                scriptParamsCombiner,
+                networkClientConfig,
+                docWriteRequestReader);
+    }
+
+    /**
+     * Constructs an {@link ElasticsearchBulkLoadSink} for bounded inputs, which writes like the
+     * sink of {@link #build()} but suspends the refreshes and replicas of the given indices until
+     * the input has ended.
+     *
+     * @param indices names of the indices which are loaded
+     * @param forceMergeMaxNumSegments number of segments the indices are merged to after the load,
+     *     or -1 to not merge them
+     * @return {@link ElasticsearchBulkLoadSink}
+     */
+    public ElasticsearchBulkLoadSink<IN> buildBulkLoad(
+            List<String> indices, int forceMergeMaxNumSegments) {
+        return new ElasticsearchBulkLoadSink<>(
+                build(), indices, forceMergeMaxNumSegments, null, false);
+    }
+
+    /**
+     * Constructs an {@link ElasticsearchBulkLoadSink} for bounded inputs, which loads a new
+     * generation of the data behind an alias. When the job starts, a new index named {@code
+     * <alias>-<yyyyMMddHHmmssSSS>} after the current time in UTC is created, and the given write
+     * alias is pointed to it. The emitter has to write all records to the write alias. Once the
+     * input has ended, the alias is swapped atomically from its previous indices to the loaded
+     * index, and the write alias is removed. Indices of loads which did not finish are kept.
+     *
+     * @param alias name of the alias which is swapped to the loaded index
+     * @param writeAlias name of the alias the emitter writes to, which must not be an index
+     * @param forceMergeMaxNumSegments number of segments the index is merged to after the load, or
+     *     -1 to not merge it
+     * @param deletePreviousIndices whether the previous indices of the alias and the indices of
+     *     loads which did not finish are deleted after the swap
+     * @return {@link ElasticsearchBulkLoadSink}
+     */
+    public ElasticsearchBulkLoadSink<IN> buildAliasSwap(
+            String alias,
+            String writeAlias,
+            int forceMergeMaxNumSegments,
+            boolean deletePreviousIndices) {
+        checkNotNull(alias);
+        return new ElasticsearchBulkLoadSink<>(
+                build(),
+                Collections.singletonList(writeAlias),
+                forceMergeMaxNumSegments,
+                alias,
+                deletePreviousIndices);
     }
 
     private NetworkClientConfig buildNetworkClientConfig() {
@@ -294,17 +758,37 @@ public abstract class ElasticsearchSinkBuilderBase<
                 connectionPathPrefix,
                 connectionRequestTimeout,
                 connectionTimeout,
-                socketTimeout);
+                socketTimeout,
+                maxConnectionsPerRoute,
+                maxConnectionsTotal,
+                ioThreadCount,
+                keepAlive,
+                socketSendBufferSize,
+                socketReceiveBufferSize,
+                sharedClient);
     }
 
     private BulkProcessorConfig buildBulkProcessorConfig() {
-        return new BulkProcessorConfig(
-                bulkFlushMaxActions,
-                bulkFlushMaxMb,
-                bulkFlushInterval,
-                bulkFlushBackoffType,
-                bulkFlushBackoffRetries,
-                bulkFlushBackOffDelay);
+        return BulkProcessorConfig.builder()
+                .setBulkFlushMaxActions(
+                        bulkFlushAdaptiveMaxActions != -1
+                                ? bulkFlushAdaptiveMaxActions
+                                : bulkFlushMaxActions)
+                .setBulkFlushMaxMb(bulkFlushMaxMb)
+                .setBulkFlushInterval(bulkFlushInterval)
+                .setFlushBackoffType(bulkFlushBackoffType)
+                .setBulkFlushBackoffRetries(bulkFlushBackoffRetries)
+                .setBulkFlushBackOffDelay(bulkFlushBackOffDelay)
+                .setBulkFlushMaxInFlightRequests(bulkFlushMaxInFlightRequests)
+                .setBulkFlushKeyOrdered(bulkFlushKeyOrdered)
+                .setBulkFlushAdaptiveMinActions(bulkFlushAdaptiveMinActions)
+                .setBulkFlushAdaptiveMaxActions(bulkFlushAdaptiveMaxActions)
+                .setDirectBulkEncoding(directBulkEncoding)
+                .setCompressionType(compressionType)
+                .setCompressionLevel(compressionLevel)
+                .setShardRouting(shardRouting)
+                .setBulkFlushCoalescing(bulkFlushCoalescing)
+                .build();
     }
 
     @Override
@@ -322,8 +806,44 @@ public abstract class ElasticsearchSinkBuilderBase<
                 + bulkFlushBackoffRetries
                 + ", bulkFlushBackOffDelay="
                 + bulkFlushBackOffDelay
+                + ", bulkFlushMaxInFlightRequests="
+                + bulkFlushMaxInFlightRequests
+                + ", bulkFlushKeyOrdered="
+                + bulkFlushKeyOrdered
+                + ", bulkFlushAdaptiveMinActions="
+                + bulkFlushAdaptiveMinActions
+                + ", bulkFlushAdaptiveMaxActions="
+                + bulkFlushAdaptiveMaxActions
+                + ", directBulkEncoding="
+                + directBulkEncoding
+                + ", bulkFlushCoalescing="
+                + bulkFlushCoalescing
+                + ", scriptParamsCombiner="
+                + scriptParamsCombiner
+                + ", compressionType="
+                + compressionType
+                + ", compressionLevel="
+                + compressionLevel
+                + ", shardRouting="
+                + shardRouting
+                + ", itemRetryBackoffType="
+                + itemRetryBackoffType
+                + ", itemRetryMaxRetries="
+                + itemRetryMaxRetries
+                + ", itemRetryDelay="
+                + itemRetryDelay
+                + ", itemRetryableStatuses="
+                + itemRetryableStatuses
+                + ", failureHandler="
+                + failureHandler
+                + ", deadLetterQueue="
+                + deadLetterQueue
                 + ", deliveryGuarantee="
                 + deliveryGuarantee
+                + ", maxPendingSizeInBytes="
+                + maxPendingSizeInBytes
+                + ", checkpointPendingActions="
+                + checkpointPendingActions
                 + ", hosts="
                 + hosts
                 + ", emitter="
@@ -337,6 +857,20 @@ public abstract class ElasticsearchSinkBuilderBase<
                 + ", connectionPathPrefix='"
                 + connectionPathPrefix
                 + '\''
+                + ", maxConnectionsPerRoute="
+                + maxConnectionsPerRoute
+                + ", maxConnectionsTotal="
+                + maxConnectionsTotal
+                + ", ioThreadCount="
+                + ioThreadCount
+                + ", keepAlive="
+                + keepAlive
+                + ", socketSendBufferSize="
+                + socketSendBufferSize
+                + ", socketReceiveBufferSize="
+                + socketReceiveBufferSize
+                + ", sharedClient="
+                + sharedClient
                 + '}';
     }
 }
@@ -20,7 +20,8 @@ package org.apache.flink.connector.elasticsearch.sink;
 
 import org.apache.flink.annotation.VisibleForTesting;
 import org.apache.flink.api.common.operators.MailboxExecutor;
-import org.apache.flink.api.connector.sink2.SinkWriter;
+import org.apache.flink.api.common.operators.ProcessingTimeService;
+import org.apache.flink.api.connector.sink2.StatefulSink.StatefulSinkWriter;
 import org.apache.flink.metrics.Counter;
 import org.apache.flink.metrics.groups.SinkWriterMetricGroup;
 import org.apache.flink.util.FlinkRuntimeException;
@@ -31,6 +32,9 @@ import org.apache.http.auth.AuthScope;
 import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CredentialsProvider;
 import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
@@ -46,28 +50,80 @@ import org.elasticsearch.rest.RestStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
+
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+import static org.apache.flink.util.ExceptionUtils.findThrowable;
 import static org.apache.flink.util.ExceptionUtils.firstOrSuppressed;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 
-class ElasticsearchWriter<IN> implements SinkWriter<IN> {
+class ElasticsearchWriter<IN> implements StatefulSinkWriter<IN, ElasticsearchWriterState> {
 
     private static final Logger LOG = LoggerFactory.getLogger(ElasticsearchWriter.class);
 
+    /** Number of documents buffered for coalescing if the bulk size is not limited by actions. */
+    private static final int DEFAULT_COALESCING_CAPACITY = 1000;
+
     private final ElasticsearchEmitter<? super IN> emitter;
     private final MailboxExecutor mailboxExecutor;
+    private final ProcessingTimeService processingTimeService;
+    private final BulkItemRetryConfig bulkItemRetryConfig;
+    /** Retries the actions rejected by a full write queue, like the backoff of the bulk flush. */
+    private final BulkItemRetryConfig bulkFlushBackoffConfig;
+
+    @Nullable private final BulkItemFailureHandler failureHandler;
+    @Nullable private final DeadLetterQueue deadLetterQueue;
     private final boolean flushOnCheckpoint;
-    private final BulkProcessor bulkProcessor;
+    private final long maxPendingSizeInBytes;
+    private final BulkProcessor[] bulkProcessors;
     private final RestHighLevelClient client;
+    private final boolean sharedClient;
     private final RequestIndexer requestIndexer;
     private final Counter numBytesOutCounter;
+    private final Counter numActionsRetriedCounter;
+    private final Counter numActionsDroppedCounter;
+    private final Counter numActionsDeadLetteredCounter;
+    private final Counter numActionsFailedCounter;
+    private final Counter numBulkBytesRawCounter;
+    private final Counter numBulkBytesWireCounter;
+    private final BulkMetrics bulkMetrics;
+    @Nullable private final BulkSizeController bulkSizeController;
+    private final AtomicLongArray bufferedActions;
+    private final AtomicLongArray bufferedBytes;
+    private final Map<DocWriteRequest<?>, Integer> retryAttempts = new IdentityHashMap<>();
+    /**
+     * Number of sent actions per document which are not acknowledged yet, including the actions
+     * waiting for a retry, if the order of the actions of a document is preserved.
+     */
+    @Nullable private final Map<DocumentKey, Integer> sentActionsPerDocument;
+    /** Actions held back until the sent actions of their document are acknowledged. */
+    private final Map<DocumentKey, Queue<DocWriteRequest<?>>> heldBackActions = new HashMap<>();
+    /** Sequence numbers of the actions which are not yet acknowledged, if they are checkpointed. */
+    @Nullable private final Map<DocWriteRequest<?>, Long> unacknowledgedActions;
+
+    @Nullable private final ActionCoalescingBuffer coalescingBuffer;
+    private final long bulkFlushIntervalMillis;
 
     private long pendingActions = 0;
+    private long pendingSizeInBytes = 0;
+    private long nextSequenceNumber = 0;
+    private int nextLane = 0;
     private boolean checkpointInProgress = false;
-    private volatile long lastSendTime = 0;
-    private volatile long ackTime = Long.MAX_VALUE;
+    private boolean flushTimerRegistered = false;
     private volatile boolean closed = false;
 
     /**
@@ -77,41 +133,133 @@ class ElasticsearchWriter<IN> implements SinkWriter<IN> {
      * @param emitter converting incoming records to elasticsearch actions
      * @param flushOnCheckpoint if true all until now received records are flushed after every
      *     checkpoint
+     * @param checkpointPendingActions if true the actions which are not yet acknowledged are stored
+     *     in the writer's state on a checkpoint
+     * @param maxPendingSizeInBytes the memory budget for the actions which are not yet
+     *     acknowledged, after which the writer backpressures, or -1 if it is unbounded
      * @param bulkProcessorConfig describing the flushing and failure handling of the used {@link
      *     BulkProcessor}
      * @param bulkProcessorBuilderFactory configuring the {@link BulkProcessor}'s builder
+     * @param bulkItemRetryConfig describing which failed actions are retried
+     * @param failureHandler deciding how failed actions which are not retried are handled, fails
+     *     the writer if null
+     * @param deadLetterQueue receiving the failed actions routed to it by the failure handler
+     * @param scriptParamsCombiner merging scripted updates of the same document before they are
+     *     sent, scripted updates are not merged if null
      * @param networkClientConfig describing properties of the network connection used to connect to
      *     the elasticsearch cluster
      * @param metricGroup for the sink writer
      * @param mailboxExecutor Flink's mailbox executor
+     * @param processingTimeService Flink's processing time service to schedule retries
+     * @param recoveredStates the states of the writer to restore the pending actions from
      */
     ElasticsearchWriter(
             List<HttpHost> hosts,
             ElasticsearchEmitter<? super IN> emitter,
             boolean flushOnCheckpoint,
+            boolean checkpointPendingActions,
+            long maxPendingSizeInBytes,
             BulkProcessorConfig bulkProcessorConfig,
             BulkProcessorBuilderFactory bulkProcessorBuilderFactory,
+            BulkItemRetryConfig bulkItemRetryConfig,
+            @Nullable BulkItemFailureHandler failureHandler,
+            @Nullable DeadLetterQueue deadLetterQueue,
+            @Nullable ScriptParamsCombiner scriptParamsCombiner,
             NetworkClientConfig networkClientConfig,
             SinkWriterMetricGroup metricGroup,
-            MailboxExecutor mailboxExecutor) {
+            MailboxExecutor mailboxExecutor,
+            ProcessingTimeService processingTimeService,
+            Collection<ElasticsearchWriterState> recoveredStates) {
         this.emitter = checkNotNull(emitter);
         this.flushOnCheckpoint = flushOnCheckpoint;
+        this.maxPendingSizeInBytes = maxPendingSizeInBytes;
+        this.unacknowledgedActions = checkpointPendingActions ? new IdentityHashMap<>() : null;
         this.mailboxExecutor = checkNotNull(mailboxExecutor);
+        this.processingTimeService = checkNotNull(processingTimeService);
+        this.bulkItemRetryConfig = checkNotNull(bulkItemRetryConfig);
+        this.failureHandler = failureHandler;
+        this.deadLetterQueue = deadLetterQueue;
+        this.sharedClient = networkClientConfig.isSharedClient();
         this.client =
-                new RestHighLevelClient(
-                        configureRestClientBuilder(
-                                RestClient.builder(hosts.toArray(new HttpHost[0])),
-                                networkClientConfig));
-        this.bulkProcessor = createBulkProcessor(bulkProcessorBuilderFactory, bulkProcessorConfig);
-        this.requestIndexer = new DefaultRequestIndexer(metricGroup.getNumRecordsSendCounter());
+                sharedClient
+                        ? SharedRestClients.acquire(
+                                hosts,
+                                networkClientConfig,
+                                bulkProcessorConfig.isShardRouting(),
+                                () ->
+                                        createClient(
+                                                hosts,
+                                                networkClientConfig,
+                                                bulkProcessorConfig.isShardRouting()))
+                        : createClient(
+                                hosts, networkClientConfig, bulkProcessorConfig.isShardRouting());
         checkNotNull(metricGroup);
-        metricGroup.setCurrentSendTimeGauge(() -> ackTime - lastSendTime);
+        this.bulkSizeController = createBulkSizeController(bulkProcessorConfig, metricGroup);
+        this.bulkFlushBackoffConfig =
+                new BulkItemRetryConfig(
+                        bulkProcessorConfig.getFlushBackoffType(),
+                        bulkProcessorConfig.getBulkFlushBackoffRetries(),
+                        bulkProcessorConfig.getBulkFlushBackOffDelay(),
+                        Collections.singleton(RestStatus.TOO_MANY_REQUESTS.getStatus()));
+        // the order only needs to be guarded if a failed action can be sent again
+        this.sentActionsPerDocument =
+                (bulkProcessorConfig.isBulkFlushKeyOrdered()
+                                        || bulkProcessorConfig.getBulkFlushMaxInFlightRequests()
+                                                <= 1)
+                                && (bulkItemRetryConfig.canRetry()
+                                        || bulkFlushBackoffConfig.canRetry()
+                                        || failureHandler != null)
+                        ? new HashMap<>()
+                        : null;
+        this.bulkProcessors =
+                createBulkProcessors(bulkProcessorBuilderFactory, bulkProcessorConfig);
+        this.bufferedActions = new AtomicLongArray(bulkProcessors.length);
+        this.bufferedBytes = new AtomicLongArray(bulkProcessors.length);
+        this.requestIndexer = new DefaultRequestIndexer(metricGroup.getNumRecordsSendCounter());
+        this.bulkMetrics = new BulkMetrics(metricGroup);
+        metricGroup.setCurrentSendTimeGauge(bulkMetrics::getLastBulkLatencyMillis);
+        metricGroup.gauge("pendingActions", () -> pendingActions);
+        metricGroup.gauge("pendingBytes", this::getPendingSizeInBytes);
+        metricGroup.gauge("bufferedBytes", this::getBufferedBytes);
         this.numBytesOutCounter = metricGroup.getIOMetricGroup().getNumBytesOutCounter();
+        this.numActionsRetriedCounter = metricGroup.counter("numActionsRetried");
+        this.numActionsDroppedCounter = metricGroup.counter("numActionsDropped");
+        this.numActionsDeadLetteredCounter = metricGroup.counter("numActionsDeadLettered");
+        this.numActionsFailedCounter = metricGroup.counter("numActionsFailed");
+        this.numBulkBytesRawCounter = metricGroup.counter("numBulkBytesRaw");
+        this.numBulkBytesWireCounter = metricGroup.counter("numBulkBytesWire");
+        this.coalescingBuffer =
+                bulkProcessorConfig.isBulkFlushCoalescing() || scriptParamsCombiner != null
+                        ? new ActionCoalescingBuffer(
+                                bulkProcessorConfig.getBulkFlushMaxActions() != -1
+                                        ? bulkProcessorConfig.getBulkFlushMaxActions()
+                                        : DEFAULT_COALESCING_CAPACITY,
+                                bulkProcessorConfig.isBulkFlushCoalescing(),
+                                scriptParamsCombiner,
+                                this::addAction,
+                                metricGroup.counter("numActionsCoalesced"))
+                        : null;
+        this.bulkFlushIntervalMillis = bulkProcessorConfig.getBulkFlushInterval();
         try {
             emitter.open();
         } catch (Exception e) {
             throw new FlinkRuntimeException("Failed to open the ElasticsearchEmitter", e);
         }
+        if (deadLetterQueue != null) {
+            try {
+                deadLetterQueue.open();
+            } catch (Exception e) {
+                throw new FlinkRuntimeException("Failed to open the DeadLetterQueue", e);
+            }
+        }
+        for (ElasticsearchWriterState recoveredState : checkNotNull(recoveredStates)) {
+            LOG.info(
+                    "Resending {} actions restored from the checkpoint.",
+                    recoveredState.getPendingActions().size());
+            for (DocWriteRequest<?> action : recoveredState.getPendingActions()) {
+                addAction(action);
+            }
+        }
     }
 
     @Override
@@ -120,24 +268,145 @@ class ElasticsearchWriter<IN> implements SinkWriter<IN> {
         while (checkpointInProgress) {
             mailboxExecutor.yield();
         }
+        // backpressure until enough pending actions are acknowledged to fit into the memory budget
+        while (maxPendingSizeInBytes != -1 && getPendingSizeInBytes() >= maxPendingSizeInBytes) {
+            drainCoalescingBuffer();
+            flushBulkProcessors();
+            mailboxExecutor.yield();
+        }
         emitter.emit(element, context, requestIndexer);
     }
 
     @Override
     public void flush(boolean endOfInput) throws IOException, InterruptedException {
+        drainCoalescingBuffer();
         checkpointInProgress = true;
         while (pendingActions != 0 && (flushOnCheckpoint || endOfInput)) {
-            bulkProcessor.flush();
+            flushBulkProcessors();
             LOG.info("Waiting for the response of {} pending actions.", pendingActions);
             mailboxExecutor.yield();
         }
         checkpointInProgress = false;
     }
 
+    /** Adds an action of the emitter, which may be coalesced with later actions. */
+    private void addEmittedAction(DocWriteRequest<?> request) {
+        if (coalescingBuffer == null) {
+            addAction(request);
+            return;
+        }
+        coalescingBuffer.add(request);
+        if (!coalescingBuffer.isEmpty()) {
+            registerFlushTimer();
+        }
+    }
+
+    /**
+     * Flushes the buffered actions once the bulk flush interval has passed. The timer is only
+     * registered while actions are buffered, so idle writers do not wake up, and the flush runs in
+     * the mailbox instead of a scheduler thread of every bulk processor.
+     */
+    private void registerFlushTimer() {
+        if (flushTimerRegistered || bulkFlushIntervalMillis == -1) {
+            return;
+        }
+        flushTimerRegistered = true;
+        processingTimeService.registerTimer(
+                processingTimeService.getCurrentProcessingTime() + bulkFlushIntervalMillis,
+                timestamp -> {
+                    flushTimerRegistered = false;
+                    if (!closed) {
+                        drainCoalescingBuffer();
+                        flushBulkProcessors();
+                    }
+                });
+    }
+
+    private void drainCoalescingBuffer() {
+        if (coalescingBuffer != null) {
+            coalescingBuffer.drain();
+        }
+    }
+
+    private void addAction(DocWriteRequest<?> request) {
+        pendingActions++;
+        pendingSizeInBytes += ElasticsearchRequestEntry.estimateSizeInBytes(request);
+        if (unacknowledgedActions != null) {
+            unacknowledgedActions.put(request, nextSequenceNumber++);
+        }
+        addInDocumentOrder(request);
+    }
+
+    /**
+     * Adds the action to a bulk processor, unless earlier actions of its document were sent and are
+     * not acknowledged yet. These actions may still be retried after a backoff delay, so sending
+     * the later action right away could let a retry overwrite it or recreate a deleted document.
+     * Actions of the same document in one bulk request are applied in order by their shard.
+     */
+    private void addInDocumentOrder(DocWriteRequest<?> request) {
+        if (sentActionsPerDocument != null && request.id() != null) {
+            final DocumentKey key = new DocumentKey(request);
+            final Queue<DocWriteRequest<?>> heldBack = heldBackActions.get(key);
+            if (heldBack != null) {
+                heldBack.add(request);
+                return;
+            }
+            if (sentActionsPerDocument.containsKey(key)) {
+                final Queue<DocWriteRequest<?>> queue = new ArrayDeque<>();
+                queue.add(request);
+                heldBackActions.put(key, queue);
+                return;
+            }
+        }
+        addToBulkProcessor(request);
+    }
+
+    private void countSentActions(BulkRequest request) {
+        if (sentActionsPerDocument == null) {
+            return;
+        }
+        for (DocWriteRequest<?> action : request.requests()) {
+            // retried actions are still counted from their first attempt
+            if (action.id() != null && !retryAttempts.containsKey(action)) {
+                sentActionsPerDocument.merge(new DocumentKey(action), 1, Integer::sum);
+            }
+        }
+    }
+
+    private void releaseHeldBackActions(DocWriteRequest<?> completedAction) {
+        final DocumentKey key = new DocumentKey(completedAction);
+        if (sentActionsPerDocument.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null)
+                != null) {
+            return;
+        }
+        final Queue<DocWriteRequest<?>> heldBack = heldBackActions.remove(key);
+        if (heldBack != null) {
+            // an action which is sent while releasing holds back the later ones again
+            for (DocWriteRequest<?> request : heldBack) {
+                addInDocumentOrder(request);
+            }
+        }
+    }
+
+    @Override
+    public List<ElasticsearchWriterState> snapshotState(long checkpointId) {
+        if (unacknowledgedActions == null) {
+            return Collections.emptyList();
+        }
+        final List<DocWriteRequest<?>> actions =
+                unacknowledgedActions.entrySet().stream()
+                        .sorted(Map.Entry.comparingByValue())
+                        .map(Map.Entry::getKey)
+                        .collect(Collectors.toList());
+        LOG.debug("Storing {} pending actions in checkpoint {}.", actions.size(), checkpointId);
+        return Collections.singletonList(new ElasticsearchWriterState(actions));
+    }
+
     @VisibleForTesting
     void blockingFlushAllActions() throws InterruptedException {
+        drainCoalescingBuffer();
         while (pendingActions != 0) {
-            bulkProcessor.flush();
+            flushBulkProcessors();
             LOG.info("Waiting for the response of {} pending actions.", pendingActions);
             mailboxExecutor.yield();
         }
@@ -147,26 +416,98 @@ class ElasticsearchWriter<IN> implements SinkWriter<IN> {
     public void close() throws Exception {
         closed = true;
         emitter.close();
-        bulkProcessor.close();
-        client.close();
+        if (deadLetterQueue != null) {
+            deadLetterQueue.close();
+        }
+        for (BulkProcessor bulkProcessor : bulkProcessors) {
+            bulkProcessor.close();
+        }
+        if (sharedClient) {
+            SharedRestClients.release(client);
+        } else {
+            client.close();
+        }
+    }
+
+    private void flushBulkProcessors() {
+        for (BulkProcessor bulkProcessor : bulkProcessors) {
+            bulkProcessor.flush();
+        }
+    }
+
+    /**
+     * Selects the lane of the {@link BulkProcessor} for the given action. If the actions are
+     * ordered by key, all actions for the same document are assigned to the same lane.
+     */
+    private int selectLane(DocWriteRequest<?> request) {
+        if (bulkProcessors.length == 1) {
+            return 0;
+        }
+        if (request.id() == null) {
+            // Actions with auto-generated ids can not conflict with each other
+            nextLane = (nextLane + 1) % bulkProcessors.length;
+            return nextLane;
+        }
+        final int hash = 31 * Objects.hashCode(request.index()) + request.id().hashCode();
+        return Math.floorMod(hash, bulkProcessors.length);
+    }
+
+    private void addToBulkProcessor(DocWriteRequest<?> request) {
+        final int lane = selectLane(request);
+        // counted before adding, as the bulk processor may send the request right away
+        bufferedActions.incrementAndGet(lane);
+        bufferedBytes.addAndGet(lane, ElasticsearchRequestEntry.estimateSizeInBytes(request));
+        bulkProcessors[lane].add(request);
+        registerFlushTimer();
+        if (bulkSizeController == null) {
+            return;
+        }
+        final long actions = bufferedActions.get(lane);
+        final long bytes = bufferedBytes.get(lane);
+        final long maxSizeInBytes = bulkSizeController.getMaxSizeInBytes();
+        if (actions >= bulkSizeController.getMaxActions()
+                || (maxSizeInBytes != -1 && bytes >= maxSizeInBytes)) {
+            bulkProcessors[lane].flush();
+        }
+    }
+
+    @Nullable
+    private static BulkSizeController createBulkSizeController(
+            BulkProcessorConfig bulkProcessorConfig, SinkWriterMetricGroup metricGroup) {
+        if (!bulkProcessorConfig.isBulkFlushAdaptiveSizing()) {
+            return null;
+        }
+        final long maxSizeInBytes =
+                bulkProcessorConfig.getBulkFlushMaxMb() == -1
+                        ? -1
+                        : bulkProcessorConfig.getBulkFlushMaxMb() * 1024L * 1024L;
+        return new BulkSizeController(
+                bulkProcessorConfig.getBulkFlushAdaptiveMinActions(),
+                bulkProcessorConfig.getBulkFlushAdaptiveMaxActions(),
+                maxSizeInBytes,
+                metricGroup);
+    }
+
+    static RestHighLevelClient createClient(
+            List<HttpHost> hosts, NetworkClientConfig networkClientConfig, boolean shardRouting) {
+        final RestClientBuilder restClientBuilder =
+                configureRestClientBuilder(
+                        RestClient.builder(hosts.toArray(new HttpHost[0])), networkClientConfig);
+        if (shardRouting) {
+            restClientBuilder.setNodeSelector(new ShardRoutingNodeSelector());
+        }
+        return new RestHighLevelClient(restClientBuilder);
     }
 
-    private static RestClientBuilder configureRestClientBuilder(
+    static RestClientBuilder configureRestClientBuilder(
             RestClientBuilder builder, NetworkClientConfig networkClientConfig) {
         if (networkClientConfig.getConnectionPathPrefix() != null) {
             builder.setPathPrefix(networkClientConfig.getConnectionPathPrefix());
         }
-        if (networkClientConfig.getPassword() != null
-                && networkClientConfig.getUsername() != null) {
-            final CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-            credentialsProvider.setCredentials(
-                    AuthScope.ANY,
-                    new UsernamePasswordCredentials(
-                            networkClientConfig.getUsername(), networkClientConfig.getPassword()));
-            builder.setHttpClientConfigCallback(
-                    httpClientBuilder ->
-                            httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider));
-        }
+        // the builder keeps a single callback, so all http client settings are applied by one
+        builder.setHttpClientConfigCallback(
+                httpClientBuilder ->
+                        configureHttpClientBuilder(httpClientBuilder, networkClientConfig));
         if (networkClientConfig.getConnectionRequestTimeout() != null
                 || networkClientConfig.getConnectionTimeout() != null
                 || networkClientConfig.getSocketTimeout() != null) {
@@ -190,43 +531,145 @@ class ElasticsearchWriter<IN> implements SinkWriter<IN> {
         return builder;
     }
 
-    private BulkProcessor createBulkProcessor(
+    private static HttpAsyncClientBuilder configureHttpClientBuilder(
+            HttpAsyncClientBuilder httpClientBuilder, NetworkClientConfig networkClientConfig) {
+        if (networkClientConfig.getPassword() != null
+                && networkClientConfig.getUsername() != null) {
+            final CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+            credentialsProvider.setCredentials(
+                    AuthScope.ANY,
+                    new UsernamePasswordCredentials(
+                            networkClientConfig.getUsername(), networkClientConfig.getPassword()));
+            httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider);
+        }
+        if (networkClientConfig.getMaxConnectionsPerRoute() != null) {
+            httpClientBuilder.setMaxConnPerRoute(networkClientConfig.getMaxConnectionsPerRoute());
+        }
+        if (networkClientConfig.getMaxConnectionsTotal() != null) {
+            httpClientBuilder.setMaxConnTotal(networkClientConfig.getMaxConnectionsTotal());
+        }
+        if (networkClientConfig.getIoThreadCount() != null
+                || networkClientConfig.getSocketSendBufferSize() != null
+                || networkClientConfig.getSocketReceiveBufferSize() != null) {
+            final IOReactorConfig.Builder ioReactorConfig = IOReactorConfig.custom();
+            if (networkClientConfig.getIoThreadCount() != null) {
+                ioReactorConfig.setIoThreadCount(networkClientConfig.getIoThreadCount());
+            }
+            if (networkClientConfig.getSocketSendBufferSize() != null) {
+                ioReactorConfig.setSndBufSize(networkClientConfig.getSocketSendBufferSize());
+            }
+            if (networkClientConfig.getSocketReceiveBufferSize() != null) {
+                ioReactorConfig.setRcvBufSize(networkClientConfig.getSocketReceiveBufferSize());
+            }
+            httpClientBuilder.setDefaultIOReactorConfig(ioReactorConfig.build());
+        }
+        if (networkClientConfig.getKeepAlive() != null) {
+            httpClientBuilder.setKeepAliveStrategy(
+                    new CappedKeepAliveStrategy(networkClientConfig.getKeepAlive()));
+        }
+        return httpClientBuilder;
+    }
+
+    private BulkProcessor[] createBulkProcessors(
             BulkProcessorBuilderFactory bulkProcessorBuilderFactory,
             BulkProcessorConfig bulkProcessorConfig) {
+        final int maxInFlightRequests = bulkProcessorConfig.getBulkFlushMaxInFlightRequests();
+        if (bulkProcessorConfig.isBulkFlushKeyOrdered() && maxInFlightRequests > 1) {
+            // Every lane has at most one bulk request in flight, so actions for the same document
+            // are never sent concurrently
+            final BulkProcessor[] lanes = new BulkProcessor[maxInFlightRequests];
+            for (int i = 0; i < lanes.length; i++) {
+                lanes[i] =
+                        createBulkProcessor(bulkProcessorBuilderFactory, bulkProcessorConfig, i, 1);
+            }
+            return lanes;
+        }
 
-        BulkProcessor.Builder builder =
-                bulkProcessorBuilderFactory.apply(client, bulkProcessorConfig, new BulkListener());
+        // A single in-flight request makes flush() blocking, otherwise the bulk requests are
+        // pipelined and flush() only waits until all pending actions are acknowledged
+        return new BulkProcessor[] {
+            createBulkProcessor(
+                    bulkProcessorBuilderFactory,
+                    bulkProcessorConfig,
+                    0,
+                    maxInFlightRequests > 1 ? maxInFlightRequests : 0)
+        };
+    }
 
-        // This makes flush() blocking
-        builder.setConcurrentRequests(0);
+    private BulkProcessor createBulkProcessor(
+            BulkProcessorBuilderFactory bulkProcessorBuilderFactory,
+            BulkProcessorConfig bulkProcessorConfig,
+            int lane,
+            int concurrentRequests) {
+
+        BulkProcessor.Builder builder =
+                bulkProcessorBuilderFactory.apply(
+                        client, bulkProcessorConfig, new BulkListener(lane));
+        builder.setConcurrentRequests(concurrentRequests);
 
         return builder.build();
     }
 
-    private class BulkListener implements BulkProcessor.Listener {
+    private class BulkListener
+            implements BulkProcessor.Listener, RestClientBulkRequestConsumer.BulkBodyListener {
+
+        private final int lane;
+        private final Map<Long, Long> sendTimes = new ConcurrentHashMap<>();
+
+        BulkListener(int lane) {
+            this.lane = lane;
+        }
 
         @Override
         public void beforeBulk(long executionId, BulkRequest request) {
             LOG.info("Sending bulk of {} actions to Elasticsearch.", request.numberOfActions());
-            lastSendTime = System.currentTimeMillis();
+            countSentActions(request);
             numBytesOutCounter.inc(request.estimatedSizeInBytes());
+            bufferedActions.set(lane, 0);
+            bufferedBytes.set(lane, 0);
+            sendTimes.put(executionId, System.currentTimeMillis());
+        }
+
+        @Override
+        public void onBulkBodyEncoded(long rawBytes, long wireBytes) {
+            numBulkBytesRawCounter.inc(rawBytes);
+            numBulkBytesWireCounter.inc(wireBytes);
         }
 
         @Override
         public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
-            ackTime = System.currentTimeMillis();
+            final Long sendTime = sendTimes.remove(executionId);
+            final long latencyMillis = sendTime == null ? 0 : System.currentTimeMillis() - sendTime;
             enqueueActionInMailbox(
-                    () -> extractFailures(request, response), "elasticsearchSuccessCallback");
+                    () -> {
+                        bulkMetrics.onBulkCompleted(request, response, latencyMillis);
+                        updateBulkSize(request, response, latencyMillis);
+                        extractFailures(request, response);
+                    },
+                    "elasticsearchSuccessCallback");
         }
 
         @Override
         public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            sendTimes.remove(executionId);
             enqueueActionInMailbox(
-                    () -> {
-                        throw new FlinkRuntimeException("Complete bulk has failed.", failure);
-                    },
-                    "elasticsearchErrorCallback");
+                    () -> retryRejectedBulk(request, failure), "elasticsearchErrorCallback");
+        }
+    }
+
+    /** Returns the size of the actions which are not acknowledged yet, including coalesced ones. */
+    private long getPendingSizeInBytes() {
+        return coalescingBuffer == null
+                ? pendingSizeInBytes
+                : pendingSizeInBytes + coalescingBuffer.getSizeInBytes();
+    }
+
+    private long getBufferedBytes() {
+        long bytes = 0;
+        for (int i = 0; i < bufferedBytes.length(); i++) {
+            bytes += bufferedBytes.get(i);
         }
+        return bytes;
     }
 
     private void enqueueActionInMailbox(
@@ -241,28 +684,89 @@ class ElasticsearchWriter<IN> implements SinkWriter<IN> {
         mailboxExecutor.execute(action, actionName);
     }
 
-    private void extractFailures(BulkRequest request, BulkResponse response) {
+    private void updateBulkSize(BulkRequest request, BulkResponse response, long latencyMillis) {
+        if (bulkSizeController == null) {
+            return;
+        }
+        int numRejected = 0;
+        if (response.hasFailures()) {
+            for (BulkItemResponse itemResponse : response.getItems()) {
+                if (itemResponse.isFailed()
+                        && itemResponse.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS) {
+                    numRejected++;
+                }
+            }
+        }
+        bulkSizeController.onBulkCompleted(
+                request.numberOfActions(),
+                request.estimatedSizeInBytes(),
+                latencyMillis,
+                numRejected);
+    }
+
+    private void extractFailures(BulkRequest request, BulkResponse response) throws Exception {
         if (!response.hasFailures()) {
-            pendingActions -= request.numberOfActions();
+            for (DocWriteRequest<?> actionRequest : request.requests()) {
+                completeAction(actionRequest);
+            }
             return;
         }
 
         Throwable chainedFailures = null;
+        final List<DocWriteRequest<?>> retryRequests = new ArrayList<>();
+        int maxAttempt = 0;
+        long maxRetryDelay = 0;
         for (int i = 0; i < response.getItems().length; i++) {
             final BulkItemResponse itemResponse = response.getItems()[i];
-            if (!itemResponse.isFailed()) {
+            final DocWriteRequest<?> actionRequest = request.requests().get(i);
+            if (!itemResponse.isFailed() || itemResponse.getFailure().getCause() == null) {
+                completeAction(actionRequest);
                 continue;
             }
             final Throwable failure = itemResponse.getFailure().getCause();
-            if (failure == null) {
-                continue;
-            }
             final RestStatus restStatus = itemResponse.getFailure().getStatus();
-            final DocWriteRequest<?> actionRequest = request.requests().get(i);
-
-            chainedFailures =
-                    firstOrSuppressed(
-                            wrapException(restStatus, failure, actionRequest), chainedFailures);
+            final int restStatusCode = restStatus == null ? -1 : restStatus.getStatus();
+            final int attempt = retryAttempts.getOrDefault(actionRequest, 0) + 1;
+            final BulkItemRetryConfig retryConfig =
+                    restStatus == null ? null : getRetryConfig(restStatusCode, attempt);
+            final BulkItemFailureHandler.Decision decision =
+                    retryConfig != null
+                            ? BulkItemFailureHandler.Decision.RETRY
+                            : handleFailure(actionRequest, failure, restStatusCode);
+            switch (decision) {
+                case RETRY:
+                    numActionsRetriedCounter.inc();
+                    retryAttempts.put(actionRequest, attempt);
+                    retryRequests.add(actionRequest);
+                    maxAttempt = Math.max(maxAttempt, attempt);
+                    maxRetryDelay =
+                            Math.max(
+                                    maxRetryDelay,
+                                    (retryConfig != null ? retryConfig : bulkItemRetryConfig)
+                                            .getRetryDelay(attempt));
+                    break;
+                case DROP:
+                    LOG.warn("Dropping failed action {}.", actionRequest, failure);
+                    numActionsDroppedCounter.inc();
+                    completeAction(actionRequest);
+                    break;
+                case DEAD_LETTER:
+                    addToDeadLetterQueue(actionRequest, failure, restStatusCode);
+                    numActionsDeadLetteredCounter.inc();
+                    completeAction(actionRequest);
+                    break;
+                case FAIL:
+                default:
+                    numActionsFailedCounter.inc();
+                    completeAction(actionRequest);
+                    chainedFailures =
+                            firstOrSuppressed(
+                                    wrapException(restStatus, failure, actionRequest),
+                                    chainedFailures);
+            }
+        }
+        if (!retryRequests.isEmpty()) {
+            scheduleRetry(retryRequests, maxAttempt, maxRetryDelay);
         }
         if (chainedFailures == null) {
             return;
@@ -270,6 +774,109 @@ class ElasticsearchWriter<IN> implements SinkWriter<IN> {
         throw new FlinkRuntimeException(chainedFailures);
     }
 
+    /**
+     * Retries all actions of a bulk request which was rejected as a whole because the write queue
+     * of a node was full, like the backoff policy of the {@link BulkProcessor} did, and fails on
+     * any other failure of the complete bulk.
+     */
+    private void retryRejectedBulk(BulkRequest request, Throwable failure) {
+        if (!isRejectedExecution(failure)) {
+            throw new FlinkRuntimeException("Complete bulk has failed.", failure);
+        }
+        int maxAttempt = 0;
+        long maxRetryDelay = 0;
+        for (DocWriteRequest<?> actionRequest : request.requests()) {
+            final int attempt = retryAttempts.getOrDefault(actionRequest, 0) + 1;
+            final BulkItemRetryConfig retryConfig =
+                    getRetryConfig(RestStatus.TOO_MANY_REQUESTS.getStatus(), attempt);
+            if (retryConfig == null) {
+                throw new FlinkRuntimeException("Complete bulk has failed.", failure);
+            }
+            maxAttempt = Math.max(maxAttempt, attempt);
+            maxRetryDelay = Math.max(maxRetryDelay, retryConfig.getRetryDelay(attempt));
+        }
+        for (DocWriteRequest<?> actionRequest : request.requests()) {
+            numActionsRetriedCounter.inc();
+            retryAttempts.merge(actionRequest, 1, Integer::sum);
+        }
+        scheduleRetry(request.requests(), maxAttempt, maxRetryDelay);
+    }
+
+    private static boolean isRejectedExecution(Throwable failure) {
+        return findThrowable(
+                        failure, t -> ExceptionsHelper.status(t) == RestStatus.TOO_MANY_REQUESTS)
+                .isPresent();
+    }
+
+    @Nullable
+    private BulkItemRetryConfig getRetryConfig(int restStatusCode, int attempt) {
+        if (bulkItemRetryConfig.isRetryable(restStatusCode, attempt)) {
+            return bulkItemRetryConfig;
+        }
+        if (bulkFlushBackoffConfig.isRetryable(restStatusCode, attempt)) {
+            return bulkFlushBackoffConfig;
+        }
+        return null;
+    }
+
+    private BulkItemFailureHandler.Decision handleFailure(
+            DocWriteRequest<?> actionRequest, Throwable failure, int restStatusCode) {
+        if (failureHandler == null) {
+            return BulkItemFailureHandler.Decision.FAIL;
+        }
+        return checkNotNull(failureHandler.onFailure(actionRequest, failure, restStatusCode));
+    }
+
+    private void addToDeadLetterQueue(
+            DocWriteRequest<?> actionRequest, Throwable failure, int restStatusCode)
+            throws Exception {
+        if (deadLetterQueue == null) {
+            throw new FlinkRuntimeException(
+                    String.format(
+                            "Failed action %s was routed to the dead letter queue, but no dead letter queue is configured.",
+                            actionRequest),
+                    failure);
+        }
+        deadLetterQueue.add(actionRequest, failure, restStatusCode);
+    }
+
+    private void completeAction(DocWriteRequest<?> actionRequest) {
+        pendingActions--;
+        pendingSizeInBytes -= ElasticsearchRequestEntry.estimateSizeInBytes(actionRequest);
+        if (unacknowledgedActions != null) {
+            unacknowledgedActions.remove(actionRequest);
+        }
+        if (!retryAttempts.isEmpty()) {
+            retryAttempts.remove(actionRequest);
+        }
+        if (sentActionsPerDocument != null && actionRequest.id() != null) {
+            releaseHeldBackActions(actionRequest);
+        }
+    }
+
+    /**
+     * Adds the failed actions again to the bulk processors after the backoff delay. The actions
+     * stay pending, so a checkpoint waits until they are acknowledged or finally failed.
+     */
+    private void scheduleRetry(
+            List<DocWriteRequest<?>> retryRequests, int attempt, long delayMillis) {
+        LOG.info(
+                "Retrying {} failed actions in {} ms (attempt {}).",
+                retryRequests.size(),
+                delayMillis,
+                attempt);
+        processingTimeService.registerTimer(
+                processingTimeService.getCurrentProcessingTime() + delayMillis,
+                timestamp -> {
+                    if (closed) {
+                        return;
+                    }
+                    for (DocWriteRequest<?> retryRequest : retryRequests) {
+                        addToBulkProcessor(retryRequest);
+                    }
+                });
+    }
+
     private static Throwable wrapException(
             RestStatus restStatus, Throwable rootFailure, DocWriteRequest<?> actionRequest) {
         if (restStatus == null) {
@@ -304,8 +911,7 @@ class ElasticsearchWriter<IN> implements SinkWriter<IN> {
         public void add(DeleteRequest... deleteRequests) {
             for (final DeleteRequest deleteRequest : deleteRequests) {
                 numRecordsSendCounter.inc();
-                pendingActions++;
-                bulkProcessor.add(deleteRequest);
+                addEmittedAction(deleteRequest);
             }
         }
 
@@ -313,8 +919,7 @@ class ElasticsearchWriter<IN> implements SinkWriter<IN> {
         public void add(IndexRequest... indexRequests) {
             for (final IndexRequest indexRequest : indexRequests) {
                 numRecordsSendCounter.inc();
-                pendingActions++;
-                bulkProcessor.add(indexRequest);
+                addEmittedAction(indexRequest);
             }
         }
 
@@ -322,8 +927,7 @@ class ElasticsearchWriter<IN> implements SinkWriter<IN> {
         public void add(UpdateRequest... updateRequests) {
             for (final UpdateRequest updateRequest : updateRequests) {
                 numRecordsSendCounter.inc();
-                pendingActions++;
-                bulkProcessor.add(updateRequest);
+                addEmittedAction(updateRequest);
             }
         }
     }
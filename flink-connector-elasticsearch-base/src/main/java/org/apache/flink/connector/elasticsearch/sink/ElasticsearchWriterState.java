@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.PublicEvolving;
+
+import org.elasticsearch.action.DocWriteRequest;
+
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * State of the {@link ElasticsearchWriter} holding the actions which were not acknowledged by
+ * Elasticsearch when the checkpoint was taken, in the order they were added.
+ */
+@PublicEvolving
+public class ElasticsearchWriterState {
+
+    private final List<DocWriteRequest<?>> pendingActions;
+
+    ElasticsearchWriterState(List<DocWriteRequest<?>> pendingActions) {
+        this.pendingActions = checkNotNull(pendingActions);
+    }
+
+    public List<DocWriteRequest<?>> getPendingActions() {
+        return pendingActions;
+    }
+
+    @Override
+    public String toString() {
+        return "ElasticsearchWriterState{" + "pendingActions=" + pendingActions.size() + '}';
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.core.io.SimpleVersionedSerializer;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Serializes the {@link ElasticsearchWriterState} with Elasticsearch's transport wire format. Every
+ * action is written as its length followed by the serialized bytes.
+ */
+@Internal
+class ElasticsearchWriterStateSerializer
+        implements SimpleVersionedSerializer<ElasticsearchWriterState> {
+
+    private final DocWriteRequestReader docWriteRequestReader;
+
+    ElasticsearchWriterStateSerializer(DocWriteRequestReader docWriteRequestReader) {
+        this.docWriteRequestReader = checkNotNull(docWriteRequestReader);
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public byte[] serialize(ElasticsearchWriterState state) throws IOException {
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(baos)) {
+            out.writeInt(state.getPendingActions().size());
+            for (DocWriteRequest<?> action : state.getPendingActions()) {
+                writeAction(action, out);
+            }
+            out.flush();
+            return baos.toByteArray();
+        }
+    }
+
+    @Override
+    public ElasticsearchWriterState deserialize(int version, byte[] serialized) throws IOException {
+        if (version != 1) {
+            throw new IOException("Unrecognized version or corrupt state: " + version);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(serialized))) {
+            final int numActions = in.readInt();
+            final List<DocWriteRequest<?>> actions = new ArrayList<>(numActions);
+            for (int i = 0; i < numActions; i++) {
+                actions.add(readAction(in, docWriteRequestReader));
+            }
+            return new ElasticsearchWriterState(actions);
+        }
+    }
+
+    static void writeAction(DocWriteRequest<?> action, DataOutputStream out) throws IOException {
+        // BytesStreamOutput is not used because its bytes are a BytesReference, which differs
+        // between the Elasticsearch versions, see BytesReferences
+        final ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        try (OutputStreamStreamOutput streamOut = new OutputStreamStreamOutput(bytesOut)) {
+            DocWriteRequest.writeDocumentRequest(streamOut, action);
+        }
+        out.writeInt(bytesOut.size());
+        bytesOut.writeTo(out);
+    }
+
+    static DocWriteRequest<?> readAction(
+            DataInputStream in, DocWriteRequestReader docWriteRequestReader) throws IOException {
+        final byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        try (StreamInput streamInput = StreamInput.wrap(bytes)) {
+            return docWriteRequestReader.readDocumentRequest(streamInput);
+        }
+    }
+}
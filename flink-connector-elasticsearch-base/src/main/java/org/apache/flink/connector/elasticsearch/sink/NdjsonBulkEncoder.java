@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.Internal;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.lucene.uid.Versions;
+import org.elasticsearch.common.xcontent.ToXContent;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.VersionType;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Encodes the actions of a {@link BulkRequest} into the newline delimited JSON body of the {@code
+ * _bulk} endpoint. The metadata line of every action is written directly into the {@link
+ * BulkBodyBuffer} and the sources of index requests are copied into it without parsing them again.
+ *
+ * <p>The metadata lines are the same as the ones of the high-level client of the given {@link
+ * ApiVersion}. Elasticsearch 6 requires the type of every action, while Elasticsearch 7 omits the
+ * default type {@code _doc} and additionally knows {@code require_alias}. The parent of an action,
+ * which only exists in Elasticsearch 6, is not encoded; the routing has to be set instead.
+ */
+@Internal
+final class NdjsonBulkEncoder {
+
+    private static final String DEFAULT_TYPE = "_doc";
+
+    private NdjsonBulkEncoder() {}
+
+    /** Major version of the bulk API the actions are encoded for. */
+    enum ApiVersion {
+        V6,
+        V7
+    }
+
+    /**
+     * Returns whether all actions of the request can be encoded, which requires the sources of the
+     * index requests to be JSON.
+     */
+    static boolean canEncode(BulkRequest request) {
+        for (DocWriteRequest<?> action : request.requests()) {
+            if (action instanceof IndexRequest) {
+                final XContentType contentType = ((IndexRequest) action).getContentType();
+                if (contentType != null && contentType != XContentType.JSON) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Appends all actions of the request to the buffer. */
+    static void encode(BulkRequest request, ApiVersion apiVersion, BulkBodyBuffer out)
+            throws IOException {
+        for (DocWriteRequest<?> action : request.requests()) {
+            encode(action, apiVersion, out);
+        }
+    }
+
+    /** Appends the metadata line and, if required, the source line of the action to the buffer. */
+    static void encode(DocWriteRequest<?> action, ApiVersion apiVersion, BulkBodyBuffer out)
+            throws IOException {
+        writeMetadata(action, apiVersion, out);
+        switch (action.opType()) {
+            case INDEX:
+            case CREATE:
+                final IndexRequest indexRequest = (IndexRequest) action;
+                if (indexRequest.source() != null) {
+                    BytesReferences.writeTo(indexRequest.source(), out);
+                }
+                out.write('\n');
+                break;
+            case UPDATE:
+                try (XContentBuilder builder = XContentFactory.jsonBuilder(out)) {
+                    ((UpdateRequest) action).toXContent(builder, ToXContent.EMPTY_PARAMS);
+                }
+                out.write('\n');
+                break;
+            case DELETE:
+            default:
+                break;
+        }
+    }
+
+    private static void writeMetadata(
+            DocWriteRequest<?> action, ApiVersion apiVersion, BulkBodyBuffer out)
+            throws IOException {
+        out.writeAscii("{\"");
+        out.writeAscii(action.opType().getLowercase());
+        out.writeAscii("\":{");
+        writeField("_index", action.index(), out, true);
+        if (Strings.hasLength(action.type())
+                && (apiVersion == ApiVersion.V6 || !DEFAULT_TYPE.equals(action.type()))) {
+            writeField("_type", action.type(), out, false);
+        }
+        if (Strings.hasLength(action.id())) {
+            writeField("_id", action.id(), out, false);
+        }
+        if (Strings.hasLength(action.routing())) {
+            writeField("routing", action.routing(), out, false);
+        }
+        if (action.version() != Versions.MATCH_ANY) {
+            writeRawField("version", Long.toString(action.version()), out);
+        }
+        if (action.versionType() != VersionType.INTERNAL) {
+            writeField(
+                    "version_type",
+                    action.versionType().name().toLowerCase(Locale.ROOT),
+                    out,
+                    false);
+        }
+        if (action.ifSeqNo() != SequenceNumbers.UNASSIGNED_SEQ_NO) {
+            writeRawField("if_seq_no", Long.toString(action.ifSeqNo()), out);
+            writeRawField("if_primary_term", Long.toString(action.ifPrimaryTerm()), out);
+        }
+        if (action instanceof IndexRequest
+                && Strings.hasLength(((IndexRequest) action).getPipeline())) {
+            writeField("pipeline", ((IndexRequest) action).getPipeline(), out, false);
+        }
+        if (action instanceof UpdateRequest && ((UpdateRequest) action).retryOnConflict() > 0) {
+            writeRawField(
+                    "retry_on_conflict",
+                    Integer.toString(((UpdateRequest) action).retryOnConflict()),
+                    out);
+        }
+        if (action instanceof UpdateRequest && ((UpdateRequest) action).fetchSource() != null) {
+            out.writeAscii(",\"_source\":");
+            try (XContentBuilder builder = XContentFactory.jsonBuilder(out)) {
+                ((UpdateRequest) action).fetchSource().toXContent(builder, ToXContent.EMPTY_PARAMS);
+            }
+        }
+        // the flag does not exist in Elasticsearch 6, so it must not be read there
+        if (apiVersion == ApiVersion.V7 && action.isRequireAlias()) {
+            writeRawField("require_alias", "true", out);
+        }
+        out.writeAscii("}}\n");
+    }
+
+    private static void writeField(String name, String value, BulkBodyBuffer out, boolean first) {
+        if (!first) {
+            out.write(',');
+        }
+        out.write('"');
+        out.writeAscii(name);
+        out.writeAscii("\":");
+        writeString(value, out);
+    }
+
+    private static void writeRawField(String name, String value, BulkBodyBuffer out) {
+        out.writeAscii(",\"");
+        out.writeAscii(name);
+        out.writeAscii("\":");
+        out.writeAscii(value);
+    }
+
+    /** Writes the value as JSON string in UTF-8, escaping quotes and control characters. */
+    private static void writeString(String value, BulkBodyBuffer out) {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.writeAscii(String.format(Locale.ROOT, "\\u%04x", (int) c));
+            } else if (c < 0x80) {
+                out.write(c);
+            } else {
+                final int codePoint = value.codePointAt(i);
+                final byte[] bytes =
+                        new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8);
+                out.write(bytes, 0, bytes.length);
+                i += Character.charCount(codePoint) - 1;
+            }
+        }
+        out.write('"');
+    }
+}
@@ -21,6 +21,7 @@ package org.apache.flink.connector.elasticsearch.sink;
 import javax.annotation.Nullable;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 class NetworkClientConfig implements Serializable {
 
@@ -30,6 +31,13 @@ class NetworkClientConfig implements Serializable {
     @Nullable private final Integer connectionRequestTimeout;
     @Nullable private final Integer connectionTimeout;
     @Nullable private final Integer socketTimeout;
+    @Nullable private final Integer maxConnectionsPerRoute;
+    @Nullable private final Integer maxConnectionsTotal;
+    @Nullable private final Integer ioThreadCount;
+    @Nullable private final Long keepAlive;
+    @Nullable private final Integer socketSendBufferSize;
+    @Nullable private final Integer socketReceiveBufferSize;
+    private final boolean sharedClient;
 
     NetworkClientConfig(
             @Nullable String username,
@@ -37,13 +45,27 @@ class NetworkClientConfig implements Serializable {
             @Nullable String connectionPathPrefix,
             @Nullable Integer connectionRequestTimeout,
             @Nullable Integer connectionTimeout,
-            @Nullable Integer socketTimeout) {
+            @Nullable Integer socketTimeout,
+            @Nullable Integer maxConnectionsPerRoute,
+            @Nullable Integer maxConnectionsTotal,
+            @Nullable Integer ioThreadCount,
+            @Nullable Long keepAlive,
+            @Nullable Integer socketSendBufferSize,
+            @Nullable Integer socketReceiveBufferSize,
+            boolean sharedClient) {
         this.username = username;
         this.password = password;
         this.connectionPathPrefix = connectionPathPrefix;
         this.connectionRequestTimeout = connectionRequestTimeout;
         this.connectionTimeout = connectionTimeout;
         this.socketTimeout = socketTimeout;
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.maxConnectionsTotal = maxConnectionsTotal;
+        this.ioThreadCount = ioThreadCount;
+        this.keepAlive = keepAlive;
+        this.socketSendBufferSize = socketSendBufferSize;
+        this.socketReceiveBufferSize = socketReceiveBufferSize;
+        this.sharedClient = sharedClient;
     }
 
     @Nullable
@@ -75,4 +97,80 @@ class NetworkClientConfig implements Serializable {
     public String getConnectionPathPrefix() {
         return connectionPathPrefix;
     }
+
+    @Nullable
+    public Integer getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    @Nullable
+    public Integer getMaxConnectionsTotal() {
+        return maxConnectionsTotal;
+    }
+
+    @Nullable
+    public Integer getIoThreadCount() {
+        return ioThreadCount;
+    }
+
+    @Nullable
+    public Long getKeepAlive() {
+        return keepAlive;
+    }
+
+    @Nullable
+    public Integer getSocketSendBufferSize() {
+        return socketSendBufferSize;
+    }
+
+    @Nullable
+    public Integer getSocketReceiveBufferSize() {
+        return socketReceiveBufferSize;
+    }
+
+    public boolean isSharedClient() {
+        return sharedClient;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        NetworkClientConfig that = (NetworkClientConfig) o;
+        return sharedClient == that.sharedClient
+                && Objects.equals(username, that.username)
+                && Objects.equals(password, that.password)
+                && Objects.equals(connectionPathPrefix, that.connectionPathPrefix)
+                && Objects.equals(connectionRequestTimeout, that.connectionRequestTimeout)
+                && Objects.equals(connectionTimeout, that.connectionTimeout)
+                && Objects.equals(socketTimeout, that.socketTimeout)
+                && Objects.equals(maxConnectionsPerRoute, that.maxConnectionsPerRoute)
+                && Objects.equals(maxConnectionsTotal, that.maxConnectionsTotal)
+                && Objects.equals(ioThreadCount, that.ioThreadCount)
+                && Objects.equals(keepAlive, that.keepAlive)
+                && Objects.equals(socketSendBufferSize, that.socketSendBufferSize)
+                && Objects.equals(socketReceiveBufferSize, that.socketReceiveBufferSize);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                username,
+                password,
+                connectionPathPrefix,
+                connectionRequestTimeout,
+                connectionTimeout,
+                socketTimeout,
+                maxConnectionsPerRoute,
+                maxConnectionsTotal,
+                ioThreadCount,
+                keepAlive,
+                socketSendBufferSize,
+                socketReceiveBufferSize,
+                sharedClient);
+    }
 }
@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.Internal;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.nio.entity.NByteArrayEntity;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Sends bulk requests through the low-level {@link RestClient}. The actions are encoded by the
+ * {@link NdjsonBulkEncoder} for the major version of the cluster into a pooled {@link
+ * BulkBodyBuffer} instead of letting the high-level client serialize every action into a new
+ * buffer. The items of the bulk response are mapped to the failed actions by their position in the
+ * {@link BulkRequest}, as with the high-level client.
+ *
+ * <p>If compression is enabled, the encoded body is compressed with gzip into a second pooled
+ * buffer and a compressed response is requested. The {@link BulkBodyListener} is notified about the
+ * size of every encoded and sent body.
+ *
+ * <p>Bulk requests with actions which can not be encoded are sent by the fallback consumer, which
+ * does not compress them.
+ */
+@Internal
+class RestClientBulkRequestConsumer implements BulkRequestConsumerFactory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RestClientBulkRequestConsumer.class);
+
+    private static final int INITIAL_BUFFER_CAPACITY = 64 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 4;
+    private static final int GZIP_BUFFER_SIZE = 8 * 1024;
+    private static final String GZIP = "gzip";
+    private static final RequestOptions COMPRESSED_RESPONSE_OPTIONS =
+            RestClientCalls.withHeader(RequestOptions.DEFAULT, "Accept-Encoding", GZIP);
+
+    private final RestClient restClient;
+    private final BulkRequestConsumerFactory fallbackConsumer;
+    private final NdjsonBulkEncoder.ApiVersion apiVersion;
+    private final CompressionType compressionType;
+    private final int compressionLevel;
+    @Nullable private final BulkBodyListener bodyListener;
+    private final Queue<BulkBodyBuffer> bufferPool = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean uncompressedFallbackLogged = new AtomicBoolean(false);
+
+    RestClientBulkRequestConsumer(
+            RestClient restClient,
+            BulkRequestConsumerFactory fallbackConsumer,
+            NdjsonBulkEncoder.ApiVersion apiVersion) {
+        this(restClient, fallbackConsumer, apiVersion, CompressionType.NONE, -1, null);
+    }
+
+    RestClientBulkRequestConsumer(
+            RestClient restClient,
+            BulkRequestConsumerFactory fallbackConsumer,
+            NdjsonBulkEncoder.ApiVersion apiVersion,
+            BulkProcessorConfig bulkProcessorConfig,
+            BulkProcessor.Listener listener) {
+        this(
+                restClient,
+                fallbackConsumer,
+                apiVersion,
+                bulkProcessorConfig.getCompressionType(),
+                bulkProcessorConfig.getCompressionLevel(),
+                listener instanceof BulkBodyListener ? (BulkBodyListener) listener : null);
+    }
+
+    RestClientBulkRequestConsumer(
+            RestClient restClient,
+            BulkRequestConsumerFactory fallbackConsumer,
+            NdjsonBulkEncoder.ApiVersion apiVersion,
+            CompressionType compressionType,
+            int compressionLevel,
+            @Nullable BulkBodyListener bodyListener) {
+        this.restClient = checkNotNull(restClient);
+        this.fallbackConsumer = checkNotNull(fallbackConsumer);
+        this.apiVersion = checkNotNull(apiVersion);
+        this.compressionType = checkNotNull(compressionType);
+        this.compressionLevel = compressionLevel;
+        this.bodyListener = bodyListener;
+    }
+
+    @Override
+    public void accept(BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
+        if (!NdjsonBulkEncoder.canEncode(bulkRequest)) {
+            if (compressionType != CompressionType.NONE
+                    && uncompressedFallbackLogged.compareAndSet(false, true)) {
+                LOG.warn(
+                        "Bulk requests with index requests whose source is not JSON can not be "
+                                + "encoded directly and are sent uncompressed.");
+            }
+            fallbackConsumer.accept(bulkRequest, listener);
+            return;
+        }
+
+        final BulkBodyBuffer buffer = acquireBuffer();
+        final BulkBodyBuffer compressedBuffer =
+                compressionType == CompressionType.GZIP ? acquireBuffer() : null;
+        final Request request = new Request("POST", "/_bulk");
+        try {
+            NdjsonBulkEncoder.encode(bulkRequest, apiVersion, buffer);
+            if (compressedBuffer != null) {
+                compress(buffer, compressedBuffer, compressionLevel);
+            }
+        } catch (Exception e) {
+            releaseBuffers(buffer, compressedBuffer);
+            listener.onFailure(e);
+            return;
+        }
+        addParameters(bulkRequest, request);
+        if (compressedBuffer != null) {
+            final NByteArrayEntity entity = compressedBuffer.toEntity();
+            entity.setContentEncoding(GZIP);
+            request.setEntity(entity);
+            request.setOptions(COMPRESSED_RESPONSE_OPTIONS);
+        } else {
+            request.setEntity(buffer.toEntity());
+        }
+        if (bodyListener != null) {
+            bodyListener.onBulkBodyEncoded(
+                    buffer.size(),
+                    compressedBuffer != null ? compressedBuffer.size() : buffer.size());
+        }
+
+        RestClientCalls.performRequestAsync(
+                restClient,
+                request,
+                new ResponseListener() {
+                    @Override
+                    public void onSuccess(Response response) {
+                        // the response is only received after the body has been sent completely
+                        releaseBuffers(buffer, compressedBuffer);
+                        final BulkResponse bulkResponse;
+                        try {
+                            bulkResponse = parseResponse(response);
+                        } catch (Exception e) {
+                            listener.onFailure(e);
+                            return;
+                        }
+                        listener.onResponse(bulkResponse);
+                    }
+
+                    @Override
+                    public void onFailure(Exception exception) {
+                        releaseBuffers(buffer, compressedBuffer);
+                        listener.onFailure(convertException(exception));
+                    }
+                });
+    }
+
+    /** Adds the request level parameters of the bulk request as the high-level client does. */
+    private static void addParameters(BulkRequest bulkRequest, Request request) {
+        if (bulkRequest.timeout() != null) {
+            request.addParameter("timeout", bulkRequest.timeout().getStringRep());
+        }
+        if (bulkRequest.getRefreshPolicy() != WriteRequest.RefreshPolicy.NONE) {
+            request.addParameter("refresh", bulkRequest.getRefreshPolicy().getValue());
+        }
+        if (bulkRequest.waitForActiveShards() != null
+                && bulkRequest.waitForActiveShards() != ActiveShardCount.DEFAULT) {
+            request.addParameter(
+                    "wait_for_active_shards",
+                    bulkRequest.waitForActiveShards().toString().toLowerCase(Locale.ROOT));
+        }
+        if (bulkRequest.pipeline() != null) {
+            request.addParameter("pipeline", bulkRequest.pipeline());
+        }
+        if (bulkRequest.routing() != null) {
+            request.addParameter("routing", bulkRequest.routing());
+        }
+    }
+
+    private BulkBodyBuffer acquireBuffer() {
+        final BulkBodyBuffer buffer = bufferPool.poll();
+        return buffer != null ? buffer : new BulkBodyBuffer(INITIAL_BUFFER_CAPACITY);
+    }
+
+    private void releaseBuffers(BulkBodyBuffer buffer, @Nullable BulkBodyBuffer compressedBuffer) {
+        releaseBuffer(buffer);
+        if (compressedBuffer != null) {
+            releaseBuffer(compressedBuffer);
+        }
+    }
+
+    private void releaseBuffer(BulkBodyBuffer buffer) {
+        buffer.reset();
+        if (bufferPool.size() < MAX_POOLED_BUFFERS) {
+            bufferPool.offer(buffer);
+        }
+    }
+
+    private static void compress(BulkBodyBuffer source, BulkBodyBuffer target, int level)
+            throws IOException {
+        try (OutputStream out = new LeveledGzipOutputStream(target, level)) {
+            source.writeTo(out);
+        }
+    }
+
+    private static BulkResponse parseResponse(Response response) throws IOException {
+        HttpEntity entity = response.getEntity();
+        // newer clients already decompress the response and remove the content encoding
+        final Header contentEncoding = entity.getContentEncoding();
+        if (contentEncoding != null && GZIP.equalsIgnoreCase(contentEncoding.getValue())) {
+            entity = new GzipDecompressingEntity(entity);
+        }
+        try (InputStream content = entity.getContent();
+                XContentParser parser =
+                        XContentType.JSON
+                                .xContent()
+                                .createParser(
+                                        NamedXContentRegistry.EMPTY,
+                                        DeprecationHandler.THROW_UNSUPPORTED_OPERATION,
+                                        content)) {
+            return BulkResponse.fromXContent(parser);
+        }
+    }
+
+    /**
+     * Converts error responses into {@link ElasticsearchStatusException}s like the high-level
+     * client does, so the status of a rejected bulk request can be retrieved.
+     */
+    private static Exception convertException(Exception exception) {
+        if (exception instanceof ResponseException) {
+            final int statusCode =
+                    ((ResponseException) exception).getResponse().getStatusLine().getStatusCode();
+            final RestStatus status = RestStatus.fromCode(statusCode);
+            if (status != null) {
+                return new ElasticsearchStatusException(exception.getMessage(), status, exception);
+            }
+        }
+        return exception;
+    }
+
+    /** Notified about the size of every bulk request body sent with the low-level client. */
+    interface BulkBodyListener {
+
+        /**
+         * Called after a bulk request body has been encoded.
+         *
+         * @param rawBytes the size of the encoded body
+         * @param wireBytes the size of the body as it is sent, after an optional compression
+         */
+        void onBulkBodyEncoded(long rawBytes, long wireBytes);
+    }
+
+    /** {@link GZIPOutputStream} with a configurable compression level. */
+    private static class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, GZIP_BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
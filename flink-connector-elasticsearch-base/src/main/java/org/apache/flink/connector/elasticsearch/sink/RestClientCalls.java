@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.Internal;
+
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestClient;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Calls of the low-level {@link RestClient} which work with all supported Elasticsearch versions.
+ * {@link RestClient#performRequestAsync} and {@link RequestOptions.Builder#addHeader} return {@code
+ * void} in Elasticsearch 6 but a value in Elasticsearch 7, so calls compiled against one version
+ * fail with a {@link NoSuchMethodError} on the other. The methods are therefore resolved at
+ * runtime.
+ */
+@Internal
+final class RestClientCalls {
+
+    private static final MethodHandle PERFORM_REQUEST_ASYNC;
+    private static final MethodHandle ADD_HEADER;
+
+    static {
+        final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try {
+            PERFORM_REQUEST_ASYNC =
+                    lookup.unreflect(
+                            RestClient.class.getMethod(
+                                    "performRequestAsync", Request.class, ResponseListener.class));
+            ADD_HEADER =
+                    lookup.unreflect(
+                            RequestOptions.Builder.class.getMethod(
+                                    "addHeader", String.class, String.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private RestClientCalls() {}
+
+    /** Sends the request asynchronously and notifies the listener about its outcome. */
+    static void performRequestAsync(
+            RestClient restClient, Request request, ResponseListener responseListener) {
+        try {
+            PERFORM_REQUEST_ASYNC.invoke(restClient, request, responseListener);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /** Returns a copy of the options which additionally send the given header. */
+    static RequestOptions withHeader(RequestOptions options, String name, String value) {
+        final RequestOptions.Builder builder = options.toBuilder();
+        try {
+            ADD_HEADER.invoke(builder, name, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.PublicEvolving;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An implementation of {@link ScriptParamsCombiner} is provided by the user to merge scripted
+ * updates of the same document before they are sent by the {@link ElasticsearchSink}, e.g. adding
+ * up the increments of a counter. Two scripted updates of a document are merged into one if they
+ * use the same script, so the combined parameters must have the same effect as applying the script
+ * once for each of the merged updates.
+ *
+ * <p>Example:
+ *
+ * <pre>{@code
+ * // ctx._source.views += params.n
+ * ScriptParamsCombiner combiner =
+ *         (accumulated, params) -> {
+ *             Map<String, Object> combined = new HashMap<>(params);
+ *             combined.put(
+ *                     "n", ((Number) accumulated.get("n")).longValue()
+ *                             + ((Number) params.get("n")).longValue());
+ *             return combined;
+ *         };
+ * }</pre>
+ *
+ * @see ElasticsearchSinkBuilderBase#setScriptParamsCombiner(ScriptParamsCombiner)
+ */
+@PublicEvolving
+@FunctionalInterface
+public interface ScriptParamsCombiner extends Serializable {
+
+    /**
+     * Combines the parameters of two scripted updates of the same document.
+     *
+     * @param accumulated the parameters of the earlier update, must not be modified
+     * @param params the parameters of the later update, must not be modified
+     * @return the parameters of the merged update
+     */
+    Map<String, Object> combine(Map<String, Object> accumulated, Map<String, Object> params);
+
+    /**
+     * Creates a combiner which adds up the given numeric parameters and takes all other parameters
+     * from the later update. Integer and long parameters are added up as longs, all other numbers
+     * as doubles.
+     *
+     * @param paramNames the names of the parameters to add up
+     * @return the created combiner
+     */
+    static ScriptParamsCombiner summing(String... paramNames) {
+        final Set<String> summedParams = new HashSet<>(Arrays.asList(paramNames));
+        return (accumulated, params) -> {
+            final Map<String, Object> combined = new HashMap<>(params);
+            for (String name : summedParams) {
+                final Object previous = accumulated.get(name);
+                final Object current = params.get(name);
+                if (!(previous instanceof Number) || !(current instanceof Number)) {
+                    continue;
+                }
+                if ((previous instanceof Long || previous instanceof Integer)
+                        && (current instanceof Long || current instanceof Integer)) {
+                    combined.put(
+                            name, ((Number) previous).longValue() + ((Number) current).longValue());
+                } else {
+                    combined.put(
+                            name,
+                            ((Number) previous).doubleValue() + ((Number) current).doubleValue());
+                }
+            }
+            return combined;
+        };
+    }
+}
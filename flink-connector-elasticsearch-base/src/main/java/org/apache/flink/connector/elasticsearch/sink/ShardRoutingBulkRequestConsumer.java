@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.Internal;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.rest.RestStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Splits bulk requests by the node holding the primary shard of each action and sends every part
+ * directly to its node with the wrapped consumer, so the data does not have to be forwarded by the
+ * coordinating node. Actions without a known primary node are sent to any node. The responses of
+ * the parts are merged into a single response in the order of the original bulk request.
+ *
+ * <p>The primary node of a part is only a preference. If the part can not be sent to it, e.g.
+ * because the node is not reachable or overloaded, the part is sent again to any node of the {@link
+ * RestClient}, which fails over between all configured hosts as usual.
+ *
+ * <p>The routing of an index is reloaded if one of its actions failed because its shard is not
+ * available, e.g. because it is relocated, or if a part of the bulk request could not be sent to
+ * its primary node.
+ *
+ * <p>The {@link RestClient} must be configured with a {@link ShardRoutingNodeSelector}.
+ */
+@Internal
+class ShardRoutingBulkRequestConsumer implements BulkRequestConsumerFactory {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(ShardRoutingBulkRequestConsumer.class);
+
+    /** The routing of an index is reloaded after this time to follow rebalanced shards. */
+    private static final long ROUTING_MAX_AGE_MILLIS = 60_000L;
+
+    private final ShardRoutingTable routingTable;
+    private final BulkRequestConsumerFactory consumer;
+
+    ShardRoutingBulkRequestConsumer(RestClient restClient, BulkRequestConsumerFactory consumer) {
+        this(new ShardRoutingTable(restClient, ROUTING_MAX_AGE_MILLIS), consumer);
+    }
+
+    ShardRoutingBulkRequestConsumer(
+            ShardRoutingTable routingTable, BulkRequestConsumerFactory consumer) {
+        this.routingTable = checkNotNull(routingTable);
+        this.consumer = checkNotNull(consumer);
+    }
+
+    @Override
+    public void accept(BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
+        final List<DocWriteRequest<?>> actions = bulkRequest.requests();
+        final Map<HttpHost, List<Integer>> positionsByNode = new LinkedHashMap<>();
+        for (int i = 0; i < actions.size(); i++) {
+            positionsByNode
+                    .computeIfAbsent(
+                            routingTable.getPrimaryNode(actions.get(i)), k -> new ArrayList<>())
+                    .add(i);
+        }
+
+        if (positionsByNode.size() == 1) {
+            final HttpHost node = positionsByNode.keySet().iterator().next();
+            submit(node, bulkRequest, invalidatingListener(bulkRequest, listener));
+            return;
+        }
+
+        final BulkItemResponse[] items = new BulkItemResponse[actions.size()];
+        final AtomicInteger pendingParts = new AtomicInteger(positionsByNode.size());
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final AtomicLong tookInMillis = new AtomicLong();
+        for (Map.Entry<HttpHost, List<Integer>> nodePositions : positionsByNode.entrySet()) {
+            final List<Integer> positions = nodePositions.getValue();
+            final BulkRequest part = createPart(bulkRequest, positions);
+            submit(
+                    nodePositions.getKey(),
+                    part,
+                    invalidatingListener(
+                            part,
+                            new ActionListener<BulkResponse>() {
+                                @Override
+                                public void onResponse(BulkResponse response) {
+                                    final BulkItemResponse[] partItems = response.getItems();
+                                    for (int i = 0; i < partItems.length; i++) {
+                                        items[positions.get(i)] =
+                                                withItemId(partItems[i], positions.get(i));
+                                    }
+                                    tookInMillis.accumulateAndGet(
+                                            response.getTook().millis(), Math::max);
+                                    completePart();
+                                }
+
+                                @Override
+                                public void onFailure(Exception e) {
+                                    if (!failure.compareAndSet(null, e)) {
+                                        failure.get().addSuppressed(e);
+                                    }
+                                    completePart();
+                                }
+
+                                private void completePart() {
+                                    if (pendingParts.decrementAndGet() > 0) {
+                                        return;
+                                    }
+                                    if (failure.get() != null) {
+                                        listener.onFailure(failure.get());
+                                    } else {
+                                        listener.onResponse(
+                                                new BulkResponse(items, tookInMillis.get()));
+                                    }
+                                }
+                            }));
+        }
+    }
+
+    private void submit(
+            @Nullable HttpHost node, BulkRequest request, ActionListener<BulkResponse> listener) {
+        if (node == null) {
+            consumer.accept(request, listener);
+            return;
+        }
+        ShardRoutingNodeSelector.submitTo(
+                node,
+                () ->
+                        consumer.accept(
+                                request,
+                                new ActionListener<BulkResponse>() {
+                                    @Override
+                                    public void onResponse(BulkResponse response) {
+                                        listener.onResponse(response);
+                                    }
+
+                                    @Override
+                                    public void onFailure(Exception e) {
+                                        LOG.debug(
+                                                "Failed to send a bulk request to node {}, "
+                                                        + "sending it to any node.",
+                                                node,
+                                                e);
+                                        invalidate(request);
+                                        consumer.accept(request, listener);
+                                    }
+                                }));
+    }
+
+    private void invalidate(BulkRequest request) {
+        for (DocWriteRequest<?> action : request.requests()) {
+            routingTable.invalidate(action.index());
+        }
+    }
+
+    /** Invalidates the routing of the indices whose actions may have been sent to a wrong node. */
+    private ActionListener<BulkResponse> invalidatingListener(
+            BulkRequest request, ActionListener<BulkResponse> listener) {
+        return new ActionListener<BulkResponse>() {
+            @Override
+            public void onResponse(BulkResponse response) {
+                if (response.hasFailures()) {
+                    for (BulkItemResponse item : response.getItems()) {
+                        if (item.isFailed()
+                                && item.getFailure().getStatus()
+                                        == RestStatus.SERVICE_UNAVAILABLE) {
+                            routingTable.invalidate(item.getIndex());
+                        }
+                    }
+                }
+                listener.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                invalidate(request);
+                listener.onFailure(e);
+            }
+        };
+    }
+
+    private static BulkRequest createPart(BulkRequest bulkRequest, List<Integer> positions) {
+        final BulkRequest part = new BulkRequest();
+        part.setRefreshPolicy(bulkRequest.getRefreshPolicy());
+        part.timeout(bulkRequest.timeout());
+        part.waitForActiveShards(bulkRequest.waitForActiveShards());
+        for (int position : positions) {
+            part.add(bulkRequest.requests().get(position));
+        }
+        return part;
+    }
+
+    private static BulkItemResponse withItemId(BulkItemResponse item, int itemId) {
+        return item.isFailed()
+                ? new BulkItemResponse(itemId, item.getOpType(), item.getFailure())
+                : new BulkItemResponse(itemId, item.getOpType(), item.getResponse());
+    }
+}
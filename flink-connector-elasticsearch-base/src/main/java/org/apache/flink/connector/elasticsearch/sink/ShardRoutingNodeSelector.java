@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.Node;
+import org.elasticsearch.client.NodeSelector;
+import org.elasticsearch.client.RestClient;
+
+import java.util.Iterator;
+
+/**
+ * Selects the node a request is sent to by the {@link ShardRoutingBulkRequestConsumer}. The {@link
+ * RestClient} selects the nodes of a request synchronously when the request is submitted, so the
+ * target node is passed to the selector in a thread local for the duration of the submission.
+ * Requests submitted without a target node, or whose target node is unknown to the client, may be
+ * sent to any node. Requests with a target node are only sent to it, the {@link
+ * ShardRoutingBulkRequestConsumer} sends them again without a target node if they fail.
+ */
+class ShardRoutingNodeSelector implements NodeSelector {
+
+    private static final ThreadLocal<HttpHost> TARGET_NODE = new ThreadLocal<>();
+
+    /** Submits the requests of the runnable to the given node. */
+    static void submitTo(HttpHost node, Runnable submission) {
+        TARGET_NODE.set(node);
+        try {
+            submission.run();
+        } finally {
+            TARGET_NODE.remove();
+        }
+    }
+
+    @Override
+    public void select(Iterable<Node> nodes) {
+        final HttpHost target = TARGET_NODE.get();
+        if (target == null) {
+            return;
+        }
+        boolean containsTarget = false;
+        for (Node node : nodes) {
+            containsTarget |= target.equals(node.getHost());
+        }
+        if (!containsTarget) {
+            return;
+        }
+        for (Iterator<Node> it = nodes.iterator(); it.hasNext(); ) {
+            if (!target.equals(it.next().getHost())) {
+                it.remove();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SHARD_ROUTING";
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.VisibleForTesting;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.client.Node;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.cluster.routing.Murmur3HashFunction;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Caches the primary shards of the indices written by the sink and the nodes holding them, so that
+ * an action can be sent directly to the node of its primary shard.
+ *
+ * <p>The routing of an index is loaded from the cluster state when the index is seen for the first
+ * time and reloaded once it is older than the maximum age or has been invalidated, e.g. because a
+ * shard has moved. The routing is loaded asynchronously, so the sending thread is never blocked by
+ * the cluster state requests, and actions of an index whose routing is not loaded yet have no
+ * primary node. The shard of an action is computed like Elasticsearch does it, from the murmur3
+ * hash of its routing or id. Actions whose shard can not be computed, e.g. because the index does
+ * not exist yet, is an alias or uses routing partitions, have no primary node.
+ *
+ * <p>Only the hosts the {@link RestClient} is configured with are used as primary nodes. A node of
+ * the cluster is matched to a configured host by the hostname or IP address and the port of its
+ * HTTP publish address, so actions of shards on other nodes have no primary node. Loading the
+ * routing requires the {@code monitor} cluster privilege.
+ */
+class ShardRoutingTable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ShardRoutingTable.class);
+
+    private static final String ROUTING_PATH =
+            "/_cluster/state/metadata,routing_table/%s?filter_path="
+                    + "metadata.indices.*.routing_num_shards,"
+                    + "metadata.indices.*.settings.index.number_of_shards,"
+                    + "metadata.indices.*.settings.index.routing_partition_size,"
+                    + "routing_table.indices.*.shards.*.primary,"
+                    + "routing_table.indices.*.shards.*.node";
+    private static final String NODES_PATH =
+            "/_nodes/http?filter_path=nodes.*.http.publish_address";
+
+    private final RestClient restClient;
+    private final List<HttpHost> configuredHosts = new ArrayList<>();
+    private final long maxAgeMillis;
+    private final Map<String, IndexRouting> indices = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<IndexRouting>> loadingIndices =
+            new ConcurrentHashMap<>();
+    private final Map<String, HttpHost> nodes = new ConcurrentHashMap<>();
+    private final Set<String> unknownNodes = ConcurrentHashMap.newKeySet();
+    private final Map<HttpHost, Set<String>> resolvedHosts = new ConcurrentHashMap<>();
+
+    ShardRoutingTable(RestClient restClient, long maxAgeMillis) {
+        this.restClient = checkNotNull(restClient);
+        for (Node node : restClient.getNodes()) {
+            configuredHosts.add(node.getHost());
+        }
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Returns the node holding the primary shard of the action or null if it is not known.
+     *
+     * @param action the action to route
+     * @return the node of the primary shard or null
+     */
+    @Nullable
+    HttpHost getPrimaryNode(DocWriteRequest<?> action) {
+        final String routing = action.routing() != null ? action.routing() : action.id();
+        if (action.index() == null || routing == null) {
+            return null;
+        }
+        final IndexRouting indexRouting = getIndexRouting(action.index());
+        return indexRouting != null ? indexRouting.getPrimaryNode(routing) : null;
+    }
+
+    /** Forces the routing of the index to be reloaded before it is used again. */
+    void invalidate(String index) {
+        indices.remove(index);
+    }
+
+    @VisibleForTesting
+    boolean hasRouting(String index) {
+        return indices.containsKey(index);
+    }
+
+    /**
+     * Returns the cached routing of the index, which is loaded in the background if it is missing
+     * or expired.
+     */
+    @Nullable
+    private IndexRouting getIndexRouting(String index) {
+        final IndexRouting routing = indices.get(index);
+        if (routing == null
+                || System.currentTimeMillis() - routing.loadTimeMillis >= maxAgeMillis) {
+            loadIndexRouting(index);
+        }
+        return routing;
+    }
+
+    /**
+     * Loads the routing of the index unless it is already being loaded.
+     *
+     * @param index the index to load the routing of
+     * @return a future completed once the routing is loaded
+     */
+    CompletableFuture<?> loadIndexRouting(String index) {
+        final CompletableFuture<IndexRouting> loading = new CompletableFuture<>();
+        final CompletableFuture<IndexRouting> current = loadingIndices.putIfAbsent(index, loading);
+        if (current != null) {
+            return current;
+        }
+        requestIndexRouting(index)
+                .whenComplete(
+                        (routing, error) -> {
+                            if (error != null) {
+                                LOG.warn("Failed to load the routing of index {}.", index, error);
+                                routing = IndexRouting.unroutable();
+                            }
+                            indices.put(index, routing);
+                            loadingIndices.remove(index);
+                            loading.complete(routing);
+                        });
+        return loading;
+    }
+
+    private CompletableFuture<IndexRouting> requestIndexRouting(String index) {
+        return get(String.format(ROUTING_PATH, index.replace(",", "%2C")))
+                .thenCompose(
+                        state -> {
+                            final Map<String, Object> metadata =
+                                    getMap(getMap(getMap(state, "metadata"), "indices"), index);
+                            final Map<String, Object> shards =
+                                    getMap(
+                                            getMap(
+                                                    getMap(
+                                                            getMap(state, "routing_table"),
+                                                            "indices"),
+                                                    index),
+                                            "shards");
+                            if (metadata.isEmpty() || shards.isEmpty()) {
+                                LOG.debug(
+                                        "No routing found for index {}, it may be an alias.",
+                                        index);
+                                return CompletableFuture.completedFuture(IndexRouting.unroutable());
+                            }
+                            final Map<String, Object> settings =
+                                    getMap(getMap(metadata, "settings"), "index");
+                            final int numberOfShards = toInt(settings.get("number_of_shards"), -1);
+                            final int routingPartitionSize =
+                                    toInt(settings.get("routing_partition_size"), 1);
+                            final int routingNumShards =
+                                    toInt(metadata.get("routing_num_shards"), numberOfShards);
+                            if (numberOfShards < 1 || routingPartitionSize != 1) {
+                                return CompletableFuture.completedFuture(IndexRouting.unroutable());
+                            }
+
+                            final String[] primaryNodeIds =
+                                    getPrimaryNodeIds(shards, numberOfShards);
+                            final CompletableFuture<?> nodesLoaded =
+                                    isKnown(nonNull(primaryNodeIds))
+                                            ? CompletableFuture.completedFuture(null)
+                                            : loadNodes();
+                            return nodesLoaded.thenApply(
+                                    ignored -> {
+                                        final HttpHost[] primaries = new HttpHost[numberOfShards];
+                                        for (int i = 0; i < numberOfShards; i++) {
+                                            if (primaryNodeIds[i] != null) {
+                                                primaries[i] = nodes.get(primaryNodeIds[i]);
+                                            }
+                                        }
+                                        return new IndexRouting(
+                                                numberOfShards, routingNumShards, primaries);
+                                    });
+                        });
+    }
+
+    private static String[] getPrimaryNodeIds(Map<String, Object> shards, int numberOfShards) {
+        final String[] primaryNodeIds = new String[numberOfShards];
+        for (Map.Entry<String, Object> shard : shards.entrySet()) {
+            final int shardId = Integer.parseInt(shard.getKey());
+            for (Object copy : (List<?>) shard.getValue()) {
+                final Map<?, ?> copyRouting = (Map<?, ?>) copy;
+                if (Boolean.TRUE.equals(copyRouting.get("primary"))
+                        && copyRouting.get("node") != null
+                        && shardId < numberOfShards) {
+                    primaryNodeIds[shardId] = (String) copyRouting.get("node");
+                }
+            }
+        }
+        return primaryNodeIds;
+    }
+
+    private static List<String> nonNull(String[] values) {
+        final List<String> nonNullValues = new ArrayList<>();
+        for (String value : values) {
+            if (value != null) {
+                nonNullValues.add(value);
+            }
+        }
+        return nonNullValues;
+    }
+
+    private boolean isKnown(List<String> nodeIds) {
+        for (String nodeId : nodeIds) {
+            if (!nodes.containsKey(nodeId) && !unknownNodes.contains(nodeId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private CompletableFuture<?> loadNodes() {
+        return get(NODES_PATH)
+                .thenAccept(
+                        response -> {
+                            for (Map.Entry<String, Object> node :
+                                    getMap(response, "nodes").entrySet()) {
+                                final Object address =
+                                        getMap(asMap(node.getValue()), "http")
+                                                .get("publish_address");
+                                final HttpHost host =
+                                        address != null
+                                                ? findConfiguredHost(address.toString())
+                                                : null;
+                                if (host != null) {
+                                    nodes.put(node.getKey(), host);
+                                } else {
+                                    unknownNodes.add(node.getKey());
+                                }
+                            }
+                        });
+    }
+
+    /**
+     * Returns the configured host matching a publish address of the form {@code [hostname/]ip:port}
+     * or null if the node is not configured.
+     */
+    @Nullable
+    private HttpHost findConfiguredHost(String publishAddress) {
+        final int portSeparator = publishAddress.lastIndexOf(':');
+        final int hostnameSeparator = publishAddress.indexOf('/');
+        final String hostname =
+                hostnameSeparator > 0 ? publishAddress.substring(0, hostnameSeparator) : null;
+        final String ip = publishAddress.substring(hostnameSeparator + 1, portSeparator);
+        final int port = Integer.parseInt(publishAddress.substring(portSeparator + 1));
+        for (HttpHost host : configuredHosts) {
+            if (host.getPort() == port
+                    && (host.getHostName().equals(hostname)
+                            || host.getHostName().equals(ip)
+                            || resolve(host).contains(ip))) {
+                return host;
+            }
+        }
+        return null;
+    }
+
+    private Set<String> resolve(HttpHost host) {
+        return resolvedHosts.computeIfAbsent(
+                host,
+                h -> {
+                    final Set<String> addresses = new HashSet<>();
+                    try {
+                        for (InetAddress address : InetAddress.getAllByName(h.getHostName())) {
+                            addresses.add(address.getHostAddress());
+                        }
+                    } catch (UnknownHostException e) {
+                        LOG.debug("Failed to resolve the configured host {}.", h, e);
+                    }
+                    return addresses;
+                });
+    }
+
+    private CompletableFuture<Map<String, Object>> get(String endpoint) {
+        final CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        RestClientCalls.performRequestAsync(
+                restClient,
+                new Request("GET", endpoint),
+                new ResponseListener() {
+                    @Override
+                    public void onSuccess(Response response) {
+                        try (InputStream content = response.getEntity().getContent();
+                                XContentParser parser =
+                                        XContentType.JSON
+                                                .xContent()
+                                                .createParser(
+                                                        NamedXContentRegistry.EMPTY,
+                                                        DeprecationHandler
+                                                                .THROW_UNSUPPORTED_OPERATION,
+                                                        content)) {
+                            result.complete(parser.map());
+                        } catch (Exception e) {
+                            result.completeExceptionally(e);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Exception exception) {
+                        result.completeExceptionally(exception);
+                    }
+                });
+        return result;
+    }
+
+    private static Map<String, Object> getMap(Map<String, Object> map, String key) {
+        return asMap(map.get(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> asMap(@Nullable Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : new HashMap<>();
+    }
+
+    private static int toInt(@Nullable Object value, int defaultValue) {
+        return value == null ? defaultValue : Integer.parseInt(value.toString());
+    }
+
+    /** The primary shards of a single index. */
+    private static class IndexRouting {
+
+        private final int routingNumShards;
+        private final int routingFactor;
+        @Nullable private final HttpHost[] primaries;
+        private final long loadTimeMillis = System.currentTimeMillis();
+
+        IndexRouting(int numberOfShards, int routingNumShards, @Nullable HttpHost[] primaries) {
+            this.routingNumShards = routingNumShards;
+            this.routingFactor = routingNumShards / Math.max(numberOfShards, 1);
+            this.primaries = primaries;
+        }
+
+        static IndexRouting unroutable() {
+            return new IndexRouting(1, 1, null);
+        }
+
+        @Nullable
+        HttpHost getPrimaryNode(String routing) {
+            if (primaries == null) {
+                return null;
+            }
+            return primaries[shardId(routing, routingNumShards, routingFactor)];
+        }
+    }
+
+    /** Computes the shard of a routing value like {@code OperationRouting} of Elasticsearch. */
+    static int shardId(String routing, int routingNumShards, int routingFactor) {
+        return Math.floorMod(Murmur3HashFunction.hash(routing), routingNumShards) / routingFactor;
+    }
+}
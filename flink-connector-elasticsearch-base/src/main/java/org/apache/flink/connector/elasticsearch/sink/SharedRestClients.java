@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestHighLevelClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static org.apache.flink.util.Preconditions.checkNotNull;
+
+/**
+ * Shares the {@link RestHighLevelClient}s of all writers in a JVM which connect to the same hosts
+ * with the same {@link NetworkClientConfig}. Every client has its own connection pool and I/O
+ * dispatcher threads, so the writers of many parallel subtasks in a TaskManager otherwise open many
+ * connections and threads to the same cluster.
+ *
+ * <p>The clients are reference counted and closed when the last writer releases them. The shared
+ * clients are held statically, i.e. they are shared within the class loader of the connector.
+ */
+final class SharedRestClients {
+
+    private static final Map<ClientKey, SharedClient> CLIENTS = new HashMap<>();
+
+    private SharedRestClients() {}
+
+    /**
+     * Returns the client for the given hosts and configuration, which is created by the factory if
+     * there is none yet. Every acquired client must be released with {@link
+     * #release(RestHighLevelClient)}.
+     */
+    static RestHighLevelClient acquire(
+            List<HttpHost> hosts,
+            NetworkClientConfig networkClientConfig,
+            boolean shardRouting,
+            Supplier<RestHighLevelClient> clientFactory) {
+        final ClientKey key = new ClientKey(hosts, networkClientConfig, shardRouting);
+        synchronized (CLIENTS) {
+            final SharedClient sharedClient =
+                    CLIENTS.computeIfAbsent(key, k -> new SharedClient(clientFactory.get()));
+            sharedClient.references++;
+            return sharedClient.client;
+        }
+    }
+
+    /** Releases an acquired client and closes it if it is not used by any other writer. */
+    static void release(RestHighLevelClient client) throws IOException {
+        synchronized (CLIENTS) {
+            for (Iterator<SharedClient> it = CLIENTS.values().iterator(); it.hasNext(); ) {
+                final SharedClient sharedClient = it.next();
+                if (sharedClient.client == client) {
+                    if (--sharedClient.references > 0) {
+                        return;
+                    }
+                    it.remove();
+                    break;
+                }
+            }
+        }
+        client.close();
+    }
+
+    private static final class SharedClient {
+        private final RestHighLevelClient client;
+        private int references;
+
+        private SharedClient(RestHighLevelClient client) {
+            this.client = checkNotNull(client);
+        }
+    }
+
+    private static final class ClientKey {
+        private final List<HttpHost> hosts;
+        private final NetworkClientConfig networkClientConfig;
+        private final boolean shardRouting;
+
+        private ClientKey(
+                List<HttpHost> hosts,
+                NetworkClientConfig networkClientConfig,
+                boolean shardRouting) {
+            this.hosts = new ArrayList<>(hosts);
+            this.networkClientConfig = checkNotNull(networkClientConfig);
+            this.shardRouting = shardRouting;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ClientKey that = (ClientKey) o;
+            return shardRouting == that.shardRouting
+                    && hosts.equals(that.hosts)
+                    && networkClientConfig.equals(that.networkClientConfig);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hosts, networkClientConfig, shardRouting);
+        }
+    }
+}
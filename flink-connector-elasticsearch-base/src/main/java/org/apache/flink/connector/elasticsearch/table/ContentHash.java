@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.table;
+
+import org.apache.flink.annotation.Internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Derives compact document ids from the content of a row with the 128-bit x64 variant of
+ * MurmurHash3. The ids are the URL-safe base64 encoding of the hash without padding, i.e. 22
+ * characters, which are valid in document ids and URLs.
+ */
+@Internal
+final class ContentHash {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private ContentHash() {}
+
+    /** Returns the id for the given bytes. */
+    static String of(byte[] bytes) {
+        return ENCODER.encodeToString(hash128(bytes, 0, bytes.length));
+    }
+
+    /** Returns the id for the UTF-8 bytes of the given string. */
+    static String of(String value) {
+        return of(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the MurmurHash3 x64 128-bit hash with seed 0 as the little endian bytes of the two
+     * 64-bit halves, like Guava's {@code Hashing.murmur3_128()}.
+     */
+    static byte[] hash128(byte[] bytes, int offset, int length) {
+        long h1 = 0;
+        long h2 = 0;
+        final int blocks = length / 16;
+        for (int i = 0; i < blocks; i++) {
+            final int block = offset + i * 16;
+            long k1 = getLongLittleEndian(bytes, block);
+            long k2 = getLongLittleEndian(bytes, block + 8);
+
+            h1 ^= mixK1(k1);
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+
+            h2 ^= mixK2(k2);
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+
+        final int tail = offset + blocks * 16;
+        final int remaining = length & 15;
+        if (remaining > 8) {
+            long k2 = 0;
+            for (int i = remaining - 1; i >= 8; i--) {
+                k2 ^= (long) (bytes[tail + i] & 0xff) << (8 * (i - 8));
+            }
+            h2 ^= mixK2(k2);
+        }
+        if (remaining > 0) {
+            long k1 = 0;
+            for (int i = Math.min(remaining, 8) - 1; i >= 0; i--) {
+                k1 ^= (long) (bytes[tail + i] & 0xff) << (8 * i);
+            }
+            h1 ^= mixK1(k1);
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+
+        final byte[] hash = new byte[16];
+        putLongLittleEndian(hash, 0, h1);
+        putLongLittleEndian(hash, 8, h2);
+        return hash;
+    }
+
+    private static long mixK1(long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static long mixK2(long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        return k2;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static long getLongLittleEndian(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = (value << 8) | (bytes[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+    private static void putLongLittleEndian(byte[] bytes, int offset, long value) {
+        for (int i = 0; i < 8; i++) {
+            bytes[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.table;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.connector.elasticsearch.sink.BulkItemFailureHandler;
+
+import org.elasticsearch.action.DocWriteRequest;
+
+/**
+ * Drops the create requests of documents which already exist. Used with {@link WriteMode#CREATE},
+ * where a conflict means that the document was already created before a failover.
+ */
+@Internal
+class CreateConflictFailureHandler implements BulkItemFailureHandler {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int CONFLICT = 409;
+
+    @Override
+    public Decision onFailure(DocWriteRequest<?> action, Throwable failure, int restStatusCode) {
+        if (restStatusCode == CONFLICT && action.opType() == DocWriteRequest.OpType.CREATE) {
+            return Decision.DROP;
+        }
+        return Decision.FAIL;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof CreateConflictFailureHandler;
+    }
+
+    @Override
+    public int hashCode() {
+        return CreateConflictFailureHandler.class.hashCode();
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.table;
+
+import org.apache.flink.annotation.PublicEvolving;
+import org.apache.flink.configuration.DescribedEnum;
+import org.apache.flink.configuration.description.InlineElement;
+
+import static org.apache.flink.configuration.description.TextElement.text;
+
+/** Describes how the table sink derives the ids of the documents it writes. */
+@PublicEvolving
+public enum DocumentIdStrategy implements DescribedEnum {
+    /**
+     * Ids are built from the primary key. Documents of tables without a primary key get ids which
+     * are generated by Elasticsearch.
+     */
+    AUTO(
+            "auto",
+            text(
+                    "Ids are built from the primary key. Documents of tables without a primary "
+                            + "key get ids which are generated by Elasticsearch.")),
+    /**
+     * Ids of tables without a primary key are a 128-bit hash of the serialized document or of the
+     * configured columns, so replayed rows overwrite their documents instead of duplicating them.
+     */
+    CONTENT_HASH(
+            "content-hash",
+            text(
+                    "Ids of tables without a primary key are a 128-bit hash of the serialized "
+                            + "document or of the columns in 'document-id.hash-columns', so "
+                            + "replayed rows overwrite their documents instead of duplicating "
+                            + "them."));
+
+    private final String value;
+    private final InlineElement description;
+
+    DocumentIdStrategy(String value, InlineElement description) {
+        this.value = value;
+        this.description = description;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+
+    @Override
+    public InlineElement getDescription() {
+        return description;
+    }
+}
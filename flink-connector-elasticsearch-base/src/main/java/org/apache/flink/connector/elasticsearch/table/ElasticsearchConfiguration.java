@@ -22,6 +22,7 @@ import org.apache.flink.annotation.Internal;
 import org.apache.flink.configuration.MemorySize;
 import org.apache.flink.configuration.ReadableConfig;
 import org.apache.flink.connector.base.DeliveryGuarantee;
+import org.apache.flink.connector.elasticsearch.sink.CompressionType;
 import org.apache.flink.connector.elasticsearch.sink.FlushBackoffType;
 import org.apache.flink.table.api.ValidationException;
 
@@ -35,19 +36,40 @@ import java.util.stream.Collectors;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_BACKOFF_DELAY_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_BACKOFF_MAX_RETRIES_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_BACKOFF_TYPE_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_COALESCING_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_INTERVAL_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_KEY_ORDERED_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_MAX_ACTIONS_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_MAX_IN_FLIGHT_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_MAX_SIZE_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_LOAD_DELETE_PREVIOUS_INDICES_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_LOAD_ENABLED_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_LOAD_FORCE_MERGE_MAX_SEGMENTS_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_LOAD_SWAP_ALIAS_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_COMPRESSION_LEVEL_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_COMPRESSION_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_IO_THREAD_COUNT_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_KEEP_ALIVE_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_MAX_PER_ROUTE_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_MAX_TOTAL_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_PATH_PREFIX_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_REQUEST_TIMEOUT;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_SHARED_CLIENT_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_TIMEOUT;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.DELIVERY_GUARANTEE_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.DOCUMENT_ID_HASH_COLUMNS_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.DOCUMENT_ID_STRATEGY_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.DOC_AS_UPSERT_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.HOSTS_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.INDEX_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.KEY_DELIMITER_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.MAX_PENDING_SIZE_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.PASSWORD_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.SOCKET_RECEIVE_BUFFER_SIZE_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.SOCKET_SEND_BUFFER_SIZE_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.SOCKET_TIMEOUT;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.USERNAME_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.WRITE_MODE_OPTION;
 import static org.apache.flink.table.factories.FactoryUtil.SINK_PARALLELISM;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 
@@ -72,6 +94,38 @@ class ElasticsearchConfiguration {
         return config.get(BULK_FLUSH_INTERVAL_OPTION).toMillis();
     }
 
+    public int getBulkFlushMaxInFlight() {
+        return config.get(BULK_FLUSH_MAX_IN_FLIGHT_OPTION);
+    }
+
+    public boolean isBulkFlushKeyOrdered() {
+        return config.get(BULK_FLUSH_KEY_ORDERED_OPTION);
+    }
+
+    public boolean isBulkFlushCoalescing() {
+        return config.get(BULK_FLUSH_COALESCING_OPTION);
+    }
+
+    public Optional<MemorySize> getMaxPendingSize() {
+        return config.getOptional(MAX_PENDING_SIZE_OPTION);
+    }
+
+    public boolean isBulkLoadEnabled() {
+        return config.get(BULK_LOAD_ENABLED_OPTION);
+    }
+
+    public Optional<Integer> getBulkLoadForceMergeMaxNumSegments() {
+        return config.getOptional(BULK_LOAD_FORCE_MERGE_MAX_SEGMENTS_OPTION);
+    }
+
+    public boolean isBulkLoadSwapAlias() {
+        return config.get(BULK_LOAD_SWAP_ALIAS_OPTION);
+    }
+
+    public boolean isBulkLoadDeletePreviousIndices() {
+        return config.get(BULK_LOAD_DELETE_PREVIOUS_INDICES_OPTION);
+    }
+
     public DeliveryGuarantee getDeliveryGuarantee() {
         return config.get(DELIVERY_GUARANTEE_OPTION);
     }
@@ -100,10 +154,26 @@ class ElasticsearchConfiguration {
         return config.get(INDEX_OPTION);
     }
 
+    public WriteMode getWriteMode() {
+        return config.get(WRITE_MODE_OPTION);
+    }
+
+    public boolean isDocAsUpsert() {
+        return config.get(DOC_AS_UPSERT_OPTION);
+    }
+
     public String getKeyDelimiter() {
         return config.get(KEY_DELIMITER_OPTION);
     }
 
+    public DocumentIdStrategy getDocumentIdStrategy() {
+        return config.get(DOCUMENT_ID_STRATEGY_OPTION);
+    }
+
+    public Optional<List<String>> getDocumentIdHashColumns() {
+        return config.getOptional(DOCUMENT_ID_HASH_COLUMNS_OPTION);
+    }
+
     public Optional<String> getPathPrefix() {
         return config.getOptional(CONNECTION_PATH_PREFIX_OPTION);
     }
@@ -120,6 +190,42 @@ class ElasticsearchConfiguration {
         return config.getOptional(SOCKET_TIMEOUT);
     }
 
+    public Optional<Integer> getConnectionMaxPerRoute() {
+        return config.getOptional(CONNECTION_MAX_PER_ROUTE_OPTION);
+    }
+
+    public Optional<Integer> getConnectionMaxTotal() {
+        return config.getOptional(CONNECTION_MAX_TOTAL_OPTION);
+    }
+
+    public Optional<Integer> getConnectionIoThreadCount() {
+        return config.getOptional(CONNECTION_IO_THREAD_COUNT_OPTION);
+    }
+
+    public Optional<Duration> getConnectionKeepAlive() {
+        return config.getOptional(CONNECTION_KEEP_ALIVE_OPTION);
+    }
+
+    public Optional<MemorySize> getSocketSendBufferSize() {
+        return config.getOptional(SOCKET_SEND_BUFFER_SIZE_OPTION);
+    }
+
+    public Optional<MemorySize> getSocketReceiveBufferSize() {
+        return config.getOptional(SOCKET_RECEIVE_BUFFER_SIZE_OPTION);
+    }
+
+    public boolean isSharedClient() {
+        return config.get(CONNECTION_SHARED_CLIENT_OPTION);
+    }
+
+    public CompressionType getCompression() {
+        return config.get(CONNECTION_COMPRESSION_OPTION);
+    }
+
+    public int getCompressionLevel() {
+        return config.get(CONNECTION_COMPRESSION_LEVEL_OPTION);
+    }
+
     public List<HttpHost> getHosts() {
         return config.get(HOSTS_OPTION).stream()
                 .map(ElasticsearchConfiguration::validateAndParseHostsString)
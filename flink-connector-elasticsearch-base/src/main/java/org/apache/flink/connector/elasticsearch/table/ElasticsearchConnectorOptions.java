@@ -23,6 +23,7 @@ import org.apache.flink.configuration.ConfigOption;
 import org.apache.flink.configuration.ConfigOptions;
 import org.apache.flink.configuration.MemorySize;
 import org.apache.flink.connector.base.DeliveryGuarantee;
+import org.apache.flink.connector.elasticsearch.sink.CompressionType;
 import org.apache.flink.connector.elasticsearch.sink.FlushBackoffType;
 
 import java.time.Duration;
@@ -69,6 +70,45 @@ public class ElasticsearchConnectorOptions {
                     .withDescription(
                             "Delimiter for composite keys e.g., \"$\" would result in IDs \"KEY1$KEY2$KEY3\".");
 
+    public static final ConfigOption<DocumentIdStrategy> DOCUMENT_ID_STRATEGY_OPTION =
+            ConfigOptions.key("document-id.strategy")
+                    .enumType(DocumentIdStrategy.class)
+                    .defaultValue(DocumentIdStrategy.AUTO)
+                    .withDescription(
+                            "How the ids of the documents are derived. With 'content-hash' the "
+                                    + "ids of tables without a primary key are deterministic, so "
+                                    + "rows which are written again after a failover overwrite "
+                                    + "their documents instead of duplicating them.");
+
+    public static final ConfigOption<List<String>> DOCUMENT_ID_HASH_COLUMNS_OPTION =
+            ConfigOptions.key("document-id.hash-columns")
+                    .stringType()
+                    .asList()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Columns from which the 'content-hash' document ids are derived. "
+                                    + "By default, the ids are derived from the complete "
+                                    + "serialized document.");
+
+    public static final ConfigOption<WriteMode> WRITE_MODE_OPTION =
+            ConfigOptions.key("sink.write-mode")
+                    .enumType(WriteMode.class)
+                    .defaultValue(WriteMode.UPSERT)
+                    .withDescription(
+                            "Requests written for inserted and updated rows: update requests "
+                                    + "which upsert keyed rows, index requests which replace the "
+                                    + "document or index requests with op_type create for "
+                                    + "insert-only input, e.g. into data streams.");
+
+    public static final ConfigOption<Boolean> DOC_AS_UPSERT_OPTION =
+            ConfigOptions.key("sink.doc-as-upsert")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether keyed rows are written as update requests with doc_as_upsert, "
+                                    + "which contain the document only once instead of both as "
+                                    + "partial document and as upsert document.");
+
     public static final ConfigOption<Integer> BULK_FLUSH_MAX_ACTIONS_OPTION =
             ConfigOptions.key("sink.bulk-flush.max-actions")
                     .intType()
@@ -87,6 +127,76 @@ public class ElasticsearchConnectorOptions {
                     .defaultValue(Duration.ofSeconds(1))
                     .withDescription("Bulk flush interval");
 
+    public static final ConfigOption<Integer> BULK_FLUSH_MAX_IN_FLIGHT_OPTION =
+            ConfigOptions.key("sink.bulk-flush.max-in-flight")
+                    .intType()
+                    .defaultValue(1)
+                    .withDescription(
+                            "Maximum number of bulk requests which may be in flight at the same time.");
+
+    public static final ConfigOption<Boolean> BULK_FLUSH_KEY_ORDERED_OPTION =
+            ConfigOptions.key("sink.bulk-flush.key-ordered")
+                    .booleanType()
+                    .defaultValue(true)
+                    .withDescription(
+                            "Whether changes to the same document are applied in the order they were "
+                                    + "emitted if multiple bulk requests are in flight.");
+
+    public static final ConfigOption<Boolean> BULK_FLUSH_COALESCING_OPTION =
+            ConfigOptions.key("sink.bulk-flush.coalescing")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether only the last upsert or delete of every document is sent "
+                                    + "if a document is changed multiple times before a bulk flush.");
+
+    public static final ConfigOption<MemorySize> MAX_PENDING_SIZE_OPTION =
+            ConfigOptions.key("sink.max-pending-size")
+                    .memoryType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Memory budget of a sink subtask for the rows which are buffered or "
+                                    + "in flight and not yet acknowledged. Once it is reached, the "
+                                    + "sink backpressures until enough rows are acknowledged.");
+
+    public static final ConfigOption<Boolean> BULK_LOAD_ENABLED_OPTION =
+            ConfigOptions.key("sink.bulk-load.enabled")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether the refreshes and replicas of the index are suspended while a "
+                                    + "bounded input is loaded. The original settings are "
+                                    + "restored and the index is refreshed when the input has "
+                                    + "ended or the job fails.");
+
+    public static final ConfigOption<Integer> BULK_LOAD_FORCE_MERGE_MAX_SEGMENTS_OPTION =
+            ConfigOptions.key("sink.bulk-load.force-merge.max-num-segments")
+                    .intType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Number of segments the index is merged to after a bulk load. "
+                                    + "By default, the index is not merged.");
+
+    public static final ConfigOption<Boolean> BULK_LOAD_SWAP_ALIAS_OPTION =
+            ConfigOptions.key("sink.bulk-load.swap-alias")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether the index names an alias whose data is reloaded by a bulk "
+                                    + "load. The rows are written through a write alias to a new "
+                                    + "index, which is named after the alias and the time it is "
+                                    + "created at when the job starts. The alias is swapped "
+                                    + "atomically to the new index when the input has ended.");
+
+    public static final ConfigOption<Boolean> BULK_LOAD_DELETE_PREVIOUS_INDICES_OPTION =
+            ConfigOptions.key("sink.bulk-load.delete-previous-indices")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether the indices the alias pointed to before it was swapped, "
+                                    + "and the new indices left behind by loads which did not "
+                                    + "finish, are deleted after the swap.");
+
     public static final ConfigOption<FlushBackoffType> BULK_FLUSH_BACKOFF_TYPE_OPTION =
             ConfigOptions.key("sink.bulk-flush.backoff.strategy")
                     .enumType(FlushBackoffType.class)
@@ -132,6 +242,73 @@ public class ElasticsearchConnectorOptions {
                             "The socket timeout (SO_TIMEOUT) for waiting for data or, put differently,"
                                     + "a maximum period inactivity between two consecutive data packets.");
 
+    public static final ConfigOption<Integer> CONNECTION_MAX_PER_ROUTE_OPTION =
+            ConfigOptions.key("connection.max-per-route")
+                    .intType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Maximum number of pooled connections to a single Elasticsearch node. "
+                                    + "The client defaults to 10.");
+
+    public static final ConfigOption<Integer> CONNECTION_MAX_TOTAL_OPTION =
+            ConfigOptions.key("connection.max-total")
+                    .intType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Maximum number of pooled connections to all Elasticsearch nodes. "
+                                    + "The client defaults to 30.");
+
+    public static final ConfigOption<Integer> CONNECTION_IO_THREAD_COUNT_OPTION =
+            ConfigOptions.key("connection.io-thread-count")
+                    .intType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Number of I/O dispatcher threads of the client. The client defaults "
+                                    + "to the number of available processors.");
+
+    public static final ConfigOption<Duration> CONNECTION_KEEP_ALIVE_OPTION =
+            ConfigOptions.key("connection.keep-alive")
+                    .durationType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Maximum time an idle pooled connection is kept alive. A shorter "
+                                    + "timeout announced by the server takes precedence.");
+
+    public static final ConfigOption<MemorySize> SOCKET_SEND_BUFFER_SIZE_OPTION =
+            ConfigOptions.key("socket.send-buffer-size")
+                    .memoryType()
+                    .noDefaultValue()
+                    .withDescription("The socket send buffer size (SO_SNDBUF).");
+
+    public static final ConfigOption<MemorySize> SOCKET_RECEIVE_BUFFER_SIZE_OPTION =
+            ConfigOptions.key("socket.receive-buffer-size")
+                    .memoryType()
+                    .noDefaultValue()
+                    .withDescription("The socket receive buffer size (SO_RCVBUF).");
+
+    public static final ConfigOption<Boolean> CONNECTION_SHARED_CLIENT_OPTION =
+            ConfigOptions.key("connection.shared-client")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether the sink subtasks in a TaskManager which connect to the same "
+                                    + "hosts with the same configuration share one client with "
+                                    + "one connection pool and one set of I/O threads.");
+
+    public static final ConfigOption<CompressionType> CONNECTION_COMPRESSION_OPTION =
+            ConfigOptions.key("connection.compression")
+                    .enumType(CompressionType.class)
+                    .defaultValue(CompressionType.NONE)
+                    .withDescription(
+                            "Compression of the bulk request bodies. With GZIP the responses are "
+                                    + "requested to be compressed as well.");
+
+    public static final ConfigOption<Integer> CONNECTION_COMPRESSION_LEVEL_OPTION =
+            ConfigOptions.key("connection.compression-level")
+                    .intType()
+                    .defaultValue(6)
+                    .withDescription("Compression level from 1 (fastest) to 9 (best compression).");
+
     public static final ConfigOption<String> FORMAT_OPTION =
             ConfigOptions.key("format")
                     .stringType()
@@ -39,10 +39,13 @@ import org.elasticsearch.common.xcontent.XContentType;
 import javax.annotation.Nullable;
 
 import java.time.ZoneId;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_LOAD_ENABLED_OPTION;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 
 /**
@@ -89,13 +92,31 @@ class ElasticsearchDynamicSink implements DynamicTableSink {
     }
 
     Function<RowData, String> createKeyExtractor() {
+        if (config.getDocumentIdStrategy() == DocumentIdStrategy.CONTENT_HASH
+                && config.getDocumentIdHashColumns().isPresent()) {
+            return KeyExtractor.createContentHashKeyExtractor(
+                    getLogicalTypesWithIndex(config.getDocumentIdHashColumns().get()));
+        }
         return KeyExtractor.createKeyExtractor(
                 primaryKeyLogicalTypesWithIndex, config.getKeyDelimiter());
     }
 
-    IndexGenerator createIndexGenerator() {
+    private List<LogicalTypeWithIndex> getLogicalTypesWithIndex(List<String> columns) {
+        final List<String> fieldNames = DataType.getFieldNames(physicalRowDataType);
+        final List<DataType> fieldDataTypes = DataType.getFieldDataTypes(physicalRowDataType);
+        return columns.stream()
+                .map(
+                        column -> {
+                            final int index = fieldNames.indexOf(column);
+                            return new LogicalTypeWithIndex(
+                                    index, fieldDataTypes.get(index).getLogicalType());
+                        })
+                .collect(Collectors.toList());
+    }
+
+    IndexGenerator createIndexGenerator(String index) {
         return IndexGeneratorFactory.createIndexGenerator(
-                config.getIndex(),
+                index,
                 DataType.getFieldNames(physicalRowDataType),
                 DataType.getFieldDataTypes(physicalRowDataType),
                 localTimeZoneId);
@@ -113,6 +134,12 @@ class ElasticsearchDynamicSink implements DynamicTableSink {
             throw new ValidationException(
                     "Dynamic indexing based on system time only works on append only stream.");
         }
+        if (config.getWriteMode() == WriteMode.CREATE
+                && !requestedMode.containsOnly(RowKind.INSERT)) {
+            throw new ValidationException(
+                    String.format(
+                            "Write mode '%s' only works on append only stream.", WriteMode.CREATE));
+        }
         return builder.build();
     }
 
@@ -121,13 +148,20 @@ class ElasticsearchDynamicSink implements DynamicTableSink {
         SerializationSchema<RowData> format =
                 this.format.createRuntimeEncoder(context, physicalRowDataType);
 
+        // a reload writes through a write alias to the new generation created by the coordinator
+        final String index =
+                config.isBulkLoadSwapAlias() ? config.getIndex() + "-bulk-load" : config.getIndex();
+
         final RowElasticsearchEmitter rowElasticsearchEmitter =
                 new RowElasticsearchEmitter(
-                        createIndexGenerator(),
+                        createIndexGenerator(index),
                         format,
                         XContentType.JSON,
                         documentType,
-                        createKeyExtractor());
+                        createKeyExtractor(),
+                        config.getWriteMode(),
+                        config.isDocAsUpsert(),
+                        config.getDocumentIdStrategy() == DocumentIdStrategy.CONTENT_HASH);
 
         ElasticsearchSinkBuilderBase<RowData, ? extends ElasticsearchSinkBuilderBase> builder =
                 builderSupplier.get();
@@ -137,6 +171,11 @@ class ElasticsearchDynamicSink implements DynamicTableSink {
         builder.setBulkFlushMaxActions(config.getBulkFlushMaxActions());
         builder.setBulkFlushMaxSizeMb(config.getBulkFlushMaxByteSize().getMebiBytes());
         builder.setBulkFlushInterval(config.getBulkFlushInterval());
+        builder.setBulkFlushMaxInFlightRequests(config.getBulkFlushMaxInFlight());
+        builder.setBulkFlushKeyOrdered(config.isBulkFlushKeyOrdered());
+        builder.setBulkFlushCoalescing(config.isBulkFlushCoalescing());
+        config.getMaxPendingSize()
+                .ifPresent(size -> builder.setMaxPendingSizeInBytes(size.getBytes()));
 
         if (config.getBulkFlushBackoffType().isPresent()) {
             FlushBackoffType backoffType = config.getBulkFlushBackoffType().get();
@@ -174,6 +213,46 @@ class ElasticsearchDynamicSink implements DynamicTableSink {
             builder.setSocketTimeout((int) config.getSocketTimeout().get().getSeconds());
         }
 
+        config.getConnectionMaxPerRoute().ifPresent(builder::setConnectionMaxPerRoute);
+        config.getConnectionMaxTotal().ifPresent(builder::setConnectionMaxTotal);
+        config.getConnectionIoThreadCount().ifPresent(builder::setConnectionIoThreadCount);
+        config.getConnectionKeepAlive()
+                .ifPresent(keepAlive -> builder.setConnectionKeepAlive(keepAlive.toMillis()));
+        config.getSocketSendBufferSize()
+                .ifPresent(size -> builder.setSocketSendBufferSize((int) size.getBytes()));
+        config.getSocketReceiveBufferSize()
+                .ifPresent(size -> builder.setSocketReceiveBufferSize((int) size.getBytes()));
+        builder.setSharedClient(config.isSharedClient());
+
+        if (config.getWriteMode() == WriteMode.CREATE) {
+            // replayed rows which were already created before a failover conflict
+            builder.setBulkItemFailureHandler(new CreateConflictFailureHandler());
+        }
+
+        builder.setConnectionCompression(config.getCompression());
+        builder.setConnectionCompressionLevel(config.getCompressionLevel());
+
+        if (config.isBulkLoadEnabled()) {
+            if (!context.isBounded()) {
+                throw new ValidationException(
+                        String.format(
+                                "'%s' is only supported for bounded inputs.",
+                                BULK_LOAD_ENABLED_OPTION.key()));
+            }
+            final int forceMergeMaxNumSegments =
+                    config.getBulkLoadForceMergeMaxNumSegments().orElse(-1);
+            return SinkV2Provider.of(
+                    config.isBulkLoadSwapAlias()
+                            ? builder.buildAliasSwap(
+                                    config.getIndex(),
+                                    index,
+                                    forceMergeMaxNumSegments,
+                                    config.isBulkLoadDeletePreviousIndices())
+                            : builder.buildBulkLoad(
+                                    Collections.singletonList(index), forceMergeMaxNumSegments),
+                    config.getParallelism().orElse(null));
+        }
+
         return SinkV2Provider.of(builder.build(), config.getParallelism().orElse(null));
     }
 
@@ -21,6 +21,7 @@ package org.apache.flink.connector.elasticsearch.table;
 import org.apache.flink.annotation.Internal;
 import org.apache.flink.api.common.serialization.SerializationSchema;
 import org.apache.flink.configuration.ConfigOption;
+import org.apache.flink.configuration.MemorySize;
 import org.apache.flink.configuration.ReadableConfig;
 import org.apache.flink.table.api.ValidationException;
 import org.apache.flink.table.api.config.TableConfigOptions;
@@ -51,20 +52,41 @@ import java.util.stream.Stream;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_BACKOFF_DELAY_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_BACKOFF_MAX_RETRIES_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_BACKOFF_TYPE_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_COALESCING_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_INTERVAL_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_KEY_ORDERED_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_MAX_ACTIONS_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_MAX_IN_FLIGHT_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_MAX_SIZE_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_LOAD_DELETE_PREVIOUS_INDICES_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_LOAD_ENABLED_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_LOAD_FORCE_MERGE_MAX_SEGMENTS_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.BULK_LOAD_SWAP_ALIAS_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_COMPRESSION_LEVEL_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_COMPRESSION_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_IO_THREAD_COUNT_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_KEEP_ALIVE_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_MAX_PER_ROUTE_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_MAX_TOTAL_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_PATH_PREFIX_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_REQUEST_TIMEOUT;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_SHARED_CLIENT_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_TIMEOUT;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.DELIVERY_GUARANTEE_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.DOCUMENT_ID_HASH_COLUMNS_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.DOCUMENT_ID_STRATEGY_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.DOC_AS_UPSERT_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.FORMAT_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.HOSTS_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.INDEX_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.KEY_DELIMITER_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.MAX_PENDING_SIZE_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.PASSWORD_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.SOCKET_RECEIVE_BUFFER_SIZE_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.SOCKET_SEND_BUFFER_SIZE_OPTION;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.SOCKET_TIMEOUT;
 import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.USERNAME_OPTION;
+import static org.apache.flink.connector.elasticsearch.table.ElasticsearchConnectorOptions.WRITE_MODE_OPTION;
 import static org.apache.flink.table.factories.FactoryUtil.SINK_PARALLELISM;
 import static org.apache.flink.util.Preconditions.checkNotNull;
 import static org.elasticsearch.common.Strings.capitalize;
@@ -101,6 +123,8 @@ abstract class ElasticsearchDynamicSinkFactoryBase implements DynamicTableSinkFa
         ElasticsearchConfiguration config = getConfiguration(helper);
         helper.validate();
         validateConfiguration(config);
+        validateDocumentIdStrategy(
+                config, primaryKeyLogicalTypesWithIndex, context.getPhysicalRowDataType());
 
         return new ElasticsearchDynamicSink(
                 format,
@@ -148,6 +172,13 @@ abstract class ElasticsearchDynamicSinkFactoryBase implements DynamicTableSinkFa
                                 "'%s' must be in MB granularity. Got: %s",
                                 BULK_FLUSH_MAX_SIZE_OPTION.key(),
                                 config.getBulkFlushMaxByteSize().toHumanReadableString()));
+        int maxInFlight = config.getBulkFlushMaxInFlight();
+        validate(
+                maxInFlight >= 1,
+                () ->
+                        String.format(
+                                "'%s' must be at least 1. Got: %s",
+                                BULK_FLUSH_MAX_IN_FLIGHT_OPTION.key(), maxInFlight));
         validate(
                 config.getBulkFlushBackoffRetries().map(retries -> retries >= 1).orElse(true),
                 () ->
@@ -155,6 +186,68 @@ abstract class ElasticsearchDynamicSinkFactoryBase implements DynamicTableSinkFa
                                 "'%s' must be at least 1. Got: %s",
                                 BULK_FLUSH_BACKOFF_MAX_RETRIES_OPTION.key(),
                                 config.getBulkFlushBackoffRetries().get()));
+        int compressionLevel = config.getCompressionLevel();
+        validate(
+                compressionLevel >= 1 && compressionLevel <= 9,
+                () ->
+                        String.format(
+                                "'%s' must be between 1 and 9. Got: %s",
+                                CONNECTION_COMPRESSION_LEVEL_OPTION.key(), compressionLevel));
+        validate(
+                config.getMaxPendingSize().map(size -> size.getBytes() > 0).orElse(true),
+                () ->
+                        String.format(
+                                "'%s' must be at least 1 byte. Got: %s",
+                                MAX_PENDING_SIZE_OPTION.key(),
+                                config.getMaxPendingSize().get().toHumanReadableString()));
+        validate(
+                !config.isBulkFlushCoalescing() || config.getBulkFlushInterval() > 0,
+                () ->
+                        String.format(
+                                "'%s' requires '%s' to be enabled.",
+                                BULK_FLUSH_COALESCING_OPTION.key(),
+                                BULK_FLUSH_INTERVAL_OPTION.key()));
+        validatePositive(
+                config.getBulkLoadForceMergeMaxNumSegments(),
+                BULK_LOAD_FORCE_MERGE_MAX_SEGMENTS_OPTION);
+        validate(
+                config.isBulkLoadEnabled()
+                        || !config.getBulkLoadForceMergeMaxNumSegments().isPresent(),
+                () ->
+                        String.format(
+                                "'%s' can only be set if '%s' is enabled.",
+                                BULK_LOAD_FORCE_MERGE_MAX_SEGMENTS_OPTION.key(),
+                                BULK_LOAD_ENABLED_OPTION.key()));
+        validate(
+                config.isBulkLoadEnabled() || !config.isBulkLoadSwapAlias(),
+                () ->
+                        String.format(
+                                "'%s' can only be set if '%s' is enabled.",
+                                BULK_LOAD_SWAP_ALIAS_OPTION.key(), BULK_LOAD_ENABLED_OPTION.key()));
+        validate(
+                config.isBulkLoadSwapAlias() || !config.isBulkLoadDeletePreviousIndices(),
+                () ->
+                        String.format(
+                                "'%s' can only be set if '%s' is enabled.",
+                                BULK_LOAD_DELETE_PREVIOUS_INDICES_OPTION.key(),
+                                BULK_LOAD_SWAP_ALIAS_OPTION.key()));
+        validate(
+                !config.isBulkLoadEnabled()
+                        || !new IndexGeneratorFactory.IndexHelper()
+                                .checkIsDynamicIndex(config.getIndex()),
+                () ->
+                        String.format(
+                                "'%s' is not supported for dynamic indices. Got: %s",
+                                BULK_LOAD_ENABLED_OPTION.key(), config.getIndex()));
+        validatePositive(config.getConnectionMaxPerRoute(), CONNECTION_MAX_PER_ROUTE_OPTION);
+        validatePositive(config.getConnectionMaxTotal(), CONNECTION_MAX_TOTAL_OPTION);
+        validatePositive(config.getConnectionIoThreadCount(), CONNECTION_IO_THREAD_COUNT_OPTION);
+        validatePositive(
+                config.getSocketSendBufferSize().map(MemorySize::getBytes),
+                SOCKET_SEND_BUFFER_SIZE_OPTION);
+        validatePositive(
+                config.getSocketReceiveBufferSize().map(MemorySize::getBytes),
+                SOCKET_RECEIVE_BUFFER_SIZE_OPTION);
         if (config.getUsername().isPresent()
                 && !StringUtils.isNullOrWhitespaceOnly(config.getUsername().get())) {
             validate(
@@ -170,6 +263,61 @@ abstract class ElasticsearchDynamicSinkFactoryBase implements DynamicTableSinkFa
         }
     }
 
+    void validateDocumentIdStrategy(
+            ElasticsearchConfiguration config,
+            List<LogicalTypeWithIndex> primaryKeyLogicalTypesWithIndex,
+            DataType physicalRowDataType) {
+        final DocumentIdStrategy strategy = config.getDocumentIdStrategy();
+        if (strategy != DocumentIdStrategy.CONTENT_HASH) {
+            validate(
+                    !config.getDocumentIdHashColumns().isPresent(),
+                    () ->
+                            String.format(
+                                    "'%s' can only be set with '%s' '%s'.",
+                                    DOCUMENT_ID_HASH_COLUMNS_OPTION.key(),
+                                    DOCUMENT_ID_STRATEGY_OPTION.key(),
+                                    DocumentIdStrategy.CONTENT_HASH));
+            return;
+        }
+        validate(
+                primaryKeyLogicalTypesWithIndex.isEmpty(),
+                () ->
+                        String.format(
+                                "'%s' '%s' is only supported for tables without a primary key.",
+                                DOCUMENT_ID_STRATEGY_OPTION.key(), strategy));
+        if (config.getDocumentIdHashColumns().isPresent()) {
+            final List<String> hashColumns = config.getDocumentIdHashColumns().get();
+            final List<String> fieldNames = DataType.getFieldNames(physicalRowDataType);
+            validate(
+                    !hashColumns.isEmpty(),
+                    () ->
+                            String.format(
+                                    "'%s' must not be empty.",
+                                    DOCUMENT_ID_HASH_COLUMNS_OPTION.key()));
+            for (String column : hashColumns) {
+                validate(
+                        fieldNames.contains(column),
+                        () ->
+                                String.format(
+                                        "Column '%s' of '%s' does not exist. Available columns: %s",
+                                        column, DOCUMENT_ID_HASH_COLUMNS_OPTION.key(), fieldNames));
+            }
+            ElasticsearchValidationUtils.validateContentHashColumns(
+                    Projection.of(hashColumns.stream().mapToInt(fieldNames::indexOf).toArray())
+                            .project(physicalRowDataType));
+        }
+    }
+
+    private static void validatePositive(Optional<? extends Number> value, ConfigOption<?> option) {
+        validate(
+                value.map(v -> v.longValue() >= 1 && v.longValue() <= Integer.MAX_VALUE)
+                        .orElse(true),
+                () ->
+                        String.format(
+                                "'%s' must be between 1 and %s. Got: %s",
+                                option.key(), Integer.MAX_VALUE, value.get()));
+    }
+
     static void validate(boolean condition, Supplier<String> message) {
         if (!condition) {
             throw new ValidationException(message.get());
@@ -211,9 +359,21 @@ abstract class ElasticsearchDynamicSinkFactoryBase implements DynamicTableSinkFa
     public Set<ConfigOption<?>> optionalOptions() {
         return Stream.of(
                         KEY_DELIMITER_OPTION,
+                        DOCUMENT_ID_STRATEGY_OPTION,
+                        DOCUMENT_ID_HASH_COLUMNS_OPTION,
                         BULK_FLUSH_MAX_SIZE_OPTION,
                         BULK_FLUSH_MAX_ACTIONS_OPTION,
                         BULK_FLUSH_INTERVAL_OPTION,
+                        BULK_FLUSH_MAX_IN_FLIGHT_OPTION,
+                        BULK_FLUSH_KEY_ORDERED_OPTION,
+                        BULK_FLUSH_COALESCING_OPTION,
+                        MAX_PENDING_SIZE_OPTION,
+                        BULK_LOAD_ENABLED_OPTION,
+                        BULK_LOAD_FORCE_MERGE_MAX_SEGMENTS_OPTION,
+                        BULK_LOAD_SWAP_ALIAS_OPTION,
+                        BULK_LOAD_DELETE_PREVIOUS_INDICES_OPTION,
+                        WRITE_MODE_OPTION,
+                        DOC_AS_UPSERT_OPTION,
                         BULK_FLUSH_BACKOFF_TYPE_OPTION,
                         BULK_FLUSH_BACKOFF_MAX_RETRIES_OPTION,
                         BULK_FLUSH_BACKOFF_DELAY_OPTION,
@@ -221,6 +381,15 @@ abstract class ElasticsearchDynamicSinkFactoryBase implements DynamicTableSinkFa
                         CONNECTION_REQUEST_TIMEOUT,
                         CONNECTION_TIMEOUT,
                         SOCKET_TIMEOUT,
+                        CONNECTION_MAX_PER_ROUTE_OPTION,
+                        CONNECTION_MAX_TOTAL_OPTION,
+                        CONNECTION_IO_THREAD_COUNT_OPTION,
+                        CONNECTION_KEEP_ALIVE_OPTION,
+                        SOCKET_SEND_BUFFER_SIZE_OPTION,
+                        SOCKET_RECEIVE_BUFFER_SIZE_OPTION,
+                        CONNECTION_SHARED_CLIENT_OPTION,
+                        CONNECTION_COMPRESSION_OPTION,
+                        CONNECTION_COMPRESSION_LEVEL_OPTION,
                         FORMAT_OPTION,
                         DELIVERY_GUARANTEE_OPTION,
                         PASSWORD_OPTION,
@@ -237,16 +406,37 @@ abstract class ElasticsearchDynamicSinkFactoryBase implements DynamicTableSinkFa
                         PASSWORD_OPTION,
                         USERNAME_OPTION,
                         KEY_DELIMITER_OPTION,
+                        DOCUMENT_ID_STRATEGY_OPTION,
+                        DOCUMENT_ID_HASH_COLUMNS_OPTION,
                         BULK_FLUSH_MAX_ACTIONS_OPTION,
                         BULK_FLUSH_MAX_SIZE_OPTION,
                         BULK_FLUSH_INTERVAL_OPTION,
+                        BULK_FLUSH_MAX_IN_FLIGHT_OPTION,
+                        BULK_FLUSH_KEY_ORDERED_OPTION,
+                        BULK_FLUSH_COALESCING_OPTION,
+                        MAX_PENDING_SIZE_OPTION,
+                        BULK_LOAD_ENABLED_OPTION,
+                        BULK_LOAD_FORCE_MERGE_MAX_SEGMENTS_OPTION,
+                        BULK_LOAD_SWAP_ALIAS_OPTION,
+                        BULK_LOAD_DELETE_PREVIOUS_INDICES_OPTION,
+                        WRITE_MODE_OPTION,
+                        DOC_AS_UPSERT_OPTION,
                         BULK_FLUSH_BACKOFF_TYPE_OPTION,
                         BULK_FLUSH_BACKOFF_MAX_RETRIES_OPTION,
                         BULK_FLUSH_BACKOFF_DELAY_OPTION,
                         CONNECTION_PATH_PREFIX_OPTION,
                         CONNECTION_REQUEST_TIMEOUT,
                         CONNECTION_TIMEOUT,
-                        SOCKET_TIMEOUT)
+                        SOCKET_TIMEOUT,
+                        CONNECTION_MAX_PER_ROUTE_OPTION,
+                        CONNECTION_MAX_TOTAL_OPTION,
+                        CONNECTION_IO_THREAD_COUNT_OPTION,
+                        CONNECTION_KEEP_ALIVE_OPTION,
+                        SOCKET_SEND_BUFFER_SIZE_OPTION,
+                        SOCKET_RECEIVE_BUFFER_SIZE_OPTION,
+                        CONNECTION_SHARED_CLIENT_OPTION,
+                        CONNECTION_COMPRESSION_OPTION,
+                        CONNECTION_COMPRESSION_LEVEL_OPTION)
                 .collect(Collectors.toSet());
     }
 
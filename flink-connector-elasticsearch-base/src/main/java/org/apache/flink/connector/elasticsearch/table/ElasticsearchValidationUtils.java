@@ -64,22 +64,7 @@ class ElasticsearchValidationUtils {
      * LogicalTypeRoot#RAW} type.
      */
     public static void validatePrimaryKey(DataType primaryKeyDataType) {
-        List<DataType> fieldDataTypes = DataType.getFieldDataTypes(primaryKeyDataType);
-        List<LogicalTypeRoot> illegalTypes =
-                fieldDataTypes.stream()
-                        .map(DataType::getLogicalType)
-                        .map(
-                                logicalType -> {
-                                    if (logicalType.is(LogicalTypeRoot.DISTINCT_TYPE)) {
-                                        return ((DistinctType) logicalType)
-                                                .getSourceType()
-                                                .getTypeRoot();
-                                    } else {
-                                        return logicalType.getTypeRoot();
-                                    }
-                                })
-                        .filter(t -> !ALLOWED_PRIMARY_KEY_TYPES.contains(t))
-                        .collect(Collectors.toList());
+        List<LogicalTypeRoot> illegalTypes = getIllegalKeyTypes(primaryKeyDataType);
         if (!illegalTypes.isEmpty()) {
             throw new ValidationException(
                     String.format(
@@ -88,5 +73,35 @@ class ElasticsearchValidationUtils {
         }
     }
 
+    /**
+     * Checks that the columns from which content hash document ids are derived do not have illegal
+     * types. The same types as for primary keys are allowed, as the ids are derived from the same
+     * string representation of the fields.
+     */
+    public static void validateContentHashColumns(DataType hashColumnsDataType) {
+        List<LogicalTypeRoot> illegalTypes = getIllegalKeyTypes(hashColumnsDataType);
+        if (!illegalTypes.isEmpty()) {
+            throw new ValidationException(
+                    String.format(
+                            "The document id hash columns have illegal types: %s.", illegalTypes));
+        }
+    }
+
+    private static List<LogicalTypeRoot> getIllegalKeyTypes(DataType keyDataType) {
+        List<DataType> fieldDataTypes = DataType.getFieldDataTypes(keyDataType);
+        return fieldDataTypes.stream()
+                .map(DataType::getLogicalType)
+                .map(
+                        logicalType -> {
+                            if (logicalType.is(LogicalTypeRoot.DISTINCT_TYPE)) {
+                                return ((DistinctType) logicalType).getSourceType().getTypeRoot();
+                            } else {
+                                return logicalType.getTypeRoot();
+                            }
+                        })
+                .filter(t -> !ALLOWED_PRIMARY_KEY_TYPES.contains(t))
+                .collect(Collectors.toList());
+    }
+
     private ElasticsearchValidationUtils() {}
 }
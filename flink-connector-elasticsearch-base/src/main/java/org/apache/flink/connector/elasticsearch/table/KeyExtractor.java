@@ -31,6 +31,8 @@ import java.time.LocalTime;
 import java.time.Period;
 import java.util.List;
 
+import static org.apache.flink.util.Preconditions.checkArgument;
+
 /** An extractor for a Elasticsearch key from a {@link RowData}. */
 @Internal
 class KeyExtractor implements SerializableFunction<RowData, String> {
@@ -76,6 +78,34 @@ class KeyExtractor implements SerializableFunction<RowData, String> {
         }
     }
 
+    /**
+     * Creates an extractor which derives content hash ids from the given columns. Unlike keys, the
+     * columns may be null. Every value is prefixed with its length, so that different values do not
+     * result in the same id regardless of the characters they contain.
+     */
+    public static SerializableFunction<RowData, String> createContentHashKeyExtractor(
+            List<LogicalTypeWithIndex> hashColumnTypesWithIndex) {
+        checkArgument(!hashColumnTypesWithIndex.isEmpty(), "Hash columns must not be empty.");
+        final int[] indexes =
+                hashColumnTypesWithIndex.stream().mapToInt(column -> column.index).toArray();
+        final FieldFormatter[] formatters =
+                hashColumnTypesWithIndex.stream()
+                        .map(column -> toFormatter(column.index, column.logicalType))
+                        .toArray(FieldFormatter[]::new);
+        return (row) -> {
+            final StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < formatters.length; i++) {
+                if (row.isNullAt(indexes[i])) {
+                    builder.append('-');
+                } else {
+                    final String value = formatters[i].format(row);
+                    builder.append(value.length()).append(':').append(value);
+                }
+            }
+            return ContentHash.of(builder.toString());
+        };
+    }
+
     private static FieldFormatter toFormatter(int index, LogicalType type) {
         switch (type.getTypeRoot()) {
             case DATE:
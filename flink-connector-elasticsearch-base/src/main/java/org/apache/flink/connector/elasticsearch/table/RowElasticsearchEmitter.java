@@ -50,18 +50,27 @@ class RowElasticsearchEmitter implements ElasticsearchEmitter<RowData> {
     private final XContentType contentType;
     @Nullable private final String documentType;
     private final Function<RowData, String> createKey;
+    private final WriteMode writeMode;
+    private final boolean docAsUpsert;
+    private final boolean contentHashIds;
 
     public RowElasticsearchEmitter(
             IndexGenerator indexGenerator,
             SerializationSchema<RowData> serializationSchema,
             XContentType contentType,
             @Nullable String documentType,
-            Function<RowData, String> createKey) {
+            Function<RowData, String> createKey,
+            WriteMode writeMode,
+            boolean docAsUpsert,
+            boolean contentHashIds) {
         this.indexGenerator = checkNotNull(indexGenerator);
         this.serializationSchema = checkNotNull(serializationSchema);
         this.contentType = checkNotNull(contentType);
         this.documentType = documentType;
         this.createKey = checkNotNull(createKey);
+        this.writeMode = checkNotNull(writeMode);
+        this.docAsUpsert = docAsUpsert;
+        this.contentHashIds = contentHashIds;
     }
 
     @Override
@@ -104,26 +113,45 @@ class RowElasticsearchEmitter implements ElasticsearchEmitter<RowData> {
 
     private void processUpsert(RowData row, RequestIndexer indexer) {
         final byte[] document = serializationSchema.serialize(row);
-        final String key = createKey.apply(row);
-        if (key != null) {
+        final String key = createKey(row, document);
+        if (key != null && writeMode == WriteMode.UPSERT && !contentHashIds) {
             final UpdateRequest updateRequest =
                     new UpdateRequest(indexGenerator.generate(row), documentType, key)
-                            .doc(document, contentType)
-                            .upsert(document, contentType);
+                            .doc(document, contentType);
+            if (docAsUpsert) {
+                updateRequest.docAsUpsert(true);
+            } else {
+                updateRequest.upsert(document, contentType);
+            }
             indexer.add(updateRequest);
         } else {
+            // documents with content hash ids never change, so they are indexed without a merge
             final IndexRequest indexRequest =
                     new IndexRequest(indexGenerator.generate(row), documentType)
                             .id(key)
-                            .source(document, contentType);
+                            .source(document, contentType)
+                            .create(writeMode == WriteMode.CREATE);
             indexer.add(indexRequest);
         }
     }
 
     private void processDelete(RowData row, RequestIndexer indexer) {
-        final String key = createKey.apply(row);
+        final String key =
+                contentHashIds
+                        ? createKey(row, serializationSchema.serialize(row))
+                        : createKey.apply(row);
         final DeleteRequest deleteRequest =
                 new DeleteRequest(indexGenerator.generate(row), documentType, key);
         indexer.add(deleteRequest);
     }
+
+    /**
+     * Returns the key of the row or, for content hash ids without hash columns, the hash of the
+     * serialized document, which is the same for a retraction as for the row it retracts.
+     */
+    @Nullable
+    private String createKey(RowData row, byte[] document) {
+        final String key = createKey.apply(row);
+        return key == null && contentHashIds ? ContentHash.of(document) : key;
+    }
 }
@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.table;
+
+import org.apache.flink.annotation.PublicEvolving;
+
+/** Describes which requests the table sink writes for inserted and updated rows. */
+@PublicEvolving
+public enum WriteMode {
+    /**
+     * Rows with a primary key are written as update requests which insert the document if it does
+     * not exist yet. Rows without a primary key are indexed with a generated id.
+     */
+    UPSERT,
+    /** Rows are written as index requests which replace the complete document. */
+    INDEX,
+    /**
+     * Rows are written as index requests with op_type create, which only succeed if the document
+     * does not exist yet. Required for writing into data streams, only supports insert-only input.
+     */
+    CREATE,
+}
@@ -138,6 +138,14 @@ class ElasticsearchConfiguration {
         return !config.get(ElasticsearchConnectorOptions.FLUSH_ON_CHECKPOINT_OPTION);
     }
 
+    public ElasticsearchConnectorOptions.WriteMode getWriteMode() {
+        return config.get(ElasticsearchConnectorOptions.WRITE_MODE_OPTION);
+    }
+
+    public boolean isDocAsUpsert() {
+        return config.get(ElasticsearchConnectorOptions.DOC_AS_UPSERT_OPTION);
+    }
+
     public String getIndex() {
         return config.get(ElasticsearchConnectorOptions.INDEX_OPTION);
     }
@@ -150,6 +158,25 @@ class ElasticsearchConfiguration {
         return config.getOptional(ElasticsearchConnectorOptions.CONNECTION_PATH_PREFIX);
     }
 
+    public HttpClientConfig getHttpClientConfig() {
+        return new HttpClientConfig(
+                config.getOptional(ElasticsearchConnectorOptions.CONNECTION_MAX_PER_ROUTE_OPTION)
+                        .orElse(null),
+                config.getOptional(ElasticsearchConnectorOptions.CONNECTION_MAX_TOTAL_OPTION)
+                        .orElse(null),
+                config.getOptional(ElasticsearchConnectorOptions.CONNECTION_IO_THREAD_COUNT_OPTION)
+                        .orElse(null),
+                config.getOptional(ElasticsearchConnectorOptions.CONNECTION_KEEP_ALIVE_OPTION)
+                        .map(Duration::toMillis)
+                        .orElse(null),
+                config.getOptional(ElasticsearchConnectorOptions.SOCKET_SEND_BUFFER_SIZE_OPTION)
+                        .map(size -> (int) size.getBytes())
+                        .orElse(null),
+                config.getOptional(ElasticsearchConnectorOptions.SOCKET_RECEIVE_BUFFER_SIZE_OPTION)
+                        .map(size -> (int) size.getBytes())
+                        .orElse(null));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
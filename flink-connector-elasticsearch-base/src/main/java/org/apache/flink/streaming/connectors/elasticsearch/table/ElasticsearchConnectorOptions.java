@@ -102,6 +102,25 @@ public class ElasticsearchConnectorOptions {
                     .defaultValue(true)
                     .withDescription("Disables flushing on checkpoint");
 
+    public static final ConfigOption<WriteMode> WRITE_MODE_OPTION =
+            ConfigOptions.key("sink.write-mode")
+                    .enumType(WriteMode.class)
+                    .defaultValue(WriteMode.UPSERT)
+                    .withDescription(
+                            "Requests written for inserted and updated rows: update requests "
+                                    + "which upsert keyed rows, index requests which replace the "
+                                    + "document or index requests with op_type create for "
+                                    + "insert-only input, e.g. into data streams.");
+
+    public static final ConfigOption<Boolean> DOC_AS_UPSERT_OPTION =
+            ConfigOptions.key("sink.doc-as-upsert")
+                    .booleanType()
+                    .defaultValue(false)
+                    .withDescription(
+                            "Whether keyed rows are written as update requests with doc_as_upsert, "
+                                    + "which contain the document only once instead of both as "
+                                    + "partial document and as upsert document.");
+
     public static final ConfigOption<Integer> BULK_FLUSH_MAX_ACTIONS_OPTION =
             ConfigOptions.key("sink.bulk-flush.max-actions")
                     .intType()
@@ -144,6 +163,50 @@ public class ElasticsearchConnectorOptions {
                     .noDefaultValue()
                     .withDescription("Prefix string to be added to every REST communication.");
 
+    public static final ConfigOption<Integer> CONNECTION_MAX_PER_ROUTE_OPTION =
+            ConfigOptions.key("connection.max-per-route")
+                    .intType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Maximum number of pooled connections to a single Elasticsearch node. "
+                                    + "The client defaults to 10.");
+
+    public static final ConfigOption<Integer> CONNECTION_MAX_TOTAL_OPTION =
+            ConfigOptions.key("connection.max-total")
+                    .intType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Maximum number of pooled connections to all Elasticsearch nodes. "
+                                    + "The client defaults to 30.");
+
+    public static final ConfigOption<Integer> CONNECTION_IO_THREAD_COUNT_OPTION =
+            ConfigOptions.key("connection.io-thread-count")
+                    .intType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Number of I/O dispatcher threads of the client. The client defaults "
+                                    + "to the number of available processors.");
+
+    public static final ConfigOption<Duration> CONNECTION_KEEP_ALIVE_OPTION =
+            ConfigOptions.key("connection.keep-alive")
+                    .durationType()
+                    .noDefaultValue()
+                    .withDescription(
+                            "Maximum time an idle pooled connection is kept alive. A shorter "
+                                    + "timeout announced by the server takes precedence.");
+
+    public static final ConfigOption<MemorySize> SOCKET_SEND_BUFFER_SIZE_OPTION =
+            ConfigOptions.key("socket.send-buffer-size")
+                    .memoryType()
+                    .noDefaultValue()
+                    .withDescription("The socket send buffer size (SO_SNDBUF).");
+
+    public static final ConfigOption<MemorySize> SOCKET_RECEIVE_BUFFER_SIZE_OPTION =
+            ConfigOptions.key("socket.receive-buffer-size")
+                    .memoryType()
+                    .noDefaultValue()
+                    .withDescription("The socket receive buffer size (SO_RCVBUF).");
+
     public static final ConfigOption<String> FORMAT_OPTION =
             ConfigOptions.key("format")
                     .stringType()
@@ -166,5 +229,15 @@ public class ElasticsearchConnectorOptions {
         EXPONENTIAL
     }
 
+    /** Requests written for inserted and updated rows. */
+    public enum WriteMode {
+        /** Rows with a primary key are upserted with update requests. */
+        UPSERT,
+        /** Rows are written as index requests which replace the complete document. */
+        INDEX,
+        /** Rows are written as index requests with op_type create, for insert-only input. */
+        CREATE
+    }
+
     private ElasticsearchConnectorOptions() {}
 }
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.streaming.connectors.elasticsearch.table;
+
+import org.apache.flink.annotation.Internal;
+import org.apache.flink.connector.elasticsearch.sink.CappedKeepAliveStrategy;
+
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+
+import javax.annotation.Nullable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Connection pool, I/O reactor and keep-alive settings of the http client which are applied by the
+ * rest client factories of the table sinks.
+ */
+@Internal
+class HttpClientConfig implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Nullable private final Integer maxConnectionsPerRoute;
+    @Nullable private final Integer maxConnectionsTotal;
+    @Nullable private final Integer ioThreadCount;
+    @Nullable private final Long keepAlive;
+    @Nullable private final Integer socketSendBufferSize;
+    @Nullable private final Integer socketReceiveBufferSize;
+
+    HttpClientConfig(
+            @Nullable Integer maxConnectionsPerRoute,
+            @Nullable Integer maxConnectionsTotal,
+            @Nullable Integer ioThreadCount,
+            @Nullable Long keepAlive,
+            @Nullable Integer socketSendBufferSize,
+            @Nullable Integer socketReceiveBufferSize) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.maxConnectionsTotal = maxConnectionsTotal;
+        this.ioThreadCount = ioThreadCount;
+        this.keepAlive = keepAlive;
+        this.socketSendBufferSize = socketSendBufferSize;
+        this.socketReceiveBufferSize = socketReceiveBufferSize;
+    }
+
+    /** Settings which keep all defaults of the Elasticsearch client. */
+    static HttpClientConfig defaults() {
+        return new HttpClientConfig(null, null, null, null, null, null);
+    }
+
+    HttpAsyncClientBuilder configure(HttpAsyncClientBuilder httpClientBuilder) {
+        if (maxConnectionsPerRoute != null) {
+            httpClientBuilder.setMaxConnPerRoute(maxConnectionsPerRoute);
+        }
+        if (maxConnectionsTotal != null) {
+            httpClientBuilder.setMaxConnTotal(maxConnectionsTotal);
+        }
+        if (ioThreadCount != null
+                || socketSendBufferSize != null
+                || socketReceiveBufferSize != null) {
+            final IOReactorConfig.Builder ioReactorConfig = IOReactorConfig.custom();
+            if (ioThreadCount != null) {
+                ioReactorConfig.setIoThreadCount(ioThreadCount);
+            }
+            if (socketSendBufferSize != null) {
+                ioReactorConfig.setSndBufSize(socketSendBufferSize);
+            }
+            if (socketReceiveBufferSize != null) {
+                ioReactorConfig.setRcvBufSize(socketReceiveBufferSize);
+            }
+            httpClientBuilder.setDefaultIOReactorConfig(ioReactorConfig.build());
+        }
+        if (keepAlive != null) {
+            httpClientBuilder.setKeepAliveStrategy(new CappedKeepAliveStrategy(keepAlive));
+        }
+        return httpClientBuilder;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        HttpClientConfig that = (HttpClientConfig) o;
+        return Objects.equals(maxConnectionsPerRoute, that.maxConnectionsPerRoute)
+                && Objects.equals(maxConnectionsTotal, that.maxConnectionsTotal)
+                && Objects.equals(ioThreadCount, that.ioThreadCount)
+                && Objects.equals(keepAlive, that.keepAlive)
+                && Objects.equals(socketSendBufferSize, that.socketSendBufferSize)
+                && Objects.equals(socketReceiveBufferSize, that.socketReceiveBufferSize);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                maxConnectionsPerRoute,
+                maxConnectionsTotal,
+                ioThreadCount,
+                keepAlive,
+                socketSendBufferSize,
+                socketReceiveBufferSize);
+    }
+}
@@ -39,6 +39,14 @@ interface RequestFactory extends Serializable {
     UpdateRequest createUpdateRequest(
             String index, String docType, String key, XContentType contentType, byte[] document);
 
+    /**
+     * Creates an update request with doc_as_upsert to be added to a {@link RequestIndexer}, which
+     * contains the document only once. Note: the type field has been deprecated since Elasticsearch
+     * 7.x and it would not take any effort.
+     */
+    UpdateRequest createDocAsUpsertRequest(
+            String index, String docType, String key, XContentType contentType, byte[] document);
+
     /**
      * Creates an index request to be added to a {@link RequestIndexer}. Note: the type field has
      * been deprecated since Elasticsearch 7.x and it would not take any effort.
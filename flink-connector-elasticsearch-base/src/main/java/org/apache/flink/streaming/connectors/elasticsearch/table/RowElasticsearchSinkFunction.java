@@ -24,6 +24,7 @@ import org.apache.flink.api.common.serialization.RuntimeContextInitializationCon
 import org.apache.flink.api.common.serialization.SerializationSchema;
 import org.apache.flink.streaming.connectors.elasticsearch.ElasticsearchSinkFunction;
 import org.apache.flink.streaming.connectors.elasticsearch.RequestIndexer;
+import org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.WriteMode;
 import org.apache.flink.table.api.TableException;
 import org.apache.flink.table.data.RowData;
 import org.apache.flink.util.Preconditions;
@@ -51,6 +52,8 @@ class RowElasticsearchSinkFunction implements ElasticsearchSinkFunction<RowData>
     private final XContentType contentType;
     private final RequestFactory requestFactory;
     private final Function<RowData, String> createKey;
+    private final WriteMode writeMode;
+    private final boolean docAsUpsert;
 
     public RowElasticsearchSinkFunction(
             IndexGenerator indexGenerator,
@@ -58,13 +61,17 @@ class RowElasticsearchSinkFunction implements ElasticsearchSinkFunction<RowData>
             SerializationSchema<RowData> serializationSchema,
             XContentType contentType,
             RequestFactory requestFactory,
-            Function<RowData, String> createKey) {
+            Function<RowData, String> createKey,
+            WriteMode writeMode,
+            boolean docAsUpsert) {
         this.indexGenerator = Preconditions.checkNotNull(indexGenerator);
         this.docType = docType;
         this.serializationSchema = Preconditions.checkNotNull(serializationSchema);
         this.contentType = Preconditions.checkNotNull(contentType);
         this.requestFactory = Preconditions.checkNotNull(requestFactory);
         this.createKey = Preconditions.checkNotNull(createKey);
+        this.writeMode = Preconditions.checkNotNull(writeMode);
+        this.docAsUpsert = docAsUpsert;
     }
 
     @Override
@@ -93,15 +100,27 @@ class RowElasticsearchSinkFunction implements ElasticsearchSinkFunction<RowData>
     private void processUpsert(RowData row, RequestIndexer indexer) {
         final byte[] document = serializationSchema.serialize(row);
         final String key = createKey.apply(row);
-        if (key != null) {
+        if (key != null && writeMode == WriteMode.UPSERT) {
             final UpdateRequest updateRequest =
-                    requestFactory.createUpdateRequest(
-                            indexGenerator.generate(row), docType, key, contentType, document);
+                    docAsUpsert
+                            ? requestFactory.createDocAsUpsertRequest(
+                                    indexGenerator.generate(row),
+                                    docType,
+                                    key,
+                                    contentType,
+                                    document)
+                            : requestFactory.createUpdateRequest(
+                                    indexGenerator.generate(row),
+                                    docType,
+                                    key,
+                                    contentType,
+                                    document);
             indexer.add(updateRequest);
         } else {
             final IndexRequest indexRequest =
                     requestFactory.createIndexRequest(
                             indexGenerator.generate(row), docType, key, contentType, document);
+            indexRequest.create(writeMode == WriteMode.CREATE);
             indexer.add(indexRequest);
         }
     }
@@ -127,7 +146,9 @@ class RowElasticsearchSinkFunction implements ElasticsearchSinkFunction<RowData>
                 && Objects.equals(serializationSchema, that.serializationSchema)
                 && contentType == that.contentType
                 && Objects.equals(requestFactory, that.requestFactory)
-                && Objects.equals(createKey, that.createKey);
+                && Objects.equals(createKey, that.createKey)
+                && writeMode == that.writeMode
+                && docAsUpsert == that.docAsUpsert;
     }
 
     @Override
@@ -138,6 +159,8 @@ class RowElasticsearchSinkFunction implements ElasticsearchSinkFunction<RowData>
                 serializationSchema,
                 contentType,
                 requestFactory,
-                createKey);
+                createKey,
+                writeMode,
+                docAsUpsert);
     }
 }
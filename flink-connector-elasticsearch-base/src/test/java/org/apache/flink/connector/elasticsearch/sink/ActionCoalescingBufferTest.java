@@ -0,0 +1,273 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.metrics.SimpleCounter;
+import org.apache.flink.util.TestLoggerExtension;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Tests for {@link ActionCoalescingBuffer}. */
+@ExtendWith(TestLoggerExtension.class)
+class ActionCoalescingBufferTest {
+
+    private static final String INDEX = "test-index";
+
+    private List<DocWriteRequest<?>> sent;
+    private SimpleCounter numActionsCoalesced;
+
+    @BeforeEach
+    void setUp() {
+        sent = new ArrayList<>();
+        numActionsCoalesced = new SimpleCounter();
+    }
+
+    @Test
+    void testKeepLastActionOfEveryDocument() {
+        final ActionCoalescingBuffer buffer = createBuffer(10);
+        final IndexRequest lastIndex = index("1", "c");
+        final DeleteRequest delete = new DeleteRequest(INDEX, "2");
+        final IndexRequest recreated = index("3", "e");
+
+        buffer.add(index("1", "a"));
+        buffer.add(index("2", "b"));
+        buffer.add(index("3", "d"));
+        buffer.add(lastIndex);
+        buffer.add(delete);
+        buffer.add(new DeleteRequest(INDEX, "3"));
+        buffer.add(recreated);
+        assertThat(sent).isEmpty();
+        assertThat(buffer.size()).isEqualTo(3);
+
+        buffer.drain();
+        assertThat(sent).containsExactly(lastIndex, delete, recreated);
+        assertThat(buffer.isEmpty()).isTrue();
+        assertThat(numActionsCoalesced.getCount()).isEqualTo(4);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMergePartialUpdateIntoBufferedDocument() {
+        final ActionCoalescingBuffer buffer = createBuffer(10);
+        final IndexRequest document =
+                new IndexRequest(INDEX)
+                        .id("1")
+                        .source("{\"data\":\"a\",\"nested\":{\"x\":1,\"y\":2}}", XContentType.JSON);
+
+        buffer.add(document);
+        buffer.add(
+                new UpdateRequest(INDEX, "1")
+                        .doc("{\"data\":\"b\",\"nested\":{\"y\":3}}", XContentType.JSON)
+                        .docAsUpsert(true));
+        buffer.drain();
+
+        // the update only changes the fields it contains
+        assertThat(sent).containsExactly(document);
+        assertThat(document.sourceAsMap()).containsEntry("data", "b");
+        assertThat((Map<String, Object>) document.sourceAsMap().get("nested"))
+                .containsEntry("x", 1)
+                .containsEntry("y", 3);
+        assertThat(numActionsCoalesced.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testMergePartialUpdates() {
+        final ActionCoalescingBuffer buffer = createBuffer(10);
+        final UpdateRequest first =
+                new UpdateRequest(INDEX, "1")
+                        .doc("{\"a\":1}", XContentType.JSON)
+                        .upsert("{\"a\":1,\"b\":0}", XContentType.JSON);
+        final UpdateRequest firstAsUpsert =
+                new UpdateRequest(INDEX, "2").doc("{\"a\":1}", XContentType.JSON).docAsUpsert(true);
+
+        buffer.add(first);
+        buffer.add(firstAsUpsert);
+        buffer.add(upsert("1", "x"));
+        buffer.add(upsert("2", "y"));
+        buffer.drain();
+
+        assertThat(sent).containsExactly(first, firstAsUpsert);
+        // the document is updated by both updates if it exists
+        assertThat(first.doc().sourceAsMap()).containsEntry("a", 1).containsEntry("data", "x");
+        // otherwise it is created by the first update and updated by the second one
+        assertThat(first.upsertRequest().sourceAsMap())
+                .containsEntry("a", 1)
+                .containsEntry("b", 0)
+                .containsEntry("data", "x");
+        assertThat(firstAsUpsert.doc().sourceAsMap())
+                .containsEntry("a", 1)
+                .containsEntry("data", "y");
+        assertThat(firstAsUpsert.docAsUpsert()).isTrue();
+        assertThat(numActionsCoalesced.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testKeepDeleteBeforePartialUpdate() {
+        final ActionCoalescingBuffer buffer = createBuffer(10);
+        final DeleteRequest delete = new DeleteRequest(INDEX, "1");
+        final UpdateRequest upsert = upsert("1", "a");
+
+        buffer.add(delete);
+        buffer.add(upsert);
+        buffer.drain();
+
+        // the update creates the document from its upsert document after the delete
+        assertThat(sent).containsExactly(delete, upsert);
+        assertThat(numActionsCoalesced.getCount()).isZero();
+    }
+
+    @Test
+    void testPreserveOrderOfActionsWhichCanNotBeCoalesced() {
+        final ActionCoalescingBuffer buffer = createBuffer(10);
+        final IndexRequest other = index("2", "a");
+        final IndexRequest buffered = index("1", "b");
+        final UpdateRequest scripted =
+                new UpdateRequest(INDEX, "1").script(new Script("ctx._source.count += 1"));
+        final IndexRequest create = index("3", "c").create(true);
+        final IndexRequest withoutId = new IndexRequest(INDEX).source("{}", XContentType.JSON);
+
+        buffer.add(other);
+        buffer.add(buffered);
+        buffer.add(scripted);
+        buffer.add(create);
+        buffer.add(withoutId);
+
+        // the buffered action of the document is sent before the scripted update
+        assertThat(sent).containsExactly(buffered, scripted, create, withoutId);
+
+        buffer.drain();
+        assertThat(sent).containsExactly(buffered, scripted, create, withoutId, other);
+        assertThat(numActionsCoalesced.getCount()).isZero();
+    }
+
+    @Test
+    void testDrainWhenCapacityIsReached() {
+        final ActionCoalescingBuffer buffer = createBuffer(2);
+
+        buffer.add(index("1", "a"));
+        buffer.add(index("1", "b"));
+        assertThat(sent).isEmpty();
+        buffer.add(index("2", "c"));
+
+        assertThat(sent).hasSize(2);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testCombineScriptedUpdatesOfSameDocument() {
+        final ActionCoalescingBuffer buffer = createCombiningBuffer(false);
+        final UpdateRequest first = increment("1", 1);
+
+        buffer.add(first);
+        buffer.add(increment("2", 5));
+        buffer.add(increment("1", 2L));
+        buffer.add(increment("1", 3));
+        assertThat(sent).isEmpty();
+
+        buffer.drain();
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(0)).isSameAs(first);
+        assertThat(first.script().getParams()).containsEntry("n", 6L);
+        assertThat(((UpdateRequest) sent.get(1)).script().getParams()).containsEntry("n", 5);
+        assertThat(numActionsCoalesced.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void testDoNotCombineDifferentScriptsOrUpserts() {
+        final ActionCoalescingBuffer buffer = createCombiningBuffer(true);
+        final UpdateRequest increment = increment("1", 1);
+        final UpdateRequest otherScript =
+                new UpdateRequest(INDEX, "1")
+                        .script(
+                                new Script(
+                                        ScriptType.INLINE,
+                                        Script.DEFAULT_SCRIPT_LANG,
+                                        "ctx._source.clicks += params.n",
+                                        Collections.singletonMap("n", 1)));
+        final UpdateRequest withUpsert = increment("1", 1).upsert("{}", XContentType.JSON);
+        final UpdateRequest laterIncrement = increment("1", 2);
+        final IndexRequest replacement = index("1", "a");
+
+        buffer.add(increment);
+        buffer.add(otherScript);
+        // the upsert document would ignore merged increments
+        buffer.add(withUpsert);
+        buffer.add(laterIncrement);
+        // the replaced document may not contain the result of the script
+        buffer.add(replacement);
+
+        assertThat(sent).containsExactly(increment, otherScript, withUpsert, laterIncrement);
+        buffer.drain();
+        assertThat(sent)
+                .containsExactly(increment, otherScript, withUpsert, laterIncrement, replacement);
+        assertThat(numActionsCoalesced.getCount()).isZero();
+    }
+
+    private ActionCoalescingBuffer createBuffer(int capacity) {
+        return new ActionCoalescingBuffer(capacity, true, null, sent::add, numActionsCoalesced);
+    }
+
+    private ActionCoalescingBuffer createCombiningBuffer(boolean coalesceDocuments) {
+        return new ActionCoalescingBuffer(
+                10,
+                coalesceDocuments,
+                ScriptParamsCombiner.summing("n"),
+                sent::add,
+                numActionsCoalesced);
+    }
+
+    private static UpdateRequest increment(String id, Object n) {
+        return new UpdateRequest(INDEX, id)
+                .script(
+                        new Script(
+                                ScriptType.INLINE,
+                                Script.DEFAULT_SCRIPT_LANG,
+                                "ctx._source.views += params.n",
+                                Collections.singletonMap("n", n)));
+    }
+
+    private static IndexRequest index(String id, String data) {
+        return new IndexRequest(INDEX)
+                .id(id)
+                .source("{\"data\":\"" + data + "\"}", XContentType.JSON);
+    }
+
+    private static UpdateRequest upsert(String id, String data) {
+        final String document = "{\"data\":\"" + data + "\"}";
+        return new UpdateRequest(INDEX, id)
+                .doc(document, XContentType.JSON)
+                .upsert(document, XContentType.JSON);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.common.unit.TimeValue;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Iterator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Tests for {@link BulkItemRetryConfig}. */
+class BulkItemRetryConfigTest {
+
+    @Test
+    void testExponentialDelaysMatchElasticsearchBackoffPolicy() {
+        final int maxRetries = 8;
+        final BulkItemRetryConfig retryConfig =
+                new BulkItemRetryConfig(
+                        FlushBackoffType.EXPONENTIAL, maxRetries, 50, Collections.singleton(429));
+        final Iterator<TimeValue> delays =
+                BackoffPolicy.exponentialBackoff(TimeValue.timeValueMillis(50), maxRetries)
+                        .iterator();
+
+        for (int attempt = 1; attempt <= maxRetries; attempt++) {
+            assertThat(retryConfig.getRetryDelay(attempt)).isEqualTo(delays.next().millis());
+        }
+    }
+
+    @Test
+    void testCanRetry() {
+        assertThat(
+                        new BulkItemRetryConfig(
+                                        FlushBackoffType.CONSTANT,
+                                        1,
+                                        100,
+                                        Collections.singleton(429))
+                                .canRetry())
+                .isTrue();
+        assertThat(
+                        new BulkItemRetryConfig(
+                                        FlushBackoffType.NONE, 1, 100, Collections.singleton(429))
+                                .canRetry())
+                .isFalse();
+        assertThat(
+                        new BulkItemRetryConfig(
+                                        FlushBackoffType.CONSTANT, 1, 100, Collections.emptySet())
+                                .canRetry())
+                .isFalse();
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.connector.elasticsearch.test.MockElasticsearchServer;
+import org.apache.flink.runtime.jobgraph.OperatorID;
+import org.apache.flink.runtime.operators.coordination.EventReceivingTasks;
+import org.apache.flink.runtime.operators.coordination.MockOperatorCoordinatorContext;
+import org.apache.flink.runtime.operators.coordination.OperatorEvent;
+import org.apache.flink.util.FlinkRuntimeException;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RestClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Tests for {@link BulkLoadCoordinator}. */
+class BulkLoadCoordinatorTest {
+
+    private static final String INDEX = "test-index";
+    private static final String OTHER_INDEX = "other-index";
+    private static final String ALIAS = "alias";
+    private static final String WRITE_ALIAS = "alias-bulk-load";
+    private static final String LEFTOVER_INDEX = "alias-20200101000000000";
+    private static final String PREPARED_KEY = "prepared";
+
+    private MockElasticsearchServer server;
+    private MockOperatorCoordinatorContext context;
+    private EventReceivingTasks finisher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = MockElasticsearchServer.builder().start();
+        server.createIndex(INDEX, Collections.singletonMap("index.number_of_replicas", "2"));
+        server.createIndex(OTHER_INDEX, Collections.emptyMap());
+        context = new MockOperatorCoordinatorContext(new OperatorID(), 1);
+        finisher = EventReceivingTasks.createForRunningTasks();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testSuspendAndRestoreOnFinish() throws Exception {
+        final BulkLoadCoordinator coordinator = createCoordinator();
+        start(coordinator);
+
+        assertThat(server.getIndexSettings(INDEX)).isEqualTo(suspendedSettings());
+        assertThat(server.getIndexSettings(OTHER_INDEX)).isEqualTo(suspendedSettings());
+        assertThat(server.getIndexMeta(INDEX))
+                .containsEntry(
+                        BulkLoadIndexSettings.RECORD_KEY,
+                        Collections.singletonMap("index.number_of_replicas", "2"));
+        assertThat(server.getIndexMeta(OTHER_INDEX))
+                .containsEntry(BulkLoadIndexSettings.RECORD_KEY, Collections.emptyMap());
+
+        finish(coordinator);
+
+        assertThat(server.getIndexSettings(INDEX))
+                .isEqualTo(Collections.singletonMap("index.number_of_replicas", "2"));
+        assertThat(server.getIndexSettings(OTHER_INDEX)).isEmpty();
+        assertThat(server.getIndexMeta(INDEX)).isEmpty();
+        assertThat(server.getIndexMeta(OTHER_INDEX)).isEmpty();
+        assertThat(getCompletedEvent().getFailure()).isNull();
+
+        coordinator.close();
+        assertThat(context.isJobFailed()).isFalse();
+    }
+
+    @Test
+    void testReleaseGatesOnceIndicesArePrepared() throws Exception {
+        final BulkLoadGateCoordinator gateCoordinator =
+                new BulkLoadGateCoordinator(PREPARED_KEY, context);
+        final EventReceivingTasks gates = EventReceivingTasks.createForRunningTasks();
+        // the gate coordinator may be started before the bulk load coordinator
+        gateCoordinator.start();
+        gateCoordinator.executionAttemptReady(0, 0, gates.createGatewayForSubtask(0, 0));
+        assertThat(gates.getSentEventsForSubtask(0)).isEmpty();
+
+        final BulkLoadCoordinator coordinator = createCoordinator();
+        start(coordinator);
+        assertThat(gates.getSentEventsForSubtask(0))
+                .singleElement()
+                .isInstanceOf(BulkLoadGateCoordinator.BulkLoadPreparedEvent.class);
+
+        // an attempt which is deployed later is released right away
+        gateCoordinator.executionAttemptReady(1, 0, gates.createGatewayForSubtask(1, 0));
+        assertThat(gates.getSentEventsForSubtask(1)).hasSize(1);
+        gateCoordinator.close();
+        coordinator.close();
+    }
+
+    @Test
+    void testRestoreOnClose() throws Exception {
+        final BulkLoadCoordinator coordinator = createCoordinator();
+        start(coordinator);
+        coordinator.close();
+
+        assertThat(server.getIndexSettings(INDEX))
+                .isEqualTo(Collections.singletonMap("index.number_of_replicas", "2"));
+        assertThat(server.getIndexSettings(OTHER_INDEX)).isEmpty();
+    }
+
+    @Test
+    void testRestoreOriginalSettingsFromCheckpoint() throws Exception {
+        final BulkLoadCoordinator failedCoordinator = createCoordinator();
+        start(failedCoordinator);
+        final byte[] checkpoint = checkpoint(failedCoordinator);
+
+        // the indices are still suspended when the restored coordinator starts
+        final BulkLoadCoordinator coordinator = createCoordinator();
+        coordinator.resetToCheckpoint(1, checkpoint);
+        start(coordinator);
+        assertThat(server.getIndexSettings(INDEX)).isEqualTo(suspendedSettings());
+
+        coordinator.close();
+        assertThat(server.getIndexSettings(INDEX))
+                .isEqualTo(Collections.singletonMap("index.number_of_replicas", "2"));
+        failedCoordinator.close();
+    }
+
+    @Test
+    void testRestoreRecordedSettingsWithoutCheckpoint() throws Exception {
+        // a previous attempt suspended the indices, but the JobManager failed without a checkpoint
+        final BulkLoadCoordinator failedCoordinator = createCoordinator();
+        start(failedCoordinator);
+
+        final BulkLoadCoordinator coordinator = createCoordinator();
+        start(coordinator);
+        assertThat(server.getIndexSettings(INDEX)).isEqualTo(suspendedSettings());
+
+        finish(coordinator);
+
+        assertThat(server.getIndexSettings(INDEX))
+                .isEqualTo(Collections.singletonMap("index.number_of_replicas", "2"));
+        assertThat(server.getIndexSettings(OTHER_INDEX)).isEmpty();
+        assertThat(server.getIndexMeta(INDEX)).isEmpty();
+        coordinator.close();
+        failedCoordinator.close();
+    }
+
+    @Test
+    void testKeepSettingsOfIndexWithoutRefreshesAndReplicas() throws Exception {
+        // the index runs without refreshes and replicas on purpose
+        server.createIndex(INDEX, suspendedSettings());
+        final BulkLoadCoordinator coordinator = createCoordinator();
+        start(coordinator);
+
+        finish(coordinator);
+
+        assertThat(server.getIndexSettings(INDEX)).isEqualTo(suspendedSettings());
+        assertThat(server.getIndexSettings(OTHER_INDEX)).isEmpty();
+        coordinator.close();
+    }
+
+    @Test
+    void testRecordSettingsInMappingTypeOfElasticsearch6() throws Exception {
+        server.close();
+        server = MockElasticsearchServer.builder().setVersion("6.8.20").start();
+        server.createIndex(INDEX, Collections.singletonMap("index.number_of_replicas", "2"));
+        server.createIndex(OTHER_INDEX, Collections.emptyMap());
+        try (RestClient restClient = RestClient.builder(getHosts().get(0)).build()) {
+            final Request request = new Request("PUT", "/" + INDEX + "/_mapping/doc");
+            request.setJsonEntity("{}");
+            restClient.performRequest(request);
+        }
+        final BulkLoadCoordinator coordinator = createCoordinator();
+        start(coordinator);
+
+        assertThat(server.getIndexMeta(INDEX))
+                .containsEntry(
+                        BulkLoadIndexSettings.RECORD_KEY,
+                        Collections.singletonMap("index.number_of_replicas", "2"));
+        // an index without a mapping type is suspended without a record
+        assertThat(server.getIndexSettings(OTHER_INDEX)).isEqualTo(suspendedSettings());
+        assertThat(server.getIndexMeta(OTHER_INDEX)).isEmpty();
+
+        finish(coordinator);
+
+        assertThat(server.getIndexSettings(INDEX))
+                .isEqualTo(Collections.singletonMap("index.number_of_replicas", "2"));
+        assertThat(server.getIndexSettings(OTHER_INDEX)).isEmpty();
+        assertThat(server.getIndexMeta(INDEX)).isEmpty();
+        coordinator.close();
+    }
+
+    @Test
+    void testFailIfSettingsCannotBeSuspended() throws Exception {
+        server.close();
+        final BulkLoadCoordinator coordinator = createCoordinator();
+        start(coordinator);
+
+        assertThat(context.isJobFailed()).isTrue();
+        assertThat(context.getJobFailureReason())
+                .isInstanceOf(FlinkRuntimeException.class)
+                .hasMessageContaining("Failed to prepare the indices");
+        // the writers stay held back
+        assertThat(getPreparedFuture()).isNotDone();
+        coordinator.close();
+    }
+
+    @Test
+    void testReportFailureToFinisher() throws Exception {
+        final BulkLoadCoordinator coordinator = createCoordinator();
+        start(coordinator);
+        server.close();
+
+        finish(coordinator);
+
+        assertThat(getCompletedEvent().getFailure())
+                .hasMessageContaining("Failed to finish the bulk load");
+        coordinator.close();
+    }
+
+    @Test
+    void testSwapAliasOnFinish() throws Exception {
+        server.addAlias(ALIAS, INDEX);
+        server.addAlias(ALIAS, OTHER_INDEX);
+        final BulkLoadCoordinator coordinator = createAliasCoordinator(false);
+        start(coordinator);
+
+        final String generation = getGeneration();
+        assertThat(generation).matches(ALIAS + "-\\d{17}");
+        assertThat(server.getIndexSettings(generation)).isEqualTo(suspendedSettings());
+        assertThat(server.getAliasIndices(ALIAS)).containsExactlyInAnyOrder(INDEX, OTHER_INDEX);
+
+        finish(coordinator);
+
+        assertThat(server.getIndexSettings(generation)).isEmpty();
+        assertThat(server.getAliasIndices(ALIAS)).containsExactly(generation);
+        assertThat(server.getAliasIndices(WRITE_ALIAS)).isEmpty();
+        assertThat(server.hasIndex(INDEX)).isTrue();
+        assertThat(server.hasIndex(OTHER_INDEX)).isTrue();
+        assertThat(getCompletedEvent().getFailure()).isNull();
+        coordinator.close();
+    }
+
+    @Test
+    void testDeletePreviousIndicesAndLeftoverGenerations() throws Exception {
+        server.addAlias(ALIAS, INDEX);
+        server.createIndex(LEFTOVER_INDEX, Collections.emptyMap());
+        server.createIndex("alias-archive", Collections.emptyMap());
+        final BulkLoadCoordinator coordinator = createAliasCoordinator(true);
+        start(coordinator);
+        final String generation = getGeneration();
+        finish(coordinator);
+
+        assertThat(server.getAliasIndices(ALIAS)).containsExactly(generation);
+        assertThat(server.hasIndex(INDEX)).isFalse();
+        assertThat(server.hasIndex(LEFTOVER_INDEX)).isFalse();
+        assertThat(server.hasIndex("alias-archive")).isTrue();
+        assertThat(server.hasIndex(OTHER_INDEX)).isTrue();
+        coordinator.close();
+    }
+
+    @Test
+    void testKeepLeftoverGenerations() throws Exception {
+        // the write alias still points to the index of a load which did not finish
+        server.createIndex(LEFTOVER_INDEX, Collections.emptyMap());
+        server.addAlias(WRITE_ALIAS, LEFTOVER_INDEX);
+        final BulkLoadCoordinator coordinator = createAliasCoordinator(false);
+        start(coordinator);
+
+        final String generation = getGeneration();
+        assertThat(generation).isNotEqualTo(LEFTOVER_INDEX);
+
+        finish(coordinator);
+
+        assertThat(server.getAliasIndices(ALIAS)).containsExactly(generation);
+        assertThat(server.hasIndex(LEFTOVER_INDEX)).isTrue();
+        coordinator.close();
+    }
+
+    @Test
+    void testKeepAliasIfLoadDoesNotFinish() throws Exception {
+        server.addAlias(ALIAS, INDEX);
+        final BulkLoadCoordinator coordinator = createAliasCoordinator(true);
+        start(coordinator);
+        final String generation = getGeneration();
+        coordinator.close();
+
+        assertThat(server.getAliasIndices(ALIAS)).containsExactly(INDEX);
+        assertThat(server.getIndexSettings(generation)).isEmpty();
+    }
+
+    @Test
+    void testContinueGenerationFromCheckpoint() throws Exception {
+        final BulkLoadCoordinator failedCoordinator = createAliasCoordinator(true);
+        start(failedCoordinator);
+        final String generation = getGeneration();
+        final byte[] checkpoint = checkpoint(failedCoordinator);
+        failedCoordinator.close();
+
+        final BulkLoadCoordinator coordinator = createAliasCoordinator(true);
+        coordinator.resetToCheckpoint(1, checkpoint);
+        start(coordinator);
+        assertThat(getGeneration()).isEqualTo(generation);
+        finish(coordinator);
+
+        assertThat(server.getAliasIndices(ALIAS)).containsExactly(generation);
+        assertThat(server.hasIndex(generation)).isTrue();
+        coordinator.close();
+    }
+
+    @Test
+    void testFailIfAliasIsAnIndex() throws Exception {
+        final BulkLoadCoordinator coordinator =
+                new BulkLoadCoordinator(
+                        "test",
+                        PREPARED_KEY,
+                        context,
+                        getHosts(),
+                        getNetworkClientConfig(),
+                        Collections.singletonList(WRITE_ALIAS),
+                        INDEX,
+                        false);
+
+        start(coordinator);
+
+        assertThat(context.getJobFailureReason())
+                .hasRootCauseMessage(
+                        "Cannot swap "
+                                + INDEX
+                                + " to a new index, because an index with this "
+                                + "name exists.");
+        assertThat(server.getAliasIndices(WRITE_ALIAS)).isEmpty();
+        coordinator.close();
+    }
+
+    private BulkLoadCoordinator createCoordinator() {
+        return new BulkLoadCoordinator(
+                "test",
+                PREPARED_KEY,
+                context,
+                getHosts(),
+                getNetworkClientConfig(),
+                Arrays.asList(INDEX, OTHER_INDEX),
+                null,
+                false);
+    }
+
+    private BulkLoadCoordinator createAliasCoordinator(boolean deletePreviousIndices) {
+        return new BulkLoadCoordinator(
+                "test",
+                PREPARED_KEY,
+                context,
+                getHosts(),
+                getNetworkClientConfig(),
+                Collections.singletonList(WRITE_ALIAS),
+                ALIAS,
+                deletePreviousIndices);
+    }
+
+    /** Returns the index the write alias points to. */
+    private String getGeneration() {
+        assertThat(server.getAliasIndices(WRITE_ALIAS)).hasSize(1);
+        return server.getAliasIndices(WRITE_ALIAS).iterator().next();
+    }
+
+    private List<HttpHost> getHosts() {
+        return Collections.singletonList(HttpHost.create(server.getHttpHostAddress()));
+    }
+
+    private static NetworkClientConfig getNetworkClientConfig() {
+        return new NetworkClientConfig(
+                null, null, null, null, null, null, null, null, null, null, null, null, false);
+    }
+
+    /** Starts the coordinator and waits until it has prepared the indices. */
+    private static void start(BulkLoadCoordinator coordinator) throws Exception {
+        coordinator.start();
+        checkpoint(coordinator);
+    }
+
+    private CompletableFuture<Void> getPreparedFuture() {
+        return BulkLoadCoordinator.getPreparedFuture(
+                context.getCoordinatorStore(), PREPARED_KEY, future -> future == null);
+    }
+
+    /** Finishes the load like the finisher and waits until the coordinator has answered. */
+    private void finish(BulkLoadCoordinator coordinator) throws Exception {
+        coordinator.executionAttemptReady(0, 0, finisher.createGatewayForSubtask(0, 0));
+        coordinator.handleEventFromOperator(0, 0, new BulkLoadCoordinator.BulkLoadFinishedEvent());
+        checkpoint(coordinator);
+    }
+
+    private BulkLoadCoordinator.BulkLoadCompletedEvent getCompletedEvent() {
+        final List<OperatorEvent> events = finisher.getSentEventsForSubtask(0);
+        assertThat(events).hasSize(1);
+        return (BulkLoadCoordinator.BulkLoadCompletedEvent) events.get(0);
+    }
+
+    /** Checkpoints the coordinator, which also waits until all previous requests are done. */
+    private static byte[] checkpoint(BulkLoadCoordinator coordinator) throws Exception {
+        final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        coordinator.checkpointCoordinator(1, result);
+        return result.get();
+    }
+
+    private static Map<String, String> suspendedSettings() {
+        final Map<String, String> settings = new HashMap<>();
+        settings.put("index.refresh_interval", "-1");
+        settings.put("index.number_of_replicas", "0");
+        return settings;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.metrics.Counter;
+import org.apache.flink.metrics.Gauge;
+import org.apache.flink.metrics.testutils.MetricListener;
+import org.apache.flink.util.TestLoggerExtension;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Tests for {@link BulkSizeController}. */
+@ExtendWith(TestLoggerExtension.class)
+class BulkSizeControllerTest {
+
+    private MetricListener metricListener;
+
+    @BeforeEach
+    void setUp() {
+        metricListener = new MetricListener();
+    }
+
+    @Test
+    void testGrowWhileThroughputIncreases() {
+        final BulkSizeController controller = createController(100, 1000, -1);
+        assertThat(controller.getMaxActions()).isEqualTo(100);
+
+        long latency = 100;
+        for (int i = 0; i < 5; i++) {
+            completeFullBulk(controller, 100, latency);
+            latency -= 10;
+        }
+
+        assertThat(controller.getMaxActions()).isGreaterThan(100);
+        assertThat(getCounter("bulkFlushMaxActionsIncreases").getCount()).isEqualTo(5);
+        assertThat(getCounter("bulkFlushMaxActionsDecreases").getCount()).isZero();
+        assertThat(getGauge("currentBulkFlushMaxActions").getValue())
+                .isEqualTo(controller.getMaxActions());
+    }
+
+    @Test
+    void testReverseWhenThroughputDecreases() {
+        final BulkSizeController controller = createController(100, 1000, -1);
+        completeFullBulk(controller, 100, 10);
+        final int grownMaxActions = controller.getMaxActions();
+
+        // same bytes per action, but the latency grows much faster than the bulk size
+        completeFullBulk(controller, 100, 100);
+
+        assertThat(controller.getMaxActions()).isLessThan(grownMaxActions);
+        assertThat(getCounter("bulkFlushMaxActionsDecreases").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testHalveOnRejectedActions() {
+        final BulkSizeController controller = createController(10, 1000, -1);
+        for (int i = 0; i < 20; i++) {
+            completeFullBulk(controller, 100, 10);
+        }
+        final int maxActions = controller.getMaxActions();
+
+        controller.onBulkCompleted(maxActions, maxActions * 100L, 10, 1);
+
+        assertThat(controller.getMaxActions()).isEqualTo(maxActions / 2);
+    }
+
+    @Test
+    void testStayWithinBounds() {
+        final BulkSizeController controller = createController(10, 20, -1);
+        for (int i = 0; i < 50; i++) {
+            completeFullBulk(controller, 100, 1);
+        }
+        assertThat(controller.getMaxActions()).isEqualTo(20);
+
+        for (int i = 0; i < 10; i++) {
+            controller.onBulkCompleted(controller.getMaxActions(), 100, 1, 1);
+        }
+        assertThat(controller.getMaxActions()).isEqualTo(10);
+    }
+
+    @Test
+    void testIgnorePartialBulks() {
+        final BulkSizeController controller = createController(100, 1000, -1);
+
+        controller.onBulkCompleted(10, 1000, 1, 0);
+
+        assertThat(controller.getMaxActions()).isEqualTo(100);
+    }
+
+    @Test
+    void testMaxSizeFollowsBytesPerAction() {
+        final BulkSizeController controller = createController(100, 1000, 50_000);
+        assertThat(controller.getMaxSizeInBytes()).isEqualTo(50_000);
+
+        controller.onBulkCompleted(10, 1000, 1, 0);
+        assertThat(controller.getMaxSizeInBytes()).isEqualTo(100 * 100);
+
+        controller.onBulkCompleted(10, 100_000, 1, 0);
+        assertThat(controller.getMaxSizeInBytes()).isEqualTo(50_000);
+    }
+
+    private BulkSizeController createController(
+            int minActions, int maxActions, long maxSizeInBytes) {
+        return new BulkSizeController(
+                minActions, maxActions, maxSizeInBytes, metricListener.getMetricGroup());
+    }
+
+    private static void completeFullBulk(
+            BulkSizeController controller, int bytesPerAction, long latencyMillis) {
+        final int numActions = controller.getMaxActions();
+        controller.onBulkCompleted(
+                numActions, (long) numActions * bytesPerAction, latencyMillis, 0);
+    }
+
+    private Counter getCounter(String name) {
+        return metricListener.getCounter(name).get();
+    }
+
+    private Gauge<Integer> getGauge(String name) {
+        return metricListener.<Integer>getGauge(name).get();
+    }
+}
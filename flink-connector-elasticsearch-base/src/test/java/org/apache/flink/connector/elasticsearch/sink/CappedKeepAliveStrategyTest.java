@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Tests for {@link CappedKeepAliveStrategy}. */
+class CappedKeepAliveStrategyTest {
+
+    @Test
+    void testCapServerTimeout() {
+        final CappedKeepAliveStrategy keepAliveStrategy = new CappedKeepAliveStrategy(30_000);
+        final HttpResponse response =
+                new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        final HttpContext context = new BasicHttpContext();
+
+        assertThat(keepAliveStrategy.getKeepAliveDuration(response, context)).isEqualTo(30_000);
+
+        response.setHeader("Keep-Alive", "timeout=10");
+        assertThat(keepAliveStrategy.getKeepAliveDuration(response, context)).isEqualTo(10_000);
+
+        response.setHeader("Keep-Alive", "timeout=60");
+        assertThat(keepAliveStrategy.getKeepAliveDuration(response, context)).isEqualTo(30_000);
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.connector.base.sink.writer.BufferedRequestState;
+import org.apache.flink.connector.base.sink.writer.RequestEntryWrapper;
+import org.apache.flink.connector.base.sink.writer.TestSinkInitContext;
+import org.apache.flink.connector.base.sink.writer.config.AsyncSinkWriterConfiguration;
+import org.apache.flink.util.FlinkRuntimeException;
+import org.apache.flink.util.TestLoggerExtension;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.shard.ShardId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.apache.flink.connector.elasticsearch.sink.TestClientBase.buildMessage;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link ElasticsearchAsyncWriter} which do not require an Elasticsearch cluster. The
+ * bulk requests are answered by a {@link TestApiCallBridge}.
+ */
+@ExtendWith(TestLoggerExtension.class)
+class ElasticsearchAsyncWriterTest {
+
+    private static final String INDEX = "test-index";
+
+    @Test
+    void testWriteAndFlush() throws Exception {
+        final TestApiCallBridge apiCallBridge = new TestApiCallBridge();
+
+        try (final ElasticsearchAsyncWriter<Tuple2<Integer, String>> writer =
+                createWriter(apiCallBridge, 2)) {
+            for (int i = 1; i <= 5; i++) {
+                writer.write(Tuple2.of(i, buildMessage(i)), null);
+            }
+            writer.flush(true);
+
+            assertThat(apiCallBridge.getAcknowledgedIds())
+                    .containsExactlyInAnyOrder("1", "2", "3", "4", "5");
+            assertThat(apiCallBridge.getNumBulkRequests()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void testRetryRejectedActions() throws Exception {
+        final TestApiCallBridge apiCallBridge = new TestApiCallBridge();
+        apiCallBridge.rejectOnce("2", "4");
+
+        try (final ElasticsearchAsyncWriter<Tuple2<Integer, String>> writer =
+                createWriter(apiCallBridge, 5)) {
+            for (int i = 1; i <= 5; i++) {
+                writer.write(Tuple2.of(i, buildMessage(i)), null);
+            }
+            writer.flush(true);
+
+            assertThat(apiCallBridge.getAcknowledgedIds())
+                    .containsExactlyInAnyOrder("1", "2", "3", "4", "5");
+            assertThat(apiCallBridge.getNumBulkRequests()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testFailOnNonRetryableFailure() throws Exception {
+        final TestApiCallBridge apiCallBridge = new TestApiCallBridge();
+        apiCallBridge.failWithBadRequest("3");
+
+        try (final ElasticsearchAsyncWriter<Tuple2<Integer, String>> writer =
+                createWriter(apiCallBridge, 5)) {
+            for (int i = 1; i <= 5; i++) {
+                writer.write(Tuple2.of(i, buildMessage(i)), null);
+            }
+            assertThatThrownBy(() -> writer.flush(true)).isInstanceOf(FlinkRuntimeException.class);
+        }
+    }
+
+    @Test
+    void testStateSerializerRoundTrip() throws Exception {
+        final ElasticsearchRequestEntry entry =
+                new ElasticsearchRequestEntry(
+                        Arrays.asList(
+                                new IndexRequest(INDEX)
+                                        .id("1")
+                                        .source("{\"data\":\"test\"}", XContentType.JSON),
+                                new DeleteRequest(INDEX).id("2")));
+        final ElasticsearchAsyncWriterStateSerializer serializer =
+                new ElasticsearchAsyncWriterStateSerializer(new TestApiCallBridge());
+
+        final BufferedRequestState<ElasticsearchRequestEntry> restored =
+                serializer.deserialize(
+                        serializer.getVersion(),
+                        serializer.serialize(
+                                new BufferedRequestState<>(
+                                        Collections.singletonList(
+                                                new RequestEntryWrapper<>(
+                                                        entry, entry.getSizeInBytes())))));
+
+        assertThat(restored.getBufferedRequestEntries()).hasSize(1);
+        final ElasticsearchRequestEntry restoredEntry =
+                restored.getBufferedRequestEntries().get(0).getRequestEntry();
+        assertThat(restoredEntry.getSizeInBytes()).isEqualTo(entry.getSizeInBytes());
+        assertThat(restoredEntry.getRequests()).hasSize(2);
+        assertThat(restoredEntry.getRequests().get(0)).isInstanceOf(IndexRequest.class);
+        assertThat(restoredEntry.getRequests().get(0).id()).isEqualTo("1");
+        assertThat(restoredEntry.getRequests().get(1)).isInstanceOf(DeleteRequest.class);
+        assertThat(restoredEntry.getRequests().get(1).id()).isEqualTo("2");
+    }
+
+    private static ElasticsearchAsyncWriter<Tuple2<Integer, String>> createWriter(
+            TestApiCallBridge apiCallBridge, int maxBatchSize) {
+        final ElasticsearchElementConverter<Tuple2<Integer, String>> elementConverter =
+                new ElasticsearchElementConverter<>(TestEmitter.jsonEmitter(INDEX, "data"));
+        return new ElasticsearchAsyncWriter<>(
+                elementConverter,
+                new TestSinkInitContext(),
+                AsyncSinkWriterConfiguration.builder()
+                        .setMaxBatchSize(maxBatchSize)
+                        .setMaxBatchSizeInBytes(1024 * 1024)
+                        .setMaxInFlightRequests(1)
+                        .setMaxBufferedRequests(100)
+                        .setMaxTimeInBufferMS(60_000)
+                        .setMaxRecordSizeInBytes(1024 * 1024)
+                        .build(),
+                Collections.emptyList(),
+                Collections.singletonList(new HttpHost("localhost", 9200)),
+                new NetworkClientConfig(
+                        null, null, null, null, null, null, null, null, null, null, null, null,
+                        false),
+                apiCallBridge);
+    }
+
+    /**
+     * Answers every bulk request immediately. Actions can be configured to be rejected once with
+     * {@code 429 Too Many Requests} or to always fail with {@code 400 Bad Request}.
+     */
+    private static class TestApiCallBridge implements ElasticsearchAsyncApiCallBridge {
+
+        private final Set<String> rejectOnceIds = new HashSet<>();
+        private final Set<String> badRequestIds = new HashSet<>();
+        private final List<String> acknowledgedIds = new ArrayList<>();
+        private int numBulkRequests = 0;
+
+        void rejectOnce(String... ids) {
+            rejectOnceIds.addAll(Arrays.asList(ids));
+        }
+
+        void failWithBadRequest(String... ids) {
+            badRequestIds.addAll(Arrays.asList(ids));
+        }
+
+        List<String> getAcknowledgedIds() {
+            return acknowledgedIds;
+        }
+
+        int getNumBulkRequests() {
+            return numBulkRequests;
+        }
+
+        @Override
+        public void bulkAsync(
+                RestHighLevelClient client,
+                BulkRequest bulkRequest,
+                ActionListener<BulkResponse> listener) {
+            numBulkRequests++;
+            final List<DocWriteRequest<?>> requests = bulkRequest.requests();
+            final BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+            for (int i = 0; i < requests.size(); i++) {
+                final DocWriteRequest<?> request = requests.get(i);
+                if (rejectOnceIds.remove(request.id())) {
+                    items[i] = failure(i, request, new EsRejectedExecutionException("rejected"));
+                } else if (badRequestIds.contains(request.id())) {
+                    items[i] = failure(i, request, new IllegalArgumentException("bad request"));
+                } else {
+                    items[i] =
+                            new BulkItemResponse(
+                                    i,
+                                    request.opType(),
+                                    new IndexResponse(
+                                            new ShardId(request.index(), "_na_", 0),
+                                            request.type(),
+                                            request.id(),
+                                            1,
+                                            1,
+                                            1,
+                                            true));
+                    acknowledgedIds.add(request.id());
+                }
+            }
+            listener.onResponse(new BulkResponse(items, 1));
+        }
+
+        private static BulkItemResponse failure(
+                int i, DocWriteRequest<?> request, Exception cause) {
+            return new BulkItemResponse(
+                    i,
+                    request.opType(),
+                    new BulkItemResponse.Failure(
+                            request.index(), request.type(), request.id(), cause));
+        }
+
+        @Override
+        public DocWriteRequest<?> readDocumentRequest(StreamInput in) throws IOException {
+            return DocWriteRequest.readDocumentRequest(null, in);
+        }
+    }
+}
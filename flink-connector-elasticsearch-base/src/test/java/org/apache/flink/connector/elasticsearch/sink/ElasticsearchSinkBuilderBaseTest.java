@@ -47,9 +47,43 @@ abstract class ElasticsearchSinkBuilderBaseTest<B extends ElasticsearchSinkBuild
                                 .setDeliveryGuarantee(DeliveryGuarantee.AT_LEAST_ONCE),
                         createMinimalBuilder()
                                 .setBulkFlushBackoffStrategy(FlushBackoffType.CONSTANT, 1, 1),
+                        createMinimalBuilder().setBulkFlushMaxInFlightRequests(4),
+                        createMinimalBuilder()
+                                .setBulkFlushMaxInFlightRequests(4)
+                                .setBulkFlushKeyOrdered(true),
+                        createMinimalBuilder().setBulkFlushAdaptiveSizing(10, 1000),
+                        createMinimalBuilder().setCheckpointPendingActions(true),
+                        createMinimalBuilder().setMaxPendingSizeInBytes(1024 * 1024),
+                        createMinimalBuilder().setDirectBulkEncoding(true),
+                        createMinimalBuilder()
+                                .setConnectionCompression(CompressionType.GZIP)
+                                .setConnectionCompressionLevel(1),
+                        createMinimalBuilder().setShardRouting(true),
+                        createMinimalBuilder()
+                                .setBulkFlushCoalescing(true)
+                                .setBulkFlushInterval(1000),
+                        createMinimalBuilder()
+                                .setScriptParamsCombiner(ScriptParamsCombiner.summing("n"))
+                                .setBulkFlushInterval(1000),
+                        createMinimalBuilder()
+                                .setItemRetryStrategy(FlushBackoffType.EXPONENTIAL, 3, 100)
+                                .setItemRetryableStatuses(429, 502, 503),
+                        createMinimalBuilder()
+                                .setBulkItemFailureHandler(
+                                        (action, failure, status) ->
+                                                BulkItemFailureHandler.Decision.DEAD_LETTER)
+                                .setDeadLetterQueue((action, failure, status) -> {}),
                         createMinimalBuilder()
                                 .setConnectionUsername("username")
-                                .setConnectionPassword("password"));
+                                .setConnectionPassword("password"),
+                        createMinimalBuilder()
+                                .setConnectionMaxPerRoute(16)
+                                .setConnectionMaxTotal(64)
+                                .setConnectionIoThreadCount(2)
+                                .setConnectionKeepAlive(60_000)
+                                .setSocketSendBufferSize(64 * 1024)
+                                .setSocketReceiveBufferSize(64 * 1024),
+                        createMinimalBuilder().setSharedClient(true));
 
         return DynamicTest.stream(
                 validBuilders,
@@ -72,6 +106,18 @@ abstract class ElasticsearchSinkBuilderBaseTest<B extends ElasticsearchSinkBuild
                 .isInstanceOf(IllegalStateException.class);
     }
 
+    @Test
+    void testThrowIfCoalescingWithoutFlushInterval() {
+        assertThatThrownBy(() -> createMinimalBuilder().setBulkFlushCoalescing(true).build())
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(
+                        () ->
+                                createMinimalBuilder()
+                                        .setScriptParamsCombiner(ScriptParamsCombiner.summing("n"))
+                                        .build())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
     @Test
     void testThrowIfHostsNotSet() {
         assertThatThrownBy(
@@ -99,6 +145,44 @@ abstract class ElasticsearchSinkBuilderBaseTest<B extends ElasticsearchSinkBuild
                 .isInstanceOf(IllegalStateException.class);
     }
 
+    @Test
+    void testThrowIfSetInvalidMaxInFlightRequests() {
+        assertThatThrownBy(() -> createMinimalBuilder().setBulkFlushMaxInFlightRequests(0))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testThrowIfSetInvalidAdaptiveSizing() {
+        assertThatThrownBy(() -> createMinimalBuilder().setBulkFlushAdaptiveSizing(0, 10))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> createMinimalBuilder().setBulkFlushAdaptiveSizing(10, 5))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testThrowIfSetInvalidCompressionLevel() {
+        assertThatThrownBy(() -> createMinimalBuilder().setConnectionCompressionLevel(0))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> createMinimalBuilder().setConnectionCompressionLevel(10))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testThrowIfSetInvalidItemRetryStrategy() {
+        assertThatThrownBy(
+                        () ->
+                                createMinimalBuilder()
+                                        .setItemRetryStrategy(FlushBackoffType.NONE, 1, 1))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(
+                        () ->
+                                createMinimalBuilder()
+                                        .setItemRetryStrategy(FlushBackoffType.CONSTANT, 0, 1))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> createMinimalBuilder().setItemRetryableStatuses())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
     abstract B createEmptyBuilder();
 
     abstract B createMinimalBuilder();
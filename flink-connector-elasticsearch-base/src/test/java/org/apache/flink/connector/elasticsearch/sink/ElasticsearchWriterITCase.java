@@ -31,6 +31,7 @@ import org.apache.flink.runtime.metrics.MetricNames;
 import org.apache.flink.runtime.metrics.groups.InternalSinkWriterMetricGroup;
 import org.apache.flink.runtime.metrics.groups.UnregisteredMetricGroups;
 import org.apache.flink.runtime.testutils.MiniClusterResourceConfiguration;
+import org.apache.flink.streaming.runtime.tasks.TestProcessingTimeService;
 import org.apache.flink.test.junit5.MiniClusterExtension;
 import org.apache.flink.util.FlinkRuntimeException;
 import org.apache.flink.util.TestLoggerExtension;
@@ -52,7 +53,6 @@ import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
-import org.elasticsearch.common.unit.TimeValue;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -119,7 +119,7 @@ class ElasticsearchWriterITCase {
         final String index = "test-bulk-flush-without-checkpoint";
         final int flushAfterNActions = 5;
         final BulkProcessorConfig bulkProcessorConfig =
-                new BulkProcessorConfig(flushAfterNActions, -1, -1, FlushBackoffType.NONE, 0, 0);
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(flushAfterNActions).build();
 
         try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
                 createWriter(index, false, bulkProcessorConfig)) {
@@ -152,7 +152,10 @@ class ElasticsearchWriterITCase {
 
         // Configure bulk processor to flush every 1s;
         final BulkProcessorConfig bulkProcessorConfig =
-                new BulkProcessorConfig(-1, -1, 1000, FlushBackoffType.NONE, 0, 0);
+                BulkProcessorConfig.builder()
+                        .setBulkFlushMaxActions(-1)
+                        .setBulkFlushInterval(1000)
+                        .build();
 
         try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
                 createWriter(index, false, bulkProcessorConfig)) {
@@ -170,7 +173,7 @@ class ElasticsearchWriterITCase {
     void testWriteOnCheckpoint() throws Exception {
         final String index = "test-bulk-flush-with-checkpoint";
         final BulkProcessorConfig bulkProcessorConfig =
-                new BulkProcessorConfig(-1, -1, -1, FlushBackoffType.NONE, 0, 0);
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(-1).build();
 
         // Enable flush on checkpoint
         try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
@@ -198,7 +201,7 @@ class ElasticsearchWriterITCase {
                         metricListener.getMetricGroup(), operatorIOMetricGroup);
         final int flushAfterNActions = 2;
         final BulkProcessorConfig bulkProcessorConfig =
-                new BulkProcessorConfig(flushAfterNActions, -1, -1, FlushBackoffType.NONE, 0, 0);
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(flushAfterNActions).build();
 
         try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
                 createWriter(index, false, bulkProcessorConfig, metricGroup)) {
@@ -224,7 +227,7 @@ class ElasticsearchWriterITCase {
         final String index = "test-inc-records-send";
         final int flushAfterNActions = 2;
         final BulkProcessorConfig bulkProcessorConfig =
-                new BulkProcessorConfig(flushAfterNActions, -1, -1, FlushBackoffType.NONE, 0, 0);
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(flushAfterNActions).build();
 
         try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
                 createWriter(index, false, bulkProcessorConfig)) {
@@ -248,7 +251,7 @@ class ElasticsearchWriterITCase {
         final String index = "test-current-send-time";
         final int flushAfterNActions = 2;
         final BulkProcessorConfig bulkProcessorConfig =
-                new BulkProcessorConfig(flushAfterNActions, -1, -1, FlushBackoffType.NONE, 0, 0);
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(flushAfterNActions).build();
 
         try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
                 createWriter(index, false, bulkProcessorConfig)) {
@@ -282,11 +285,21 @@ class ElasticsearchWriterITCase {
                 Collections.singletonList(HttpHost.create(ES_CONTAINER.getHttpHostAddress())),
                 new UpdatingEmitter(index, context.getDataFieldName()),
                 flushOnCheckpoint,
+                false,
+                -1,
                 bulkProcessorConfig,
                 new TestBulkProcessorBuilderFactory(),
-                new NetworkClientConfig(null, null, null, null, null, null),
+                new BulkItemRetryConfig(FlushBackoffType.NONE, -1, -1, Collections.emptySet()),
+                null,
+                null,
+                null,
+                new NetworkClientConfig(
+                        null, null, null, null, null, null, null, null, null, null, null, null,
+                        false),
                 metricGroup,
-                new TestMailbox());
+                new TestMailbox(),
+                new TestProcessingTimeService(),
+                Collections.emptyList());
     }
 
     private static class TestBulkProcessorBuilderFactory implements BulkProcessorBuilderFactory {
@@ -321,30 +334,7 @@ class ElasticsearchWriterITCase {
                                 bulkProcessorConfig.getBulkFlushMaxMb(), ByteSizeUnit.MB));
             }
 
-            if (bulkProcessorConfig.getBulkFlushInterval() != -1) {
-                builder.setFlushInterval(new TimeValue(bulkProcessorConfig.getBulkFlushInterval()));
-            }
-
-            BackoffPolicy backoffPolicy;
-            final TimeValue backoffDelay =
-                    new TimeValue(bulkProcessorConfig.getBulkFlushBackOffDelay());
-            final int maxRetryCount = bulkProcessorConfig.getBulkFlushBackoffRetries();
-            switch (bulkProcessorConfig.getFlushBackoffType()) {
-                case CONSTANT:
-                    backoffPolicy = BackoffPolicy.constantBackoff(backoffDelay, maxRetryCount);
-                    break;
-                case EXPONENTIAL:
-                    backoffPolicy = BackoffPolicy.exponentialBackoff(backoffDelay, maxRetryCount);
-                    break;
-                case NONE:
-                    backoffPolicy = BackoffPolicy.noBackoff();
-                    break;
-                default:
-                    throw new IllegalArgumentException(
-                            "Received unknown backoff policy type "
-                                    + bulkProcessorConfig.getFlushBackoffType());
-            }
-            builder.setBackoffPolicy(backoffPolicy);
+            builder.setBackoffPolicy(BackoffPolicy.noBackoff());
             return builder;
         }
     }
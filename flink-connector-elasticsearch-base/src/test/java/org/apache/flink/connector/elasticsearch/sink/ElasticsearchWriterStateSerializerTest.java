@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/** Tests for {@link ElasticsearchWriterStateSerializer}. */
+class ElasticsearchWriterStateSerializerTest {
+
+    private final ElasticsearchWriterStateSerializer serializer =
+            new ElasticsearchWriterStateSerializer(
+                    new DocWriteRequestReader() {
+                        @Override
+                        public DocWriteRequest<?> readDocumentRequest(StreamInput in)
+                                throws IOException {
+                            return DocWriteRequest.readDocumentRequest(null, in);
+                        }
+                    });
+
+    @Test
+    void testSerializeAndDeserialize() throws IOException {
+        final ElasticsearchWriterState state =
+                new ElasticsearchWriterState(
+                        Arrays.asList(
+                                new IndexRequest("index").id("1").source("data", "1"),
+                                new UpdateRequest("index", "2")
+                                        .doc("data", "2")
+                                        .upsert("data", "2"),
+                                new DeleteRequest("index", "3")));
+
+        final ElasticsearchWriterState deserialized =
+                serializer.deserialize(serializer.getVersion(), serializer.serialize(state));
+
+        assertThat(deserialized.getPendingActions())
+                .extracting(DocWriteRequest::opType, DocWriteRequest::index, DocWriteRequest::id)
+                .containsExactly(
+                        tuple(DocWriteRequest.OpType.INDEX, "index", "1"),
+                        tuple(DocWriteRequest.OpType.UPDATE, "index", "2"),
+                        tuple(DocWriteRequest.OpType.DELETE, "index", "3"));
+        assertThat(((IndexRequest) deserialized.getPendingActions().get(0)).sourceAsMap())
+                .containsEntry("data", "1");
+    }
+
+    @Test
+    void testSerializeEmptyState() throws IOException {
+        final ElasticsearchWriterState deserialized =
+                serializer.deserialize(
+                        serializer.getVersion(),
+                        serializer.serialize(
+                                new ElasticsearchWriterState(Collections.emptyList())));
+
+        assertThat(deserialized.getPendingActions()).isEmpty();
+    }
+}
@@ -0,0 +1,959 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.api.common.operators.MailboxExecutor;
+import org.apache.flink.api.java.tuple.Tuple2;
+import org.apache.flink.metrics.testutils.MetricListener;
+import org.apache.flink.runtime.metrics.groups.InternalSinkWriterMetricGroup;
+import org.apache.flink.streaming.runtime.tasks.StreamTaskActionExecutor;
+import org.apache.flink.streaming.runtime.tasks.TestProcessingTimeService;
+import org.apache.flink.streaming.runtime.tasks.mailbox.MailboxExecutorImpl;
+import org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailboxImpl;
+import org.apache.flink.util.FlinkRuntimeException;
+import org.apache.flink.util.TestLoggerExtension;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.apache.flink.connector.elasticsearch.sink.TestClientBase.buildMessage;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link ElasticsearchWriter} which do not require an Elasticsearch cluster. The bulk
+ * requests are answered by a {@link TestBulkRequestConsumer}.
+ */
+@ExtendWith(TestLoggerExtension.class)
+class ElasticsearchWriterTest {
+
+    private static final String INDEX = "test-index";
+
+    private MetricListener metricListener;
+    private MailboxExecutor mailboxExecutor;
+    private TestProcessingTimeService processingTimeService;
+    private TestBulkRequestConsumer bulkRequestConsumer;
+    private boolean checkpointPendingActions;
+    private long maxPendingSizeInBytes;
+    private List<ElasticsearchWriterState> recoveredStates;
+
+    @BeforeEach
+    void setUp() {
+        metricListener = new MetricListener();
+        mailboxExecutor =
+                new MailboxExecutorImpl(
+                        new TaskMailboxImpl(Thread.currentThread()),
+                        Integer.MAX_VALUE,
+                        StreamTaskActionExecutor.IMMEDIATE);
+        processingTimeService = new TestProcessingTimeService();
+        bulkRequestConsumer = new TestBulkRequestConsumer();
+        checkpointPendingActions = false;
+        maxPendingSizeInBytes = -1;
+        recoveredStates = Collections.emptyList();
+    }
+
+    @Test
+    void testPipelinedBulkRequests() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder()
+                        .setBulkFlushMaxActions(1)
+                        .setBulkFlushMaxInFlightRequests(3)
+                        .build();
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig)) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            writer.write(Tuple2.of(2, buildMessage(2)), null);
+            writer.write(Tuple2.of(3, buildMessage(3)), null);
+
+            // all bulk requests are in flight at the same time
+            assertThat(bulkRequestConsumer.getNumPendingRequests()).isEqualTo(3);
+
+            bulkRequestConsumer.respondToAllPendingRequests();
+            writer.flush(false);
+
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1", "2", "3");
+        }
+    }
+
+    @Test
+    void testFlushWaitsForAllInFlightRequests() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder()
+                        .setBulkFlushMaxActions(2)
+                        .setBulkFlushMaxInFlightRequests(2)
+                        .build();
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig)) {
+            for (int i = 1; i <= 5; i++) {
+                writer.write(Tuple2.of(i, buildMessage(i)), null);
+            }
+            assertThat(bulkRequestConsumer.getNumPendingRequests()).isEqualTo(2);
+
+            final CompletableFuture<Void> responder =
+                    CompletableFuture.runAsync(
+                            () -> {
+                                while (bulkRequestConsumer.getAcknowledgedIds().size() < 5) {
+                                    bulkRequestConsumer.respondToAllPendingRequests();
+                                }
+                            });
+            writer.flush(false);
+            responder.get();
+
+            assertThat(bulkRequestConsumer.getAcknowledgedIds())
+                    .containsExactlyInAnyOrder("1", "2", "3", "4", "5");
+        }
+    }
+
+    @Test
+    void testBackpressureWhenMemoryBudgetIsExceeded() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder()
+                        .setBulkFlushMaxActions(1)
+                        .setBulkFlushMaxInFlightRequests(2)
+                        .build();
+        maxPendingSizeInBytes = 1;
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig)) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            assertThat(bulkRequestConsumer.getNumPendingRequests()).isEqualTo(1);
+            assertThat(metricListener.<Long>getGauge("pendingBytes").get().getValue()).isPositive();
+
+            final CompletableFuture<Void> responder =
+                    CompletableFuture.runAsync(
+                            () -> {
+                                while (bulkRequestConsumer.getAcknowledgedIds().isEmpty()) {
+                                    bulkRequestConsumer.respondToAllPendingRequests();
+                                }
+                            });
+            // the second record is only accepted after the first action is acknowledged
+            writer.write(Tuple2.of(2, buildMessage(2)), null);
+            responder.get();
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).startsWith("1");
+
+            bulkRequestConsumer.respondToAllPendingRequests();
+            writer.flush(false);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1", "2");
+            assertThat(metricListener.<Long>getGauge("pendingBytes").get().getValue()).isZero();
+        }
+    }
+
+    @Test
+    void testSnapshotPendingActions() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder()
+                        .setBulkFlushMaxActions(2)
+                        .setBulkFlushMaxInFlightRequests(2)
+                        .build();
+        checkpointPendingActions = true;
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(false, bulkProcessorConfig)) {
+            for (int i = 1; i <= 3; i++) {
+                writer.write(Tuple2.of(i, buildMessage(i)), null);
+            }
+            assertThat(bulkRequestConsumer.getNumPendingRequests()).isEqualTo(1);
+
+            // the checkpoint does not wait for the in-flight request
+            writer.flush(false);
+            assertThat(getIds(writer.snapshotState(1))).containsExactly("1", "2", "3");
+
+            bulkRequestConsumer.respondToAllPendingRequests();
+            mailboxExecutor.tryYield();
+            assertThat(getIds(writer.snapshotState(2))).containsExactly("3");
+        }
+    }
+
+    @Test
+    void testResendRecoveredActions() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(1).build();
+        checkpointPendingActions = true;
+        bulkRequestConsumer.setAutoRespond(true);
+        recoveredStates =
+                Collections.singletonList(
+                        new ElasticsearchWriterState(
+                                Arrays.asList(
+                                        new IndexRequest(INDEX).id("1").source("data", "1"),
+                                        new IndexRequest(INDEX).id("2").source("data", "2"))));
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(false, bulkProcessorConfig)) {
+            writer.flush(true);
+
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1", "2");
+            assertThat(writer.snapshotState(1).get(0).getPendingActions()).isEmpty();
+        }
+    }
+
+    @Test
+    void testSingleInFlightRequestIsSynchronous() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(1).build();
+        bulkRequestConsumer.setAutoRespond(true);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig)) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1");
+
+            writer.write(Tuple2.of(2, buildMessage(2)), null);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1", "2");
+
+            writer.flush(false);
+        }
+    }
+
+    @Test
+    void testAdaptiveBulkSizing() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder()
+                        .setBulkFlushMaxActions(10)
+                        .setBulkFlushAdaptiveMinActions(2)
+                        .setBulkFlushAdaptiveMaxActions(10)
+                        .build();
+        bulkRequestConsumer.setAutoRespond(true);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig)) {
+            // the first bulk request is sent after the min number of actions
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).isEmpty();
+            writer.write(Tuple2.of(2, buildMessage(2)), null);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1", "2");
+
+            writer.flush(false);
+            assertThat(metricListener.getGauge("currentBulkFlushMaxActions")).isPresent();
+            assertThat(metricListener.getGauge("currentBulkFlushMaxActions").get().getValue())
+                    .isEqualTo(3);
+        }
+    }
+
+    @Test
+    void testKeyOrderedLanes() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder()
+                        .setBulkFlushMaxActions(2)
+                        .setBulkFlushMaxInFlightRequests(4)
+                        .setBulkFlushKeyOrdered(true)
+                        .build();
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig)) {
+            final AtomicBoolean running = new AtomicBoolean(true);
+            final CompletableFuture<Void> responder =
+                    CompletableFuture.runAsync(
+                            () -> {
+                                while (running.get()) {
+                                    bulkRequestConsumer.respondToAllPendingRequests();
+                                    try {
+                                        Thread.sleep(5);
+                                    } catch (InterruptedException e) {
+                                        Thread.currentThread().interrupt();
+                                        return;
+                                    }
+                                }
+                            });
+
+            for (int round = 0; round < 10; round++) {
+                for (int id = 1; id <= 3; id++) {
+                    writer.write(Tuple2.of(id, buildMessage(round)), null);
+                }
+            }
+            writer.flush(false);
+            running.set(false);
+            responder.get();
+
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).hasSize(30);
+            // the lanes send bulk requests concurrently, but never for the same document
+            assertThat(bulkRequestConsumer.getMaxConcurrentRequests()).isGreaterThan(1);
+            assertThat(bulkRequestConsumer.getConcurrentRequestsForSameDocument()).isZero();
+        }
+    }
+
+    @Test
+    void testCoalesceActionsOfSameDocument() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder()
+                        .setBulkFlushMaxActions(10)
+                        .setBulkFlushInterval(1000)
+                        .setBulkFlushCoalescing(true)
+                        .build();
+        bulkRequestConsumer.setAutoRespond(true);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig)) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            writer.write(Tuple2.of(2, buildMessage(2)), null);
+            writer.write(Tuple2.of(1, buildMessage(3)), null);
+            writer.write(Tuple2.of(1, buildMessage(4)), null);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).isEmpty();
+
+            // the checkpoint drains the coalescing buffer
+            writer.flush(false);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1", "2");
+            assertThat(metricListener.getCounter("numActionsCoalesced").get().getCount())
+                    .isEqualTo(2);
+
+            // the bulk flush interval drains the coalescing buffer as well
+            writer.write(Tuple2.of(3, buildMessage(5)), null);
+            writer.write(Tuple2.of(3, buildMessage(6)), null);
+            processingTimeService.setCurrentTime(1000);
+            writer.write(Tuple2.of(3, buildMessage(7)), null);
+            writer.flush(false);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds())
+                    .containsExactly("1", "2", "3", "3");
+            assertThat(metricListener.getCounter("numActionsCoalesced").get().getCount())
+                    .isEqualTo(3);
+        }
+    }
+
+    @Test
+    void testSendCoalescedActionsWhenMemoryBudgetIsExceeded() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder()
+                        .setBulkFlushMaxActions(10)
+                        .setBulkFlushInterval(1000)
+                        .setBulkFlushCoalescing(true)
+                        .build();
+        maxPendingSizeInBytes = 1;
+        bulkRequestConsumer.setAutoRespond(true);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig)) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).isEmpty();
+            assertThat(metricListener.<Long>getGauge("pendingBytes").get().getValue()).isPositive();
+
+            // the coalesced action counts towards the budget and is sent before the next record
+            writer.write(Tuple2.of(2, buildMessage(2)), null);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1");
+
+            writer.flush(false);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1", "2");
+            assertThat(metricListener.<Long>getGauge("pendingBytes").get().getValue()).isZero();
+        }
+    }
+
+    @Test
+    void testFlushOnBulkFlushInterval() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder()
+                        .setBulkFlushMaxActions(10)
+                        .setBulkFlushInterval(1000)
+                        .build();
+        bulkRequestConsumer.setAutoRespond(true);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig)) {
+            // an idle writer does not register a timer
+            assertThat(processingTimeService.getNumActiveTimers()).isZero();
+
+            processingTimeService.setCurrentTime(500);
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            writer.write(Tuple2.of(2, buildMessage(2)), null);
+            assertThat(processingTimeService.getNumActiveTimers()).isOne();
+
+            processingTimeService.setCurrentTime(1499);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).isEmpty();
+
+            processingTimeService.setCurrentTime(1500);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1", "2");
+            assertThat(processingTimeService.getNumActiveTimers()).isZero();
+        }
+    }
+
+    @Test
+    void testRetryRejectedActionsWithBulkFlushBackoff() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder()
+                        .setBulkFlushMaxActions(2)
+                        .setFlushBackoffType(FlushBackoffType.CONSTANT)
+                        .setBulkFlushBackoffRetries(1)
+                        .setBulkFlushBackOffDelay(100)
+                        .build();
+        bulkRequestConsumer.setAutoRespond(true);
+        bulkRequestConsumer.failWith(
+                "2", RestStatus.TOO_MANY_REQUESTS, RestStatus.TOO_MANY_REQUESTS);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig)) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            writer.write(Tuple2.of(2, buildMessage(2)), null);
+            // process the bulk response
+            mailboxExecutor.tryYield();
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1");
+
+            // the rejected action is added again after the backoff delay, but only retried once
+            processingTimeService.setCurrentTime(100);
+            assertThatThrownBy(() -> writer.flush(false)).isInstanceOf(FlinkRuntimeException.class);
+            assertThat(metricListener.getCounter("numActionsRetried").get().getCount())
+                    .isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testRetryRejectedBulkWithBulkFlushBackoff() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder()
+                        .setBulkFlushMaxActions(2)
+                        .setFlushBackoffType(FlushBackoffType.EXPONENTIAL)
+                        .setBulkFlushBackoffRetries(2)
+                        .setBulkFlushBackOffDelay(100)
+                        .build();
+        bulkRequestConsumer.setAutoRespond(true);
+        bulkRequestConsumer.rejectNextBulks(2);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig)) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            writer.write(Tuple2.of(2, buildMessage(2)), null);
+            // process the rejection of the complete bulk
+            mailboxExecutor.tryYield();
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).isEmpty();
+
+            // the first retry is rejected again and the second one follows Elasticsearch's
+            // exponential backoff curve
+            processingTimeService.setCurrentTime(100);
+            mailboxExecutor.tryYield();
+            processingTimeService.setCurrentTime(209);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).isEmpty();
+            processingTimeService.setCurrentTime(210);
+            writer.flush(false);
+
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1", "2");
+            assertThat(metricListener.getCounter("numActionsRetried").get().getCount())
+                    .isEqualTo(4);
+        }
+    }
+
+    @Test
+    void testFailRejectedBulkWhenBackoffIsExhausted() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder()
+                        .setBulkFlushMaxActions(2)
+                        .setFlushBackoffType(FlushBackoffType.CONSTANT)
+                        .setBulkFlushBackoffRetries(1)
+                        .setBulkFlushBackOffDelay(100)
+                        .build();
+        bulkRequestConsumer.setAutoRespond(true);
+        bulkRequestConsumer.rejectNextBulks(2);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig)) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            writer.write(Tuple2.of(2, buildMessage(2)), null);
+            mailboxExecutor.tryYield();
+
+            processingTimeService.setCurrentTime(100);
+            assertThatThrownBy(() -> writer.flush(false))
+                    .isInstanceOf(FlinkRuntimeException.class)
+                    .hasMessage("Complete bulk has failed.");
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).isEmpty();
+        }
+    }
+
+    @Test
+    void testRetryFailedActionsWithRetryableStatus() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(3).build();
+        bulkRequestConsumer.setAutoRespond(true);
+        bulkRequestConsumer.failWith("2", RestStatus.TOO_MANY_REQUESTS);
+        bulkRequestConsumer.failWith("3", RestStatus.SERVICE_UNAVAILABLE);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig, createRetryConfig(2))) {
+            for (int i = 1; i <= 3; i++) {
+                writer.write(Tuple2.of(i, buildMessage(i)), null);
+            }
+            // process the bulk response
+            mailboxExecutor.tryYield();
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1");
+
+            // the failed actions are added again after the backoff delay
+            processingTimeService.setCurrentTime(100);
+            writer.flush(false);
+
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1", "2", "3");
+        }
+    }
+
+    @Test
+    void testHoldBackLaterActionsOfDocumentUntilRetryIsAcknowledged() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(1).build();
+        bulkRequestConsumer.setAutoRespond(true);
+        bulkRequestConsumer.failWith("1", RestStatus.TOO_MANY_REQUESTS);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig, createRetryConfig(2))) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            // the first action of the document is still in flight when the second one is emitted
+            writer.write(Tuple2.of(1, buildMessage(2)), null);
+            writer.write(Tuple2.of(2, buildMessage(3)), null);
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("2");
+
+            // process the rejection and retry the first action after the backoff delay
+            mailboxExecutor.tryYield();
+            processingTimeService.setCurrentTime(100);
+            writer.flush(false);
+
+            // the retry is not overtaken by the later action of the same document
+            assertThat(bulkRequestConsumer.getAcknowledgedData())
+                    .containsExactly(buildMessage(3), buildMessage(1), buildMessage(2));
+        }
+    }
+
+    @Test
+    void testBulkMetrics() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(3).build();
+        bulkRequestConsumer.setAutoRespond(true);
+        bulkRequestConsumer.failWith("2", RestStatus.TOO_MANY_REQUESTS);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig, createRetryConfig(2))) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            writer.write(Tuple2.of(2, buildMessage(2)), null);
+            assertThat(metricListener.<Long>getGauge("pendingActions").get().getValue())
+                    .isEqualTo(2);
+            assertThat(metricListener.<Long>getGauge("bufferedBytes").get().getValue())
+                    .isPositive();
+
+            writer.write(Tuple2.of(3, buildMessage(3)), null);
+            assertThat(metricListener.<Long>getGauge("bufferedBytes").get().getValue()).isZero();
+            // process the bulk response
+            mailboxExecutor.tryYield();
+            assertThat(metricListener.getCounter("numActionsStatus201").get().getCount())
+                    .isEqualTo(2);
+            assertThat(metricListener.getCounter("numActionsStatus429").get().getCount())
+                    .isEqualTo(1);
+
+            processingTimeService.setCurrentTime(100);
+            writer.flush(false);
+            assertThat(metricListener.getCounter("numActionsStatus201").get().getCount())
+                    .isEqualTo(3);
+            assertThat(metricListener.getCounter("numActionsRetried").get().getCount())
+                    .isEqualTo(1);
+            assertThat(metricListener.<Long>getGauge("pendingActions").get().getValue()).isZero();
+            assertThat(metricListener.getHistogram("bulkActions").get().getCount()).isEqualTo(2);
+            assertThat(metricListener.getHistogram("bulkActions").get().getStatistics().getMax())
+                    .isEqualTo(3);
+            assertThat(metricListener.getHistogram("bulkLatencyMs")).isPresent();
+            assertThat(metricListener.getHistogram("bulkSizeBytes")).isPresent();
+        }
+    }
+
+    @Test
+    void testFailOnNonRetryableStatus() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(1).build();
+        bulkRequestConsumer.setAutoRespond(true);
+        bulkRequestConsumer.failWith("1", RestStatus.BAD_REQUEST);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig, createRetryConfig(2))) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            assertThatThrownBy(() -> writer.flush(false)).isInstanceOf(FlinkRuntimeException.class);
+        }
+    }
+
+    @Test
+    void testFailWhenRetriesAreExhausted() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(1).build();
+        bulkRequestConsumer.setAutoRespond(true);
+        bulkRequestConsumer.failWith(
+                "1", RestStatus.TOO_MANY_REQUESTS, RestStatus.TOO_MANY_REQUESTS);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(true, bulkProcessorConfig, createRetryConfig(1))) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            mailboxExecutor.tryYield();
+            processingTimeService.setCurrentTime(100);
+
+            assertThatThrownBy(() -> writer.flush(false)).isInstanceOf(FlinkRuntimeException.class);
+        }
+    }
+
+    @Test
+    void testDropFailedActions() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(2).build();
+        bulkRequestConsumer.setAutoRespond(true);
+        bulkRequestConsumer.failWith("1", RestStatus.BAD_REQUEST);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(
+                        true,
+                        bulkProcessorConfig,
+                        createRetryConfig(1),
+                        (action, failure, status) -> BulkItemFailureHandler.Decision.DROP,
+                        null)) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            writer.write(Tuple2.of(2, buildMessage(2)), null);
+            writer.flush(false);
+
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("2");
+            assertThat(metricListener.getCounter("numActionsDropped").get().getCount())
+                    .isEqualTo(1);
+            assertThat(metricListener.getCounter("numActionsFailed").get().getCount()).isZero();
+        }
+    }
+
+    @Test
+    void testRouteFailedActionsToDeadLetterQueue() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(2).build();
+        bulkRequestConsumer.setAutoRespond(true);
+        bulkRequestConsumer.failWith("2", RestStatus.BAD_REQUEST);
+        final TestDeadLetterQueue deadLetterQueue = new TestDeadLetterQueue();
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(
+                        true,
+                        bulkProcessorConfig,
+                        createRetryConfig(1),
+                        (action, failure, status) ->
+                                status == RestStatus.BAD_REQUEST.getStatus()
+                                        ? BulkItemFailureHandler.Decision.DEAD_LETTER
+                                        : BulkItemFailureHandler.Decision.FAIL,
+                        deadLetterQueue)) {
+            assertThat(deadLetterQueue.opened).isTrue();
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            writer.write(Tuple2.of(2, buildMessage(2)), null);
+            writer.flush(false);
+
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1");
+            assertThat(deadLetterQueue.ids).containsExactly("2");
+            assertThat(deadLetterQueue.statuses)
+                    .containsExactly(RestStatus.BAD_REQUEST.getStatus());
+            assertThat(metricListener.getCounter("numActionsDeadLettered").get().getCount())
+                    .isEqualTo(1);
+        }
+        assertThat(deadLetterQueue.closed).isTrue();
+    }
+
+    @Test
+    void testFailureHandlerRetriesFailedActions() throws Exception {
+        final BulkProcessorConfig bulkProcessorConfig =
+                BulkProcessorConfig.builder().setBulkFlushMaxActions(1).build();
+        bulkRequestConsumer.setAutoRespond(true);
+        bulkRequestConsumer.failWith("1", RestStatus.CONFLICT);
+
+        try (final ElasticsearchWriter<Tuple2<Integer, String>> writer =
+                createWriter(
+                        true,
+                        bulkProcessorConfig,
+                        createRetryConfig(1),
+                        (action, failure, status) -> BulkItemFailureHandler.Decision.RETRY,
+                        null)) {
+            writer.write(Tuple2.of(1, buildMessage(1)), null);
+            mailboxExecutor.tryYield();
+            processingTimeService.setCurrentTime(100);
+            writer.flush(false);
+
+            assertThat(bulkRequestConsumer.getAcknowledgedIds()).containsExactly("1");
+            assertThat(metricListener.getCounter("numActionsRetried").get().getCount())
+                    .isEqualTo(1);
+        }
+    }
+
+    private static List<String> getIds(List<ElasticsearchWriterState> states) {
+        assertThat(states).hasSize(1);
+        return states.get(0).getPendingActions().stream()
+                .map(DocWriteRequest::id)
+                .collect(Collectors.toList());
+    }
+
+    private static BulkItemRetryConfig createRetryConfig(int maxRetries) {
+        return new BulkItemRetryConfig(
+                FlushBackoffType.CONSTANT, maxRetries, 100, new HashSet<>(Arrays.asList(429, 503)));
+    }
+
+    private ElasticsearchWriter<Tuple2<Integer, String>> createWriter(
+            boolean flushOnCheckpoint, BulkProcessorConfig bulkProcessorConfig) {
+        return createWriter(
+                flushOnCheckpoint,
+                bulkProcessorConfig,
+                new BulkItemRetryConfig(FlushBackoffType.NONE, -1, -1, Collections.emptySet()));
+    }
+
+    private ElasticsearchWriter<Tuple2<Integer, String>> createWriter(
+            boolean flushOnCheckpoint,
+            BulkProcessorConfig bulkProcessorConfig,
+            BulkItemRetryConfig bulkItemRetryConfig) {
+        return createWriter(
+                flushOnCheckpoint, bulkProcessorConfig, bulkItemRetryConfig, null, null);
+    }
+
+    private ElasticsearchWriter<Tuple2<Integer, String>> createWriter(
+            boolean flushOnCheckpoint,
+            BulkProcessorConfig bulkProcessorConfig,
+            BulkItemRetryConfig bulkItemRetryConfig,
+            BulkItemFailureHandler failureHandler,
+            DeadLetterQueue deadLetterQueue) {
+        return new ElasticsearchWriter<>(
+                Collections.singletonList(new HttpHost("localhost", 9200)),
+                TestEmitter.jsonEmitter(INDEX, "data"),
+                flushOnCheckpoint,
+                checkpointPendingActions,
+                maxPendingSizeInBytes,
+                bulkProcessorConfig,
+                new TestBulkProcessorBuilderFactory(bulkRequestConsumer),
+                bulkItemRetryConfig,
+                failureHandler,
+                deadLetterQueue,
+                null,
+                new NetworkClientConfig(
+                        null, null, null, null, null, null, null, null, null, null, null, null,
+                        false),
+                InternalSinkWriterMetricGroup.mock(metricListener.getMetricGroup()),
+                mailboxExecutor,
+                processingTimeService,
+                recoveredStates);
+    }
+
+    private static class TestDeadLetterQueue implements DeadLetterQueue {
+
+        private final List<String> ids = new ArrayList<>();
+        private final List<Integer> statuses = new ArrayList<>();
+        private boolean opened = false;
+        private boolean closed = false;
+
+        @Override
+        public void open() {
+            opened = true;
+        }
+
+        @Override
+        public void add(DocWriteRequest<?> action, Throwable failure, int restStatusCode) {
+            ids.add(action.id());
+            statuses.add(restStatusCode);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    private static class TestBulkProcessorBuilderFactory implements BulkProcessorBuilderFactory {
+
+        private final transient TestBulkRequestConsumer bulkRequestConsumer;
+
+        TestBulkProcessorBuilderFactory(TestBulkRequestConsumer bulkRequestConsumer) {
+            this.bulkRequestConsumer = bulkRequestConsumer;
+        }
+
+        @Override
+        public BulkProcessor.Builder apply(
+                RestHighLevelClient client,
+                BulkProcessorConfig bulkProcessorConfig,
+                BulkProcessor.Listener listener) {
+            final BulkProcessor.Builder builder =
+                    BulkProcessor.builder(bulkRequestConsumer, listener);
+            builder.setBulkActions(bulkProcessorConfig.getBulkFlushMaxActions());
+            builder.setBackoffPolicy(BackoffPolicy.noBackoff());
+            return builder;
+        }
+    }
+
+    /**
+     * Collects the bulk requests sent by the writer. The requests are either answered immediately
+     * or held back until the test responds to them, which allows observing in-flight requests.
+     */
+    private static class TestBulkRequestConsumer implements BulkRequestConsumerFactory {
+
+        private final Queue<Tuple2<BulkRequest, ActionListener<BulkResponse>>> pendingRequests =
+                new ArrayDeque<>();
+        private final List<String> acknowledgedIds =
+                Collections.synchronizedList(new ArrayList<>());
+        private final List<Object> acknowledgedData =
+                Collections.synchronizedList(new ArrayList<>());
+        private final Map<String, Queue<RestStatus>> failures = new HashMap<>();
+        private volatile boolean autoRespond = false;
+        private int numBulksToReject = 0;
+        private int maxConcurrentRequests = 0;
+        private int concurrentRequestsForSameDocument = 0;
+
+        /** Fails the next responses for the given document id with the given statuses. */
+        void failWith(String id, RestStatus... statuses) {
+            failures.put(id, new ArrayDeque<>(Arrays.asList(statuses)));
+        }
+
+        /** Rejects the next bulk requests as a whole, like a node with a full write queue. */
+        void rejectNextBulks(int numBulks) {
+            numBulksToReject = numBulks;
+        }
+
+        void setAutoRespond(boolean autoRespond) {
+            this.autoRespond = autoRespond;
+        }
+
+        @Override
+        public void accept(BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
+            if (autoRespond) {
+                respond(bulkRequest, listener);
+                return;
+            }
+            synchronized (pendingRequests) {
+                for (Tuple2<BulkRequest, ActionListener<BulkResponse>> pendingRequest :
+                        pendingRequests) {
+                    if (containsSameDocument(pendingRequest.f0, bulkRequest)) {
+                        concurrentRequestsForSameDocument++;
+                    }
+                }
+                pendingRequests.add(Tuple2.of(bulkRequest, listener));
+                maxConcurrentRequests = Math.max(maxConcurrentRequests, pendingRequests.size());
+            }
+        }
+
+        private static boolean containsSameDocument(BulkRequest first, BulkRequest second) {
+            for (DocWriteRequest<?> firstRequest : first.requests()) {
+                for (DocWriteRequest<?> secondRequest : second.requests()) {
+                    if (firstRequest.index().equals(secondRequest.index())
+                            && firstRequest.id().equals(secondRequest.id())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        int getMaxConcurrentRequests() {
+            synchronized (pendingRequests) {
+                return maxConcurrentRequests;
+            }
+        }
+
+        int getConcurrentRequestsForSameDocument() {
+            synchronized (pendingRequests) {
+                return concurrentRequestsForSameDocument;
+            }
+        }
+
+        int getNumPendingRequests() {
+            synchronized (pendingRequests) {
+                return pendingRequests.size();
+            }
+        }
+
+        List<String> getAcknowledgedIds() {
+            synchronized (acknowledgedIds) {
+                return new ArrayList<>(acknowledgedIds);
+            }
+        }
+
+        List<Object> getAcknowledgedData() {
+            synchronized (acknowledgedData) {
+                return new ArrayList<>(acknowledgedData);
+            }
+        }
+
+        void respondToAllPendingRequests() {
+            while (true) {
+                final Tuple2<BulkRequest, ActionListener<BulkResponse>> pendingRequest;
+                synchronized (pendingRequests) {
+                    pendingRequest = pendingRequests.poll();
+                }
+                if (pendingRequest == null) {
+                    return;
+                }
+                respond(pendingRequest.f0, pendingRequest.f1);
+            }
+        }
+
+        private void respond(BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
+            if (numBulksToReject > 0) {
+                numBulksToReject--;
+                listener.onFailure(new EsRejectedExecutionException("rejected bulk request"));
+                return;
+            }
+            final List<DocWriteRequest<?>> requests = bulkRequest.requests();
+            final BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+            for (int i = 0; i < requests.size(); i++) {
+                final DocWriteRequest<?> request = requests.get(i);
+                final Queue<RestStatus> statuses = failures.get(request.id());
+                if (statuses != null && !statuses.isEmpty()) {
+                    final RestStatus status = statuses.poll();
+                    items[i] =
+                            new BulkItemResponse(
+                                    i,
+                                    request.opType(),
+                                    new BulkItemResponse.Failure(
+                                            request.index(),
+                                            request.type(),
+                                            request.id(),
+                                            new ElasticsearchStatusException(
+                                                    "Failed with " + status, status)));
+                    continue;
+                }
+                items[i] =
+                        new BulkItemResponse(
+                                i,
+                                request.opType(),
+                                new IndexResponse(
+                                        new ShardId(request.index(), "_na_", 0),
+                                        request.type(),
+                                        request.id(),
+                                        1,
+                                        1,
+                                        1,
+                                        true));
+                acknowledgedIds.add(request.id());
+                if (request instanceof IndexRequest) {
+                    acknowledgedData.add(((IndexRequest) request).sourceAsMap().get("data"));
+                }
+            }
+            listener.onResponse(new BulkResponse(items, 1));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.VersionType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Tests for {@link NdjsonBulkEncoder}. */
+class NdjsonBulkEncoderTest {
+
+    @Test
+    void testEncodeActions() throws IOException {
+        final BulkRequest request =
+                new BulkRequest()
+                        .add(
+                                new IndexRequest("index")
+                                        .id("1")
+                                        .source("{\"data\":1}", XContentType.JSON))
+                        .add(
+                                new IndexRequest("index")
+                                        .id("2")
+                                        .routing("r")
+                                        .opType(DocWriteRequest.OpType.CREATE)
+                                        .setPipeline("p")
+                                        .source("{\"data\":2}", XContentType.JSON))
+                        .add(
+                                new UpdateRequest("index", "3")
+                                        .doc("{\"data\":3}", XContentType.JSON)
+                                        .retryOnConflict(2))
+                        .add(new DeleteRequest("index", "4"));
+
+        assertThat(encode(request))
+                .isEqualTo(
+                        "{\"index\":{\"_index\":\"index\",\"_id\":\"1\"}}\n"
+                                + "{\"data\":1}\n"
+                                + "{\"create\":{\"_index\":\"index\",\"_id\":\"2\",\"routing\":\"r\",\"version\":-4,\"pipeline\":\"p\"}}\n"
+                                + "{\"data\":2}\n"
+                                + "{\"update\":{\"_index\":\"index\",\"_id\":\"3\",\"retry_on_conflict\":2}}\n"
+                                + "{\"doc\":{\"data\":3}}\n"
+                                + "{\"delete\":{\"_index\":\"index\",\"_id\":\"4\"}}\n");
+    }
+
+    @Test
+    void testEncodeTypesForElasticsearch6() throws IOException {
+        final BulkRequest request =
+                new BulkRequest()
+                        .add(
+                                new IndexRequest("index")
+                                        .id("1")
+                                        .source("{\"data\":1}", XContentType.JSON))
+                        .add(new DeleteRequest("index", "2"));
+
+        assertThat(encode(request, NdjsonBulkEncoder.ApiVersion.V6))
+                .isEqualTo(
+                        "{\"index\":{\"_index\":\"index\",\"_type\":\"_doc\",\"_id\":\"1\"}}\n"
+                                + "{\"data\":1}\n"
+                                + "{\"delete\":{\"_index\":\"index\",\"_type\":\"_doc\",\"_id\":\"2\"}}\n");
+    }
+
+    @Test
+    void testEncodeRequireAliasForElasticsearch7() throws IOException {
+        final BulkRequest request =
+                new BulkRequest()
+                        .add(
+                                new IndexRequest("alias")
+                                        .id("1")
+                                        .setRequireAlias(true)
+                                        .source("{}", XContentType.JSON));
+
+        assertThat(encode(request, NdjsonBulkEncoder.ApiVersion.V7))
+                .isEqualTo(
+                        "{\"index\":{\"_index\":\"alias\",\"_id\":\"1\",\"require_alias\":true}}\n{}\n");
+        assertThat(encode(request, NdjsonBulkEncoder.ApiVersion.V6))
+                .isEqualTo(
+                        "{\"index\":{\"_index\":\"alias\",\"_type\":\"_doc\",\"_id\":\"1\"}}\n{}\n");
+    }
+
+    @Test
+    void testSameBodyAsHighLevelClient() throws Exception {
+        final BulkRequest request =
+                new BulkRequest()
+                        .add(
+                                new IndexRequest("index")
+                                        .id("1")
+                                        .routing("r")
+                                        .version(3)
+                                        .versionType(VersionType.EXTERNAL)
+                                        .setPipeline("p")
+                                        .source("{\"data\":1}", XContentType.JSON))
+                        .add(
+                                new IndexRequest("index")
+                                        .opType(DocWriteRequest.OpType.CREATE)
+                                        .source("{\"data\":2}", XContentType.JSON))
+                        .add(
+                                new UpdateRequest("index", "3")
+                                        .doc("{\"data\":3}", XContentType.JSON)
+                                        .upsert("{\"data\":0}", XContentType.JSON)
+                                        .fetchSource(true)
+                                        .retryOnConflict(2))
+                        .add(new DeleteRequest("index", "4").setIfSeqNo(5).setIfPrimaryTerm(1));
+
+        assertThat(encode(request, NdjsonBulkEncoder.ApiVersion.V7))
+                .isEqualTo(encodeWithHighLevelClient(request));
+    }
+
+    @Test
+    void testEscapeMetadata() throws IOException {
+        final BulkRequest request =
+                new BulkRequest().add(new DeleteRequest("index", "a\"b\\c\ndé"));
+
+        assertThat(encode(request))
+                .isEqualTo(
+                        "{\"delete\":{\"_index\":\"index\",\"_id\":\"a\\\"b\\\\c\\u000adé\"}}\n");
+    }
+
+    @Test
+    void testOnlyEncodeJsonSources() {
+        assertThat(
+                        NdjsonBulkEncoder.canEncode(
+                                new BulkRequest()
+                                        .add(new IndexRequest("index").source("data", "1"))))
+                .isTrue();
+        assertThat(
+                        NdjsonBulkEncoder.canEncode(
+                                new BulkRequest()
+                                        .add(
+                                                new IndexRequest("index")
+                                                        .source(XContentType.SMILE, "data", "1"))))
+                .isFalse();
+    }
+
+    private static String encode(BulkRequest request) throws IOException {
+        return encode(request, NdjsonBulkEncoder.ApiVersion.V7);
+    }
+
+    static String encode(BulkRequest request, NdjsonBulkEncoder.ApiVersion apiVersion)
+            throws IOException {
+        final BulkBodyBuffer buffer = new BulkBodyBuffer(16);
+        NdjsonBulkEncoder.encode(request, apiVersion, buffer);
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /** Returns the body the high-level client on the classpath sends for the bulk request. */
+    static String encodeWithHighLevelClient(BulkRequest request) throws Exception {
+        final Method bulk =
+                Class.forName("org.elasticsearch.client.RequestConverters")
+                        .getDeclaredMethod("bulk", BulkRequest.class);
+        bulk.setAccessible(true);
+        return EntityUtils.toString(((Request) bulk.invoke(null, request)).getEntity());
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpHost;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests for {@link RestClientBulkRequestConsumer} against a local HTTP server answering the bulk
+ * requests with canned responses.
+ */
+class RestClientBulkRequestConsumerTest {
+
+    private static final String BULK_RESPONSE =
+            "{\"took\":3,\"errors\":true,\"items\":["
+                    + "{\"index\":{\"_index\":\"index\",\"_type\":\"_doc\",\"_id\":\"1\",\"_version\":1,"
+                    + "\"result\":\"created\",\"_shards\":{\"total\":1,\"successful\":1,\"failed\":0},"
+                    + "\"_seq_no\":0,\"_primary_term\":1,\"status\":201}},"
+                    + "{\"delete\":{\"_index\":\"index\",\"_type\":\"_doc\",\"_id\":\"2\",\"status\":429,"
+                    + "\"error\":{\"type\":\"es_rejected_execution_exception\",\"reason\":\"rejected\"}}}]}";
+
+    private final AtomicReference<String> receivedBody = new AtomicReference<>();
+    private final AtomicReference<String> receivedQuery = new AtomicReference<>();
+    private final AtomicReference<String> receivedContentType = new AtomicReference<>();
+    private final AtomicReference<String> receivedContentEncoding = new AtomicReference<>();
+    private volatile int responseStatus = 200;
+    private HttpServer server;
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/_bulk",
+                exchange -> {
+                    final String contentEncoding =
+                            exchange.getRequestHeaders().getFirst("Content-Encoding");
+                    try (InputStream in =
+                            "gzip".equals(contentEncoding)
+                                    ? new GZIPInputStream(exchange.getRequestBody())
+                                    : exchange.getRequestBody()) {
+                        receivedBody.set(new String(readAll(in), StandardCharsets.UTF_8));
+                    }
+                    receivedContentType.set(exchange.getRequestHeaders().getFirst("Content-Type"));
+                    receivedContentEncoding.set(contentEncoding);
+                    receivedQuery.set(exchange.getRequestURI().getQuery());
+                    byte[] response = BULK_RESPONSE.getBytes(StandardCharsets.UTF_8);
+                    if ("gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+                        response = gzip(response);
+                        exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                    }
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(responseStatus, response.length);
+                    try (OutputStream out = exchange.getResponseBody()) {
+                        out.write(response);
+                    }
+                });
+        server.start();
+        restClient =
+                RestClient.builder(new HttpHost("localhost", server.getAddress().getPort()))
+                        .build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        restClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void testSendEncodedBulkRequest() throws Exception {
+        final RestClientBulkRequestConsumer consumer =
+                new RestClientBulkRequestConsumer(
+                        restClient, failingFallbackConsumer(), NdjsonBulkEncoder.ApiVersion.V7);
+
+        final BulkResponse response = send(consumer, createBulkRequest());
+
+        assertThat(receivedContentType.get()).startsWith("application/x-ndjson");
+        assertThat(receivedBody.get())
+                .isEqualTo(
+                        "{\"index\":{\"_index\":\"index\",\"_id\":\"1\"}}\n"
+                                + "{\"data\":1}\n"
+                                + "{\"delete\":{\"_index\":\"index\",\"_id\":\"2\"}}\n");
+        assertThat(response.getItems()).hasSize(2);
+        assertThat(response.getItems()[0].isFailed()).isFalse();
+        assertThat(response.getItems()[1].isFailed()).isTrue();
+        assertThat(response.getItems()[1].getFailure().getStatus())
+                .isEqualTo(RestStatus.TOO_MANY_REQUESTS);
+
+        // the pooled buffer is reused for the next bulk request
+        send(consumer, createBulkRequest());
+        assertThat(receivedBody.get()).startsWith("{\"index\":");
+    }
+
+    @Test
+    void testSendCompressedBulkRequest() throws Exception {
+        final AtomicLong rawBytes = new AtomicLong();
+        final AtomicLong wireBytes = new AtomicLong();
+        final RestClientBulkRequestConsumer consumer =
+                new RestClientBulkRequestConsumer(
+                        restClient,
+                        failingFallbackConsumer(),
+                        NdjsonBulkEncoder.ApiVersion.V7,
+                        CompressionType.GZIP,
+                        9,
+                        (raw, wire) -> {
+                            rawBytes.addAndGet(raw);
+                            wireBytes.addAndGet(wire);
+                        });
+        final BulkRequest request = new BulkRequest();
+        for (int i = 0; i < 100; i++) {
+            request.add(
+                    new IndexRequest("index")
+                            .id(String.valueOf(i))
+                            .source("{\"data\":\"some value\"}", XContentType.JSON));
+        }
+
+        final BulkResponse response = send(consumer, request);
+
+        assertThat(receivedContentEncoding.get()).isEqualTo("gzip");
+        assertThat(receivedBody.get())
+                .startsWith(
+                        "{\"index\":{\"_index\":\"index\",\"_id\":\"0\"}}\n"
+                                + "{\"data\":\"some value\"}\n");
+        assertThat(rawBytes.get()).isEqualTo(receivedBody.get().length());
+        assertThat(wireBytes.get()).isPositive().isLessThan(rawBytes.get() / 5);
+        // the compressed response is decompressed before it is parsed
+        assertThat(response.getItems()).hasSize(2);
+    }
+
+    @Test
+    void testForwardRequestParameters() throws Exception {
+        final RestClientBulkRequestConsumer consumer =
+                new RestClientBulkRequestConsumer(
+                        restClient, failingFallbackConsumer(), NdjsonBulkEncoder.ApiVersion.V7);
+        final BulkRequest request =
+                createBulkRequest()
+                        .timeout("5s")
+                        .setRefreshPolicy(WriteRequest.RefreshPolicy.WAIT_UNTIL)
+                        .waitForActiveShards(ActiveShardCount.ALL)
+                        .pipeline("pipeline")
+                        .routing("routing");
+
+        send(consumer, request);
+
+        assertThat(receivedQuery.get().split("&"))
+                .containsExactlyInAnyOrder(
+                        "timeout=5s",
+                        "refresh=wait_for",
+                        "wait_for_active_shards=all",
+                        "pipeline=pipeline",
+                        "routing=routing");
+    }
+
+    @Test
+    void testConvertErrorResponse() {
+        responseStatus = 429;
+        final RestClientBulkRequestConsumer consumer =
+                new RestClientBulkRequestConsumer(
+                        restClient, failingFallbackConsumer(), NdjsonBulkEncoder.ApiVersion.V7);
+
+        assertThatThrownBy(() -> send(consumer, createBulkRequest()))
+                .hasCauseInstanceOf(ElasticsearchStatusException.class)
+                .satisfies(
+                        e ->
+                                assertThat(((ElasticsearchStatusException) e.getCause()).status())
+                                        .isEqualTo(RestStatus.TOO_MANY_REQUESTS));
+    }
+
+    @Test
+    void testFallbackForNonJsonSources() throws Exception {
+        final AtomicReference<BulkRequest> fallbackRequest = new AtomicReference<>();
+        final RestClientBulkRequestConsumer consumer =
+                new RestClientBulkRequestConsumer(
+                        restClient,
+                        (bulkRequest, listener) -> {
+                            fallbackRequest.set(bulkRequest);
+                            listener.onResponse(new BulkResponse(new BulkItemResponse[0], 0));
+                        },
+                        NdjsonBulkEncoder.ApiVersion.V7);
+        final BulkRequest request =
+                new BulkRequest().add(new IndexRequest("index").source(XContentType.SMILE, "a", 1));
+
+        send(consumer, request);
+
+        assertThat(fallbackRequest.get()).isSameAs(request);
+        assertThat(receivedBody.get()).isNull();
+    }
+
+    private static BulkRequest createBulkRequest() {
+        return new BulkRequest()
+                .add(new IndexRequest("index").id("1").source("{\"data\":1}", XContentType.JSON))
+                .add(new DeleteRequest("index", "2"));
+    }
+
+    private static BulkRequestConsumerFactory failingFallbackConsumer() {
+        return (bulkRequest, listener) ->
+                listener.onFailure(new IllegalStateException("Unexpected fallback."));
+    }
+
+    private static BulkResponse send(BulkRequestConsumerFactory consumer, BulkRequest request)
+            throws ExecutionException, InterruptedException {
+        final CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+        consumer.accept(
+                request,
+                new ActionListener<BulkResponse>() {
+                    @Override
+                    public void onResponse(BulkResponse bulkResponse) {
+                        future.complete(bulkResponse);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+        return future.get();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
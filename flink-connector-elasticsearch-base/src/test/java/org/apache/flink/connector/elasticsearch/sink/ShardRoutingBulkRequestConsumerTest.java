@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.HttpHost;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link ShardRoutingBulkRequestConsumer} against two local HTTP servers standing in for
+ * the nodes of a cluster, which serve a canned cluster state and answer bulk requests.
+ */
+class ShardRoutingBulkRequestConsumerTest {
+
+    private static final Pattern ID_PATTERN = Pattern.compile("\"_id\":\"([^\"]+)\"");
+    private static final int NUMBER_OF_SHARDS = 2;
+    private static final int ROUTING_NUM_SHARDS = 1024;
+
+    private final List<String> idsOnNodeA = new CopyOnWriteArrayList<>();
+    private final List<String> idsOnNodeB = new CopyOnWriteArrayList<>();
+    private final AtomicInteger clusterStateRequests = new AtomicInteger();
+    private volatile String routedIndex = "index";
+    private volatile int itemStatusOnNodeB = 201;
+    private HttpServer nodeA;
+    private HttpServer nodeB;
+    private RestClient restClient;
+    private ShardRoutingTable routingTable;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        nodeA = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        nodeB = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        nodeA.createContext("/_bulk", exchange -> respondToBulk(exchange, idsOnNodeA, 201));
+        nodeB.createContext(
+                "/_bulk", exchange -> respondToBulk(exchange, idsOnNodeB, itemStatusOnNodeB));
+        for (HttpServer node : Arrays.asList(nodeA, nodeB)) {
+            node.createContext(
+                    "/_cluster/state",
+                    exchange -> {
+                        clusterStateRequests.incrementAndGet();
+                        respond(exchange, clusterState());
+                    });
+            node.createContext(
+                    "/_nodes",
+                    exchange ->
+                            respond(
+                                    exchange,
+                                    "{\"nodes\":{"
+                                            + "\"a\":{\"http\":{\"publish_address\":\"localhost/127.0.0.1:"
+                                            + nodeA.getAddress().getPort()
+                                            + "\"}},"
+                                            + "\"b\":{\"http\":{\"publish_address\":\"127.0.0.1:"
+                                            + nodeB.getAddress().getPort()
+                                            + "\"}}}}"));
+        }
+        nodeA.start();
+        nodeB.start();
+        createRestClient(nodeA, nodeB);
+    }
+
+    private void createRestClient(HttpServer... nodes) {
+        final HttpHost[] hosts = new HttpHost[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            hosts[i] = new HttpHost("localhost", nodes[i].getAddress().getPort());
+        }
+        restClient =
+                RestClient.builder(hosts).setNodeSelector(new ShardRoutingNodeSelector()).build();
+        routingTable = new ShardRoutingTable(restClient, Long.MAX_VALUE);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        restClient.close();
+        nodeA.stop(0);
+        nodeB.stop(0);
+    }
+
+    @Test
+    void testSendActionsToPrimaryNodes() throws Exception {
+        final ShardRoutingBulkRequestConsumer consumer = createConsumer();
+        final BulkRequest request = createBulkRequest("index", 20);
+        routingTable.loadIndexRouting("index").get();
+
+        final BulkResponse response = send(consumer, request);
+
+        final List<String> expectedIdsOnNodeA = new ArrayList<>();
+        final List<String> expectedIdsOnNodeB = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final int shardId =
+                    ShardRoutingTable.shardId(
+                            String.valueOf(i),
+                            ROUTING_NUM_SHARDS,
+                            ROUTING_NUM_SHARDS / NUMBER_OF_SHARDS);
+            (shardId == 0 ? expectedIdsOnNodeA : expectedIdsOnNodeB).add(String.valueOf(i));
+        }
+        assertThat(expectedIdsOnNodeA).isNotEmpty();
+        assertThat(expectedIdsOnNodeB).isNotEmpty();
+        assertThat(idsOnNodeA).containsExactlyElementsOf(expectedIdsOnNodeA);
+        assertThat(idsOnNodeB).containsExactlyElementsOf(expectedIdsOnNodeB);
+        assertThat(response.getItems()).hasSize(20);
+        for (int i = 0; i < 20; i++) {
+            assertThat(response.getItems()[i].getItemId()).isEqualTo(i);
+            assertThat(response.getItems()[i].getId()).isEqualTo(String.valueOf(i));
+        }
+        assertThat(clusterStateRequests).hasValue(1);
+    }
+
+    @Test
+    void testSendActionsOfUnknownIndexToAnyNode() throws Exception {
+        routedIndex = "other-index";
+        final ShardRoutingBulkRequestConsumer consumer = createConsumer();
+        routingTable.loadIndexRouting("alias").get();
+
+        final BulkResponse response = send(consumer, createBulkRequest("alias", 10));
+
+        assertThat(idsOnNodeA.size() + idsOnNodeB.size()).isEqualTo(10);
+        assertThat(response.getItems()).hasSize(10);
+    }
+
+    @Test
+    void testSendActionsOfUnconfiguredNodesToAnyNode() throws Exception {
+        restClient.close();
+        createRestClient(nodeA);
+        final ShardRoutingBulkRequestConsumer consumer = createConsumer();
+        routingTable.loadIndexRouting("index").get();
+
+        send(consumer, createBulkRequest("index", 20));
+
+        // node b is not configured, so its publish address is not used
+        assertThat(idsOnNodeA).hasSize(20);
+        assertThat(idsOnNodeB).isEmpty();
+        assertThat(restClient.getNodes()).hasSize(1);
+    }
+
+    @Test
+    void testFallBackToAnyNodeIfPrimaryNodeFails() throws Exception {
+        final ShardRoutingBulkRequestConsumer consumer = createConsumer();
+        routingTable.loadIndexRouting("index").get();
+        nodeB.stop(0);
+
+        final BulkResponse response = send(consumer, createBulkRequest("index", 20));
+
+        assertThat(response.hasFailures()).isFalse();
+        assertThat(idsOnNodeA).hasSize(20);
+        assertThat(routingTable.hasRouting("index")).isFalse();
+    }
+
+    @Test
+    void testSendActionsToAnyNodeWhileRoutingIsLoading() throws Exception {
+        final ShardRoutingBulkRequestConsumer consumer = createConsumer();
+
+        // the routing is requested in the background, the actions are not held back
+        send(consumer, createBulkRequest("index", 20));
+        assertThat(idsOnNodeA.size() + idsOnNodeB.size()).isEqualTo(20);
+
+        awaitRouting("index");
+        idsOnNodeA.clear();
+        idsOnNodeB.clear();
+        send(consumer, createBulkRequest("index", 20));
+        assertThat(idsOnNodeA).isNotEmpty().hasSizeLessThan(20);
+        assertThat(idsOnNodeB).isNotEmpty().hasSizeLessThan(20);
+        assertThat(clusterStateRequests).hasValue(1);
+    }
+
+    @Test
+    void testReloadRoutingAfterUnavailableShard() throws Exception {
+        itemStatusOnNodeB = 503;
+        final ShardRoutingBulkRequestConsumer consumer = createConsumer();
+        routingTable.loadIndexRouting("index").get();
+
+        final BulkResponse response = send(consumer, createBulkRequest("index", 20));
+        assertThat(response.hasFailures()).isTrue();
+        for (BulkItemResponse item : response.getItems()) {
+            if (item.isFailed()) {
+                assertThat(item.getFailure().getStatus()).isEqualTo(RestStatus.SERVICE_UNAVAILABLE);
+            }
+        }
+        assertThat(clusterStateRequests).hasValue(1);
+
+        assertThat(routingTable.hasRouting("index")).isFalse();
+
+        itemStatusOnNodeB = 201;
+        send(consumer, createBulkRequest("index", 20));
+        awaitRouting("index");
+        assertThat(clusterStateRequests).hasValue(2);
+    }
+
+    private void awaitRouting(String index) throws InterruptedException {
+        while (!routingTable.hasRouting(index)) {
+            Thread.sleep(10);
+        }
+    }
+
+    private ShardRoutingBulkRequestConsumer createConsumer() {
+        return new ShardRoutingBulkRequestConsumer(
+                routingTable,
+                new RestClientBulkRequestConsumer(
+                        restClient,
+                        (bulkRequest, listener) ->
+                                listener.onFailure(new IllegalStateException("Unexpected.")),
+                        NdjsonBulkEncoder.ApiVersion.V7));
+    }
+
+    private String clusterState() {
+        return "{\"metadata\":{\"indices\":{\""
+                + routedIndex
+                + "\":{\"settings\":{\"index\":{\"number_of_shards\":\""
+                + NUMBER_OF_SHARDS
+                + "\"}},\"routing_num_shards\":"
+                + ROUTING_NUM_SHARDS
+                + "}}},\"routing_table\":{\"indices\":{\""
+                + routedIndex
+                + "\":{\"shards\":{"
+                + "\"0\":[{\"primary\":true,\"node\":\"a\"},{\"primary\":false,\"node\":\"b\"}],"
+                + "\"1\":[{\"primary\":false,\"node\":\"a\"},{\"primary\":true,\"node\":\"b\"}]"
+                + "}}}}}";
+    }
+
+    private static void respondToBulk(HttpExchange exchange, List<String> receivedIds, int status)
+            throws IOException {
+        final String body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = new String(readAll(in), StandardCharsets.UTF_8);
+        }
+        final StringBuilder response =
+                new StringBuilder("{\"took\":1,\"errors\":false,\"items\":[");
+        final Matcher matcher = ID_PATTERN.matcher(body);
+        boolean first = true;
+        while (matcher.find()) {
+            receivedIds.add(matcher.group(1));
+            response.append(first ? "" : ",")
+                    .append("{\"index\":{\"_index\":\"index\",\"_type\":\"_doc\",\"_id\":\"")
+                    .append(matcher.group(1))
+                    .append("\",\"status\":")
+                    .append(status)
+                    .append(
+                            status == 201
+                                    ? ",\"_version\":1,\"result\":\"created\",\"_shards\":{\"total\":1,"
+                                            + "\"successful\":1,\"failed\":0},\"_seq_no\":0,\"_primary_term\":1}}"
+                                    : ",\"error\":{\"type\":\"unavailable_shards_exception\","
+                                            + "\"reason\":\"primary shard is not active\"}}}");
+            first = false;
+        }
+        respond(exchange, response.append("]}").toString());
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        final byte[] response = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private static BulkRequest createBulkRequest(String index, int numActions) {
+        final BulkRequest request = new BulkRequest();
+        for (int i = 0; i < numActions; i++) {
+            request.add(
+                    new IndexRequest(index)
+                            .id(String.valueOf(i))
+                            .source("{\"data\":1}", XContentType.JSON));
+        }
+        return request;
+    }
+
+    private static BulkResponse send(BulkRequestConsumerFactory consumer, BulkRequest request)
+            throws ExecutionException, InterruptedException {
+        final CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+        consumer.accept(
+                request,
+                new ActionListener<BulkResponse>() {
+                    @Override
+                    public void onResponse(BulkResponse bulkResponse) {
+                        future.complete(bulkResponse);
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+        return future.get();
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
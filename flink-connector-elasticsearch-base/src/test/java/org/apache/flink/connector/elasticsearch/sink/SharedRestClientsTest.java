@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.util.TestLoggerExtension;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Tests for {@link SharedRestClients}. */
+@ExtendWith(TestLoggerExtension.class)
+class SharedRestClientsTest {
+
+    private static final List<HttpHost> HOSTS =
+            Collections.singletonList(new HttpHost("localhost", 9200));
+
+    @Test
+    void testShareClientUntilLastRelease() throws Exception {
+        final NetworkClientConfig config = createConfig(null);
+
+        final RestHighLevelClient first = acquire(HOSTS, config, false);
+        final RestHighLevelClient second = acquire(HOSTS, createConfig(null), false);
+        assertThat(second).isSameAs(first);
+
+        SharedRestClients.release(first);
+        assertThat(first.getLowLevelClient().isRunning()).isTrue();
+
+        SharedRestClients.release(second);
+        assertThat(first.getLowLevelClient().isRunning()).isFalse();
+
+        final RestHighLevelClient recreated = acquire(HOSTS, config, false);
+        assertThat(recreated).isNotSameAs(first);
+        SharedRestClients.release(recreated);
+    }
+
+    @Test
+    void testSeparateClientsForDifferentConfigurations() throws Exception {
+        final RestHighLevelClient client = acquire(HOSTS, createConfig(null), false);
+        final RestHighLevelClient otherConfig = acquire(HOSTS, createConfig("/prefix"), false);
+        final RestHighLevelClient otherHosts =
+                acquire(
+                        Collections.singletonList(new HttpHost("localhost", 9201)),
+                        createConfig(null),
+                        false);
+        final RestHighLevelClient shardRouting = acquire(HOSTS, createConfig(null), true);
+
+        assertThat(otherConfig).isNotSameAs(client);
+        assertThat(otherHosts).isNotSameAs(client);
+        assertThat(shardRouting).isNotSameAs(client);
+
+        for (RestHighLevelClient acquired :
+                new RestHighLevelClient[] {client, otherConfig, otherHosts, shardRouting}) {
+            SharedRestClients.release(acquired);
+            assertThat(acquired.getLowLevelClient().isRunning()).isFalse();
+        }
+    }
+
+    private static RestHighLevelClient acquire(
+            List<HttpHost> hosts, NetworkClientConfig config, boolean shardRouting) {
+        return SharedRestClients.acquire(
+                hosts,
+                config,
+                shardRouting,
+                () -> ElasticsearchWriter.createClient(hosts, config, shardRouting));
+    }
+
+    private static NetworkClientConfig createConfig(String pathPrefix) {
+        return new NetworkClientConfig(
+                null, null, pathPrefix, null, null, null, null, null, null, null, null, null, true);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.table;
+
+import org.apache.flink.util.StringUtils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Tests for {@link ContentHash}. */
+class ContentHashTest {
+
+    @Test
+    void testMurmurHash3() {
+        assertThat(hash("")).isEqualTo("00000000000000000000000000000000");
+        assertThat(hash("The quick brown fox jumps over the lazy dog"))
+                .isEqualTo("6c1b07bc7bbc4be347939ac4a93c437a");
+    }
+
+    @Test
+    void testIds() {
+        final Set<String> ids = new HashSet<>();
+        final StringBuilder value = new StringBuilder();
+        // covers all lengths of the tail of the hashed blocks
+        for (int i = 0; i < 40; i++) {
+            final String id = ContentHash.of(value.toString());
+            assertThat(id).hasSize(22).matches("[A-Za-z0-9_-]+");
+            assertThat(ContentHash.of(value.toString())).isEqualTo(id);
+            ids.add(id);
+            value.append((char) ('a' + i % 26));
+        }
+        assertThat(ids).hasSize(40);
+    }
+
+    private static String hash(String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return StringUtils.byteToHexString(ContentHash.hash128(bytes, 0, bytes.length));
+    }
+}
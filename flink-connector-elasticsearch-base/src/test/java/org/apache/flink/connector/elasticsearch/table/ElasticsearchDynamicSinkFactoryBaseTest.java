@@ -20,6 +20,7 @@ package org.apache.flink.connector.elasticsearch.table;
 
 import org.apache.flink.api.common.typeutils.base.VoidSerializer;
 import org.apache.flink.connector.elasticsearch.ElasticsearchUtil;
+import org.apache.flink.connector.elasticsearch.sink.ElasticsearchBulkLoadSink;
 import org.apache.flink.table.api.ValidationException;
 import org.apache.flink.table.catalog.Column;
 import org.apache.flink.table.catalog.ResolvedSchema;
@@ -144,6 +145,102 @@ abstract class ElasticsearchDynamicSinkFactoryBaseTest {
                 .hasMessage("'sink.bulk-flush.max-actions' must be at least 1. Got: -2");
     }
 
+    @Test
+    public void validateWrongMaxInFlight() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+
+        assertThatThrownBy(
+                        () ->
+                                sinkFactory.createDynamicTableSink(
+                                        createPrefilledTestContext()
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .BULK_FLUSH_MAX_IN_FLIGHT_OPTION
+                                                                .key(),
+                                                        "0")
+                                                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("'sink.bulk-flush.max-in-flight' must be at least 1. Got: 0");
+    }
+
+    @Test
+    public void validateWrongCompressionLevel() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+
+        assertThatThrownBy(
+                        () ->
+                                sinkFactory.createDynamicTableSink(
+                                        createPrefilledTestContext()
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .CONNECTION_COMPRESSION_LEVEL_OPTION
+                                                                .key(),
+                                                        "10")
+                                                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("'connection.compression-level' must be between 1 and 9. Got: 10");
+    }
+
+    @Test
+    public void validateWrongMaxPendingSize() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+
+        assertThatThrownBy(
+                        () ->
+                                sinkFactory.createDynamicTableSink(
+                                        createPrefilledTestContext()
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .MAX_PENDING_SIZE_OPTION
+                                                                .key(),
+                                                        "0")
+                                                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("'sink.max-pending-size' must be at least 1 byte. Got: 0 bytes");
+    }
+
+    @Test
+    public void validateCoalescingWithoutFlushInterval() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+
+        assertThatThrownBy(
+                        () ->
+                                sinkFactory.createDynamicTableSink(
+                                        createPrefilledTestContext()
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .BULK_FLUSH_COALESCING_OPTION
+                                                                .key(),
+                                                        "true")
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .BULK_FLUSH_INTERVAL_OPTION
+                                                                .key(),
+                                                        "0")
+                                                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage(
+                        "'sink.bulk-flush.coalescing' requires 'sink.bulk-flush.interval' to be enabled.");
+    }
+
+    @Test
+    public void validateWrongConnectionMaxPerRoute() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+
+        assertThatThrownBy(
+                        () ->
+                                sinkFactory.createDynamicTableSink(
+                                        createPrefilledTestContext()
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .CONNECTION_MAX_PER_ROUTE_OPTION
+                                                                .key(),
+                                                        "0")
+                                                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("'connection.max-per-route' must be between 1 and 2147483647. Got: 0");
+    }
+
     @Test
     public void validateWrongBackoffDelay() {
         ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
@@ -193,6 +290,102 @@ abstract class ElasticsearchDynamicSinkFactoryBaseTest {
                                 + "[ARRAY, MAP, MULTISET, ROW, RAW, VARBINARY].");
     }
 
+    @Test
+    public void validateContentHashIdsWithPrimaryKey() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+
+        ResolvedSchema resolvedSchema =
+                new ResolvedSchema(
+                        Arrays.asList(
+                                Column.physical("a", BIGINT().notNull()),
+                                Column.physical("b", STRING())),
+                        Collections.emptyList(),
+                        UniqueConstraint.primaryKey("name", Collections.singletonList("a")));
+
+        assertThatThrownBy(
+                        () ->
+                                sinkFactory.createDynamicTableSink(
+                                        createPrefilledTestContext()
+                                                .withSchema(resolvedSchema)
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .DOCUMENT_ID_STRATEGY_OPTION
+                                                                .key(),
+                                                        "content-hash")
+                                                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage(
+                        "'document-id.strategy' 'content-hash' is only supported for tables without a primary key.");
+    }
+
+    @Test
+    public void validateHashColumnsWithoutContentHashIds() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+
+        assertThatThrownBy(
+                        () ->
+                                sinkFactory.createDynamicTableSink(
+                                        createPrefilledTestContext()
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .DOCUMENT_ID_HASH_COLUMNS_OPTION
+                                                                .key(),
+                                                        "a")
+                                                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage(
+                        "'document-id.hash-columns' can only be set with 'document-id.strategy' 'content-hash'.");
+    }
+
+    @Test
+    public void validateWrongHashColumns() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+
+        ResolvedSchema resolvedSchema =
+                ResolvedSchema.of(
+                        Column.physical("a", BIGINT()),
+                        Column.physical("b", ARRAY(BIGINT().notNull())));
+
+        assertThatThrownBy(
+                        () ->
+                                sinkFactory.createDynamicTableSink(
+                                        createPrefilledTestContext()
+                                                .withSchema(resolvedSchema)
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .DOCUMENT_ID_STRATEGY_OPTION
+                                                                .key(),
+                                                        "content-hash")
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .DOCUMENT_ID_HASH_COLUMNS_OPTION
+                                                                .key(),
+                                                        "a;c")
+                                                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage(
+                        "Column 'c' of 'document-id.hash-columns' does not exist. Available columns: [a, b]");
+
+        assertThatThrownBy(
+                        () ->
+                                sinkFactory.createDynamicTableSink(
+                                        createPrefilledTestContext()
+                                                .withSchema(resolvedSchema)
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .DOCUMENT_ID_STRATEGY_OPTION
+                                                                .key(),
+                                                        "content-hash")
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .DOCUMENT_ID_HASH_COLUMNS_OPTION
+                                                                .key(),
+                                                        "a;b")
+                                                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("The document id hash columns have illegal types: [ARRAY].");
+    }
+
     @Test
     public void validateWrongCredential() {
         ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
@@ -239,6 +432,155 @@ abstract class ElasticsearchDynamicSinkFactoryBaseTest {
                         "Dynamic indexing based on system time only works on append only stream.");
     }
 
+    @Test
+    public void validateCreateWriteModeOnChangelogStream() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+        DynamicTableSink sink =
+                sinkFactory.createDynamicTableSink(
+                        createPrefilledTestContext()
+                                .withOption(
+                                        ElasticsearchConnectorOptions.WRITE_MODE_OPTION.key(),
+                                        "create")
+                                .build());
+
+        assertThat(sink.getChangelogMode(ChangelogMode.insertOnly()))
+                .isEqualTo(ChangelogMode.insertOnly());
+        ChangelogMode changelogMode =
+                ChangelogMode.newBuilder()
+                        .addContainedKind(RowKind.UPDATE_AFTER)
+                        .addContainedKind(RowKind.INSERT)
+                        .build();
+        assertThatThrownBy(() -> sink.getChangelogMode(changelogMode))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("Write mode 'CREATE' only works on append only stream.");
+    }
+
+    @Test
+    public void validateForceMergeWithoutBulkLoad() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+
+        assertThatThrownBy(
+                        () ->
+                                sinkFactory.createDynamicTableSink(
+                                        createPrefilledTestContext()
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .BULK_LOAD_FORCE_MERGE_MAX_SEGMENTS_OPTION
+                                                                .key(),
+                                                        "1")
+                                                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage(
+                        "'sink.bulk-load.force-merge.max-num-segments' can only be set if 'sink.bulk-load.enabled' is enabled.");
+    }
+
+    @Test
+    public void validateSwapAliasWithoutBulkLoad() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+
+        assertThatThrownBy(
+                        () ->
+                                sinkFactory.createDynamicTableSink(
+                                        createPrefilledTestContext()
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .BULK_LOAD_SWAP_ALIAS_OPTION
+                                                                .key(),
+                                                        "true")
+                                                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage(
+                        "'sink.bulk-load.swap-alias' can only be set if 'sink.bulk-load.enabled' is enabled.");
+    }
+
+    @Test
+    public void validateDeletePreviousIndicesWithoutSwapAlias() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+
+        assertThatThrownBy(
+                        () ->
+                                sinkFactory.createDynamicTableSink(
+                                        createPrefilledTestContext()
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .BULK_LOAD_ENABLED_OPTION
+                                                                .key(),
+                                                        "true")
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .BULK_LOAD_DELETE_PREVIOUS_INDICES_OPTION
+                                                                .key(),
+                                                        "true")
+                                                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage(
+                        "'sink.bulk-load.delete-previous-indices' can only be set if 'sink.bulk-load.swap-alias' is enabled.");
+    }
+
+    @Test
+    public void validateBulkLoadOnDynamicIndex() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+
+        assertThatThrownBy(
+                        () ->
+                                sinkFactory.createDynamicTableSink(
+                                        createPrefilledTestContext()
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions
+                                                                .BULK_LOAD_ENABLED_OPTION
+                                                                .key(),
+                                                        "true")
+                                                .withOption(
+                                                        ElasticsearchConnectorOptions.INDEX_OPTION
+                                                                .key(),
+                                                        "index-{now()|yyyy-MM-dd}")
+                                                .build()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage(
+                        "'sink.bulk-load.enabled' is not supported for dynamic indices. Got: index-{now()|yyyy-MM-dd}");
+    }
+
+    @Test
+    public void validateBulkLoadOnUnboundedInput() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+        DynamicTableSink sink =
+                sinkFactory.createDynamicTableSink(
+                        createPrefilledTestContext()
+                                .withOption(
+                                        ElasticsearchConnectorOptions.BULK_LOAD_ENABLED_OPTION
+                                                .key(),
+                                        "true")
+                                .build());
+
+        assertThatThrownBy(() -> sink.getSinkRuntimeProvider(new ElasticsearchUtil.MockContext()))
+                .isInstanceOf(ValidationException.class)
+                .hasMessage("'sink.bulk-load.enabled' is only supported for bounded inputs.");
+    }
+
+    @Test
+    public void testBulkLoadSink() {
+        ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
+        DynamicTableSink sink =
+                sinkFactory.createDynamicTableSink(
+                        createPrefilledTestContext()
+                                .withOption(
+                                        ElasticsearchConnectorOptions.BULK_LOAD_ENABLED_OPTION
+                                                .key(),
+                                        "true")
+                                .build());
+
+        SinkV2Provider provider =
+                (SinkV2Provider)
+                        sink.getSinkRuntimeProvider(
+                                new ElasticsearchUtil.MockContext() {
+                                    @Override
+                                    public boolean isBounded() {
+                                        return true;
+                                    }
+                                });
+        assertThat(provider.createSink()).isInstanceOf(ElasticsearchBulkLoadSink.class);
+    }
+
     @Test
     public void testSinkParallelism() {
         ElasticsearchDynamicSinkFactoryBase sinkFactory = createSinkFactory();
@@ -66,6 +66,34 @@ public class KeyExtractorTest {
         assertThat(key).isNull();
     }
 
+    @Test
+    public void testContentHashKey() {
+        List<LogicalTypeWithIndex> logicalTypesWithIndex =
+                Stream.of(
+                                new LogicalTypeWithIndex(0, DataTypes.BIGINT().getLogicalType()),
+                                new LogicalTypeWithIndex(1, DataTypes.STRING().getLogicalType()))
+                        .collect(Collectors.toList());
+
+        Function<RowData, String> keyExtractor =
+                KeyExtractor.createContentHashKeyExtractor(logicalTypesWithIndex);
+
+        String key = keyExtractor.apply(GenericRowData.of(12L, StringData.fromString("ABCD")));
+        assertThat(key)
+                .hasSize(22)
+                .matches("[A-Za-z0-9_-]+")
+                .isEqualTo(
+                        keyExtractor.apply(GenericRowData.of(12L, StringData.fromString("ABCD"))))
+                .isNotEqualTo(
+                        keyExtractor.apply(GenericRowData.of(12L, StringData.fromString("ABCE"))));
+        // values are not ambiguous if they are null or contain the characters of the encoding
+        assertThat(keyExtractor.apply(GenericRowData.of(null, StringData.fromString("-"))))
+                .isNotEqualTo(keyExtractor.apply(GenericRowData.of(null, null)))
+                .isNotEqualTo(keyExtractor.apply(GenericRowData.of(1L, null)));
+        assertThat(keyExtractor.apply(GenericRowData.of(1L, StringData.fromString("1:2"))))
+                .isNotEqualTo(
+                        keyExtractor.apply(GenericRowData.of(11L, StringData.fromString("2"))));
+    }
+
     @Test
     public void testTwoFieldsKey() {
         List<LogicalTypeWithIndex> logicalTypesWithIndex =
@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.table;
+
+import org.apache.flink.connector.elasticsearch.sink.RequestIndexer;
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.types.RowKind;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Tests for {@link RowElasticsearchEmitter}. */
+class RowElasticsearchEmitterTest {
+
+    private static final List<String> FIELD_NAMES = Arrays.asList("a", "b");
+    private static final List<DataType> FIELD_DATA_TYPES =
+            Arrays.asList(DataTypes.BIGINT(), DataTypes.STRING());
+
+    @Test
+    void testContentHashIds() {
+        final RowElasticsearchEmitter emitter =
+                createEmitter(KeyExtractor.createKeyExtractor(Collections.emptyList(), "_"));
+        final CollectingRequestIndexer indexer = new CollectingRequestIndexer();
+
+        emitter.emit(row(RowKind.INSERT, 1L, "a"), null, indexer);
+        emitter.emit(row(RowKind.INSERT, 1L, "a"), null, indexer);
+        emitter.emit(row(RowKind.INSERT, 2L, "a"), null, indexer);
+        emitter.emit(row(RowKind.DELETE, 1L, "a"), null, indexer);
+
+        assertThat(indexer.requests)
+                .hasExactlyElementsOfTypes(
+                        IndexRequest.class,
+                        IndexRequest.class,
+                        IndexRequest.class,
+                        DeleteRequest.class);
+        final String id = indexer.requests.get(0).id();
+        assertThat(id).hasSize(22);
+        // replayed rows and their retractions address the same document
+        assertThat(indexer.requests.get(1).id()).isEqualTo(id);
+        assertThat(indexer.requests.get(2).id()).isNotEqualTo(id);
+        assertThat(indexer.requests.get(3).id()).isEqualTo(id);
+    }
+
+    @Test
+    void testContentHashIdsFromColumns() {
+        final RowElasticsearchEmitter emitter =
+                createEmitter(
+                        KeyExtractor.createContentHashKeyExtractor(
+                                Collections.singletonList(
+                                        new LogicalTypeWithIndex(
+                                                0, DataTypes.BIGINT().getLogicalType()))));
+        final CollectingRequestIndexer indexer = new CollectingRequestIndexer();
+
+        emitter.emit(row(RowKind.INSERT, 1L, "a"), null, indexer);
+        emitter.emit(row(RowKind.INSERT, 1L, "b"), null, indexer);
+
+        assertThat(indexer.requests)
+                .hasExactlyElementsOfTypes(IndexRequest.class, IndexRequest.class);
+        assertThat(indexer.requests.get(0).id())
+                .hasSize(22)
+                .isEqualTo(indexer.requests.get(1).id());
+    }
+
+    private static RowElasticsearchEmitter createEmitter(Function<RowData, String> keyExtractor) {
+        final RowElasticsearchEmitter emitter =
+                new RowElasticsearchEmitter(
+                        IndexGeneratorFactory.createIndexGenerator(
+                                "my-index", FIELD_NAMES, FIELD_DATA_TYPES, ZoneId.of("UTC")),
+                        row ->
+                                String.format(
+                                                "{\"a\":%d,\"b\":\"%s\"}",
+                                                row.getLong(0), row.getString(1))
+                                        .getBytes(StandardCharsets.UTF_8),
+                        XContentType.JSON,
+                        null,
+                        keyExtractor,
+                        WriteMode.UPSERT,
+                        false,
+                        true);
+        emitter.open();
+        return emitter;
+    }
+
+    private static RowData row(RowKind kind, long a, String b) {
+        return GenericRowData.ofKind(kind, a, StringData.fromString(b));
+    }
+
+    private static class CollectingRequestIndexer implements RequestIndexer {
+        private final List<DocWriteRequest<?>> requests = new ArrayList<>();
+
+        @Override
+        public void add(DeleteRequest... deleteRequests) {
+            requests.addAll(Arrays.asList(deleteRequests));
+        }
+
+        @Override
+        public void add(IndexRequest... indexRequests) {
+            requests.addAll(Arrays.asList(indexRequests));
+        }
+
+        @Override
+        public void add(UpdateRequest... updateRequests) {
+            requests.addAll(Arrays.asList(updateRequests));
+        }
+    }
+}
@@ -0,0 +1,1098 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentType;
+
+import javax.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.apache.flink.util.Preconditions.checkArgument;
+import static org.apache.flink.util.Preconditions.checkNotNull;
+import static org.apache.flink.util.Preconditions.checkState;
+
+/**
+ * An in-process HTTP server which speaks enough of the Elasticsearch REST API to stand in for a
+ * cluster in tests which can not run a Docker container.
+ *
+ * <p>The server answers the root info request (also as {@code HEAD} for pings), the cluster health
+ * request and bulk requests on {@code /_bulk}, {@code /{index}/_bulk} and {@code
+ * /{index}/{type}/_bulk}, also with gzip compressed bodies. Bulk requests are answered with one
+ * item per action in the response format of Elasticsearch, so the responses can be parsed by the
+ * 6.x and 7.x clients. If the server reports a 6.x version, bulk requests with actions without a
+ * type are rejected as a whole like in Elasticsearch 6.
+ *
+ * <p>Faults are scripted through the {@link Builder}: a latency per bulk request and per action,
+ * the rate of bulk requests which are rejected as a whole with status 429 or fail with status 503,
+ * and the rate of actions which are rejected with status 429 or fail with status 400. For full
+ * control an {@link ItemResponder} decides the status of every action. All random decisions are
+ * taken from a seeded {@link Random}, so a test run is reproducible for the same sequence of
+ * requests.
+ *
+ * <p>If documents are stored, successful index, create, update and delete actions are applied to an
+ * in-memory store which can be inspected with {@link #getDocument(String, String)}. Create actions
+ * for existing documents then fail with a version conflict like in Elasticsearch.
+ *
+ * <p>Indices which are created with {@link #createIndex(String, Map)} additionally support the flat
+ * settings API on {@code /{indices}/_settings}, the {@code _meta} field of the mapping API on
+ * {@code /{indices}/_mapping}, which requires a single type on 6.x versions, as well as {@code
+ * /{indices}/_refresh} and {@code /{indices}/_forcemerge}, whose calls are counted per index.
+ * Indices can also be created, checked and deleted on {@code /{index}}, and pointed to by aliases
+ * through {@code /_alias/{alias}} and the atomic {@code /_aliases} API. These APIs resolve aliases
+ * and trailing wildcards in the index names, and actions written to an alias which points to a
+ * single index are applied to this index.
+ */
+public class MockElasticsearchServer implements AutoCloseable {
+
+    /** Decides the status of a single action of a bulk request. */
+    @FunctionalInterface
+    public interface ItemResponder {
+
+        /**
+         * Returns the HTTP status of the action, or {@code 0} to apply the scripted rates.
+         *
+         * @param opType the type of the action, i.e. index, create, update or delete
+         * @param index the index of the action
+         * @param id the id of the action, if it is not generated
+         */
+        int getStatus(String opType, String index, @Nullable String id);
+    }
+
+    private static final String CONTENT_TYPE = "application/json; charset=UTF-8";
+    private static final String DEFAULT_TYPE = "_doc";
+
+    private final String version;
+    private final long requestLatencyNanos;
+    private final long itemLatencyNanos;
+    private final double requestRejectionRate;
+    private final double requestErrorRate;
+    private final double itemRejectionRate;
+    private final double itemFailureRate;
+    @Nullable private final ItemResponder itemResponder;
+    private final boolean storeDocuments;
+    private final Random random;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final Map<String, Map<String, String>> documents = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> indexSettings = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Object>> indexMeta = new ConcurrentHashMap<>();
+    private final Map<String, String> indexTypes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> refreshes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> forceMerges = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> aliases = new HashMap<>();
+    private final AtomicLong bulkRequests = new AtomicLong();
+    private final AtomicLong rejectedBulkRequests = new AtomicLong();
+    private final AtomicLong receivedActions = new AtomicLong();
+    private final AtomicLong acknowledgedActions = new AtomicLong();
+    private final AtomicLong failedActions = new AtomicLong();
+    private final AtomicLong generatedIds = new AtomicLong();
+    private final AtomicLong sequenceNumbers = new AtomicLong();
+    private final List<Long> bulkLatenciesNanos = Collections.synchronizedList(new ArrayList<>());
+
+    private MockElasticsearchServer(Builder builder) throws IOException {
+        this.version = builder.version;
+        this.requestLatencyNanos = builder.requestLatency.toNanos();
+        this.itemLatencyNanos = builder.itemLatency.toNanos();
+        this.requestRejectionRate = builder.requestRejectionRate;
+        this.requestErrorRate = builder.requestErrorRate;
+        this.itemRejectionRate = builder.itemRejectionRate;
+        this.itemFailureRate = builder.itemFailureRate;
+        this.itemResponder = builder.itemResponder;
+        this.storeDocuments = builder.storeDocuments;
+        this.random = new Random(builder.seed);
+
+        this.server =
+                HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.executor = Executors.newFixedThreadPool(builder.threads);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Returns the address of the server in the format {@code http://host:port}. */
+    public String getHttpHostAddress() {
+        final InetSocketAddress address = server.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    /** Returns the number of received bulk requests, including the rejected ones. */
+    public long getBulkRequestCount() {
+        return bulkRequests.get();
+    }
+
+    /** Returns the number of bulk requests which were rejected or failed as a whole. */
+    public long getRejectedBulkRequestCount() {
+        return rejectedBulkRequests.get();
+    }
+
+    /** Returns the number of actions of all bulk requests which were not rejected as a whole. */
+    public long getReceivedActionCount() {
+        return receivedActions.get();
+    }
+
+    /** Returns the number of actions which were answered with a successful status. */
+    public long getAcknowledgedActionCount() {
+        return acknowledgedActions.get();
+    }
+
+    /** Returns the number of actions which were answered with a failure. */
+    public long getFailedActionCount() {
+        return failedActions.get();
+    }
+
+    /**
+     * Returns the given percentile of the time it took to answer the bulk requests, including the
+     * scripted latency, or {@code 0} if no bulk request was received.
+     */
+    public Duration getBulkLatencyPercentile(double percentile) {
+        checkArgument(percentile > 0 && percentile <= 100, "Percentile must be in (0, 100].");
+        final long[] latencies;
+        synchronized (bulkLatenciesNanos) {
+            latencies = bulkLatenciesNanos.stream().mapToLong(Long::longValue).toArray();
+        }
+        if (latencies.length == 0) {
+            return Duration.ZERO;
+        }
+        Arrays.sort(latencies);
+        final int rank = (int) Math.ceil(percentile / 100 * latencies.length);
+        return Duration.ofNanos(latencies[Math.max(rank, 1) - 1]);
+    }
+
+    /** Returns the source of a stored document or {@code null} if it does not exist. */
+    @Nullable
+    public String getDocument(String index, String id) {
+        checkState(storeDocuments, "Documents are not stored.");
+        final Map<String, String> indexDocuments = documents.get(index);
+        return indexDocuments == null ? null : indexDocuments.get(id);
+    }
+
+    /** Returns the number of stored documents of an index. */
+    public int getDocumentCount(String index) {
+        checkState(storeDocuments, "Documents are not stored.");
+        final Map<String, String> indexDocuments = documents.get(index);
+        return indexDocuments == null ? 0 : indexDocuments.size();
+    }
+
+    /** Creates an index with the given flat settings for the index APIs of the server. */
+    public void createIndex(String index, Map<String, String> settings) {
+        indexSettings.put(index, new ConcurrentHashMap<>(settings));
+        indexMeta.put(index, new ConcurrentHashMap<>());
+        indexTypes.remove(index);
+        refreshes.put(index, new AtomicLong());
+        forceMerges.put(index, new AtomicLong());
+    }
+
+    /** Returns whether an index was created and not deleted. */
+    public boolean hasIndex(String index) {
+        return indexSettings.containsKey(index);
+    }
+
+    /** Adds an alias to an index created with {@link #createIndex}. */
+    public void addAlias(String alias, String index) {
+        checkArgument(hasIndex(index), "Unknown index " + index);
+        synchronized (aliases) {
+            aliases.computeIfAbsent(alias, name -> new HashSet<>()).add(index);
+        }
+    }
+
+    /** Returns the indices an alias points to. */
+    public Set<String> getAliasIndices(String alias) {
+        synchronized (aliases) {
+            return new HashSet<>(aliases.getOrDefault(alias, Collections.emptySet()));
+        }
+    }
+
+    /** Returns the current flat settings of an index created with {@link #createIndex}. */
+    public Map<String, String> getIndexSettings(String index) {
+        return new HashMap<>(checkNotNull(indexSettings.get(index), "Unknown index " + index));
+    }
+
+    /**
+     * Returns the {@code _meta} field of the mapping of an index created with {@link #createIndex}.
+     */
+    public Map<String, Object> getIndexMeta(String index) {
+        return new HashMap<>(checkNotNull(indexMeta.get(index), "Unknown index " + index));
+    }
+
+    /** Returns the number of refreshes of an index created with {@link #createIndex}. */
+    public long getRefreshCount(String index) {
+        return checkNotNull(refreshes.get(index), "Unknown index " + index).get();
+    }
+
+    /** Returns the number of force merges of an index created with {@link #createIndex}. */
+    public long getForceMergeCount(String index) {
+        return checkNotNull(forceMerges.get(index), "Unknown index " + index).get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // ------------------------------------------------------------------------
+    //  Request handling
+    // ------------------------------------------------------------------------
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            final String method = exchange.getRequestMethod();
+            final String path = exchange.getRequestURI().getPath();
+            final String[] segments = path.replaceAll("^/+|/+$", "").split("/+");
+            if (path.equals("/") && (method.equals("GET") || method.equals("HEAD"))) {
+                sendResponse(exchange, 200, method.equals("HEAD") ? null : rootInfo());
+            } else if (path.equals("/_cluster/health") && method.equals("GET")) {
+                sendResponse(exchange, 200, clusterHealth());
+            } else if (segments[segments.length - 1].equals("_bulk")
+                    && segments.length <= 3
+                    && (method.equals("POST") || method.equals("PUT"))) {
+                handleBulk(
+                        exchange,
+                        segments.length > 1 ? segments[0] : null,
+                        segments.length > 2 ? segments[1] : null);
+            } else if (segments.length == 2
+                    && segments[0].equals("_alias")
+                    && method.equals("GET")) {
+                handleGetAlias(exchange, segments[1]);
+            } else if (path.equals("/_aliases") && method.equals("POST")) {
+                handleUpdateAliases(exchange);
+            } else if (segments.length == 1 && !segments[0].startsWith("_")) {
+                handleIndex(exchange, method, segments[0]);
+            } else if (segments.length >= 2 && segments[1].equals("_settings")) {
+                handleSettings(exchange, method, segments);
+            } else if (segments.length >= 2
+                    && segments.length <= 3
+                    && segments[1].equals("_mapping")) {
+                handleMapping(exchange, method, segments);
+            } else if (segments.length == 2
+                    && (segments[1].equals("_refresh") || segments[1].equals("_forcemerge"))
+                    && method.equals("POST")) {
+                handleIndexOperation(
+                        exchange,
+                        segments[0],
+                        segments[1].equals("_refresh") ? refreshes : forceMerges);
+            } else {
+                sendResponse(
+                        exchange,
+                        404,
+                        error(
+                                404,
+                                "resource_not_found_exception",
+                                "No handler for " + method + " " + path));
+            }
+        } catch (Exception e) {
+            sendResponse(exchange, 500, error(500, "exception", String.valueOf(e.getMessage())));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleBulk(
+            HttpExchange exchange, @Nullable String defaultIndex, @Nullable String defaultType)
+            throws IOException, InterruptedException {
+        final long start = System.nanoTime();
+        bulkRequests.incrementAndGet();
+        final List<String> lines = readLines(exchange);
+        if (version.startsWith("6.") && defaultType == null && hasActionWithoutType(lines)) {
+            rejectedBulkRequests.incrementAndGet();
+            sendResponse(
+                    exchange,
+                    400,
+                    error(
+                            400,
+                            "action_request_validation_exception",
+                            "Validation Failed: 1: type is missing;"));
+            return;
+        }
+
+        final double requestFault = nextRandom();
+        if (requestFault < requestRejectionRate) {
+            rejectedBulkRequests.incrementAndGet();
+            sleep(requestLatencyNanos);
+            sendResponse(
+                    exchange,
+                    429,
+                    error(429, "es_rejected_execution_exception", "rejected bulk request"));
+            return;
+        }
+        if (requestFault < requestRejectionRate + requestErrorRate) {
+            rejectedBulkRequests.incrementAndGet();
+            sleep(requestLatencyNanos);
+            sendResponse(
+                    exchange,
+                    503,
+                    error(503, "unavailable_shards_exception", "primary shard is not active"));
+            return;
+        }
+
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int numActions = 0;
+        boolean errors = false;
+        try (XContentBuilder builder = XContentFactory.jsonBuilder(body)) {
+            builder.startObject();
+            builder.field("took", 1);
+            builder.startArray("items");
+            for (int i = 0; i < lines.size(); i++) {
+                final Map<String, Object> actionLine = parse(lines.get(i));
+                if (actionLine.size() != 1) {
+                    throw new IllegalArgumentException("Malformed action line: " + lines.get(i));
+                }
+                final String opType = actionLine.keySet().iterator().next();
+                @SuppressWarnings("unchecked")
+                final Map<String, Object> metadata = (Map<String, Object>) actionLine.get(opType);
+                final String source;
+                if (opType.equals("delete")) {
+                    source = null;
+                } else if (i + 1 < lines.size()) {
+                    source = lines.get(++i);
+                } else {
+                    throw new IllegalArgumentException("Missing source of " + opType + " action.");
+                }
+                final String name = getMetadata(metadata, "_index", defaultIndex);
+                if (name == null) {
+                    throw new IllegalArgumentException("Missing index of " + opType + " action.");
+                }
+                final Set<String> aliasIndices = getAliasIndices(name);
+                final String index =
+                        aliasIndices.size() == 1 ? aliasIndices.iterator().next() : name;
+                final String type = getMetadata(metadata, "_type", DEFAULT_TYPE);
+                final String id = getMetadata(metadata, "_id", null);
+                errors |= !respond(builder, opType, index, type, id, source);
+                numActions++;
+            }
+            builder.endArray();
+            builder.field("errors", errors);
+            builder.endObject();
+        }
+        receivedActions.addAndGet(numActions);
+
+        sleep(requestLatencyNanos + itemLatencyNanos * numActions);
+        // recorded before the response, so the latency is visible once the client has received it
+        bulkLatenciesNanos.add(System.nanoTime() - start);
+        sendResponse(exchange, 200, body.toByteArray());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean hasActionWithoutType(List<String> lines) {
+        for (int i = 0; i < lines.size(); i++) {
+            final Map<String, Object> actionLine = parse(lines.get(i));
+            final String opType = actionLine.keySet().iterator().next();
+            if (!((Map<String, Object>) actionLine.get(opType)).containsKey("_type")) {
+                return true;
+            }
+            if (!opType.equals("delete")) {
+                i++;
+            }
+        }
+        return false;
+    }
+
+    /** Writes the response item of an action and returns whether it was successful. */
+    private boolean respond(
+            XContentBuilder builder,
+            String opType,
+            String index,
+            String type,
+            @Nullable String id,
+            @Nullable String source)
+            throws IOException {
+        int status = itemResponder != null ? itemResponder.getStatus(opType, index, id) : 0;
+        if (status == 0) {
+            final double itemFault = nextRandom();
+            if (itemFault < itemRejectionRate) {
+                status = 429;
+            } else if (itemFault < itemRejectionRate + itemFailureRate) {
+                status = 400;
+            }
+        }
+        final String documentId = id != null ? id : "generated-" + generatedIds.incrementAndGet();
+        String result = null;
+        if (status == 0 || status < 300) {
+            result = apply(opType, index, documentId, source);
+            if (status == 0) {
+                status = statusOf(result);
+            }
+        }
+
+        builder.startObject();
+        builder.startObject(opType);
+        builder.field("_index", index);
+        builder.field("_type", type);
+        builder.field("_id", documentId);
+        builder.field("status", status);
+        if (status < 300 || (opType.equals("delete") && status == 404)) {
+            builder.field("_version", 1);
+            builder.field("result", result != null ? result : "created");
+            builder.startObject("_shards");
+            builder.field("total", 1);
+            builder.field("successful", 1);
+            builder.field("failed", 0);
+            builder.endObject();
+            builder.field("_seq_no", sequenceNumbers.getAndIncrement());
+            builder.field("_primary_term", 1);
+            builder.endObject();
+            builder.endObject();
+            acknowledgedActions.incrementAndGet();
+            return true;
+        }
+        builder.startObject("error");
+        builder.field("type", errorType(status));
+        builder.field("reason", "scripted failure with status " + status);
+        builder.endObject();
+        builder.endObject();
+        builder.endObject();
+        failedActions.incrementAndGet();
+        return false;
+    }
+
+    private void handleSettings(HttpExchange exchange, String method, String[] segments)
+            throws IOException {
+        final List<String> indices = resolveIndices(exchange, segments[0]);
+        if (indices == null) {
+            return;
+        }
+        if (method.equals("GET")) {
+            final List<String> names =
+                    segments.length > 2 ? Arrays.asList(segments[2].split(",")) : null;
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (XContentBuilder builder = XContentFactory.jsonBuilder(body)) {
+                builder.startObject();
+                for (String index : indices) {
+                    builder.startObject(index).startObject("settings");
+                    for (Map.Entry<String, String> setting : indexSettings.get(index).entrySet()) {
+                        if (names == null || names.contains(setting.getKey())) {
+                            builder.field(setting.getKey(), setting.getValue());
+                        }
+                    }
+                    builder.endObject().endObject();
+                }
+                builder.endObject();
+            }
+            sendResponse(exchange, 200, body.toByteArray());
+        } else if (method.equals("PUT") && segments.length == 2) {
+            final Map<String, Object> update = parse(String.join("", readLines(exchange)));
+            for (String index : indices) {
+                final Map<String, String> settings = indexSettings.get(index);
+                for (Map.Entry<String, Object> setting : update.entrySet()) {
+                    if (setting.getValue() == null) {
+                        settings.remove(setting.getKey());
+                    } else {
+                        settings.put(setting.getKey(), setting.getValue().toString());
+                    }
+                }
+            }
+            sendResponse(exchange, 200, acknowledged());
+        } else {
+            sendResponse(
+                    exchange,
+                    405,
+                    error(405, "method_not_allowed", "Unsupported settings method " + method));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handleMapping(HttpExchange exchange, String method, String[] segments)
+            throws IOException {
+        final List<String> indices = resolveIndices(exchange, segments[0]);
+        if (indices == null) {
+            return;
+        }
+        final boolean typed = version.startsWith("6.");
+        if (method.equals("GET") && segments.length == 2) {
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (XContentBuilder builder = XContentFactory.jsonBuilder(body)) {
+                builder.startObject();
+                for (String index : indices) {
+                    builder.startObject(index).startObject("mappings");
+                    final String type = indexTypes.get(index);
+                    if (!typed || type != null) {
+                        if (typed) {
+                            builder.startObject(type);
+                        }
+                        final Map<String, Object> meta = indexMeta.get(index);
+                        if (!meta.isEmpty()) {
+                            builder.field("_meta", meta);
+                        }
+                        if (typed) {
+                            builder.endObject();
+                        }
+                    }
+                    builder.endObject().endObject();
+                }
+                builder.endObject();
+            }
+            sendResponse(exchange, 200, body.toByteArray());
+        } else if (method.equals("PUT")) {
+            final String type = segments.length > 2 ? segments[2] : null;
+            if (typed && type == null) {
+                sendResponse(
+                        exchange,
+                        400,
+                        error(
+                                400,
+                                "action_request_validation_exception",
+                                "Validation Failed: 1: mapping type is missing;"));
+                return;
+            }
+            for (String index : indices) {
+                final String existingType = indexTypes.get(index);
+                if (typed && existingType != null && !existingType.equals(type)) {
+                    sendResponse(
+                            exchange,
+                            400,
+                            error(
+                                    400,
+                                    "illegal_argument_exception",
+                                    "Rejecting mapping update to ["
+                                            + index
+                                            + "] as the final mapping would have more than 1 "
+                                            + "type: ["
+                                            + existingType
+                                            + ", "
+                                            + type
+                                            + "]"));
+                    return;
+                }
+            }
+            final Map<String, Object> update = parse(String.join("", readLines(exchange)));
+            for (String index : indices) {
+                if (typed) {
+                    indexTypes.put(index, type);
+                }
+                if (update.containsKey("_meta")) {
+                    final Map<String, Object> meta = indexMeta.get(index);
+                    meta.clear();
+                    meta.putAll((Map<String, Object>) update.get("_meta"));
+                }
+            }
+            sendResponse(exchange, 200, acknowledged());
+        } else {
+            sendResponse(
+                    exchange,
+                    405,
+                    error(405, "method_not_allowed", "Unsupported mapping method " + method));
+        }
+    }
+
+    private void handleIndexOperation(
+            HttpExchange exchange, String indexNames, Map<String, AtomicLong> counters)
+            throws IOException {
+        final List<String> indices = resolveIndices(exchange, indexNames);
+        if (indices == null) {
+            return;
+        }
+        for (String index : indices) {
+            counters.get(index).incrementAndGet();
+        }
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (XContentBuilder builder = XContentFactory.jsonBuilder(body)) {
+            builder.startObject().startObject("_shards");
+            builder.field("total", indices.size());
+            builder.field("successful", indices.size());
+            builder.field("failed", 0);
+            builder.endObject().endObject();
+        }
+        sendResponse(exchange, 200, body.toByteArray());
+    }
+
+    private void handleIndex(HttpExchange exchange, String method, String indexNames)
+            throws IOException {
+        if (method.equals("HEAD")) {
+            final boolean exists;
+            synchronized (aliases) {
+                exists = hasIndex(indexNames) || aliases.containsKey(indexNames);
+            }
+            sendResponse(exchange, exists ? 200 : 404, null);
+        } else if (method.equals("PUT")) {
+            synchronized (aliases) {
+                if (hasIndex(indexNames) || aliases.containsKey(indexNames)) {
+                    sendResponse(
+                            exchange,
+                            400,
+                            error(
+                                    400,
+                                    "resource_already_exists_exception",
+                                    "index [" + indexNames + "] already exists"));
+                    return;
+                }
+                createIndex(indexNames, Collections.emptyMap());
+            }
+            sendResponse(exchange, 200, acknowledged());
+        } else if (method.equals("DELETE")) {
+            final List<String> indices = resolveIndices(exchange, indexNames);
+            if (indices == null) {
+                return;
+            }
+            synchronized (aliases) {
+                for (String index : indices) {
+                    indexSettings.remove(index);
+                    indexMeta.remove(index);
+                    indexTypes.remove(index);
+                    refreshes.remove(index);
+                    forceMerges.remove(index);
+                    documents.remove(index);
+                    aliases.values().forEach(aliasIndices -> aliasIndices.remove(index));
+                }
+                aliases.values().removeIf(Set::isEmpty);
+            }
+            sendResponse(exchange, 200, acknowledged());
+        } else {
+            sendResponse(
+                    exchange,
+                    405,
+                    error(405, "method_not_allowed", "Unsupported index method " + method));
+        }
+    }
+
+    private void handleGetAlias(HttpExchange exchange, String alias) throws IOException {
+        final Set<String> indices = getAliasIndices(alias);
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (XContentBuilder builder = XContentFactory.jsonBuilder(body)) {
+            builder.startObject();
+            if (indices.isEmpty()) {
+                builder.field("error", "alias [" + alias + "] missing");
+                builder.field("status", 404);
+            }
+            for (String index : indices) {
+                builder.startObject(index).startObject("aliases");
+                builder.startObject(alias).endObject();
+                builder.endObject().endObject();
+            }
+            builder.endObject();
+        }
+        sendResponse(exchange, indices.isEmpty() ? 404 : 200, body.toByteArray());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handleUpdateAliases(HttpExchange exchange) throws IOException {
+        final List<Map<String, Map<String, String>>> actions =
+                (List<Map<String, Map<String, String>>>)
+                        parse(String.join("", readLines(exchange))).get("actions");
+        synchronized (aliases) {
+            // all actions are validated first, so they are applied atomically
+            for (Map<String, Map<String, String>> action : actions) {
+                final String type = action.keySet().iterator().next();
+                final String index = action.get(type).get("index");
+                final String alias = action.get(type).get("alias");
+                if (!hasIndex(index)) {
+                    sendResponse(
+                            exchange,
+                            404,
+                            error(
+                                    404,
+                                    "index_not_found_exception",
+                                    "no such index [" + index + "]"));
+                    return;
+                }
+                if (hasIndex(alias)) {
+                    sendResponse(
+                            exchange,
+                            400,
+                            error(
+                                    400,
+                                    "invalid_alias_name_exception",
+                                    "an index exists with the same name as the alias"));
+                    return;
+                }
+                if (type.equals("remove")
+                        && !aliases.getOrDefault(alias, Collections.emptySet()).contains(index)) {
+                    sendResponse(
+                            exchange,
+                            404,
+                            error(
+                                    404,
+                                    "aliases_not_found_exception",
+                                    "aliases [" + alias + "] missing"));
+                    return;
+                }
+            }
+            for (Map<String, Map<String, String>> action : actions) {
+                final String type = action.keySet().iterator().next();
+                final String index = action.get(type).get("index");
+                final String alias = action.get(type).get("alias");
+                if (type.equals("add")) {
+                    aliases.computeIfAbsent(alias, name -> new HashSet<>()).add(index);
+                } else {
+                    aliases.get(alias).remove(index);
+                }
+            }
+            aliases.values().removeIf(Set::isEmpty);
+        }
+        sendResponse(exchange, 200, acknowledged());
+    }
+
+    /**
+     * Returns the created indices of a comma separated list of names, aliases and patterns with a
+     * trailing wildcard, or sends a 404 response and returns null if an index does not exist and
+     * unavailable indices are not ignored.
+     */
+    @Nullable
+    private List<String> resolveIndices(HttpExchange exchange, String indexNames)
+            throws IOException {
+        final String query = exchange.getRequestURI().getQuery();
+        final boolean ignoreUnavailable =
+                query != null && query.contains("ignore_unavailable=true");
+        final List<String> indices = new ArrayList<>();
+        for (String index : indexNames.split(",")) {
+            final Set<String> aliasIndices = getAliasIndices(index);
+            if (index.endsWith("*")) {
+                final String prefix = index.substring(0, index.length() - 1);
+                indexSettings.keySet().stream()
+                        .filter(name -> name.startsWith(prefix))
+                        .sorted()
+                        .forEach(indices::add);
+            } else if (!aliasIndices.isEmpty()) {
+                aliasIndices.stream().sorted().forEach(indices::add);
+            } else if (indexSettings.containsKey(index)) {
+                indices.add(index);
+            } else if (!ignoreUnavailable) {
+                sendResponse(
+                        exchange,
+                        404,
+                        error(404, "index_not_found_exception", "no such index [" + index + "]"));
+                return null;
+            }
+        }
+        return indices;
+    }
+
+    /** Applies a successful action to the store and returns the result of Elasticsearch. */
+    private String apply(String opType, String index, String id, @Nullable String source) {
+        if (!storeDocuments) {
+            return opType.equals("delete") ? "deleted" : "created";
+        }
+        final Map<String, String> indexDocuments =
+                documents.computeIfAbsent(index, ignored -> new ConcurrentHashMap<>());
+        switch (opType) {
+            case "delete":
+                return indexDocuments.remove(id) != null ? "deleted" : "not_found";
+            case "create":
+                return indexDocuments.putIfAbsent(id, source) == null ? "created" : "conflict";
+            case "index":
+            case "update":
+                return indexDocuments.put(id, source) == null ? "created" : "updated";
+            default:
+                throw new IllegalArgumentException("Unknown action " + opType);
+        }
+    }
+
+    private static int statusOf(String result) {
+        switch (result) {
+            case "created":
+                return 201;
+            case "not_found":
+                return 404;
+            case "conflict":
+                return 409;
+            default:
+                return 200;
+        }
+    }
+
+    private static String errorType(int status) {
+        switch (status) {
+            case 404:
+                return "document_missing_exception";
+            case 409:
+                return "version_conflict_engine_exception";
+            case 429:
+                return "es_rejected_execution_exception";
+            case 400:
+                return "mapper_parsing_exception";
+            default:
+                return "exception";
+        }
+    }
+
+    private double nextRandom() {
+        synchronized (random) {
+            return random.nextDouble();
+        }
+    }
+
+    private byte[] rootInfo() throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (XContentBuilder builder = XContentFactory.jsonBuilder(body)) {
+            builder.startObject();
+            builder.field("name", "mock-node");
+            builder.field("cluster_name", "mock-cluster");
+            builder.field("cluster_uuid", "_na_");
+            builder.startObject("version");
+            builder.field("number", version);
+            builder.field("build_flavor", "default");
+            builder.field("build_type", "docker");
+            builder.field("build_hash", "unknown");
+            builder.field("build_date", "2021-01-13T00:42:12.435326Z");
+            builder.field("build_snapshot", false);
+            builder.field("lucene_version", "8.7.0");
+            builder.field("minimum_wire_compatibility_version", "6.8.0");
+            builder.field("minimum_index_compatibility_version", "6.0.0-beta1");
+            builder.endObject();
+            builder.field("tagline", "You Know, for Search");
+            builder.endObject();
+        }
+        return body.toByteArray();
+    }
+
+    private static byte[] clusterHealth() throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (XContentBuilder builder = XContentFactory.jsonBuilder(body)) {
+            builder.startObject();
+            builder.field("cluster_name", "mock-cluster");
+            builder.field("status", "green");
+            builder.field("timed_out", false);
+            builder.field("number_of_nodes", 1);
+            builder.field("number_of_data_nodes", 1);
+            builder.field("active_primary_shards", 0);
+            builder.field("active_shards", 0);
+            builder.field("relocating_shards", 0);
+            builder.field("initializing_shards", 0);
+            builder.field("unassigned_shards", 0);
+            builder.field("delayed_unassigned_shards", 0);
+            builder.field("number_of_pending_tasks", 0);
+            builder.field("number_of_in_flight_fetch", 0);
+            builder.field("task_max_waiting_in_queue_millis", 0);
+            builder.field("active_shards_percent_as_number", 100.0);
+            builder.endObject();
+        }
+        return body.toByteArray();
+    }
+
+    private static byte[] acknowledged() throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (XContentBuilder builder = XContentFactory.jsonBuilder(body)) {
+            builder.startObject().field("acknowledged", true).endObject();
+        }
+        return body.toByteArray();
+    }
+
+    private static byte[] error(int status, String type, String reason) throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (XContentBuilder builder = XContentFactory.jsonBuilder(body)) {
+            builder.startObject();
+            builder.startObject("error");
+            builder.startArray("root_cause");
+            builder.startObject().field("type", type).field("reason", reason).endObject();
+            builder.endArray();
+            builder.field("type", type);
+            builder.field("reason", reason);
+            builder.endObject();
+            builder.field("status", status);
+            builder.endObject();
+        }
+        return body.toByteArray();
+    }
+
+    private static List<String> readLines(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        final String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        if ("gzip".equalsIgnoreCase(contentEncoding)) {
+            in = new GZIPInputStream(in);
+        }
+        final List<String> lines = new ArrayList<>();
+        try (BufferedReader reader =
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static Map<String, Object> parse(String line) {
+        return XContentHelper.convertToMap(XContentType.JSON.xContent(), line, false);
+    }
+
+    @Nullable
+    private static String getMetadata(
+            Map<String, Object> metadata, String field, @Nullable String defaultValue) {
+        final Object value = metadata.get(field);
+        return value != null ? value.toString() : defaultValue;
+    }
+
+    private static void sendResponse(HttpExchange exchange, int status, @Nullable byte[] body)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.getResponseHeaders().set("X-elastic-product", "Elasticsearch");
+        if (body == null) {
+            // the server may close the connection after a response without body
+            exchange.getResponseHeaders().set("Connection", "close");
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sleep(long nanos) throws InterruptedException {
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    //  Builder
+    // ------------------------------------------------------------------------
+
+    /** Builder for {@link MockElasticsearchServer}. */
+    public static class Builder {
+
+        private String version = "7.10.2";
+        private Duration requestLatency = Duration.ZERO;
+        private Duration itemLatency = Duration.ZERO;
+        private double requestRejectionRate;
+        private double requestErrorRate;
+        private double itemRejectionRate;
+        private double itemFailureRate;
+        @Nullable private ItemResponder itemResponder;
+        private boolean storeDocuments = true;
+        private long seed = 42L;
+        private int threads = 8;
+
+        private Builder() {}
+
+        /** Sets the version which is reported by the root info request. */
+        public Builder setVersion(String version) {
+            this.version = checkNotNull(version);
+            return this;
+        }
+
+        /** Sets the latency which is added to every bulk request. */
+        public Builder setRequestLatency(Duration requestLatency) {
+            checkArgument(!requestLatency.isNegative(), "Latency must not be negative.");
+            this.requestLatency = requestLatency;
+            return this;
+        }
+
+        /** Sets the latency which is added to a bulk request for each of its actions. */
+        public Builder setItemLatency(Duration itemLatency) {
+            checkArgument(!itemLatency.isNegative(), "Latency must not be negative.");
+            this.itemLatency = itemLatency;
+            return this;
+        }
+
+        /** Sets the rate of bulk requests which are rejected as a whole with status 429. */
+        public Builder setRequestRejectionRate(double requestRejectionRate) {
+            this.requestRejectionRate = checkRate(requestRejectionRate);
+            return this;
+        }
+
+        /** Sets the rate of bulk requests which fail as a whole with status 503. */
+        public Builder setRequestErrorRate(double requestErrorRate) {
+            this.requestErrorRate = checkRate(requestErrorRate);
+            return this;
+        }
+
+        /** Sets the rate of actions which are rejected with status 429. */
+        public Builder setItemRejectionRate(double itemRejectionRate) {
+            this.itemRejectionRate = checkRate(itemRejectionRate);
+            return this;
+        }
+
+        /** Sets the rate of actions which fail with status 400. */
+        public Builder setItemFailureRate(double itemFailureRate) {
+            this.itemFailureRate = checkRate(itemFailureRate);
+            return this;
+        }
+
+        /** Sets the responder which decides the status of every action before the rates. */
+        public Builder setItemResponder(ItemResponder itemResponder) {
+            this.itemResponder = checkNotNull(itemResponder);
+            return this;
+        }
+
+        /**
+         * Sets whether the documents are stored. Throughput tests should disable it to not measure
+         * the memory of the server.
+         */
+        public Builder setStoreDocuments(boolean storeDocuments) {
+            this.storeDocuments = storeDocuments;
+            return this;
+        }
+
+        /** Sets the seed of the random decisions. */
+        public Builder setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /** Sets the number of threads which handle requests concurrently. */
+        public Builder setThreads(int threads) {
+            checkArgument(threads > 0, "Number of threads must be larger than 0.");
+            this.threads = threads;
+            return this;
+        }
+
+        public MockElasticsearchServer start() throws IOException {
+            checkArgument(
+                    requestRejectionRate + requestErrorRate <= 1,
+                    "The rates of failing bulk requests must not add up to more than 1.");
+            checkArgument(
+                    itemRejectionRate + itemFailureRate <= 1,
+                    "The rates of failing actions must not add up to more than 1.");
+            return new MockElasticsearchServer(this);
+        }
+
+        private static double checkRate(double rate) {
+            checkArgument(rate >= 0 && rate <= 1, "Rate must be between 0 and 1.");
+            return rate;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.test;
+
+import org.apache.http.HttpHost;
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.rest.RestStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Tests for {@link MockElasticsearchServer}. */
+class MockElasticsearchServerTest {
+
+    private static final String INDEX = "test-index";
+
+    private MockElasticsearchServer server;
+    private RestHighLevelClient client;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void testInfoAndPing() throws Exception {
+        start(MockElasticsearchServer.builder().setVersion("7.10.2"));
+
+        assertThat(client.ping(RequestOptions.DEFAULT)).isTrue();
+        assertThat(client.info(RequestOptions.DEFAULT).getVersion().getNumber())
+                .isEqualTo("7.10.2");
+    }
+
+    @Test
+    void testBulkAppliesActions() throws Exception {
+        start(MockElasticsearchServer.builder());
+
+        final BulkRequest bulkRequest =
+                new BulkRequest()
+                        .add(new IndexRequest(INDEX).id("1").source("{\"a\":1}", XContentType.JSON))
+                        .add(new IndexRequest(INDEX).id("2").source("{\"a\":2}", XContentType.JSON))
+                        .add(
+                                new UpdateRequest(INDEX, "1")
+                                        .doc("{\"a\":3}", XContentType.JSON)
+                                        .docAsUpsert(true))
+                        .add(new DeleteRequest(INDEX, "2"))
+                        .add(new DeleteRequest(INDEX, "3"))
+                        .add(new IndexRequest(INDEX).source("{\"a\":4}", XContentType.JSON));
+        final BulkResponse response = client.bulk(bulkRequest, RequestOptions.DEFAULT);
+
+        assertThat(response.hasFailures()).isFalse();
+        assertThat(response.getItems())
+                .extracting(BulkItemResponse::status)
+                .containsExactly(
+                        RestStatus.CREATED,
+                        RestStatus.CREATED,
+                        RestStatus.OK,
+                        RestStatus.OK,
+                        RestStatus.NOT_FOUND,
+                        RestStatus.CREATED);
+        assertThat(server.getDocument(INDEX, "1")).contains("\"a\":3");
+        assertThat(server.getDocument(INDEX, "2")).isNull();
+        assertThat(server.getDocumentCount(INDEX)).isEqualTo(2);
+        assertThat(server.getBulkRequestCount()).isEqualTo(1);
+        assertThat(server.getAcknowledgedActionCount()).isEqualTo(6);
+    }
+
+    @Test
+    void testCreateConflict() throws Exception {
+        start(MockElasticsearchServer.builder());
+
+        final BulkRequest bulkRequest =
+                new BulkRequest()
+                        .add(
+                                new IndexRequest(INDEX)
+                                        .id("1")
+                                        .create(true)
+                                        .source("{\"a\":1}", XContentType.JSON))
+                        .add(
+                                new IndexRequest(INDEX)
+                                        .id("1")
+                                        .create(true)
+                                        .source("{\"a\":2}", XContentType.JSON));
+        final BulkResponse response = client.bulk(bulkRequest, RequestOptions.DEFAULT);
+
+        assertThat(response.getItems()[0].isFailed()).isFalse();
+        assertThat(response.getItems()[1].status()).isEqualTo(RestStatus.CONFLICT);
+        assertThat(server.getDocument(INDEX, "1")).contains("\"a\":1");
+    }
+
+    @Test
+    void testScriptedItemFailures() throws Exception {
+        start(
+                MockElasticsearchServer.builder()
+                        .setItemResponder((opType, index, id) -> "2".equals(id) ? 429 : 0));
+
+        final BulkRequest bulkRequest = new BulkRequest();
+        for (String id : Arrays.asList("1", "2", "3")) {
+            bulkRequest.add(new IndexRequest(INDEX).id(id).source("{}", XContentType.JSON));
+        }
+        final BulkResponse response = client.bulk(bulkRequest, RequestOptions.DEFAULT);
+
+        assertThat(response.getItems())
+                .extracting(BulkItemResponse::status)
+                .containsExactly(
+                        RestStatus.CREATED, RestStatus.TOO_MANY_REQUESTS, RestStatus.CREATED);
+        assertThat(server.getDocument(INDEX, "2")).isNull();
+        assertThat(server.getFailedActionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testItemRates() throws Exception {
+        start(MockElasticsearchServer.builder().setItemRejectionRate(1.0));
+
+        final BulkResponse response =
+                client.bulk(
+                        new BulkRequest()
+                                .add(
+                                        new IndexRequest(INDEX)
+                                                .id("1")
+                                                .source("{}", XContentType.JSON)),
+                        RequestOptions.DEFAULT);
+
+        assertThat(response.getItems()[0].status()).isEqualTo(RestStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getItems()[0].getFailureMessage())
+                .contains("es_rejected_execution_exception");
+    }
+
+    @Test
+    void testRejectedBulkRequest() throws Exception {
+        start(
+                MockElasticsearchServer.builder()
+                        .setRequestRejectionRate(1.0)
+                        .setRequestLatency(Duration.ofMillis(10)));
+
+        final BulkRequest bulkRequest =
+                new BulkRequest()
+                        .add(new IndexRequest(INDEX).id("1").source("{}", XContentType.JSON));
+
+        assertThatThrownBy(() -> client.bulk(bulkRequest, RequestOptions.DEFAULT))
+                .isInstanceOfSatisfying(
+                        ElasticsearchStatusException.class,
+                        e -> assertThat(e.status()).isEqualTo(RestStatus.TOO_MANY_REQUESTS));
+        assertThat(server.getRejectedBulkRequestCount()).isEqualTo(1);
+        assertThat(server.getReceivedActionCount()).isZero();
+    }
+
+    @Test
+    void testRejectActionsWithoutTypeOnElasticsearch6() throws Exception {
+        start(MockElasticsearchServer.builder().setVersion("6.8.20"));
+
+        final Request request = new Request("POST", "/_bulk");
+        request.setJsonEntity(
+                "{\"index\":{\"_index\":\""
+                        + INDEX
+                        + "\",\"_type\":\"_doc\",\"_id\":\"1\"}}\n"
+                        + "{}\n"
+                        + "{\"delete\":{\"_index\":\""
+                        + INDEX
+                        + "\",\"_id\":\"2\"}}\n");
+
+        assertThat(status(client.getLowLevelClient(), request)).isEqualTo(400);
+        assertThat(server.getDocumentCount(INDEX)).isZero();
+        assertThat(server.getReceivedActionCount()).isZero();
+
+        final Request typedRequest = new Request("POST", "/" + INDEX + "/_doc/_bulk");
+        typedRequest.setJsonEntity("{\"index\":{\"_id\":\"1\"}}\n{}\n");
+
+        assertThat(status(client.getLowLevelClient(), typedRequest)).isEqualTo(200);
+        assertThat(server.getDocumentCount(INDEX)).isEqualTo(1);
+    }
+
+    @Test
+    void testBulkLatency() throws Exception {
+        start(
+                MockElasticsearchServer.builder()
+                        .setStoreDocuments(false)
+                        .setItemLatency(Duration.ofMillis(5)));
+
+        final BulkRequest bulkRequest = new BulkRequest();
+        for (int i = 0; i < 4; i++) {
+            bulkRequest.add(new IndexRequest(INDEX).source("{}", XContentType.JSON));
+        }
+        client.bulk(bulkRequest, RequestOptions.DEFAULT);
+
+        assertThat(server.getBulkLatencyPercentile(99))
+                .isGreaterThanOrEqualTo(Duration.ofMillis(20));
+    }
+
+    @Test
+    void testIndexSettings() throws Exception {
+        start(MockElasticsearchServer.builder());
+        server.createIndex(INDEX, Collections.singletonMap("index.number_of_replicas", "1"));
+        final RestClient restClient = client.getLowLevelClient();
+
+        final Request put = new Request("PUT", "/" + INDEX + "/_settings");
+        put.setJsonEntity("{\"index.refresh_interval\":\"-1\",\"index.number_of_replicas\":null}");
+        restClient.performRequest(put);
+        restClient.performRequest(new Request("POST", "/" + INDEX + "/_refresh"));
+        restClient.performRequest(new Request("POST", "/" + INDEX + "/_forcemerge"));
+
+        assertThat(server.getIndexSettings(INDEX))
+                .isEqualTo(Collections.singletonMap("index.refresh_interval", "-1"));
+        assertThat(server.getRefreshCount(INDEX)).isEqualTo(1);
+        assertThat(server.getForceMergeCount(INDEX)).isEqualTo(1);
+        final Request get = new Request("GET", "/" + INDEX + ",missing/_settings");
+        get.addParameter("ignore_unavailable", "true");
+        assertThat(EntityUtils.toString(restClient.performRequest(get).getEntity()))
+                .isEqualTo(
+                        "{\"" + INDEX + "\":{\"settings\":{\"index.refresh_interval\":\"-1\"}}}");
+        assertThatThrownBy(
+                        () -> restClient.performRequest(new Request("POST", "/missing/_refresh")))
+                .isInstanceOfSatisfying(
+                        ResponseException.class,
+                        e ->
+                                assertThat(e.getResponse().getStatusLine().getStatusCode())
+                                        .isEqualTo(404));
+    }
+
+    @Test
+    void testIndicesAndAliases() throws Exception {
+        start(MockElasticsearchServer.builder());
+        server.createIndex(INDEX, Collections.emptyMap());
+        server.addAlias("alias", INDEX);
+        final RestClient restClient = client.getLowLevelClient();
+
+        restClient.performRequest(new Request("PUT", "/new-index"));
+        assertThat(status(restClient, new Request("HEAD", "/new-index"))).isEqualTo(200);
+        assertThat(status(restClient, new Request("HEAD", "/alias"))).isEqualTo(200);
+        assertThat(status(restClient, new Request("HEAD", "/missing"))).isEqualTo(404);
+        assertThat(status(restClient, new Request("PUT", "/new-index"))).isEqualTo(400);
+
+        final Request swap = new Request("POST", "/_aliases");
+        swap.setJsonEntity(
+                "{\"actions\":[{\"remove\":{\"index\":\""
+                        + INDEX
+                        + "\",\"alias\":\"alias\"}},"
+                        + "{\"add\":{\"index\":\"new-index\",\"alias\":\"alias\"}}]}");
+        restClient.performRequest(swap);
+        assertThat(server.getAliasIndices("alias")).containsExactly("new-index");
+        assertThat(
+                        EntityUtils.toString(
+                                restClient
+                                        .performRequest(new Request("GET", "/_alias/alias"))
+                                        .getEntity()))
+                .isEqualTo("{\"new-index\":{\"aliases\":{\"alias\":{}}}}");
+
+        // the failing remove action also rejects the add action
+        swap.setJsonEntity(
+                "{\"actions\":[{\"remove\":{\"index\":\""
+                        + INDEX
+                        + "\",\"alias\":\"alias\"}},"
+                        + "{\"add\":{\"index\":\""
+                        + INDEX
+                        + "\",\"alias\":\"other\"}}]}");
+        assertThat(status(restClient, swap)).isEqualTo(404);
+        assertThat(server.getAliasIndices("other")).isEmpty();
+
+        restClient.performRequest(new Request("DELETE", "/new-index"));
+        assertThat(server.hasIndex("new-index")).isFalse();
+        assertThat(status(restClient, new Request("GET", "/_alias/alias"))).isEqualTo(404);
+    }
+
+    @Test
+    void testResolveAliasesAndWildcards() throws Exception {
+        start(MockElasticsearchServer.builder());
+        server.createIndex(INDEX, Collections.emptyMap());
+        server.createIndex("test-other", Collections.emptyMap());
+        server.createIndex("other", Collections.emptyMap());
+        server.addAlias("alias", INDEX);
+        final RestClient restClient = client.getLowLevelClient();
+
+        client.bulk(
+                new BulkRequest()
+                        .add(
+                                new IndexRequest("alias")
+                                        .id("1")
+                                        .source("{\"value\":1}", XContentType.JSON)),
+                RequestOptions.DEFAULT);
+        assertThat(server.getDocumentCount(INDEX)).isEqualTo(1);
+
+        restClient.performRequest(new Request("POST", "/alias/_refresh"));
+        assertThat(server.getRefreshCount(INDEX)).isEqualTo(1);
+        assertThat(
+                        EntityUtils.toString(
+                                restClient
+                                        .performRequest(new Request("GET", "/test-*/_settings"))
+                                        .getEntity()))
+                .isEqualTo(
+                        "{\"" + INDEX + "\":{\"settings\":{}},\"test-other\":{\"settings\":{}}}");
+    }
+
+    private static int status(RestClient restClient, Request request) throws IOException {
+        try {
+            return restClient.performRequest(request).getStatusLine().getStatusCode();
+        } catch (ResponseException e) {
+            return e.getResponse().getStatusLine().getStatusCode();
+        }
+    }
+
+    private void start(MockElasticsearchServer.Builder builder) throws IOException {
+        server = builder.start();
+        client =
+                new RestHighLevelClient(
+                        RestClient.builder(HttpHost.create(server.getHttpHostAddress())));
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.benchmark;
+
+import org.apache.flink.api.connector.sink2.SinkWriter;
+import org.apache.flink.connector.elasticsearch.sink.RequestIndexer;
+
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link RequestIndexer} handing the emitted actions to a {@link Blackhole}, so that emitters can
+ * be measured without the costs of the writer.
+ */
+public class BlackholeRequestIndexer implements RequestIndexer {
+
+    public static final SinkWriter.Context CONTEXT =
+            new SinkWriter.Context() {
+                @Override
+                public long currentWatermark() {
+                    return 0;
+                }
+
+                @Override
+                public Long timestamp() {
+                    return null;
+                }
+            };
+
+    private final Blackhole blackhole;
+
+    public BlackholeRequestIndexer(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void add(DeleteRequest... deleteRequests) {
+        blackhole.consume(deleteRequests);
+    }
+
+    @Override
+    public void add(IndexRequest... indexRequests) {
+        blackhole.consume(indexRequests);
+    }
+
+    @Override
+    public void add(UpdateRequest... updateRequests) {
+        blackhole.consume(updateRequests);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.api.common.operators.MailboxExecutor;
+import org.apache.flink.api.connector.sink2.SinkWriter;
+import org.apache.flink.connector.elasticsearch.benchmark.BenchmarkBase;
+import org.apache.flink.metrics.groups.UnregisteredMetricsGroup;
+import org.apache.flink.streaming.runtime.tasks.StreamTaskActionExecutor;
+import org.apache.flink.streaming.runtime.tasks.TestProcessingTimeService;
+import org.apache.flink.streaming.runtime.tasks.mailbox.MailboxExecutorImpl;
+import org.apache.flink.streaming.runtime.tasks.mailbox.TaskMailboxImpl;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BackoffPolicy;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.rest.RestStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Benchmarks the {@link ElasticsearchWriter} without network, from emitting the records over
+ * batching them into bulk requests up to extracting the failures of the bulk responses and
+ * completing the acknowledged actions. The bulk requests are answered immediately with a response
+ * in which the given share of the actions failed with a version conflict, which is dropped by the
+ * failure handler.
+ */
+public class ElasticsearchWriterBenchmark extends BenchmarkBase {
+
+    private static final int RECORDS_PER_INVOCATION = 1000;
+
+    private static final byte[] DOCUMENT =
+            ("{\"id\":42,\"tenant\":\"tenant-10\",\"name\":\"A product with a reasonably long "
+                            + "name 42\",\"price\":13.02,\"order_date\":\"2023-06-01\","
+                            + "\"ts\":\"2023-06-01T12:30:15.123Z\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"100", "1000"})
+    public int bulkFlushMaxActions;
+
+    /** Every n-th action of a bulk request fails, 0 if no action fails. */
+    @Param({"0", "10"})
+    public int failEvery;
+
+    private MailboxExecutor mailboxExecutor;
+    private ElasticsearchWriter<Integer> writer;
+
+    @Setup
+    public void setUp() {
+        mailboxExecutor =
+                new MailboxExecutorImpl(
+                        new TaskMailboxImpl(Thread.currentThread()),
+                        Integer.MAX_VALUE,
+                        StreamTaskActionExecutor.IMMEDIATE);
+        writer =
+                new ElasticsearchWriter<>(
+                        Collections.singletonList(new HttpHost("localhost", 9200)),
+                        new DocumentEmitter(),
+                        true,
+                        false,
+                        -1,
+                        BulkProcessorConfig.builder()
+                                .setBulkFlushMaxActions(bulkFlushMaxActions)
+                                .build(),
+                        new RespondingBulkProcessorBuilderFactory(failEvery),
+                        new BulkItemRetryConfig(
+                                FlushBackoffType.NONE, -1, -1, Collections.emptySet()),
+                        (action, failure, restStatusCode) ->
+                                restStatusCode == RestStatus.CONFLICT.getStatus()
+                                        ? BulkItemFailureHandler.Decision.DROP
+                                        : BulkItemFailureHandler.Decision.FAIL,
+                        null,
+                        null,
+                        new NetworkClientConfig(
+                                null, null, null, null, null, null, null, null, null, null, null,
+                                null, false),
+                        UnregisteredMetricsGroup.createSinkWriterMetricGroup(),
+                        mailboxExecutor,
+                        new TestProcessingTimeService(),
+                        Collections.emptyList());
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        writer.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS_PER_INVOCATION)
+    public void write() throws Exception {
+        for (int i = 0; i < RECORDS_PER_INVOCATION; i++) {
+            writer.write(i, null);
+        }
+        // handle the bulk responses, which were enqueued in the mailbox
+        while (mailboxExecutor.tryYield()) {}
+    }
+
+    private static class DocumentEmitter implements ElasticsearchEmitter<Integer> {
+
+        @Override
+        public void emit(Integer element, SinkWriter.Context context, RequestIndexer indexer) {
+            indexer.add(
+                    new IndexRequest("orders")
+                            .id(element.toString())
+                            .source(DOCUMENT, XContentType.JSON));
+        }
+    }
+
+    /** Answers the bulk requests in the calling thread without sending them. */
+    private static class RespondingBulkProcessorBuilderFactory
+            implements BulkProcessorBuilderFactory {
+
+        private final int failEvery;
+
+        RespondingBulkProcessorBuilderFactory(int failEvery) {
+            this.failEvery = failEvery;
+        }
+
+        @Override
+        public BulkProcessor.Builder apply(
+                RestHighLevelClient client,
+                BulkProcessorConfig bulkProcessorConfig,
+                BulkProcessor.Listener listener) {
+            final BulkProcessor.Builder builder = BulkProcessor.builder(this::respond, listener);
+            builder.setBulkActions(bulkProcessorConfig.getBulkFlushMaxActions());
+            builder.setBackoffPolicy(BackoffPolicy.noBackoff());
+            return builder;
+        }
+
+        private void respond(BulkRequest bulkRequest, ActionListener<BulkResponse> listener) {
+            final List<DocWriteRequest<?>> requests = bulkRequest.requests();
+            final BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+            for (int i = 0; i < requests.size(); i++) {
+                final DocWriteRequest<?> request = requests.get(i);
+                if (failEvery > 0 && i % failEvery == 0) {
+                    items[i] =
+                            new BulkItemResponse(
+                                    i,
+                                    request.opType(),
+                                    new BulkItemResponse.Failure(
+                                            request.index(),
+                                            request.type(),
+                                            request.id(),
+                                            new ElasticsearchStatusException(
+                                                    "version conflict", RestStatus.CONFLICT)));
+                } else {
+                    items[i] =
+                            new BulkItemResponse(
+                                    i,
+                                    request.opType(),
+                                    new IndexResponse(
+                                            new ShardId(request.index(), "_na_", 0),
+                                            request.type(),
+                                            request.id(),
+                                            1,
+                                            1,
+                                            1,
+                                            true));
+                }
+            }
+            listener.onResponse(new BulkResponse(items, 1));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.connector.elasticsearch.benchmark.BenchmarkBase;
+import org.apache.flink.connector.elasticsearch.benchmark.BlackholeRequestIndexer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Benchmarks the conversion of maps to Elasticsearch actions by the {@link
+ * MapElasticsearchEmitter}.
+ */
+public class MapElasticsearchEmitterBenchmark extends BenchmarkBase {
+
+    @Param({"true", "false"})
+    public boolean upsert;
+
+    @Param({"true", "false"})
+    public boolean dynamicIndex;
+
+    private MapElasticsearchEmitter emitter;
+    private BlackholeRequestIndexer indexer;
+    private Map<String, Object> document;
+
+    @Setup
+    public void setUp(Blackhole blackhole) throws Exception {
+        emitter =
+                new MapElasticsearchEmitter(
+                        dynamicIndex ? "tenant" : "orders",
+                        null,
+                        upsert ? "id" : null,
+                        dynamicIndex);
+        emitter.open();
+        indexer = new BlackholeRequestIndexer(blackhole);
+        document = new HashMap<>();
+        document.put("id", 42L);
+        document.put("tenant", "tenant-10");
+        document.put("name", "A product with a reasonably long name 42");
+        document.put("price", 13.02);
+        document.put("order_date", "2023-06-01");
+        document.put("ts", "2023-06-01T12:30:15.123Z");
+    }
+
+    @Benchmark
+    public void emit() {
+        emitter.emit(document, BlackholeRequestIndexer.CONTEXT, indexer);
+    }
+}
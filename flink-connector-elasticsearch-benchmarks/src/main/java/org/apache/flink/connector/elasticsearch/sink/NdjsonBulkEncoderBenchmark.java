@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.connector.elasticsearch.benchmark.BenchmarkBase;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Benchmarks the construction of the NDJSON body of a bulk request by the {@link
+ * NdjsonBulkEncoder}, which is used by the sink instead of the request converters of the client.
+ */
+public class NdjsonBulkEncoderBenchmark extends BenchmarkBase {
+
+    private static final byte[] DOCUMENT =
+            ("{\"id\":42,\"tenant\":\"tenant-10\",\"name\":\"A product with a reasonably long "
+                            + "name 42\",\"price\":13.02,\"order_date\":\"2023-06-01\","
+                            + "\"ts\":\"2023-06-01T12:30:15.123Z\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+
+    @Param({"INDEX", "UPDATE", "DELETE"})
+    public DocWriteRequest.OpType opType;
+
+    @Param({"100", "1000"})
+    public int numActions;
+
+    private BulkRequest bulkRequest;
+    private BulkBodyBuffer buffer;
+
+    @Setup
+    public void setUp() {
+        bulkRequest = new BulkRequest();
+        for (int i = 0; i < numActions; i++) {
+            bulkRequest.add(createAction(String.valueOf(i)));
+        }
+        buffer = new BulkBodyBuffer(1024);
+    }
+
+    private DocWriteRequest<?> createAction(String id) {
+        switch (opType) {
+            case UPDATE:
+                return new UpdateRequest("orders", id)
+                        .doc(DOCUMENT, XContentType.JSON)
+                        .upsert(DOCUMENT, XContentType.JSON);
+            case DELETE:
+                return new DeleteRequest("orders", id);
+            default:
+                return new IndexRequest("orders").id(id).source(DOCUMENT, XContentType.JSON);
+        }
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        // the buffer is reused by the sink for subsequent bulk requests as well
+        buffer.reset();
+        NdjsonBulkEncoder.encode(bulkRequest, NdjsonBulkEncoder.ApiVersion.V7, buffer);
+        return buffer.size();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.table;
+
+import org.apache.flink.table.api.DataTypes;
+import org.apache.flink.table.data.DecimalData;
+import org.apache.flink.table.data.GenericRowData;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
+import org.apache.flink.table.data.TimestampData;
+import org.apache.flink.table.types.DataType;
+import org.apache.flink.table.types.logical.RowType;
+import org.apache.flink.types.RowKind;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/** Schema and rows of the table benchmarks, resembling a typical change log of orders. */
+final class BenchmarkRows {
+
+    static final DataType PHYSICAL_ROW_DATA_TYPE =
+            DataTypes.ROW(
+                    DataTypes.FIELD("id", DataTypes.BIGINT().notNull()),
+                    DataTypes.FIELD("tenant", DataTypes.STRING()),
+                    DataTypes.FIELD("name", DataTypes.STRING()),
+                    DataTypes.FIELD("price", DataTypes.DECIMAL(10, 2)),
+                    DataTypes.FIELD("order_date", DataTypes.DATE()),
+                    DataTypes.FIELD("order_time", DataTypes.TIME()),
+                    DataTypes.FIELD("ts", DataTypes.TIMESTAMP(3)),
+                    DataTypes.FIELD("ts_ltz", DataTypes.TIMESTAMP_LTZ(3)));
+
+    static final RowType ROW_TYPE = (RowType) PHYSICAL_ROW_DATA_TYPE.getLogicalType();
+
+    static final List<String> FIELD_NAMES = DataType.getFieldNames(PHYSICAL_ROW_DATA_TYPE);
+
+    static final List<DataType> FIELD_DATA_TYPES =
+            DataType.getFieldDataTypes(PHYSICAL_ROW_DATA_TYPE);
+
+    private BenchmarkRows() {}
+
+    /** Returns the primary key of the given comma separated field names. */
+    static List<LogicalTypeWithIndex> primaryKey(String fieldNames) {
+        return Arrays.stream(fieldNames.split(","))
+                .map(
+                        name -> {
+                            final int index = FIELD_NAMES.indexOf(name);
+                            return new LogicalTypeWithIndex(
+                                    index, FIELD_DATA_TYPES.get(index).getLogicalType());
+                        })
+                .collect(Collectors.toList());
+    }
+
+    static RowData createRow(RowKind kind, long id) {
+        final LocalDateTime timestamp = LocalDateTime.of(2023, 6, 1, 12, 30, 15, 123_000_000);
+        return GenericRowData.ofKind(
+                kind,
+                id,
+                StringData.fromString("tenant-" + (id % 16)),
+                StringData.fromString("A product with a reasonably long name " + id),
+                DecimalData.fromBigDecimal(BigDecimal.valueOf(id * 31, 2), 10, 2),
+                (int) LocalDate.of(2023, 6, 1).toEpochDay(),
+                (int) (LocalTime.of(12, 30, 15).toNanoOfDay() / 1_000_000L),
+                TimestampData.fromLocalDateTime(timestamp),
+                TimestampData.fromEpochMillis(1685622615123L));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.table;
+
+import org.apache.flink.connector.elasticsearch.benchmark.BenchmarkBase;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.types.RowKind;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.time.ZoneId;
+
+/**
+ * Benchmarks every variant of the {@link IndexGenerator}s created by the {@link
+ * IndexGeneratorFactory}: static indices, indices derived from a field and indices derived from a
+ * formatted date, time or timestamp field or from the system time.
+ */
+public class IndexGeneratorBenchmark extends BenchmarkBase {
+
+    @Param({
+        "orders",
+        "orders-{tenant}",
+        "orders-{id}",
+        "orders-{order_date|yyyy-MM-dd}",
+        "orders-{order_time|HH}",
+        "orders-{ts|yyyy-MM-dd}",
+        "orders-{ts_ltz|yyyy-MM-dd}",
+        "orders-{now()|yyyy-MM-dd}"
+    })
+    public String index;
+
+    private IndexGenerator indexGenerator;
+    private RowData row;
+
+    @Setup
+    public void setUp() {
+        indexGenerator =
+                IndexGeneratorFactory.createIndexGenerator(
+                        index,
+                        BenchmarkRows.FIELD_NAMES,
+                        BenchmarkRows.FIELD_DATA_TYPES,
+                        ZoneId.of("UTC"));
+        indexGenerator.open();
+        row = BenchmarkRows.createRow(RowKind.INSERT, 42);
+    }
+
+    @Benchmark
+    public String generateIndex() {
+        return indexGenerator.generate(row);
+    }
+}
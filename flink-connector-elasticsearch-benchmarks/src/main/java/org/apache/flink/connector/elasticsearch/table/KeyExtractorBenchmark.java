@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.table;
+
+import org.apache.flink.connector.elasticsearch.benchmark.BenchmarkBase;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.types.RowKind;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.util.function.Function;
+
+/** Benchmarks the creation of document ids from the primary key of a row. */
+public class KeyExtractorBenchmark extends BenchmarkBase {
+
+    @Param({"id", "tenant", "id,tenant", "tenant,order_date,ts"})
+    public String primaryKey;
+
+    private Function<RowData, String> keyExtractor;
+    private RowData row;
+
+    @Setup
+    public void setUp() {
+        keyExtractor = KeyExtractor.createKeyExtractor(BenchmarkRows.primaryKey(primaryKey), "_");
+        row = BenchmarkRows.createRow(RowKind.INSERT, 42);
+    }
+
+    @Benchmark
+    public String extractKey() {
+        return keyExtractor.apply(row);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.table;
+
+import org.apache.flink.connector.elasticsearch.benchmark.BenchmarkBase;
+import org.apache.flink.connector.elasticsearch.benchmark.BlackholeRequestIndexer;
+import org.apache.flink.formats.common.TimestampFormat;
+import org.apache.flink.formats.json.JsonFormatOptions;
+import org.apache.flink.formats.json.JsonRowDataSerializationSchema;
+import org.apache.flink.table.data.RowData;
+import org.apache.flink.types.RowKind;
+
+import org.elasticsearch.common.xcontent.XContentType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.ZoneId;
+import java.util.Collections;
+
+/**
+ * Benchmarks the conversion of rows to Elasticsearch actions, including the JSON serialization of
+ * the row, the creation of the document id and the generation of the index.
+ */
+public class RowElasticsearchEmitterBenchmark extends BenchmarkBase {
+
+    /**
+     * Keyed rows are written as updates in upsert mode, rows without key as index requests with
+     * generated or content hash ids.
+     */
+    @Param({"UPSERT", "DOC_AS_UPSERT", "INDEX", "APPEND", "CONTENT_HASH"})
+    public String mode;
+
+    private RowElasticsearchEmitter emitter;
+    private BlackholeRequestIndexer indexer;
+    private RowData insertRow;
+    private RowData deleteRow;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        final boolean keyed = !"APPEND".equals(mode) && !"CONTENT_HASH".equals(mode);
+        emitter =
+                new RowElasticsearchEmitter(
+                        IndexGeneratorFactory.createIndexGenerator(
+                                "orders-{tenant}",
+                                BenchmarkRows.FIELD_NAMES,
+                                BenchmarkRows.FIELD_DATA_TYPES,
+                                ZoneId.of("UTC")),
+                        new JsonRowDataSerializationSchema(
+                                BenchmarkRows.ROW_TYPE,
+                                TimestampFormat.ISO_8601,
+                                JsonFormatOptions.MapNullKeyMode.FAIL,
+                                "null",
+                                false),
+                        XContentType.JSON,
+                        null,
+                        KeyExtractor.createKeyExtractor(
+                                keyed ? BenchmarkRows.primaryKey("id") : Collections.emptyList(),
+                                "_"),
+                        "INDEX".equals(mode) ? WriteMode.INDEX : WriteMode.UPSERT,
+                        "DOC_AS_UPSERT".equals(mode),
+                        "CONTENT_HASH".equals(mode));
+        emitter.open();
+        indexer = new BlackholeRequestIndexer(blackhole);
+        insertRow = BenchmarkRows.createRow(RowKind.INSERT, 42);
+        deleteRow = BenchmarkRows.createRow(RowKind.DELETE, 42);
+    }
+
+    @Benchmark
+    public void emitInsert() {
+        emitter.emit(insertRow, BlackholeRequestIndexer.CONTEXT, indexer);
+    }
+
+    @Benchmark
+    public void emitDelete() {
+        emitter.emit(deleteRow, BlackholeRequestIndexer.CONTEXT, indexer);
+    }
+}
@@ -131,6 +131,13 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
             throw new ValidationException(
                     "Dynamic indexing based on system time only works on append only stream.");
         }
+        if (config.getWriteMode() == ElasticsearchConnectorOptions.WriteMode.CREATE
+                && !requestedMode.containsOnly(RowKind.INSERT)) {
+            throw new ValidationException(
+                    String.format(
+                            "Write mode '%s' only works on append only stream.",
+                            ElasticsearchConnectorOptions.WriteMode.CREATE));
+        }
         return builder.build();
     }
 
@@ -148,7 +155,9 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
                             format,
                             XContentType.JSON,
                             REQUEST_FACTORY,
-                            KeyExtractor.createKeyExtractor(schema, config.getKeyDelimiter()));
+                            KeyExtractor.createKeyExtractor(schema, config.getKeyDelimiter()),
+                            config.getWriteMode(),
+                            config.isDocAsUpsert());
 
             final ElasticsearchSink.Builder<RowData> builder =
                     builderProvider.createBuilder(config.getHosts(), upsertFunction);
@@ -172,10 +181,12 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
                         new AuthRestClientFactory(
                                 config.getPathPrefix().orElse(null),
                                 config.getUsername().get(),
-                                config.getPassword().get()));
+                                config.getPassword().get(),
+                                config.getHttpClientConfig()));
             } else {
                 builder.setRestClientFactory(
-                        new DefaultRestClientFactory(config.getPathPrefix().orElse(null)));
+                        new DefaultRestClientFactory(
+                                config.getPathPrefix().orElse(null), config.getHttpClientConfig()));
             }
 
             final ElasticsearchSink<RowData> sink = builder.build();
@@ -203,9 +214,12 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
     static class DefaultRestClientFactory implements RestClientFactory {
 
         private final String pathPrefix;
+        private final HttpClientConfig httpClientConfig;
 
-        public DefaultRestClientFactory(@Nullable String pathPrefix) {
+        public DefaultRestClientFactory(
+                @Nullable String pathPrefix, HttpClientConfig httpClientConfig) {
             this.pathPrefix = pathPrefix;
+            this.httpClientConfig = httpClientConfig;
         }
 
         @Override
@@ -213,6 +227,7 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
             if (pathPrefix != null) {
                 restClientBuilder.setPathPrefix(pathPrefix);
             }
+            restClientBuilder.setHttpClientConfigCallback(httpClientConfig::configure);
         }
 
         @Override
@@ -224,12 +239,13 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
                 return false;
             }
             DefaultRestClientFactory that = (DefaultRestClientFactory) o;
-            return Objects.equals(pathPrefix, that.pathPrefix);
+            return Objects.equals(pathPrefix, that.pathPrefix)
+                    && Objects.equals(httpClientConfig, that.httpClientConfig);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(pathPrefix);
+            return Objects.hash(pathPrefix, httpClientConfig);
         }
     }
 
@@ -240,13 +256,18 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
         private final String pathPrefix;
         private final String username;
         private final String password;
+        private final HttpClientConfig httpClientConfig;
         private transient CredentialsProvider credentialsProvider;
 
         public AuthRestClientFactory(
-                @Nullable String pathPrefix, String username, String password) {
+                @Nullable String pathPrefix,
+                String username,
+                String password,
+                HttpClientConfig httpClientConfig) {
             this.pathPrefix = pathPrefix;
             this.password = password;
             this.username = username;
+            this.httpClientConfig = httpClientConfig;
         }
 
         @Override
@@ -261,8 +282,9 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
             }
             restClientBuilder.setHttpClientConfigCallback(
                     httpAsyncClientBuilder ->
-                            httpAsyncClientBuilder.setDefaultCredentialsProvider(
-                                    credentialsProvider));
+                            httpClientConfig.configure(
+                                    httpAsyncClientBuilder.setDefaultCredentialsProvider(
+                                            credentialsProvider)));
         }
 
         @Override
@@ -276,12 +298,13 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
             AuthRestClientFactory that = (AuthRestClientFactory) o;
             return Objects.equals(pathPrefix, that.pathPrefix)
                     && Objects.equals(username, that.username)
-                    && Objects.equals(password, that.password);
+                    && Objects.equals(password, that.password)
+                    && Objects.equals(httpClientConfig, that.httpClientConfig);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(pathPrefix, username, password);
+            return Objects.hash(pathPrefix, username, password, httpClientConfig);
         }
     }
 
@@ -302,6 +325,18 @@ final class Elasticsearch6DynamicSink implements DynamicTableSink {
                     .upsert(document, contentType);
         }
 
+        @Override
+        public UpdateRequest createDocAsUpsertRequest(
+                String index,
+                String docType,
+                String key,
+                XContentType contentType,
+                byte[] document) {
+            return new UpdateRequest(index, docType, key)
+                    .doc(document, contentType)
+                    .docAsUpsert(true);
+        }
+
         @Override
         public IndexRequest createIndexRequest(
                 String index,
@@ -47,8 +47,13 @@ import static org.apache.flink.streaming.connectors.elasticsearch.table.Elastics
 import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_BACKOFF_TYPE_OPTION;
 import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_INTERVAL_OPTION;
 import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.BULK_FLUSH_MAX_ACTIONS_OPTION;
+import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_IO_THREAD_COUNT_OPTION;
+import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_KEEP_ALIVE_OPTION;
+import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_MAX_PER_ROUTE_OPTION;
+import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_MAX_TOTAL_OPTION;
 import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.CONNECTION_PATH_PREFIX;
 import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.DOCUMENT_TYPE_OPTION;
+import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.DOC_AS_UPSERT_OPTION;
 import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.FAILURE_HANDLER_OPTION;
 import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.FLUSH_ON_CHECKPOINT_OPTION;
 import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.FORMAT_OPTION;
@@ -56,7 +61,10 @@ import static org.apache.flink.streaming.connectors.elasticsearch.table.Elastics
 import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.INDEX_OPTION;
 import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.KEY_DELIMITER_OPTION;
 import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.PASSWORD_OPTION;
+import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.SOCKET_RECEIVE_BUFFER_SIZE_OPTION;
+import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.SOCKET_SEND_BUFFER_SIZE_OPTION;
 import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.USERNAME_OPTION;
+import static org.apache.flink.streaming.connectors.elasticsearch.table.ElasticsearchConnectorOptions.WRITE_MODE_OPTION;
 
 /** A {@link DynamicTableSinkFactory} for discovering {@link Elasticsearch6DynamicSink}. */
 @Internal
@@ -68,6 +76,8 @@ public class Elasticsearch6DynamicSinkFactory implements DynamicTableSinkFactory
                             KEY_DELIMITER_OPTION,
                             FAILURE_HANDLER_OPTION,
                             FLUSH_ON_CHECKPOINT_OPTION,
+                            WRITE_MODE_OPTION,
+                            DOC_AS_UPSERT_OPTION,
                             BULK_FLASH_MAX_SIZE_OPTION,
                             BULK_FLUSH_MAX_ACTIONS_OPTION,
                             BULK_FLUSH_INTERVAL_OPTION,
@@ -75,6 +85,12 @@ public class Elasticsearch6DynamicSinkFactory implements DynamicTableSinkFactory
                             BULK_FLUSH_BACKOFF_MAX_RETRIES_OPTION,
                             BULK_FLUSH_BACKOFF_DELAY_OPTION,
                             CONNECTION_PATH_PREFIX,
+                            CONNECTION_MAX_PER_ROUTE_OPTION,
+                            CONNECTION_MAX_TOTAL_OPTION,
+                            CONNECTION_IO_THREAD_COUNT_OPTION,
+                            CONNECTION_KEEP_ALIVE_OPTION,
+                            SOCKET_SEND_BUFFER_SIZE_OPTION,
+                            SOCKET_RECEIVE_BUFFER_SIZE_OPTION,
                             FORMAT_OPTION,
                             PASSWORD_OPTION,
                             USERNAME_OPTION)
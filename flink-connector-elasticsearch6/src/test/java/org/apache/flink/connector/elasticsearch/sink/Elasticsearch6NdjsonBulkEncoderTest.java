@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.VersionType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Tests the {@link NdjsonBulkEncoder} against the high-level client of Elasticsearch 6. */
+class Elasticsearch6NdjsonBulkEncoderTest {
+
+    @Test
+    void testSameBodyAsHighLevelClient() throws Exception {
+        final BulkRequest request =
+                new BulkRequest()
+                        .add(
+                                new IndexRequest("index", "_doc", "1")
+                                        .routing("r")
+                                        .version(3)
+                                        .versionType(VersionType.EXTERNAL)
+                                        .setPipeline("p")
+                                        .source("{\"data\":1}", XContentType.JSON))
+                        .add(
+                                new IndexRequest("index", "_doc")
+                                        .opType(DocWriteRequest.OpType.CREATE)
+                                        .source("{\"data\":2}", XContentType.JSON))
+                        .add(
+                                new UpdateRequest("index", "_doc", "3")
+                                        .doc("{\"data\":3}", XContentType.JSON)
+                                        .upsert("{\"data\":0}", XContentType.JSON)
+                                        .fetchSource(true)
+                                        .retryOnConflict(2))
+                        .add(
+                                new DeleteRequest("index", "_doc", "4")
+                                        .setIfSeqNo(5)
+                                        .setIfPrimaryTerm(1));
+
+        final String body = NdjsonBulkEncoderTest.encode(request, NdjsonBulkEncoder.ApiVersion.V6);
+
+        assertThat(body).contains("\"_type\":\"_doc\"");
+        assertThat(body).isEqualTo(NdjsonBulkEncoderTest.encodeWithHighLevelClient(request));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.api.common.restartstrategy.RestartStrategies;
+import org.apache.flink.connector.elasticsearch.test.MockElasticsearchServer;
+import org.apache.flink.runtime.testutils.MiniClusterResourceConfiguration;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.test.junit5.MiniClusterExtension;
+import org.apache.flink.util.TestLoggerExtension;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.Requests;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests compressed bulk requests of the {@link Elasticsearch6SinkBuilder} against a {@link
+ * MockElasticsearchServer} that validates the bulk metadata like Elasticsearch 6.
+ */
+@ExtendWith(TestLoggerExtension.class)
+class Elasticsearch6SinkCompressionITCase {
+
+    private static final String INDEX = "compressed";
+    private static final int NUM_RECORDS = 1000;
+
+    @RegisterExtension
+    private static final MiniClusterExtension MINI_CLUSTER_RESOURCE =
+            new MiniClusterExtension(
+                    new MiniClusterResourceConfiguration.Builder()
+                            .setNumberTaskManagers(1)
+                            .setNumberSlotsPerTaskManager(2)
+                            .build());
+
+    private MockElasticsearchServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = MockElasticsearchServer.builder().setVersion("6.8.20").start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testGzipCompression(boolean directBulkEncoding) throws Exception {
+        final StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+        env.setParallelism(2);
+        env.setRestartStrategy(RestartStrategies.noRestart());
+        env.fromSequence(1, NUM_RECORDS)
+                .sinkTo(
+                        new Elasticsearch6SinkBuilder<Long>()
+                                .setHosts(HttpHost.create(server.getHttpHostAddress()))
+                                .setEmitter(
+                                        (element, context, indexer) ->
+                                                indexer.add(
+                                                        Requests.indexRequest()
+                                                                .index(INDEX)
+                                                                .type("_doc")
+                                                                .id(element.toString())
+                                                                .source(
+                                                                        Collections.singletonMap(
+                                                                                "value", element))))
+                                .setBulkFlushMaxActions(100)
+                                .setConnectionCompression(CompressionType.GZIP)
+                                .setDirectBulkEncoding(directBulkEncoding)
+                                .build());
+        env.execute("Compressed bulk requests");
+
+        assertThat(server.getDocumentCount(INDEX)).isEqualTo(NUM_RECORDS);
+        assertThat(server.getRejectedBulkRequestCount()).isZero();
+    }
+}
@@ -28,23 +28,32 @@ import org.apache.flink.streaming.connectors.elasticsearch.util.NoOpFailureHandl
 import org.apache.flink.streaming.connectors.elasticsearch6.ElasticsearchSink;
 import org.apache.flink.table.api.DataTypes;
 import org.apache.flink.table.api.TableSchema;
+import org.apache.flink.table.api.ValidationException;
 import org.apache.flink.table.connector.ChangelogMode;
 import org.apache.flink.table.connector.format.EncodingFormat;
 import org.apache.flink.table.connector.sink.DynamicTableSink;
+import org.apache.flink.table.data.GenericRowData;
 import org.apache.flink.table.data.RowData;
+import org.apache.flink.table.data.StringData;
 import org.apache.flink.table.types.DataType;
 import org.apache.flink.table.types.logical.LogicalType;
 import org.apache.flink.util.TestLogger;
 
 import org.apache.http.HttpHost;
 import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.update.UpdateRequest;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -92,7 +101,8 @@ public class Elasticsearch6DynamicSinkTest extends TestLogger {
         verify(provider.builderSpy).setBulkFlushMaxSizeMb(1);
         verify(provider.builderSpy)
                 .setRestClientFactory(
-                        new Elasticsearch6DynamicSink.DefaultRestClientFactory("/myapp"));
+                        new Elasticsearch6DynamicSink.DefaultRestClientFactory(
+                                "/myapp", HttpClientConfig.defaults()));
         verify(provider.sinkSpy).disableFlushOnCheckpoint();
     }
 
@@ -124,7 +134,9 @@ public class Elasticsearch6DynamicSinkTest extends TestLogger {
         verify(provider.builderSpy).setBulkFlushMaxActions(1000);
         verify(provider.builderSpy).setBulkFlushMaxSizeMb(2);
         verify(provider.builderSpy)
-                .setRestClientFactory(new Elasticsearch6DynamicSink.DefaultRestClientFactory(null));
+                .setRestClientFactory(
+                        new Elasticsearch6DynamicSink.DefaultRestClientFactory(
+                                null, HttpClientConfig.defaults()));
         verify(provider.sinkSpy, never()).disableFlushOnCheckpoint();
     }
 
@@ -160,10 +172,124 @@ public class Elasticsearch6DynamicSinkTest extends TestLogger {
         verify(provider.builderSpy)
                 .setRestClientFactory(
                         new Elasticsearch6DynamicSink.AuthRestClientFactory(
-                                null, USERNAME, PASSWORD));
+                                null, USERNAME, PASSWORD, HttpClientConfig.defaults()));
         verify(provider.sinkSpy, never()).disableFlushOnCheckpoint();
     }
 
+    @Test
+    public void testHttpClientConfig() {
+        final TableSchema schema = createTestSchema();
+        Configuration configuration = new Configuration();
+        configuration.setString(ElasticsearchConnectorOptions.INDEX_OPTION.key(), INDEX);
+        configuration.setString(ElasticsearchConnectorOptions.DOCUMENT_TYPE_OPTION.key(), DOC_TYPE);
+        configuration.setString(
+                ElasticsearchConnectorOptions.HOSTS_OPTION.key(),
+                SCHEMA + "://" + HOSTNAME + ":" + PORT);
+        configuration.setString(
+                ElasticsearchConnectorOptions.CONNECTION_MAX_PER_ROUTE_OPTION.key(), "16");
+        configuration.setString(
+                ElasticsearchConnectorOptions.CONNECTION_MAX_TOTAL_OPTION.key(), "64");
+        configuration.setString(
+                ElasticsearchConnectorOptions.CONNECTION_IO_THREAD_COUNT_OPTION.key(), "2");
+        configuration.setString(
+                ElasticsearchConnectorOptions.CONNECTION_KEEP_ALIVE_OPTION.key(), "1 min");
+        configuration.setString(
+                ElasticsearchConnectorOptions.SOCKET_SEND_BUFFER_SIZE_OPTION.key(), "64kb");
+        configuration.setString(
+                ElasticsearchConnectorOptions.SOCKET_RECEIVE_BUFFER_SIZE_OPTION.key(), "128kb");
+
+        BuilderProvider provider = new BuilderProvider();
+        final Elasticsearch6DynamicSink testSink =
+                new Elasticsearch6DynamicSink(
+                        new DummyEncodingFormat(),
+                        new Elasticsearch6Configuration(
+                                configuration, this.getClass().getClassLoader()),
+                        schema,
+                        ZoneId.systemDefault(),
+                        provider);
+
+        testSink.getSinkRuntimeProvider(new MockSinkContext()).createSinkFunction();
+
+        verify(provider.builderSpy)
+                .setRestClientFactory(
+                        new Elasticsearch6DynamicSink.DefaultRestClientFactory(
+                                null,
+                                new HttpClientConfig(16, 64, 2, 60_000L, 64 * 1024, 128 * 1024)));
+    }
+
+    @Test
+    public void testDocAsUpsert() {
+        final TableSchema schema =
+                TableSchema.builder()
+                        .field(FIELD_KEY, DataTypes.BIGINT().notNull())
+                        .field(FIELD_FRUIT_NAME, DataTypes.STRING())
+                        .primaryKey(FIELD_KEY)
+                        .build();
+        Configuration configuration = new Configuration();
+        configuration.setString(ElasticsearchConnectorOptions.INDEX_OPTION.key(), INDEX);
+        configuration.setString(ElasticsearchConnectorOptions.DOCUMENT_TYPE_OPTION.key(), DOC_TYPE);
+        configuration.setString(
+                ElasticsearchConnectorOptions.HOSTS_OPTION.key(),
+                SCHEMA + "://" + HOSTNAME + ":" + PORT);
+        configuration.setString(ElasticsearchConnectorOptions.DOC_AS_UPSERT_OPTION.key(), "true");
+
+        BuilderProvider provider = new BuilderProvider();
+        final Elasticsearch6DynamicSink testSink =
+                new Elasticsearch6DynamicSink(
+                        new DummyEncodingFormat(),
+                        new Elasticsearch6Configuration(
+                                configuration, this.getClass().getClassLoader()),
+                        schema,
+                        ZoneId.systemDefault(),
+                        provider);
+
+        testSink.getSinkRuntimeProvider(new MockSinkContext()).createSinkFunction();
+
+        final RequestIndexer indexer = Mockito.mock(RequestIndexer.class);
+        provider.sinkFunction.process(
+                GenericRowData.of(1L, StringData.fromString("apple")), null, indexer);
+
+        final ArgumentCaptor<UpdateRequest> captor = ArgumentCaptor.forClass(UpdateRequest.class);
+        verify(indexer).add(captor.capture());
+        assertThat(captor.getValue().id()).isEqualTo("1");
+        assertThat(captor.getValue().docAsUpsert()).isTrue();
+        assertThat(captor.getValue().upsertRequest()).isNull();
+    }
+
+    @Test
+    public void testCreateWriteMode() {
+        Configuration configuration = new Configuration();
+        configuration.setString(ElasticsearchConnectorOptions.INDEX_OPTION.key(), INDEX);
+        configuration.setString(ElasticsearchConnectorOptions.DOCUMENT_TYPE_OPTION.key(), DOC_TYPE);
+        configuration.setString(
+                ElasticsearchConnectorOptions.HOSTS_OPTION.key(),
+                SCHEMA + "://" + HOSTNAME + ":" + PORT);
+        configuration.setString(ElasticsearchConnectorOptions.WRITE_MODE_OPTION.key(), "create");
+
+        BuilderProvider provider = new BuilderProvider();
+        final Elasticsearch6DynamicSink testSink =
+                new Elasticsearch6DynamicSink(
+                        new DummyEncodingFormat(),
+                        new Elasticsearch6Configuration(
+                                configuration, this.getClass().getClassLoader()),
+                        createTestSchema(),
+                        ZoneId.systemDefault(),
+                        provider);
+
+        assertThatThrownBy(() -> testSink.getChangelogMode(ChangelogMode.upsert()))
+                .isInstanceOf(ValidationException.class);
+
+        testSink.getSinkRuntimeProvider(new MockSinkContext()).createSinkFunction();
+
+        final RequestIndexer indexer = Mockito.mock(RequestIndexer.class);
+        provider.sinkFunction.process(
+                GenericRowData.of(1L, StringData.fromString("apple"), null, null), null, indexer);
+
+        final ArgumentCaptor<IndexRequest> captor = ArgumentCaptor.forClass(IndexRequest.class);
+        verify(indexer).add(captor.capture());
+        assertThat(captor.getValue().opType()).isEqualTo(DocWriteRequest.OpType.CREATE);
+    }
+
     private Configuration getConfig() {
         Configuration configuration = new Configuration();
         configuration.setString(ElasticsearchConnectorOptions.INDEX_OPTION.key(), INDEX);
@@ -197,10 +323,12 @@ public class Elasticsearch6DynamicSinkTest extends TestLogger {
             implements Elasticsearch6DynamicSink.ElasticSearchBuilderProvider {
         public ElasticsearchSink.Builder<RowData> builderSpy;
         public ElasticsearchSink<RowData> sinkSpy;
+        public RowElasticsearchSinkFunction sinkFunction;
 
         @Override
         public ElasticsearchSink.Builder<RowData> createBuilder(
                 List<HttpHost> httpHosts, RowElasticsearchSinkFunction upsertSinkFunction) {
+            sinkFunction = upsertSinkFunction;
             builderSpy =
                     Mockito.spy(new ElasticsearchSink.Builder<>(httpHosts, upsertSinkFunction));
             doAnswer(
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.annotation.PublicEvolving;
+
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.io.stream.StreamInput;
+
+import java.io.IOException;
+
+/**
+ * Builder to construct an Elasticsearch 7 compatible {@link ElasticsearchAsyncSink}.
+ *
+ * <p>The following example shows the minimal setup to create a ElasticsearchAsyncSink that submits
+ * bulk requests of at most 1000 actions and keeps at most 4 bulk requests in flight.
+ *
+ * <pre>{@code
+ * ElasticsearchAsyncSink<String> sink = new Elasticsearch7AsyncSinkBuilder<String>()
+ *     .setHosts(new HttpHost("localhost:9200")
+ *     .setEmitter((element, context, indexer) -> {
+ *          indexer.add(
+ *              new IndexRequest("my-index")
+ *              .id(element.f0.toString())
+ *              .source(element.f1)
+ *          );
+ *      })
+ *     .setMaxBatchSize(1000)
+ *     .setMaxInFlightRequests(4)
+ *     .build();
+ * }</pre>
+ *
+ * @param <IN> type of the records converted to Elasticsearch actions
+ */
+@PublicEvolving
+public class Elasticsearch7AsyncSinkBuilder<IN>
+        extends ElasticsearchAsyncSinkBuilderBase<IN, Elasticsearch7AsyncSinkBuilder<IN>> {
+
+    public Elasticsearch7AsyncSinkBuilder() {}
+
+    @Override
+    public <T extends IN> Elasticsearch7AsyncSinkBuilder<T> setEmitter(
+            ElasticsearchEmitter<? super T> emitter) {
+        super.<T>setEmitter(emitter);
+        return self();
+    }
+
+    @Override
+    protected ElasticsearchAsyncApiCallBridge getApiCallBridge() {
+        return new ElasticsearchAsyncApiCallBridge() { // This cannot be inlined as a lambda
+            // because then deserialization fails
+            @Override
+            public void bulkAsync(
+                    RestHighLevelClient client,
+                    BulkRequest bulkRequest,
+                    ActionListener<BulkResponse> listener) {
+                client.bulkAsync(bulkRequest, RequestOptions.DEFAULT, listener);
+            }
+
+            @Override
+            public DocWriteRequest<?> readDocumentRequest(StreamInput in) throws IOException {
+                return DocWriteRequest.readDocumentRequest(null, in);
+            }
+        };
+    }
+}
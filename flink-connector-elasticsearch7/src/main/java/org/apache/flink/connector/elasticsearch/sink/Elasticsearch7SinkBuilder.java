@@ -20,15 +20,18 @@ package org.apache.flink.connector.elasticsearch.sink;
 import org.apache.flink.annotation.PublicEvolving;
 
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.bulk.BackoffPolicy;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
-import org.elasticsearch.common.unit.TimeValue;
+
+import java.io.IOException;
 
 /**
  * Builder to construct an Elasticsearch 7 compatible {@link ElasticsearchSink}.
@@ -72,23 +75,35 @@ public class Elasticsearch7SinkBuilder<IN>
                     RestHighLevelClient client,
                     BulkProcessorConfig bulkProcessorConfig,
                     BulkProcessor.Listener listener) {
-                BulkProcessor.Builder builder =
-                        BulkProcessor.builder(
-                                new BulkRequestConsumerFactory() { // This cannot be inlined as a
-                                    // lambda because then
-                                    // deserialization fails
-                                    @Override
-                                    public void accept(
-                                            BulkRequest bulkRequest,
-                                            ActionListener<BulkResponse>
-                                                    bulkResponseActionListener) {
-                                        client.bulkAsync(
-                                                bulkRequest,
-                                                RequestOptions.DEFAULT,
-                                                bulkResponseActionListener);
-                                    }
-                                },
-                                listener);
+                final BulkRequestConsumerFactory highLevelConsumer =
+                        new BulkRequestConsumerFactory() { // This cannot be inlined as a lambda
+                            // because then deserialization fails
+                            @Override
+                            public void accept(
+                                    BulkRequest bulkRequest,
+                                    ActionListener<BulkResponse> bulkResponseActionListener) {
+                                client.bulkAsync(
+                                        bulkRequest,
+                                        RequestOptions.DEFAULT,
+                                        bulkResponseActionListener);
+                            }
+                        };
+                BulkRequestConsumerFactory consumer =
+                        bulkProcessorConfig.isDirectBulkEncoding()
+                                        || bulkProcessorConfig.isCompressionEnabled()
+                                ? new RestClientBulkRequestConsumer(
+                                        client.getLowLevelClient(),
+                                        highLevelConsumer,
+                                        NdjsonBulkEncoder.ApiVersion.V7,
+                                        bulkProcessorConfig,
+                                        listener)
+                                : highLevelConsumer;
+                if (bulkProcessorConfig.isShardRouting()) {
+                    consumer =
+                            new ShardRoutingBulkRequestConsumer(
+                                    client.getLowLevelClient(), consumer);
+                }
+                BulkProcessor.Builder builder = BulkProcessor.builder(consumer, listener);
 
                 if (bulkProcessorConfig.getBulkFlushMaxActions() != -1) {
                     builder.setBulkActions(bulkProcessorConfig.getBulkFlushMaxActions());
@@ -100,34 +115,22 @@ public class Elasticsearch7SinkBuilder<IN>
                                     bulkProcessorConfig.getBulkFlushMaxMb(), ByteSizeUnit.MB));
                 }
 
-                if (bulkProcessorConfig.getBulkFlushInterval() != -1) {
-                    builder.setFlushInterval(
-                            new TimeValue(bulkProcessorConfig.getBulkFlushInterval()));
-                }
-
-                BackoffPolicy backoffPolicy;
-                final TimeValue backoffDelay =
-                        new TimeValue(bulkProcessorConfig.getBulkFlushBackOffDelay());
-                final int maxRetryCount = bulkProcessorConfig.getBulkFlushBackoffRetries();
-                switch (bulkProcessorConfig.getFlushBackoffType()) {
-                    case CONSTANT:
-                        backoffPolicy = BackoffPolicy.constantBackoff(backoffDelay, maxRetryCount);
-                        break;
-                    case EXPONENTIAL:
-                        backoffPolicy =
-                                BackoffPolicy.exponentialBackoff(backoffDelay, maxRetryCount);
-                        break;
-                    case NONE:
-                        backoffPolicy = BackoffPolicy.noBackoff();
-                        break;
-                    default:
-                        throw new IllegalArgumentException(
-                                "Received unknown backoff policy type "
-                                        + bulkProcessorConfig.getFlushBackoffType());
-                }
-                builder.setBackoffPolicy(backoffPolicy);
+                // The bulk flush interval and the backoff of rejected actions are driven by the
+                // writer's processing time timers, so the bulk processor needs no scheduler thread
+                builder.setBackoffPolicy(BackoffPolicy.noBackoff());
                 return builder;
             }
         };
     }
+
+    @Override
+    protected DocWriteRequestReader getDocWriteRequestReader() {
+        return new DocWriteRequestReader() { // This cannot be inlined as a lambda because then
+            // deserialization fails
+            @Override
+            public DocWriteRequest<?> readDocumentRequest(StreamInput in) throws IOException {
+                return DocWriteRequest.readDocumentRequest(null, in);
+            }
+        };
+    }
 }
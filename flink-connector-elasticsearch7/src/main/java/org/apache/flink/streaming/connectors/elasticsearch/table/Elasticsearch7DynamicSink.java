@@ -126,6 +126,13 @@ final class Elasticsearch7DynamicSink implements DynamicTableSink {
             throw new ValidationException(
                     "Dynamic indexing based on system time only works on append only stream.");
         }
+        if (config.getWriteMode() == ElasticsearchConnectorOptions.WriteMode.CREATE
+                && !requestedMode.containsOnly(RowKind.INSERT)) {
+            throw new ValidationException(
+                    String.format(
+                            "Write mode '%s' only works on append only stream.",
+                            ElasticsearchConnectorOptions.WriteMode.CREATE));
+        }
         return builder.build();
     }
 
@@ -143,7 +150,9 @@ final class Elasticsearch7DynamicSink implements DynamicTableSink {
                             format,
                             XContentType.JSON,
                             REQUEST_FACTORY,
-                            KeyExtractor.createKeyExtractor(schema, config.getKeyDelimiter()));
+                            KeyExtractor.createKeyExtractor(schema, config.getKeyDelimiter()),
+                            config.getWriteMode(),
+                            config.isDocAsUpsert());
 
             final ElasticsearchSink.Builder<RowData> builder =
                     builderProvider.createBuilder(config.getHosts(), upsertFunction);
@@ -167,10 +176,12 @@ final class Elasticsearch7DynamicSink implements DynamicTableSink {
                         new AuthRestClientFactory(
                                 config.getPathPrefix().orElse(null),
                                 config.getUsername().get(),
-                                config.getPassword().get()));
+                                config.getPassword().get(),
+                                config.getHttpClientConfig()));
             } else {
                 builder.setRestClientFactory(
-                        new DefaultRestClientFactory(config.getPathPrefix().orElse(null)));
+                        new DefaultRestClientFactory(
+                                config.getPathPrefix().orElse(null), config.getHttpClientConfig()));
             }
 
             final ElasticsearchSink<RowData> sink = builder.build();
@@ -198,9 +209,12 @@ final class Elasticsearch7DynamicSink implements DynamicTableSink {
     static class DefaultRestClientFactory implements RestClientFactory {
 
         private final String pathPrefix;
+        private final HttpClientConfig httpClientConfig;
 
-        public DefaultRestClientFactory(@Nullable String pathPrefix) {
+        public DefaultRestClientFactory(
+                @Nullable String pathPrefix, HttpClientConfig httpClientConfig) {
             this.pathPrefix = pathPrefix;
+            this.httpClientConfig = httpClientConfig;
         }
 
         @Override
@@ -208,6 +222,7 @@ final class Elasticsearch7DynamicSink implements DynamicTableSink {
             if (pathPrefix != null) {
                 restClientBuilder.setPathPrefix(pathPrefix);
             }
+            restClientBuilder.setHttpClientConfigCallback(httpClientConfig::configure);
         }
 
         @Override
@@ -219,12 +234,13 @@ final class Elasticsearch7DynamicSink implements DynamicTableSink {
                 return false;
             }
             DefaultRestClientFactory that = (DefaultRestClientFactory) o;
-            return Objects.equals(pathPrefix, that.pathPrefix);
+            return Objects.equals(pathPrefix, that.pathPrefix)
+                    && Objects.equals(httpClientConfig, that.httpClientConfig);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(pathPrefix);
+            return Objects.hash(pathPrefix, httpClientConfig);
         }
     }
 
@@ -235,13 +251,18 @@ final class Elasticsearch7DynamicSink implements DynamicTableSink {
         private final String pathPrefix;
         private final String username;
         private final String password;
+        private final HttpClientConfig httpClientConfig;
         private transient CredentialsProvider credentialsProvider;
 
         public AuthRestClientFactory(
-                @Nullable String pathPrefix, String username, String password) {
+                @Nullable String pathPrefix,
+                String username,
+                String password,
+                HttpClientConfig httpClientConfig) {
             this.pathPrefix = pathPrefix;
             this.password = password;
             this.username = username;
+            this.httpClientConfig = httpClientConfig;
         }
 
         @Override
@@ -256,8 +277,9 @@ final class Elasticsearch7DynamicSink implements DynamicTableSink {
             }
             restClientBuilder.setHttpClientConfigCallback(
                     httpAsyncClientBuilder ->
-                            httpAsyncClientBuilder.setDefaultCredentialsProvider(
-                                    credentialsProvider));
+                            httpClientConfig.configure(
+                                    httpAsyncClientBuilder.setDefaultCredentialsProvider(
+                                            credentialsProvider)));
         }
 
         @Override
@@ -271,12 +293,13 @@ final class Elasticsearch7DynamicSink implements DynamicTableSink {
             AuthRestClientFactory that = (AuthRestClientFactory) o;
             return Objects.equals(pathPrefix, that.pathPrefix)
                     && Objects.equals(username, that.username)
-                    && Objects.equals(password, that.password);
+                    && Objects.equals(password, that.password)
+                    && Objects.equals(httpClientConfig, that.httpClientConfig);
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(pathPrefix, password, username);
+            return Objects.hash(pathPrefix, password, username, httpClientConfig);
         }
     }
 
@@ -297,6 +320,16 @@ final class Elasticsearch7DynamicSink implements DynamicTableSink {
                     .upsert(document, contentType);
         }
 
+        @Override
+        public UpdateRequest createDocAsUpsertRequest(
+                String index,
+                String docType,
+                String key,
+                XContentType contentType,
+                byte[] document) {
+            return new UpdateRequest(index, key).doc(document, contentType).docAsUpsert(true);
+        }
+
         @Override
         public IndexRequest createIndexRequest(
                 String index,
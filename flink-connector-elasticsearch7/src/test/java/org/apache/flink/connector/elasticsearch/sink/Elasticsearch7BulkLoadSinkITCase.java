@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.api.common.RuntimeExecutionMode;
+import org.apache.flink.api.common.restartstrategy.RestartStrategies;
+import org.apache.flink.connector.elasticsearch.test.MockElasticsearchServer;
+import org.apache.flink.runtime.testutils.CommonTestUtils;
+import org.apache.flink.runtime.testutils.MiniClusterResourceConfiguration;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.test.junit5.MiniClusterExtension;
+import org.apache.flink.util.TestLoggerExtension;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.Requests;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Tests the {@link ElasticsearchBulkLoadSink} against a {@link MockElasticsearchServer}. */
+@ExtendWith(TestLoggerExtension.class)
+class Elasticsearch7BulkLoadSinkITCase {
+
+    private static final String INDEX = "bulk-load";
+    private static final String ALIAS = "bulk-load-alias";
+    private static final String WRITE_ALIAS = "bulk-load-alias-writer";
+    private static final int NUM_RECORDS = 1000;
+
+    @RegisterExtension
+    private static final MiniClusterExtension MINI_CLUSTER_RESOURCE =
+            new MiniClusterExtension(
+                    new MiniClusterResourceConfiguration.Builder()
+                            .setNumberTaskManagers(1)
+                            .setNumberSlotsPerTaskManager(2)
+                            .build());
+
+    private static volatile Map<String, String> settingsDuringLoad;
+
+    private MockElasticsearchServer server;
+    private Map<String, String> originalSettings;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        settingsDuringLoad = null;
+        server =
+                MockElasticsearchServer.builder()
+                        .setItemResponder(
+                                (opType, index, id) -> {
+                                    if (settingsDuringLoad == null) {
+                                        settingsDuringLoad = server.getIndexSettings(index);
+                                    }
+                                    return 0;
+                                })
+                        .start();
+        originalSettings = new HashMap<>();
+        originalSettings.put("index.refresh_interval", "5s");
+        originalSettings.put("index.number_of_replicas", "1");
+        server.createIndex(INDEX, originalSettings);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+            value = RuntimeExecutionMode.class,
+            names = {"STREAMING", "BATCH"})
+    void testBulkLoad(RuntimeExecutionMode mode) throws Exception {
+        final StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+        env.setParallelism(2);
+        env.setRuntimeMode(mode);
+        env.setRestartStrategy(RestartStrategies.noRestart());
+        env.fromSequence(1, NUM_RECORDS).sinkTo(createSink(Long.MAX_VALUE));
+        env.execute("Bulk load");
+
+        assertThat(server.getDocumentCount(INDEX)).isEqualTo(NUM_RECORDS);
+        assertThat(settingsDuringLoad).isEqualTo(suspendedSettings());
+        assertThat(server.getRefreshCount(INDEX)).isEqualTo(1);
+        assertThat(server.getForceMergeCount(INDEX)).isEqualTo(1);
+        CommonTestUtils.waitUntilCondition(
+                () -> server.getIndexSettings(INDEX).equals(originalSettings));
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+            value = RuntimeExecutionMode.class,
+            names = {"STREAMING", "BATCH"})
+    void testRestoreSettingsOnFailure(RuntimeExecutionMode mode) throws Exception {
+        final StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+        env.setParallelism(2);
+        env.setRuntimeMode(mode);
+        env.setRestartStrategy(RestartStrategies.noRestart());
+        env.fromSequence(1, NUM_RECORDS).sinkTo(createSink(NUM_RECORDS / 2));
+
+        assertThatThrownBy(() -> env.execute("Failing bulk load"))
+                .hasStackTraceContaining("Expected failure");
+        CommonTestUtils.waitUntilCondition(
+                () -> server.getIndexSettings(INDEX).equals(originalSettings));
+        assertThat(server.getRefreshCount(INDEX)).isZero();
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+            value = RuntimeExecutionMode.class,
+            names = {"STREAMING", "BATCH"})
+    void testSwapAlias(RuntimeExecutionMode mode) throws Exception {
+        server.addAlias(ALIAS, INDEX);
+        final StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+        env.setParallelism(2);
+        env.setRuntimeMode(mode);
+        env.setRestartStrategy(RestartStrategies.noRestart());
+        env.fromSequence(1, NUM_RECORDS)
+                .sinkTo(
+                        createSinkBuilder(WRITE_ALIAS, Long.MAX_VALUE)
+                                .buildAliasSwap(ALIAS, WRITE_ALIAS, -1, true));
+        env.execute("Alias swap");
+
+        // the job only finishes once the alias is swapped
+        assertThat(server.getAliasIndices(ALIAS)).hasSize(1);
+        final String generation = server.getAliasIndices(ALIAS).iterator().next();
+        assertThat(generation).matches(ALIAS + "-\\d{17}");
+        assertThat(server.getAliasIndices(WRITE_ALIAS)).isEmpty();
+        assertThat(server.hasIndex(INDEX)).isFalse();
+        assertThat(server.getDocumentCount(generation)).isEqualTo(NUM_RECORDS);
+        assertThat(settingsDuringLoad).isEqualTo(suspendedSettings());
+        assertThat(server.getIndexSettings(generation)).isEmpty();
+        assertThat(server.getRefreshCount(generation)).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(
+            value = RuntimeExecutionMode.class,
+            names = {"STREAMING", "BATCH"})
+    void testKeepAliasOnFailure(RuntimeExecutionMode mode) throws Exception {
+        server.addAlias(ALIAS, INDEX);
+        final StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+        env.setParallelism(2);
+        env.setRuntimeMode(mode);
+        env.setRestartStrategy(RestartStrategies.noRestart());
+        env.fromSequence(1, NUM_RECORDS)
+                .sinkTo(
+                        createSinkBuilder(WRITE_ALIAS, NUM_RECORDS / 2)
+                                .buildAliasSwap(ALIAS, WRITE_ALIAS, -1, true));
+
+        assertThatThrownBy(() -> env.execute("Failing alias swap"))
+                .hasStackTraceContaining("Expected failure");
+        // the write alias still points to the partially loaded index
+        assertThat(server.getAliasIndices(WRITE_ALIAS)).hasSize(1);
+        final String generation = server.getAliasIndices(WRITE_ALIAS).iterator().next();
+        CommonTestUtils.waitUntilCondition(() -> server.getIndexSettings(generation).isEmpty());
+        assertThat(server.getAliasIndices(ALIAS)).containsExactly(INDEX);
+        assertThat(server.getIndexSettings(INDEX)).isEqualTo(originalSettings);
+    }
+
+    private static Map<String, String> suspendedSettings() {
+        final Map<String, String> settings = new HashMap<>();
+        settings.put("index.refresh_interval", "-1");
+        settings.put("index.number_of_replicas", "0");
+        return settings;
+    }
+
+    private ElasticsearchBulkLoadSink<Long> createSink(long failingElement) {
+        return createSinkBuilder(INDEX, failingElement)
+                .buildBulkLoad(Collections.singletonList(INDEX), 1);
+    }
+
+    private Elasticsearch7SinkBuilder<Long> createSinkBuilder(String index, long failingElement) {
+        return new Elasticsearch7SinkBuilder<Long>()
+                .setHosts(HttpHost.create(server.getHttpHostAddress()))
+                .setEmitter(
+                        (element, context, indexer) -> {
+                            if (element == failingElement) {
+                                throw new IllegalStateException("Expected failure");
+                            }
+                            indexer.add(
+                                    Requests.indexRequest()
+                                            .index(index)
+                                            .id(element.toString())
+                                            .source(Collections.singletonMap("value", element)));
+                        })
+                .setBulkFlushMaxActions(100);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.flink.connector.elasticsearch.sink;
+
+import org.apache.flink.api.common.restartstrategy.RestartStrategies;
+import org.apache.flink.connector.elasticsearch.test.MockElasticsearchServer;
+import org.apache.flink.runtime.testutils.MiniClusterResourceConfiguration;
+import org.apache.flink.streaming.api.datastream.DataStream;
+import org.apache.flink.streaming.api.environment.StreamExecutionEnvironment;
+import org.apache.flink.streaming.connectors.elasticsearch.ElasticsearchSinkBase;
+import org.apache.flink.streaming.connectors.elasticsearch.util.RetryRejectedExecutionFailureHandler;
+import org.apache.flink.test.junit5.MiniClusterExtension;
+import org.apache.flink.util.TestLoggerExtension;
+import org.apache.flink.util.function.ThrowingConsumer;
+
+import org.apache.http.HttpHost;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.Requests;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput harness which runs the {@link ElasticsearchSink} and the legacy {@link
+ * ElasticsearchSinkBase} on a MiniCluster against a {@link MockElasticsearchServer} and reports the
+ * records per second, the p99 latency of the bulk requests as seen by the server and the GC time of
+ * the JVM on stdout.
+ *
+ * <p>The workload can be changed with the system properties {@code throughput.records}, {@code
+ * throughput.parallelism}, {@code throughput.bulk-latency-ms} and {@code
+ * throughput.item-rejection-rate}, e.g. {@code mvn verify -Dtest=Elasticsearch7SinkThroughputITCase
+ * -Dthroughput.records=10000000}.
+ */
+@ExtendWith(TestLoggerExtension.class)
+class Elasticsearch7SinkThroughputITCase {
+
+    private static final String INDEX = "throughput";
+    private static final long NUM_RECORDS =
+            Long.parseLong(System.getProperty("throughput.records", "200000"));
+    private static final int PARALLELISM =
+            Integer.parseInt(System.getProperty("throughput.parallelism", "2"));
+    private static final long BULK_LATENCY_MS =
+            Long.parseLong(System.getProperty("throughput.bulk-latency-ms", "2"));
+    private static final double ITEM_REJECTION_RATE =
+            Double.parseDouble(System.getProperty("throughput.item-rejection-rate", "0.001"));
+    private static final int BULK_FLUSH_MAX_ACTIONS = 1000;
+
+    @RegisterExtension
+    private static final MiniClusterExtension MINI_CLUSTER_RESOURCE =
+            new MiniClusterExtension(
+                    new MiniClusterResourceConfiguration.Builder()
+                            .setNumberTaskManagers(1)
+                            .setNumberSlotsPerTaskManager(PARALLELISM)
+                            .build());
+
+    private MockElasticsearchServer server;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server =
+                MockElasticsearchServer.builder()
+                        .setStoreDocuments(false)
+                        .setRequestLatency(Duration.ofMillis(BULK_LATENCY_MS))
+                        .setItemRejectionRate(ITEM_REJECTION_RATE)
+                        .setThreads(PARALLELISM * 2)
+                        .start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void testSinkThroughput() throws Exception {
+        final ElasticsearchSink<Long> sink =
+                new Elasticsearch7SinkBuilder<Long>()
+                        .setHosts(HttpHost.create(server.getHttpHostAddress()))
+                        .setEmitter(
+                                (element, context, indexer) -> indexer.add(createRequest(element)))
+                        .setBulkFlushMaxActions(BULK_FLUSH_MAX_ACTIONS)
+                        .setItemRetryStrategy(FlushBackoffType.EXPONENTIAL, 10, 10)
+                        .build();
+
+        runAndReport("ElasticsearchSink", stream -> stream.sinkTo(sink));
+    }
+
+    @Test
+    void testLegacySinkThroughput() throws Exception {
+        final org.apache.flink.streaming.connectors.elasticsearch7.ElasticsearchSink.Builder<Long>
+                builder =
+                        new org.apache.flink.streaming.connectors.elasticsearch7.ElasticsearchSink
+                                .Builder<>(
+                                Collections.singletonList(
+                                        HttpHost.create(server.getHttpHostAddress())),
+                                (element, context, indexer) -> indexer.add(createRequest(element)));
+        builder.setBulkFlushMaxActions(BULK_FLUSH_MAX_ACTIONS);
+        builder.setBulkFlushBackoff(true);
+        builder.setBulkFlushBackoffType(ElasticsearchSinkBase.FlushBackoffType.EXPONENTIAL);
+        builder.setBulkFlushBackoffRetries(10);
+        builder.setBulkFlushBackoffDelay(10);
+        builder.setFailureHandler(new RetryRejectedExecutionFailureHandler());
+        final ElasticsearchSinkBase<Long, ?> sink = builder.build();
+
+        runAndReport("ElasticsearchSinkBase", stream -> stream.addSink(sink));
+    }
+
+    private void runAndReport(
+            String name, ThrowingConsumer<DataStream<Long>, Exception> sinkAttacher)
+            throws Exception {
+        final StreamExecutionEnvironment env = StreamExecutionEnvironment.getExecutionEnvironment();
+        env.setParallelism(PARALLELISM);
+        env.setRestartStrategy(RestartStrategies.noRestart());
+        sinkAttacher.accept(env.fromSequence(1, NUM_RECORDS));
+
+        final long gcTimeBefore = getGcTimeMillis();
+        final long start = System.nanoTime();
+        env.execute(name + " throughput");
+        final long durationNanos = System.nanoTime() - start;
+        final long gcTimeMillis = getGcTimeMillis() - gcTimeBefore;
+
+        // printed as the test logging is disabled by default
+        System.out.printf(
+                "%s: %d records in %d ms, %d records/s, p99 bulk latency %d ms, "
+                        + "%d bulk requests, %d failed actions, GC time %d ms%n",
+                name,
+                NUM_RECORDS,
+                durationNanos / 1_000_000,
+                (long) (NUM_RECORDS * 1e9 / durationNanos),
+                server.getBulkLatencyPercentile(99).toMillis(),
+                server.getBulkRequestCount(),
+                server.getFailedActionCount(),
+                gcTimeMillis);
+
+        // every rejected action was retried until it was acknowledged
+        assertThat(server.getAcknowledgedActionCount()).isEqualTo(NUM_RECORDS);
+    }
+
+    private static IndexRequest createRequest(Long element) {
+        return Requests.indexRequest()
+                .index(INDEX)
+                .id(element.toString())
+                .source("value", element, "data", "message #" + element);
+    }
+
+    private static long getGcTimeMillis() {
+        long gcTime = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcTime += Math.max(gc.getCollectionTime(), 0);
+        }
+        return gcTime;
+    }
+}